@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package org.openrefine.benchmark;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.browsing.util.NumericBinRowIndex;
+import com.google.refine.browsing.util.RowEvaluable;
+import com.google.refine.browsing.util.TimeBinRowIndex;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Measures the construction of the base bins of range and timeline facets over a column of numbers or dates. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ */
+public class BinIndexBenchmark {
+
+    static final RowEvaluable CELL_VALUE = (project, rowIndex, row, bindings) -> row.getCellValue(0);
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "100000", "1000000" })
+        public int rowCount;
+
+        Project numbers;
+        Project dates;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random rnd = new Random(42);
+            numbers = new Project();
+            dates = new Project();
+            for (int i = 0; i != rowCount; i++) {
+                Row number = new Row(1);
+                number.setCell(0, new Cell(rnd.nextGaussian() * 1000, null));
+                numbers.rows.add(number);
+
+                Row date = new Row(1);
+                Instant instant = Instant.ofEpochSecond(rnd.nextInt(Integer.MAX_VALUE));
+                date.setCell(0, new Cell(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), null));
+                dates.rows.add(date);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public void numericBinIndex(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(new NumericBinRowIndex(plan.numbers, CELL_VALUE).getBins());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public void timeBinIndex(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(new TimeBinRowIndex(plan.dates, CELL_VALUE).getBins());
+    }
+}
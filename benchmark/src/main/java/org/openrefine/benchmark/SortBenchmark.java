@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.sorting.SortingConfig;
+import com.google.refine.sorting.SortingRowVisitor;
+
+/**
+ * Measures sorting all rows of a project by a string or a number column, as done when reordering rows or showing a
+ * sorted grid. Run with {@code -prof gc} to compare the allocation rates.
+ */
+public class SortBenchmark {
+
+    static final String STRING_SORTING = "{\"criteria\":[{\"column\":\"s\",\"valueType\":\"string\","
+            + "\"reverse\":false,\"blankPosition\":1,\"errorPosition\":2,\"caseSensitive\":false}]}";
+    static final String NUMBER_SORTING = "{\"criteria\":[{\"column\":\"n\",\"valueType\":\"number\","
+            + "\"reverse\":true,\"blankPosition\":1,\"errorPosition\":2}]}";
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "100000", "1000000" })
+        public int rowCount;
+
+        Project project;
+        SortingConfig stringSorting;
+        SortingConfig numberSorting;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ModelException, IOException {
+            Random rnd = new Random(42);
+            project = new Project();
+            project.columnModel.addColumn(0, new Column(0, "s"), false);
+            project.columnModel.addColumn(1, new Column(1, "n"), false);
+            for (int i = 0; i != rowCount; i++) {
+                Row row = new Row(2);
+                row.setCell(0, new Cell("value " + rnd.nextInt(rowCount), null));
+                row.setCell(1, new Cell(rnd.nextGaussian() * 1000, null));
+                project.rows.add(row);
+            }
+            stringSorting = SortingConfig.reconstruct(STRING_SORTING);
+            numberSorting = SortingConfig.reconstruct(NUMBER_SORTING);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public void sortByString(ExecutionPlan plan, Blackhole blackhole) {
+        sort(plan.project, plan.stringSorting, blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+    @Fork(1)
+    public void sortByNumber(ExecutionPlan plan, Blackhole blackhole) {
+        sort(plan.project, plan.numberSorting, blackhole);
+    }
+
+    static void sort(Project project, SortingConfig sorting, Blackhole blackhole) {
+        SortingRowVisitor srv = new SortingRowVisitor(new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                blackhole.consume(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        srv.initializeFromConfig(project, sorting);
+        new Engine(project).getAllRows().accept(project, srv);
+    }
+}
@@ -35,6 +35,7 @@ package com.google.refine.commands.browsing;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -54,6 +55,8 @@ import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.facets.ScatterplotDrawingRowVisitor;
 import com.google.refine.browsing.facets.ScatterplotFacet;
 import com.google.refine.browsing.util.NumericBinIndex;
+import com.google.refine.browsing.util.NumericProjection;
+import com.google.refine.browsing.util.PlotImageCache;
 import com.google.refine.commands.Command;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
@@ -221,25 +224,40 @@ public class GetScatterplotCommand extends Command {
         }
 
         if (index_x != null && index_y != null && index_x.isNumeric() && index_y.isNumeric()) {
-            ScatterplotDrawingRowVisitor drawer = new ScatterplotDrawingRowVisitor(
-                    columnIndex_x, columnIndex_y, min_x, max_x, min_y, max_y,
-                    o.size, o.dim_x, o.dim_y, o.rotation, o.dot, color);
-
-            if (base_color != null) {
-                drawer.setColor(base_color);
-
-                FilteredRows filteredRows = engine.getAllRows();
-                filteredRows.accept(project, drawer);
-
-                drawer.setColor(color);
+            // plots are drawn again for each change to the facets, often with the same rows
+            // so they are cached, unless the rows or their coordinates can change without the project changing
+            boolean cacheable = engine.getConfig().isDeterministic() && eval_x != null && eval_x.isDeterministic()
+                    && eval_y != null && eval_y.isDeterministic();
+            String key = ParsingUtilities.mapper.writeValueAsString(o) + ParsingUtilities.mapper.writeValueAsString(engine.getConfig());
+            byte[] image = cacheable ? PlotImageCache.getImage(project, column_x, key) : null;
+            if (image == null) {
+                ScatterplotDrawingRowVisitor drawer = new ScatterplotDrawingRowVisitor(
+                        columnIndex_x, columnIndex_y, min_x, max_x, min_y, max_y,
+                        o.size, o.dim_x, o.dim_y, o.rotation, o.dot, color);
+                drawer.setValues(NumericProjection.getProjection(project, column_x), NumericProjection.getProjection(project, column_y));
+
+                if (base_color != null) {
+                    drawer.setColor(base_color);
+
+                    FilteredRows filteredRows = engine.getAllRows();
+                    filteredRows.accept(project, drawer);
+
+                    drawer.setColor(color);
+                }
+
+                {
+                    FilteredRows filteredRows = engine.getAllFilteredRows();
+                    filteredRows.accept(project, drawer);
+                }
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+                ImageIO.write(drawer.getImage(), "png", bytes);
+                image = bytes.toByteArray();
+                if (cacheable) {
+                    PlotImageCache.putImage(project, column_x, key, image);
+                }
             }
-
-            {
-                FilteredRows filteredRows = engine.getAllFilteredRows();
-                filteredRows.accept(project, drawer);
-            }
-
-            ImageIO.write(drawer.getImage(), "png", output);
+            output.write(image);
         } else {
             ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR), "png", output);
         }
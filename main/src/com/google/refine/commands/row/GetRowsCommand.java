@@ -34,17 +34,21 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.commands.row;
 
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.List;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.Engine.Mode;
@@ -53,16 +57,17 @@ import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.commands.Command;
+import com.google.refine.expr.EvalError;
 import com.google.refine.importing.ImportingJob;
 import com.google.refine.importing.ImportingManager;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
+import com.google.refine.sorting.SortedView;
 import com.google.refine.sorting.SortingConfig;
-import com.google.refine.sorting.SortingRecordVisitor;
-import com.google.refine.sorting.SortingRowVisitor;
-import com.google.refine.util.Pool;
+import com.google.refine.util.ParsingUtilities;
 
 /**
  * Retrieves rows from a project (or importing job).
@@ -70,106 +75,12 @@ import com.google.refine.util.Pool;
  * Those rows can be requested as either: - the batch of rows starting at a given index (included), up to a certain size
  * - the batch of rows ending at a given index (excluded), again up to a given size. Filters (defined by facets) and the
  * row/record mode toggle can also be provided.
+ * <p>
+ * The rows of the page are only referenced by their indices while they are selected, and are then written directly to
+ * the response, along with the recons they reference.
  */
 public class GetRowsCommand extends Command {
 
-    protected static class WrappedRow {
-
-        @JsonUnwrapped
-        protected final Row row;
-
-        /**
-         * The logical row index (meaning the one from the original, unsorted grid)
-         */
-        @JsonProperty("i")
-        protected final int rowIndex;
-        @JsonProperty("j")
-        @JsonInclude(Include.NON_NULL)
-        protected final Integer recordIndex;
-
-        /**
-         * The row index used for pagination (which can be different from the logical one if a temporary sort is
-         * applied)
-         */
-        @JsonProperty("k")
-        protected final int paginationIndex;
-
-        protected WrappedRow(Row rowOrRecord, int rowIndex, Integer recordIndex, int paginationIndex) {
-            this.row = rowOrRecord;
-            this.rowIndex = rowIndex;
-            this.recordIndex = recordIndex;
-            this.paginationIndex = paginationIndex;
-        }
-    }
-
-    protected static class JsonResult {
-
-        /**
-         * Mode of the engine (row or record based)
-         */
-        @JsonProperty("mode")
-        protected final Mode mode;
-        /**
-         * Rows in the view
-         */
-        @JsonProperty("rows")
-        protected final List<WrappedRow> rows;
-        /**
-         * Number of rows selected by the current filter
-         */
-        @JsonProperty("filtered")
-        protected final int filtered;
-        /**
-         * Total number of rows/records in the unfiltered grid
-         */
-        @JsonProperty("total")
-        protected final int totalCount;
-        /**
-         * Total number of rows in the unfiltered grid (needed to provide a link to the last page)
-         */
-        @JsonProperty("totalRows")
-        protected final int totalRows;
-
-        @JsonProperty("start")
-        @JsonInclude(Include.NON_NULL)
-        protected final Integer start;
-        @JsonProperty("end")
-        @JsonInclude(Include.NON_NULL)
-        protected final Integer end;
-        @JsonProperty("limit")
-        protected final int limit;
-        @JsonProperty("pool")
-        protected final Pool pool;
-
-        /**
-         * The value to use as 'end' when fetching the page before this one. Can be null if there is no such page.
-         */
-        @JsonProperty("previousPageEnd")
-        @JsonInclude(Include.NON_NULL)
-        protected final Integer previousPageEnd;
-        /**
-         * The value to use as 'start' when fetching the page after this one. Can be null if there is no such page.
-         */
-        @JsonProperty("nextPageStart")
-        @JsonInclude(Include.NON_NULL)
-        protected final Integer nextPageStart;
-
-        protected JsonResult(Mode mode, List<WrappedRow> rows, int filtered,
-                int totalCount, int totalRows, int start, int end, int limit, Pool pool, Integer previousPageEnd, Integer nextPageStart) {
-            this.mode = mode;
-            this.rows = rows;
-            this.filtered = filtered;
-            this.totalCount = totalCount;
-            this.totalRows = totalRows;
-            this.start = start == -1 ? null : start;
-            this.end = end == -1 ? null : end;
-            this.limit = limit;
-            this.pool = pool;
-            this.previousPageEnd = previousPageEnd;
-            this.nextPageStart = nextPageStart;
-        }
-    }
-
     /**
      * This command accepts both POST and GET. It is not CSRF-protected as it does not incur any state change.
      */
@@ -216,8 +127,6 @@ public class GetRowsCommand extends Command {
                 return;
             }
 
-            Pool pool = new Pool();
-
             RowWritingVisitor rwv = new RowWritingVisitor(start, end, limit);
 
             SortingConfig sortingConfig = null;
@@ -231,82 +140,203 @@ public class GetRowsCommand extends Command {
                 return;
             }
 
-            if (engine.getMode() == Mode.RowBased) {
+            if (sortingConfig != null && sortingConfig.getCriteria() != null && sortingConfig.getCriteria().length > 0) {
+                // the sorted order is cached across pages: only the rows of the page are visited.
+                // As records have at least one row, the page is within that many rows or records.
+                int depth = (int) Math.min(Integer.MAX_VALUE, start != -1 ? (long) start + limit : end);
+                SortedView sortedView = SortedView.getSortedView(project, engine, sortingConfig, depth);
+                rwv.visitPage(project, sortedView);
+            } else if (engine.getMode() == Mode.RowBased) {
                 FilteredRows filteredRows = engine.getAllFilteredRows();
-                RowVisitor visitor = rwv;
-
-                if (sortingConfig != null) {
-                    SortingRowVisitor srv = new SortingRowVisitor(visitor);
-
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
-                    }
-                }
-                filteredRows.accept(project, visitor);
+                filteredRows.accept(project, rwv);
             } else {
                 FilteredRecords filteredRecords = engine.getFilteredRecords();
-                RecordVisitor visitor = rwv;
+                filteredRecords.accept(project, rwv);
+            }
 
-                if (sortingConfig != null) {
-                    SortingRecordVisitor srv = new SortingRecordVisitor(visitor);
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Content-Type", "application/json");
+            Writer w = response.getWriter();
+            JsonGenerator generator = ParsingUtilities.mapper.getFactory().createGenerator(w);
+            writeResult(generator, project, engine.getMode(), rwv);
+            generator.close();
+            w.flush();
+            w.close();
+        } catch (IllegalJsonpException e2) {
+            respondNoJsonpException(request, response);
+        } catch (Exception e) {
+            respondException(response, e);
+        }
+    }
 
-                    srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
-                    }
+    static protected void writeResult(JsonGenerator generator, Project project, Mode mode, RowWritingVisitor rwv)
+            throws IOException {
+        generator.writeStartObject();
+        // mode of the engine (row or record based)
+        generator.writeStringField("mode", mode == Mode.RowBased ? Engine.MODE_ROW_BASED : Engine.MODE_RECORD_BASED);
+
+        // rows in the view, and the recons they reference
+        Map<Long, Recon> recons = new HashMap<>();
+        int lastPaginationIndex = -1;
+        generator.writeArrayFieldStart("rows");
+        for (int i = 0; i < rwv.size(); i++) {
+            int index = rwv.getIndex(i);
+            int paginationIndex = rwv.getPaginationIndex(i);
+            if (mode == Mode.RowBased) {
+                writeRow(generator, project.rows.get(index), index, -1, paginationIndex, recons);
+                lastPaginationIndex = paginationIndex;
+            } else {
+                Record record = project.recordModel.getRecord(index);
+                for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
+                    writeRow(generator, project.rows.get(r), r, r == record.fromRowIndex ? record.recordIndex : -1,
+                            paginationIndex + r - record.fromRowIndex, recons);
                 }
-                filteredRecords.accept(project, visitor);
+                lastPaginationIndex = paginationIndex + record.toRowIndex - record.fromRowIndex - 1;
             }
+        }
+        generator.writeEndArray();
+
+        // number of rows selected by the current filter
+        generator.writeNumberField("filtered", rwv.total);
+        // total number of rows/records in the unfiltered grid
+        generator.writeNumberField("total",
+                mode == Mode.RowBased ? project.rows.size() : project.recordModel.getRecordCount());
+        // total number of rows in the unfiltered grid (needed to provide a link to the last page)
+        generator.writeNumberField("totalRows", rwv.totalRows);
+        if (rwv.start != -1) {
+            generator.writeNumberField("start", rwv.start);
+        }
+        if (rwv.end != -1) {
+            generator.writeNumberField("end", rwv.end);
+        }
+        generator.writeNumberField("limit", rwv.limit);
 
-            // Pool all the recons occurring in the rows seen
-            for (WrappedRow wr : rwv.results) {
-                for (Cell c : wr.row.cells) {
-                    if (c != null && c.recon != null) {
-                        pool.pool(c.recon);
-                    }
-                }
+        generator.writeObjectFieldStart("pool");
+        generator.writeObjectFieldStart("recons");
+        for (Recon recon : recons.values()) {
+            generator.writeFieldName(Long.toString(recon.id));
+            ParsingUtilities.defaultWriter.writeValue(generator, recon);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+
+        // the values to use as 'end' when fetching the page before this one, and as 'start' when fetching the page
+        // after this one, if there are such pages
+        if (rwv.start != -1) {
+            if (rwv.start > 0) {
+                generator.writeNumberField("previousPageEnd", rwv.start);
             }
+            if (rwv.size() > 0) {
+                generator.writeNumberField("nextPageStart", lastPaginationIndex + 1);
+            }
+        } else {
+            if (rwv.size() > 0 && rwv.getPaginationIndex(0) > 0) {
+                generator.writeNumberField("previousPageEnd", rwv.getPaginationIndex(0));
+            }
+            generator.writeNumberField("nextPageStart", rwv.end);
+        }
+        generator.writeEndObject();
+    }
 
-            List<WrappedRow> wrappedRows = rwv.results;
-
-            // Compute the indices of the previous and next pages
-            Integer previousPageEnd = null;
-            Integer nextPageStart = null;
-            if (start != -1) {
-                if (start > 0) {
-                    previousPageEnd = start;
-                }
-                if (!wrappedRows.isEmpty()) {
-                    nextPageStart = wrappedRows.get(wrappedRows.size() - 1).paginationIndex + 1;
-                }
+    /**
+     * Writes a row as serialized by Jackson, with its logical row index "i" (the one from the original, unsorted grid),
+     * its record index "j" if it is the first row of a record, and the row index "k" used for pagination (which can be
+     * different from the logical one if a temporary sort is applied).
+     */
+    static protected void writeRow(JsonGenerator generator, Row row, int rowIndex, int recordIndex, int paginationIndex,
+            Map<Long, Recon> recons) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("flagged", row.flagged);
+        generator.writeBooleanField("starred", row.starred);
+        generator.writeArrayFieldStart("cells");
+        for (Cell cell : row.cells) {
+            if (cell == null) {
+                generator.writeNull();
             } else {
-                if (!wrappedRows.isEmpty() && wrappedRows.get(0).paginationIndex > 0) {
-                    previousPageEnd = wrappedRows.get(0).paginationIndex;
+                writeCell(generator, cell);
+                if (cell.recon != null) {
+                    recons.putIfAbsent(cell.recon.id, cell.recon);
                 }
-                nextPageStart = end;
             }
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("i", rowIndex);
+        if (recordIndex != -1) {
+            generator.writeNumberField("j", recordIndex);
+        }
+        generator.writeNumberField("k", paginationIndex);
+        generator.writeEndObject();
+    }
 
-            JsonResult result = new JsonResult(engine.getMode(),
-                    rwv.results, rwv.total,
-                    engine.getMode() == Mode.RowBased ? project.rows.size() : project.recordModel.getRecordCount(),
-                    rwv.totalRows, start, end, limit, pool, previousPageEnd, nextPageStart);
-
-            respondJSON(response, result);
-        } catch (IllegalJsonpException e2) {
-            respondNoJsonpException(request, response);
-        } catch (Exception e) {
-            respondException(response, e);
+    /**
+     * Writes a cell as {@link Cell} is serialized by Jackson.
+     */
+    static protected void writeCell(JsonGenerator generator, Cell cell) throws IOException {
+        generator.writeStartObject();
+        Object value = cell.value;
+        if (value instanceof EvalError) {
+            generator.writeStringField("e", ((EvalError) value).message);
+        } else if (value instanceof OffsetDateTime) {
+            generator.writeStringField("t", "date");
+            generator.writeStringField("v", ((OffsetDateTime) value).toInstant().toString());
+        } else if (value instanceof LocalDateTime) {
+            generator.writeStringField("t", "date");
+            generator.writeStringField("v", ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toString());
+        } else if (value instanceof String) {
+            generator.writeStringField("v", (String) value);
+        } else if (value instanceof Double) {
+            double d = (Double) value;
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                generator.writeStringField("v", value.toString());
+            } else if (Double.doubleToLongBits((long) d) == Double.doubleToLongBits(d)) {
+                // integral doubles are written as integers, as by SerializationFilters.DoubleSerializer
+                generator.writeNumberField("v", (long) d);
+            } else {
+                generator.writeNumberField("v", d);
+            }
+        } else if (value instanceof Float) {
+            float f = (Float) value;
+            if (Float.isNaN(f) || Float.isInfinite(f)) {
+                generator.writeStringField("v", value.toString());
+            } else {
+                generator.writeNumberField("v", f);
+            }
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            generator.writeNumberField("v", ((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumberField("v", (BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeFieldName("v");
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBooleanField("v", (Boolean) value);
+        } else if (value instanceof Number) {
+            generator.writeFieldName("v");
+            ParsingUtilities.defaultWriter.writeValue(generator, value);
+        } else if (value != null) {
+            generator.writeStringField("v", value.toString());
+        }
+        if (cell.recon != null) {
+            generator.writeStringField("r", Long.toString(cell.recon.id));
         }
+        generator.writeEndObject();
     }
 
+    /**
+     * Selects the rows or records of the requested page, as their indices and the pagination indices of their first
+     * rows. When the page ends at a given index, the last rows or records seen are kept in a ring buffer.
+     */
     static protected class RowWritingVisitor implements RowVisitor, RecordVisitor {
 
         final int start;
         final int end;
         final int limit;
-        public LinkedList<WrappedRow> results;
-        public int resultRecordSize;
+
+        private int[] _indices = new int[0];
+        private int[] _paginationIndices = new int[0];
+        // position in the arrays of the first row or record of the page
+        private int _first;
+        private int _size;
 
         public int total;
         public int totalRows;
@@ -315,7 +345,6 @@ public class GetRowsCommand extends Command {
             this.start = start;
             this.end = end;
             this.limit = limit;
-            this.results = new LinkedList<>();
         }
 
         @Override
@@ -335,12 +364,9 @@ public class GetRowsCommand extends Command {
 
         @Override
         public boolean visit(Project project, int rowIndex, int sortedRowIndex, Row row) {
-            if ((start != -1 && sortedRowIndex >= start && results.size() < limit) ||
+            if ((start != -1 && sortedRowIndex >= start && _size < limit) ||
                     (end != -1 && sortedRowIndex < end)) {
-                if (results.size() >= limit) {
-                    results.removeFirst();
-                }
-                internalVisit(project, rowIndex, row, sortedRowIndex);
+                add(rowIndex, sortedRowIndex);
             }
             total++;
             totalRows++;
@@ -355,18 +381,9 @@ public class GetRowsCommand extends Command {
 
         @Override
         public boolean visit(Project project, int sortedStartRowIndex, Record record) {
-            if ((start != -1 && sortedStartRowIndex >= start && resultRecordSize < limit) ||
+            if ((start != -1 && sortedStartRowIndex >= start && _size < limit) ||
                     (end != -1 && sortedStartRowIndex < end)) {
-                if (resultRecordSize >= limit) {
-                    // remove the oldest record in the results
-                    results.removeFirst();
-                    while (results.size() > 0 && results.get(0).recordIndex == null) {
-                        results.removeFirst();
-                    }
-                    resultRecordSize--;
-                }
-                internalVisit(project, record, sortedStartRowIndex);
-                resultRecordSize++;
+                add(record.recordIndex, sortedStartRowIndex);
             }
             total++;
             totalRows += record.toRowIndex - record.fromRowIndex;
@@ -374,18 +391,70 @@ public class GetRowsCommand extends Command {
             return false;
         }
 
-        protected boolean internalVisit(Project project, int rowIndex, Row row, int paginationIndex) {
-            results.add(new WrappedRow(row, rowIndex, null, paginationIndex));
-            return false;
+        /**
+         * Visits the rows or records of a sorted view which belong to the requested page, and counts all of them. The
+         * view must be deep enough to contain the page.
+         */
+        public void visitPage(Project project, SortedView sortedView) {
+            start(project);
+            // positions in the view of the first and last rows or records of the page
+            int from;
+            int to;
+            if (start != -1) {
+                from = sortedView.findStartRowIndex(start);
+                to = (int) Math.min(sortedView.getDepth(), (long) from + limit);
+            } else {
+                to = sortedView.findStartRowIndex(end);
+                from = Math.max(0, to - limit);
+            }
+            for (int i = from; i < to; i++) {
+                add(sortedView.get(i), sortedView.getStartRowIndex(i));
+            }
+            total = sortedView.size();
+            totalRows = sortedView.getRowCount();
+            end(project);
+        }
+
+        /**
+         * @return the number of rows or records in the page
+         */
+        public int size() {
+            return _size;
         }
 
-        protected boolean internalVisit(Project project, Record record, int sortedStartRowIndex) {
-            for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
-                Row row = project.rows.get(r);
-                results.add(new WrappedRow(row, r, r == record.fromRowIndex ? record.recordIndex : null,
-                        sortedStartRowIndex + r - record.fromRowIndex));
+        /**
+         * @return the index of a row or record of the page
+         */
+        public int getIndex(int i) {
+            return _indices[(_first + i) % _indices.length];
+        }
+
+        /**
+         * @return the pagination index of a row, or of the first row of a record, of the page
+         */
+        public int getPaginationIndex(int i) {
+            return _paginationIndices[(_first + i) % _indices.length];
+        }
+
+        private void add(int index, int paginationIndex) {
+            if (limit == 0) {
+                return;
             }
-            return false;
+            int slot;
+            if (_size == limit) {
+                // drop the first row or record of the page: the arrays are full, as they never grow beyond the limit
+                slot = _first;
+                _first = (_first + 1) % _indices.length;
+            } else {
+                if (_size == _indices.length) {
+                    int capacity = (int) Math.min(limit, Math.max(16, 2L * _size));
+                    _indices = Arrays.copyOf(_indices, capacity);
+                    _paginationIndices = Arrays.copyOf(_paginationIndices, capacity);
+                }
+                slot = _size++;
+            }
+            _indices[slot] = index;
+            _paginationIndices[slot] = paginationIndex;
         }
     }
 }
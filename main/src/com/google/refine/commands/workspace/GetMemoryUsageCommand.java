@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.commands.workspace;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.commands.Command;
+
+/**
+ * Reports the estimated memory footprint of the projects held in memory, against the memory budget of the workspace.
+ */
+public class GetMemoryUsageCommand extends Command {
+
+    public static class ResidentProject {
+
+        @JsonProperty("id")
+        protected long id;
+        @JsonProperty("size")
+        protected long size;
+
+        protected ResidentProject(long id, long size) {
+            this.id = id;
+            this.size = size;
+        }
+    }
+
+    public static class MemoryUsage {
+
+        @JsonProperty("budget")
+        protected long budget;
+        @JsonProperty("used")
+        protected long used;
+        @JsonProperty("evictions")
+        protected long evictions;
+        // from the least to the most recently used
+        @JsonProperty("projects")
+        protected List<ResidentProject> projects;
+
+        protected MemoryUsage(long budget, long used, long evictions, List<ResidentProject> projects) {
+            this.budget = budget;
+            this.used = used;
+            this.evictions = evictions;
+            this.projects = projects;
+        }
+    }
+
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        ProjectManager manager = ProjectManager.singleton;
+        List<ResidentProject> projects = new ArrayList<>();
+        long used = 0;
+        for (Map.Entry<Long, Long> entry : manager.getResidentProjectSizes().entrySet()) {
+            projects.add(new ResidentProject(entry.getKey(), entry.getValue()));
+            used += entry.getValue();
+        }
+        respondJSON(response, new MemoryUsage(manager.getMemoryBudget(), used, manager.getEvictionCount(), projects));
+    }
+}
@@ -120,6 +120,10 @@ public class TemplatingExporter implements WriterExporter {
                 SortingConfig sorting = SortingConfig.reconstruct(sortingJson);
                 SortingRowVisitor srv = new SortingRowVisitor(visitor);
                 srv.initializeFromConfig(project, sorting);
+                if (limit > 0) {
+                    // only the rows written need to be sorted
+                    srv.setLimit(limit);
+                }
 
                 if (srv.hasCriteria()) {
                     visitor = srv;
@@ -135,6 +139,9 @@ public class TemplatingExporter implements WriterExporter {
                 SortingConfig sorting = SortingConfig.reconstruct(sortingJson);
                 SortingRecordVisitor srv = new SortingRecordVisitor(visitor);
                 srv.initializeFromConfig(project, sorting);
+                if (limit > 0) {
+                    srv.setLimit(limit);
+                }
 
                 if (srv.hasCriteria()) {
                     visitor = srv;
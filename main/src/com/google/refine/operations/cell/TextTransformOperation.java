@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.operations.cell;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -41,6 +42,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -129,91 +131,107 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
         Column column = project.columnModel.getColumnByName(_columnName);
 
         Evaluable eval = MetaParser.parse(_expression);
-        Properties bindings = ExpressionUtils.createBindings(project);
 
-        return new RowVisitor() {
+        return new TransformRowVisitor(project, column.getCellIndex(), cellChanges, eval);
+    }
 
-            int cellIndex;
-            Properties bindings;
-            List<CellChange> cellChanges;
-            Evaluable eval;
+    /**
+     * Evaluates the expression on each visited row. Rows can be split across several instances, whose results are
+     * appended in row order.
+     */
+    protected class TransformRowVisitor implements MergeableRowVisitor {
+
+        final protected Project project;
+        final protected int cellIndex;
+        final protected Properties bindings;
+        final protected List<CellChange> cellChanges;
+        final protected Evaluable eval;
+
+        protected TransformRowVisitor(Project project, int cellIndex, List<CellChange> cellChanges, Evaluable eval) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+            this.bindings = ExpressionUtils.createBindings(project);
+            this.cellChanges = cellChanges;
+            this.eval = eval;
+        }
 
-            public RowVisitor init(int cellIndex, Properties bindings, List<CellChange> cellChanges, Evaluable eval) {
-                this.cellIndex = cellIndex;
-                this.bindings = bindings;
-                this.cellChanges = cellChanges;
-                this.eval = eval;
-                return this;
-            }
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
 
-            @Override
-            public void start(Project project) {
-                // nothing to do
-            }
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
 
-            @Override
-            public void end(Project project) {
-                // nothing to do
-            }
+        @Override
+        public MergeableRowVisitor split() {
+            return new TransformRowVisitor(project, cellIndex, new ArrayList<>(), eval);
+        }
 
-            @Override
-            public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
-                Cell newCell = null;
+        @Override
+        public void merge(MergeableRowVisitor other) {
+            cellChanges.addAll(((TransformRowVisitor) other).cellChanges);
+        }
 
-                Object oldValue = cell != null ? cell.value : null;
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(cellIndex);
+            Cell newCell = null;
 
-                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
+            Object oldValue = cell != null ? cell.value : null;
 
-                Object o = eval.evaluate(bindings);
-                if (o == null) {
-                    if (oldValue != null) {
-                        CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, null);
-                        cellChanges.add(cellChange);
-                    }
+            ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
+
+            Object o = eval.evaluate(bindings);
+            if (o == null) {
+                if (oldValue != null) {
+                    CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, null);
+                    cellChanges.add(cellChange);
+                }
+            } else {
+                if (o instanceof Cell) {
+                    newCell = (Cell) o;
+                } else if (o instanceof WrappedCell) {
+                    newCell = ((WrappedCell) o).cell;
                 } else {
-                    if (o instanceof Cell) {
-                        newCell = (Cell) o;
-                    } else if (o instanceof WrappedCell) {
-                        newCell = ((WrappedCell) o).cell;
-                    } else {
-                        Serializable newValue = ExpressionUtils.wrapStorable(o);
-                        if (ExpressionUtils.isError(newValue)) {
-                            if (_onError == OnError.KeepOriginal) {
-                                return false;
-                            } else if (_onError == OnError.SetToBlank) {
-                                newValue = null;
-                            }
+                    Serializable newValue = ExpressionUtils.wrapStorable(o);
+                    if (ExpressionUtils.isError(newValue)) {
+                        if (_onError == OnError.KeepOriginal) {
+                            return false;
+                        } else if (_onError == OnError.SetToBlank) {
+                            newValue = null;
                         }
+                    }
 
-                        if (!ExpressionUtils.sameValue(oldValue, newValue)) {
-                            newCell = new Cell(newValue, (cell != null) ? cell.recon : null);
-
-                            if (_repeat) {
-                                for (int i = 0; i < _repeatCount; i++) {
-                                    ExpressionUtils.bind(bindings, row, rowIndex, _columnName, newCell);
+                    if (!ExpressionUtils.sameValue(oldValue, newValue)) {
+                        newCell = new Cell(newValue, (cell != null) ? cell.recon : null);
 
-                                    newValue = ExpressionUtils.wrapStorable(eval.evaluate(bindings));
-                                    if (ExpressionUtils.isError(newValue)) {
-                                        break;
-                                    } else if (ExpressionUtils.sameValue(newCell.value, newValue)) {
-                                        break;
-                                    }
+                        if (_repeat) {
+                            for (int i = 0; i < _repeatCount; i++) {
+                                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, newCell);
 
-                                    newCell = new Cell(newValue, newCell.recon);
+                                newValue = ExpressionUtils.wrapStorable(eval.evaluate(bindings));
+                                if (ExpressionUtils.isError(newValue)) {
+                                    break;
+                                } else if (ExpressionUtils.sameValue(newCell.value, newValue)) {
+                                    break;
                                 }
+
+                                newCell = new Cell(newValue, newCell.recon);
                             }
                         }
                     }
-
-                    if (newCell != null) {
-                        CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
-                        cellChanges.add(cellChange);
-                    }
                 }
 
-                return false;
+                if (newCell != null) {
+                    CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, newCell);
+                    cellChanges.add(cellChange);
+                }
             }
-        }.init(column.getCellIndex(), bindings, cellChanges, eval);
+
+            return false;
+        }
     }
 }
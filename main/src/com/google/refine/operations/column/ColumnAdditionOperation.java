@@ -44,6 +44,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -151,68 +152,84 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
         Column column = project.columnModel.getColumnByName(_baseColumnName);
 
         Evaluable eval = MetaParser.parse(_expression);
-        Properties bindings = ExpressionUtils.createBindings(project);
 
-        return new RowVisitor() {
+        return new ColumnAdditionRowVisitor(project, column.getCellIndex(), cellsAtRows, eval);
+    }
 
-            int cellIndex;
-            Properties bindings;
-            List<CellAtRow> cellsAtRows;
-            Evaluable eval;
+    /**
+     * Evaluates the expression on each visited row. Rows can be split across several instances, whose results are
+     * appended in row order.
+     */
+    protected class ColumnAdditionRowVisitor implements MergeableRowVisitor {
+
+        final protected Project project;
+        final protected int cellIndex;
+        final protected Properties bindings;
+        final protected List<CellAtRow> cellsAtRows;
+        final protected Evaluable eval;
+
+        protected ColumnAdditionRowVisitor(Project project, int cellIndex, List<CellAtRow> cellsAtRows, Evaluable eval) {
+            this.project = project;
+            this.cellIndex = cellIndex;
+            this.bindings = ExpressionUtils.createBindings(project);
+            this.cellsAtRows = cellsAtRows;
+            this.eval = eval;
+        }
 
-            public RowVisitor init(int cellIndex, Properties bindings, List<CellAtRow> cellsAtRows, Evaluable eval) {
-                this.cellIndex = cellIndex;
-                this.bindings = bindings;
-                this.cellsAtRows = cellsAtRows;
-                this.eval = eval;
-                return this;
-            }
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
 
-            @Override
-            public void start(Project project) {
-                // nothing to do
-            }
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
 
-            @Override
-            public void end(Project project) {
-                // nothing to do
-            }
+        @Override
+        public MergeableRowVisitor split() {
+            return new ColumnAdditionRowVisitor(project, cellIndex, new ArrayList<>(), eval);
+        }
 
-            @Override
-            public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
-                Cell newCell = null;
-
-                ExpressionUtils.bind(bindings, row, rowIndex, _baseColumnName, cell);
-
-                Object o = eval.evaluate(bindings);
-                if (o != null) {
-                    if (o instanceof Cell) {
-                        newCell = (Cell) o;
-                    } else if (o instanceof WrappedCell) {
-                        newCell = ((WrappedCell) o).cell;
-                    } else {
-                        Serializable v = ExpressionUtils.wrapStorable(o);
-                        if (ExpressionUtils.isError(v)) {
-                            if (_onError == OnError.SetToBlank) {
-                                return false;
-                            } else if (_onError == OnError.KeepOriginal) {
-                                v = cell != null ? cell.value : null;
-                            }
-                        }
+        @Override
+        public void merge(MergeableRowVisitor other) {
+            cellsAtRows.addAll(((ColumnAdditionRowVisitor) other).cellsAtRows);
+        }
 
-                        if (v != null) {
-                            newCell = new Cell(v, null);
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(cellIndex);
+            Cell newCell = null;
+
+            ExpressionUtils.bind(bindings, row, rowIndex, _baseColumnName, cell);
+
+            Object o = eval.evaluate(bindings);
+            if (o != null) {
+                if (o instanceof Cell) {
+                    newCell = (Cell) o;
+                } else if (o instanceof WrappedCell) {
+                    newCell = ((WrappedCell) o).cell;
+                } else {
+                    Serializable v = ExpressionUtils.wrapStorable(o);
+                    if (ExpressionUtils.isError(v)) {
+                        if (_onError == OnError.SetToBlank) {
+                            return false;
+                        } else if (_onError == OnError.KeepOriginal) {
+                            v = cell != null ? cell.value : null;
                         }
                     }
-                }
 
-                if (newCell != null) {
-                    cellsAtRows.add(new CellAtRow(rowIndex, newCell));
+                    if (v != null) {
+                        newCell = new Cell(v, null);
+                    }
                 }
+            }
 
-                return false;
+            if (newCell != null) {
+                cellsAtRows.add(new CellAtRow(rowIndex, newCell));
             }
-        }.init(column.getCellIndex(), bindings, cellsAtRows, eval);
+
+            return false;
+        }
     }
 }
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.operations.recon;
 
+import java.util.BitSet;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -40,6 +41,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.CellValueIndex;
 import com.google.refine.history.Change;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
@@ -85,6 +87,12 @@ public class ReconClearSimilarCellsOperation extends EngineDependentMassCellOper
         return OperationDescription.recon_clear_similar_cells_desc(cellChanges.size(), _similarValue, _columnName);
     }
 
+    @Override
+    protected BitSet getCandidateRows(Project project, Column column) {
+        CellValueIndex index = CellValueIndex.getIndex(project, column);
+        return index == null ? null : index.getStringCandidates(_similarValue);
+    }
+
     @Override
     protected RowVisitor createRowVisitor(final Project project, final List<CellChange> cellChanges, final long historyEntryID)
             throws Exception {
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.operations.recon;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.CellValueIndex;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.history.Change;
 import com.google.refine.model.Cell;
@@ -140,6 +142,12 @@ public class ReconJudgeSimilarCellsOperation extends EngineDependentMassCellOper
         throw new InternalError("Can't get here");
     }
 
+    @Override
+    protected BitSet getCandidateRows(Project project, Column column) {
+        CellValueIndex index = CellValueIndex.getIndex(project, column);
+        return index == null ? null : index.getStringCandidates(_similarValue);
+    }
+
     @Override
     protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception {
         Column column = project.columnModel.getColumnByName(_columnName);
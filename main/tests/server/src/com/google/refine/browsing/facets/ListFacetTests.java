@@ -27,6 +27,10 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -174,4 +178,28 @@ public class ListFacetTests extends RefineTest {
 
         TestUtils.assertEqualsAsJson(actual.toString(), selectedEmptyChoiceFacet);
     }
+
+    @Test
+    public void testApproximateChoices() throws IOException {
+        Serializable[][] grid = new Serializable[6000][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i % 2 == 0 ? "even" : "id " + i };
+        }
+        Project project = createProject(new String[] { "Column A" }, grid);
+        Engine engine = new Engine(project);
+
+        ListFacetConfig facetConfig = ParsingUtilities.mapper.readValue(
+                jsonConfig.replace("\"invert\":false", "\"invert\":false,\"approximate\":true"), ListFacetConfig.class);
+        ListFacet facet = (ListFacet) facetConfig.apply(project);
+        facet.computeChoices(project, engine.getAllFilteredRows());
+
+        ObjectNode actual = ParsingUtilities.mapper.valueToTree(facet);
+        assertTrue(actual.get("approximate").asBoolean());
+        assertFalse(actual.has("error"));
+        assertTrue(Math.abs(actual.get("choiceCount").asInt() - 3001) < 150);
+        JsonNode top = actual.get("choices").get(0);
+        assertEquals(top.get("v").get("v").asText(), "evenbar");
+        assertTrue(top.get("c").asInt() >= 3000 && top.get("c").asInt() - top.path("e").asInt() <= 3000);
+        assertTrue(actual.get("choices").size() <= facet.getLimit() + 1);
+    }
 }
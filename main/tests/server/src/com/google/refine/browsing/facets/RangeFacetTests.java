@@ -29,9 +29,11 @@ package com.google.refine.browsing.facets;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -39,7 +41,11 @@ import org.testng.annotations.Test;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.facets.RangeFacet.RangeFacetConfig;
+import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
+import com.google.refine.browsing.util.NumericBinIndex;
+import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
 import com.google.refine.grel.Parser;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -112,4 +118,30 @@ public class RangeFacetTests extends RefineTest {
         facet.computeChoices(project, engine.getAllFilteredRows());
         TestUtils.isSerializedTo(facet, facetJson);
     }
+
+    @Test
+    public void testBinIndexTracksMinAndMaxOfManyRows() throws ParsingException {
+        // more values than the initial capacity of the collected values, with the extremes in later rows
+        Serializable[][] values = new Serializable[40][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Serializable[] { i < 20 ? (double) i : 2.5 * i - 75 };
+        }
+        values[30] = new Serializable[] { "blah" };
+        Project project = createProject(new String[] { "my column" }, values);
+
+        NumericBinIndex index = new NumericBinRowIndex(project,
+                new ExpressionBasedRowEvaluable("my column", 0, MetaParser.parse("value")));
+
+        // values range from -25 (row 20) to 22.5 (row 39)
+        Assert.assertEquals(index.getMin(), -25.0);
+        Assert.assertEquals(index.getMax(), 23.0);
+        Assert.assertEquals(index.getStep(), 1.0);
+        Assert.assertEquals(index.getNumericRowCount(), 39);
+        Assert.assertEquals(index.getNonNumericRowCount(), 1);
+        int[] bins = index.getBins();
+        Assert.assertEquals(bins.length, 48);
+        Assert.assertEquals(bins[0], 1);
+        Assert.assertEquals(bins[bins.length - 1], 1);
+        Assert.assertEquals(Arrays.stream(bins).sum(), 39);
+    }
 }
@@ -27,6 +27,7 @@
 
 package com.google.refine.browsing.facets;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -45,7 +46,9 @@ import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.facets.ScatterplotFacet.ScatterplotFacetConfig;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.grel.Parser;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
@@ -125,4 +128,33 @@ public class ScatterplotFacetTests extends RefineTest {
         assertFalse(filter.filterRow(project, 1, project.rows.get(1)));
         assertTrue(filter.filterRow(project, 3, project.rows.get(3)));
     }
+
+    @Test
+    public void testCachedValuesMatchExpressions() throws IOException {
+        Serializable[][] grid = new Serializable[40][];
+        for (int i = 0; i != grid.length; i++) {
+            grid[i] = new Serializable[] { i % 7 == 0 ? "text" : (Serializable) (i * 1.5), i % 5 == 0 ? null : (Serializable) (40 - i) };
+        }
+        Project project = createProject(new String[] { "my column", "e" }, grid);
+        Engine engine = new Engine(project);
+
+        ScatterplotFacet cached = ParsingUtilities.mapper.readValue(configJson, ScatterplotFacetConfig.class).apply(project);
+        ScatterplotFacet evaluated = ParsingUtilities.mapper.readValue(
+                configJson.replace("\"ey\": \"value\"", "\"ey\": \"value + 0\""), ScatterplotFacetConfig.class).apply(project);
+        cached.computeChoices(project, engine.getAllFilteredRows());
+        evaluated.computeChoices(project, engine.getAllFilteredRows());
+        assertSameRows(project, cached.getRowFilter(project), evaluated.getRowFilter(project));
+
+        // the cached values follow changes to the cells
+        new CellChange(3, 1, project.rows.get(3).getCell(1), new Cell(1, null)).apply(project);
+        new CellChange(4, 0, project.rows.get(4).getCell(0), new Cell("none", null)).apply(project);
+        assertSameRows(project, cached.getRowFilter(project), evaluated.getRowFilter(project));
+    }
+
+    private void assertSameRows(Project project, RowFilter actual, RowFilter expected) {
+        for (int r = 0; r != project.rows.size(); r++) {
+            assertEquals(actual.filterRow(project, r, project.rows.get(r)), expected.filterRow(project, r, project.rows.get(r)),
+                    "row " + r);
+        }
+    }
 }
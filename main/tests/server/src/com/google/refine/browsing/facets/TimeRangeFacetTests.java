@@ -30,9 +30,11 @@ package com.google.refine.browsing.facets;
 import java.io.IOException;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -40,7 +42,11 @@ import org.testng.annotations.Test;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.facets.TimeRangeFacet.TimeRangeFacetConfig;
+import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
+import com.google.refine.browsing.util.TimeBinIndex;
+import com.google.refine.browsing.util.TimeBinRowIndex;
 import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
 import com.google.refine.grel.Parser;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -114,4 +120,29 @@ public class TimeRangeFacetTests extends RefineTest {
         facet.computeChoices(project, engine.getAllFilteredRows());
         TestUtils.isSerializedTo(facet, facetJson);
     }
+
+    @Test
+    public void testBinIndexTracksMinAndMaxOfManyRows() throws ParsingException {
+        // more values than the initial capacity of the collected values, with the extremes in later rows
+        OffsetDateTime start = OffsetDateTime.parse("2010-01-01T00:00:00Z");
+        Serializable[][] values = new Serializable[40][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Serializable[] { start.plusDays(i < 20 ? i : 5 * i - 130) };
+        }
+        values[30] = new Serializable[] { "nontime" };
+        Project project = createProject(new String[] { "my column" }, values);
+
+        TimeBinIndex index = new TimeBinRowIndex(project,
+                new ExpressionBasedRowEvaluable("my column", 0, MetaParser.parse("value")));
+
+        // values range from 30 days before the start (row 20) to 65 days after it (row 39)
+        long day = 24 * 3600 * 1000L;
+        Assert.assertEquals(index.getMin(), start.toInstant().toEpochMilli() - 30 * day);
+        Assert.assertEquals(index.getMax(), start.toInstant().toEpochMilli() + 65 * day);
+        Assert.assertEquals(index.getTimeRowCount(), 39);
+        Assert.assertEquals(index.getNonTimeRowCount(), 1);
+        int[] bins = index.getBins();
+        Assert.assertEquals(bins[0], 1);
+        Assert.assertEquals(Arrays.stream(bins).sum(), 39);
+    }
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.grel.Parser;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.ParsingUtilities;
+
+public class CellValueIndexTests extends RefineTest {
+
+    private Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        MetaParser.registerLanguageParser("grel", "GREL", Parser.grelParser, "value");
+        Serializable[] values = { "a", "b", "", null, 1L, 1.0, 2.5, -0.0, Double.NaN, true, new EvalError("error"),
+                new ArrayList<>(List.of("a", "c")), "1", "A" };
+        Serializable[][] grid = new Serializable[300][];
+        for (int r = 0; r < grid.length; r++) {
+            // a value frequent enough for its rows to be stored as a bitmap
+            grid[r] = new Serializable[] { r < values.length ? values[r] : (r % 2 == 0 ? "frequent" : "rare " + r) };
+        }
+        project = createProject(new String[] { "c" }, grid);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        MetaParser.unregisterLanguageParser("grel");
+        System.clearProperty(CellValueIndex.INDEX_PROPERTY);
+    }
+
+    private boolean[] filter(String selection, boolean selectBlank, boolean selectError, boolean invert) throws Exception {
+        ListFacetConfig config = ParsingUtilities.mapper.readValue(
+                "{\"type\":\"list\",\"name\":\"c\",\"columnName\":\"c\",\"expression\":\"value\",\"omitBlank\":false,"
+                        + "\"omitError\":false,\"selection\":" + selection + ",\"selectBlank\":" + selectBlank
+                        + ",\"selectError\":" + selectError + ",\"invert\":" + invert + "}",
+                ListFacetConfig.class);
+        RowFilter rowFilter = config.apply(project).getRowFilter(project);
+        boolean[] matches = new boolean[project.rows.size()];
+        for (int r = 0; r < matches.length; r++) {
+            matches[r] = rowFilter.filterRow(project, r, project.rows.get(r));
+        }
+        return matches;
+    }
+
+    private void assertSameAsScan(String... values) throws Exception {
+        List<String> choices = new ArrayList<>();
+        for (String value : values) {
+            choices.add("{\"v\":{\"v\":" + value + ",\"l\":\"label\"}}");
+        }
+        String selection = "[" + String.join(",", choices) + "]";
+        for (boolean flag : new boolean[] { false, true }) {
+            for (boolean invert : new boolean[] { false, true }) {
+                boolean[] indexed = filter(selection, flag, !flag, invert);
+                System.setProperty(CellValueIndex.INDEX_PROPERTY, "false");
+                boolean[] scanned = filter(selection, flag, !flag, invert);
+                System.clearProperty(CellValueIndex.INDEX_PROPERTY);
+                Assert.assertEquals(indexed, scanned, selection);
+            }
+        }
+    }
+
+    @Test
+    public void testIndexedSelectionMatchesScan() throws Exception {
+        assertSameAsScan("\"a\"");
+        assertSameAsScan("\"b\"", "\"c\"");
+        assertSameAsScan("\"frequent\"", "\"rare 101\"");
+        assertSameAsScan("1");
+        assertSameAsScan("1.0", "0");
+        assertSameAsScan("2.5", "true");
+        assertSameAsScan("\"1\"", "\"\"");
+        assertSameAsScan("\"missing\"");
+        assertSameAsScan();
+    }
+
+    @Test
+    public void testSelectionIsReadFromIndex() throws Exception {
+        RowFilter rowFilter = ParsingUtilities.mapper.readValue(
+                "{\"type\":\"list\",\"name\":\"c\",\"columnName\":\"c\",\"expression\":\"value\","
+                        + "\"selection\":[{\"v\":{\"v\":1,\"l\":\"1\"}}],\"selectBlank\":false,\"selectError\":false}",
+                ListFacetConfig.class).apply(project).getRowFilter(project);
+
+        Assert.assertTrue(rowFilter instanceof RowMatchCache.RowMatches);
+        Assert.assertEquals(((RowMatchCache.RowMatches) rowFilter).getMatches().stream().toArray(), new int[] { 4, 5 });
+    }
+
+    @Test
+    public void testStringCandidates() {
+        CellValueIndex index = CellValueIndex.getIndex(project, project.columnModel.getColumnByName("c"));
+
+        // rows with non-string values are always candidates
+        int[] nonStrings = { 4, 5, 6, 7, 8, 9, 11 };
+        Assert.assertEquals(index.getStringCandidates("a").stream().toArray(), new int[] { 0, 4, 5, 6, 7, 8, 9, 11 });
+        Assert.assertEquals(index.getStringCandidates("missing").stream().toArray(), nonStrings);
+        Assert.assertEquals(index.getStringCandidates("frequent").cardinality(), 143 + nonStrings.length);
+    }
+
+    @Test
+    public void testIndexIsUpdatedByCellChanges() throws Exception {
+        Column column = project.columnModel.getColumnByName("c");
+        CellValueIndex index = CellValueIndex.getIndex(project, column);
+
+        new CellChange(20, 0, project.rows.get(20).getCell(0), new Cell("a", null)).apply(project);
+        new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell(3L, null)).apply(project);
+
+        Assert.assertSame(CellValueIndex.getIndex(project, column), index);
+        assertSameAsScan("\"a\"", "3");
+        assertSameAsScan("\"frequent\"");
+        boolean[] matches = filter("[{\"v\":{\"v\":\"a\",\"l\":\"a\"}}]", false, false, false);
+        Assert.assertFalse(matches[0]);
+        Assert.assertTrue(matches[20]);
+    }
+
+    @Test
+    public void testIndexIsCountedInProjectSize() {
+        long withoutIndex = ProjectSizeEstimator.estimate(project);
+        CellValueIndex index = CellValueIndex.getIndex(project, project.columnModel.getColumnByName("c"));
+
+        // at least an int per row, and the keys of the rare values
+        Assert.assertTrue(index.estimateMemorySize() > 4 * 300);
+        Assert.assertEquals(ProjectSizeEstimator.estimate(project), withoutIndex + index.estimateMemorySize());
+    }
+}
@@ -32,6 +32,7 @@ import java.io.IOException;
 import javax.servlet.ServletException;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -60,5 +61,8 @@ public class GetExpressionLanguageInfoCommandTests extends ExpressionCommandTest
                         "           \"params\" : \"expression a, variable v, expression test\",\n" +
                         "           \"returns\" : \"array\"\n" +
                         "         }");
+        // whether functions can be cached is not part of their documentation
+        Assert.assertFalse(result.get("functions").get("toLowercase").has("deterministic"));
+        Assert.assertFalse(result.get("functions").get("now").has("deterministic"));
     }
 }
@@ -29,22 +29,33 @@ package com.google.refine.commands.row;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.commands.Command;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
 public class GetRowsCommandTest extends RefineTest {
@@ -523,4 +534,40 @@ public class GetRowsCommandTest extends RefineTest {
         command.doPost(request, response);
         TestUtils.assertEqualsAsJson(writer.toString(), recordJson);
     }
+
+    @Test
+    public void testCellsWrittenAsSerialized() throws IOException {
+        Recon recon = new Recon(1L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        Object[] values = { "a", 12.0, 12.5, -0.0, Double.NaN, Double.POSITIVE_INFINITY, 3L, 7, true, 1.5f,
+                new BigDecimal("1.25"), OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC),
+                LocalDateTime.of(2020, 1, 2, 3, 4, 5), new EvalError("oops"), null };
+        for (Object value : values) {
+            for (Cell cell : new Cell[] { new Cell((Serializable) value, null), new Cell((Serializable) value, recon) }) {
+                StringWriter written = new StringWriter();
+                JsonGenerator generator = ParsingUtilities.mapper.getFactory().createGenerator(written);
+                GetRowsCommand.writeCell(generator, cell);
+                generator.close();
+                TestUtils.assertEqualsAsJson(written.toString(), ParsingUtilities.defaultWriter.writeValueAsString(cell));
+            }
+        }
+    }
+
+    @Test
+    public void testReconsPooled() throws ServletException, IOException {
+        Recon recon = new Recon(1L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        project.rows.get(0).setCell(0, new Cell("a", recon));
+        project.rows.get(2).setCell(0, new Cell("d", recon));
+
+        when(request.getParameter("engine")).thenReturn("{\"mode\":\"row-based\",\"facets\":[]}");
+        when(request.getParameter("start")).thenReturn("0");
+        when(request.getParameter("limit")).thenReturn("5");
+        command.doPost(request, response);
+
+        JsonNode result = ParsingUtilities.mapper.readTree(writer.toString());
+        JsonNode recons = result.get("pool").get("recons");
+        assertEquals(recons.size(), 1);
+        TestUtils.assertEqualsAsJson(recons.get(Long.toString(recon.id)).toString(),
+                ParsingUtilities.defaultWriter.writeValueAsString(recon));
+        assertEquals(result.get("rows").get(2).get("cells").get(0).get("r").asText(), Long.toString(recon.id));
+    }
 }
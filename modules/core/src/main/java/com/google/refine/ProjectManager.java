@@ -40,9 +40,15 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -55,6 +61,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.refine.history.HistoryEntryManager;
 import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
 import com.google.refine.util.GetProjectIDException;
@@ -73,9 +80,19 @@ public abstract class ProjectManager {
     // If a project has been idle this long, flush it from memory
     static protected final Duration PROJECT_FLUSH_DELAY = Duration.ofMinutes(15);
 
+    // Projects accessed more recently than this are not flushed to stay within the memory budget, as requests may
+    // still be using them
+    static protected final Duration EVICTION_GRACE_PERIOD = Duration.ofMinutes(1);
+
     // Don't spend more than this much time saving projects if doing a quick save
     static protected final Duration QUICK_SAVE_MAX_TIME = Duration.ofSeconds(30);
 
+    /**
+     * System property setting the memory budget, in megabytes, of the projects held in memory. Least recently used
+     * projects are flushed from memory when it is exceeded. Defaults to half of the maximum heap size.
+     */
+    static public final String MEMORY_BUDGET_PROPERTY = "refine.projects.memoryBudget";
+
     protected Map<Long, ProjectMetadata> _projectsMetadata;
     /**
      * Count of projects which have the given tag
@@ -102,12 +119,41 @@ public abstract class ProjectManager {
      */
     transient protected Map<Long, Project> _projects;
 
+    /**
+     * Projects being loaded from the data store, so that concurrent requests for the same project share one load.
+     */
+    transient protected Map<Long, CompletableFuture<Project>> _loadingProjects;
+
+    /**
+     * Estimated heap footprint in bytes of each project held in memory, from the least to the most recently used.
+     */
+    transient protected Map<Long, Long> _residentSizes;
+
+    /**
+     * Time of the last access to each project held in memory.
+     */
+    transient protected Map<Long, Instant> _lastAccesses;
+
+    /**
+     * Saves modified projects to flush them from memory, so that requests do not wait for other projects to be saved.
+     */
+    transient private ExecutorService _flushExecutor;
+    transient private final AtomicBoolean _flushScheduled = new AtomicBoolean();
+
+    /**
+     * Number of projects flushed from memory to stay within the memory budget.
+     */
+    transient protected long _evictionCount = 0;
+
     static public ProjectManager singleton;
 
     protected ProjectManager() {
         _projectsMetadata = new HashMap<Long, ProjectMetadata>();
         _preferenceStore = new PreferenceStore();
         _projects = new HashMap<Long, Project>();
+        _residentSizes = new LinkedHashMap<Long, Long>(16, 0.75f, true);
+        _lastAccesses = new HashMap<Long, Instant>();
+        _loadingProjects = new HashMap<Long, CompletableFuture<Project>>();
         _projectsTags = new HashMap<>();
 
         preparePreferenceStore(_preferenceStore);
@@ -123,6 +169,14 @@ public abstract class ProjectManager {
         }
 
         _projects.clear();
+        _residentSizes.clear();
+        _lastAccesses.clear();
+        synchronized (this) {
+            if (_flushExecutor != null) {
+                _flushExecutor.shutdown();
+                _flushExecutor = null;
+            }
+        }
         _projectsMetadata.clear();
     }
 
@@ -137,9 +191,12 @@ public abstract class ProjectManager {
             // Row count is duplicated in metadata, so make sure it is up-to-date
             projectMetadata.setRowCount(project.rows.size());
             _projects.put(project.id, project);
+            _residentSizes.put(project.id, ProjectSizeEstimator.estimate(project));
+            _lastAccesses.put(project.id, Instant.now());
             _projectsMetadata.put(project.id, projectMetadata);
             addProjectTags(projectMetadata.getTags());
         }
+        ensureMemoryBudget(project.id);
     }
 
     /**
@@ -274,10 +331,7 @@ public abstract class ProjectManager {
                     // We use after or equals to avoid the case where a newly created project
                     // has the same modified and last save times, resulting in the project not getting
                     // saved at all.
-                    boolean hasUnsavedChanges = metadata.getModified().isAfter(project.getLastSave())
-                            || metadata.getModified().equals(project.getLastSave());
-
-                    if (hasUnsavedChanges) {
+                    if (hasUnsavedChanges(project, metadata)) {
                         long msecsOverdue = Duration.between(startTimeOfSave, project.getLastSave()).toMillis();
                         records.add(new SaveRecord(project, msecsOverdue));
 
@@ -288,7 +342,7 @@ public abstract class ProjectManager {
                          * It's been a while since the project was last saved, and it hasn't been modified. We can
                          * safely remove it from the cache to save some memory.
                          */
-                        _projects.remove(id).dispose();
+                        disposeProject(id);
                     }
                 }
             }
@@ -307,6 +361,7 @@ public abstract class ProjectManager {
                 }
                 try {
                     saveProject(record.project);
+                    updateResidentSize(record.project);
                 } catch (Exception e) {
                     logger.error("Error when saving projects. Attempting to free memory", e);
                     // In case we're running low on memory, free as much as we can
@@ -314,6 +369,212 @@ public abstract class ProjectManager {
                 }
             }
         }
+        flushToMemoryBudget();
+    }
+
+    /**
+     * We use after or equals to avoid the case where a newly created project has the same modified and last save
+     * times, resulting in the project not getting saved at all.
+     */
+    protected boolean hasUnsavedChanges(Project project, ProjectMetadata metadata) {
+        return metadata.getModified().isAfter(project.getLastSave())
+                || metadata.getModified().equals(project.getLastSave());
+    }
+
+    /**
+     * Flushes least recently used projects from memory until the estimated footprint of the projects held in memory
+     * fits in the memory budget. Only projects which are unmodified, have no pending processes and were not accessed
+     * during the {@link #getEvictionGracePeriod() grace period} are flushed. If modified projects could be flushed too,
+     * they are saved and flushed in the background, so that the calling request does not wait for them.
+     *
+     * @param requestedID
+     *            the id of a project which was just requested, and must be kept in memory, or -1
+     */
+    protected void ensureMemoryBudget(long requestedID) {
+        List<Project> toSave;
+        synchronized (this) {
+            toSave = evictToMemoryBudget(requestedID);
+        }
+        if (!toSave.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Saves and flushes least recently used projects from memory until their estimated footprint fits in the memory
+     * budget. Called when saving projects, and in the background by {@link #ensureMemoryBudget(long)}.
+     */
+    protected void flushToMemoryBudget() {
+        long budget = getMemoryBudget();
+        List<Project> toSave;
+        synchronized (this) {
+            toSave = evictToMemoryBudget(-1);
+        }
+
+        // projects are saved outside of the lock, as in saveProjects()
+        for (Project project : toSave) {
+            try {
+                saveProject(project);
+            } catch (Exception e) {
+                logger.error("Error when saving project {} to flush it from memory", project.id, e);
+            }
+        }
+        if (!toSave.isEmpty()) {
+            synchronized (this) {
+                for (Project project : toSave) {
+                    if (getResidentMemorySize() <= budget) {
+                        break;
+                    }
+                    ProjectMetadata metadata = _projectsMetadata.get(project.id);
+                    if (_projects.get(project.id) == project && isEvictable(project)
+                            && (metadata == null || !hasUnsavedChanges(project, metadata))) {
+                        evictProject(project.id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes unmodified projects from memory while the memory budget is exceeded. Requires the lock on the project
+     * manager.
+     *
+     * @return the modified projects which would have been flushed, least recently used first
+     */
+    private List<Project> evictToMemoryBudget(long requestedID) {
+        List<Project> toSave = new ArrayList<>();
+        long excess = getResidentMemorySize() - getMemoryBudget();
+        // reading the sizes through get() would mark the projects as recently used
+        for (Map.Entry<Long, Long> entry : new ArrayList<>(_residentSizes.entrySet())) {
+            if (excess <= 0) {
+                break;
+            }
+            long id = entry.getKey();
+            Project project = _projects.get(id);
+            if (id == requestedID || project == null || !isEvictable(project)) {
+                continue;
+            }
+            ProjectMetadata metadata = _projectsMetadata.get(id);
+            excess -= entry.getValue();
+            if (metadata != null && hasUnsavedChanges(project, metadata)) {
+                toSave.add(project);
+            } else {
+                evictProject(id);
+            }
+        }
+        return toSave;
+    }
+
+    /**
+     * @return true if a project is idle enough to be flushed from memory. Requires the lock on the project manager.
+     */
+    private boolean isEvictable(Project project) {
+        if (project.getProcessManager().hasPending()) {
+            return false;
+        }
+        Instant lastAccess = _lastAccesses.get(project.id);
+        return lastAccess == null || !lastAccess.plus(getEvictionGracePeriod()).isAfter(Instant.now());
+    }
+
+    /**
+     * @return how long a project is kept in memory after it was last accessed, even if the memory budget is exceeded
+     */
+    protected Duration getEvictionGracePeriod() {
+        return EVICTION_GRACE_PERIOD;
+    }
+
+    private void scheduleFlush() {
+        if (!_flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (_flushExecutor == null) {
+                _flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "project-flush");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            _flushExecutor.execute(() -> {
+                _flushScheduled.set(false);
+                flushToMemoryBudget();
+            });
+        }
+    }
+
+    private void evictProject(long id) {
+        long size = _residentSizes.getOrDefault(id, 0L);
+        disposeProject(id);
+        _evictionCount++;
+        logger.info("Flushed project {} ({} MB) from memory to stay within the memory budget", id, size >> 20);
+    }
+
+    /**
+     * Removes a project from memory. Requires the lock on the project manager.
+     */
+    protected void disposeProject(long id) {
+        Project project = _projects.remove(id);
+        _residentSizes.remove(id);
+        _lastAccesses.remove(id);
+        if (project != null) {
+            project.dispose();
+        }
+    }
+
+    /**
+     * Estimates again the footprint of a project held in memory, after it was modified.
+     */
+    protected void updateResidentSize(Project project) {
+        long size = ProjectSizeEstimator.estimate(project);
+        synchronized (this) {
+            if (_projects.get(project.id) == project) {
+                _residentSizes.put(project.id, size);
+            }
+        }
+    }
+
+    /**
+     * @return the memory budget of the projects held in memory, in bytes
+     */
+    @JsonIgnore
+    public long getMemoryBudget() {
+        Long megabytes = Long.getLong(MEMORY_BUDGET_PROPERTY);
+        return megabytes != null ? megabytes << 20 : Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * @return the estimated footprint of all projects held in memory, in bytes
+     */
+    @JsonIgnore
+    public long getResidentMemorySize() {
+        synchronized (this) {
+            long total = 0;
+            for (long size : _residentSizes.values()) {
+                total += size;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * @return the estimated footprint in bytes of each project held in memory, from the least to the most recently
+     *         used
+     */
+    @JsonIgnore
+    public Map<Long, Long> getResidentProjectSizes() {
+        synchronized (this) {
+            return new LinkedHashMap<>(_residentSizes);
+        }
+    }
+
+    /**
+     * @return the number of projects flushed from memory to stay within the memory budget
+     */
+    @JsonIgnore
+    public long getEvictionCount() {
+        synchronized (this) {
+            return _evictionCount;
+        }
     }
 
     /**
@@ -326,7 +587,7 @@ public abstract class ProjectManager {
                 Project project = _projects.get(id);
                 if (project != null && !project.getProcessManager().hasPending()
                         && project.getLastSave().isAfter(metadata.getModified())) {
-                    _projects.remove(id).dispose();
+                    disposeProject(id);
                 }
             }
         }
@@ -552,16 +813,64 @@ public abstract class ProjectManager {
      * @return the project with the matching id, or null if it can't be found
      */
     public Project getProject(long id) {
+        CompletableFuture<Project> loading;
+        boolean loader = false;
         synchronized (this) {
             if (_projects.containsKey(id)) {
+                // mark the project as recently used
+                _residentSizes.get(id);
+                _lastAccesses.put(id, Instant.now());
                 return _projects.get(id);
-            } else {
-                Project project = loadProject(id);
-                if (project != null) {
-                    _projects.put(id, project);
-                }
-                return project;
             }
+            loading = _loadingProjects.get(id);
+            if (loading == null) {
+                loading = new CompletableFuture<>();
+                _loadingProjects.put(id, loading);
+                loader = true;
+            }
+        }
+
+        if (!loader) {
+            // another request is loading this project already
+            return awaitProject(loading);
+        }
+
+        // the project is loaded outside of the lock, so that requests for other projects are not blocked
+        Project project;
+        try {
+            project = loadProject(id);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                _loadingProjects.remove(id);
+            }
+            loading.completeExceptionally(e);
+            throw e;
+        }
+        // completed before taking the lock, as threads holding it may be waiting for this project
+        loading.complete(project);
+        synchronized (this) {
+            _loadingProjects.remove(id);
+            if (project == null) {
+                return null;
+            }
+            _projects.put(id, project);
+            _residentSizes.put(id, ProjectSizeEstimator.estimate(project));
+            _lastAccesses.put(id, Instant.now());
+        }
+        ensureMemoryBudget(id);
+        return project;
+    }
+
+    static private Project awaitProject(CompletableFuture<Project> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
         }
     }
 
@@ -616,7 +925,7 @@ public abstract class ProjectManager {
      */
     protected void removeProject(long projectID) {
         if (_projects.containsKey(projectID)) {
-            _projects.remove(projectID).dispose();
+            disposeProject(projectID);
         }
         _projectsMetadata.remove(projectID);
     }
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -42,9 +43,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.FacetFilterMask;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
+import com.google.refine.browsing.util.ParallelRowScan;
+import com.google.refine.browsing.util.RowMatchCache;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -90,6 +95,11 @@ public class Engine {
         return _config.getMode();
     }
 
+    @JsonIgnore
+    public EngineConfig getConfig() {
+        return _config;
+    }
+
     public void setMode(Mode mode) {
         _config = new EngineConfig(_config.getFacetConfigs(), mode);
     }
@@ -100,6 +110,10 @@ public class Engine {
 
             @Override
             public void accept(Project project, RowVisitor visitor) {
+                if (ParallelRowScan.canScan(project, visitor)) {
+                    ParallelRowScan.scan(project, (MergeableRowVisitor) visitor, null);
+                    return;
+                }
                 try {
                     visitor.start(project);
 
@@ -127,9 +141,9 @@ public class Engine {
             return new FilteredRecordsAsFilteredRows(getFilteredRecords(except));
         } else if (_config.getMode().equals(Mode.RowBased)) {
             ConjunctiveFilteredRows cfr = new ConjunctiveFilteredRows();
-            for (Facet facet : _facets) {
-                if (facet != except) {
-                    RowFilter rowFilter = facet.getRowFilter(_project);
+            for (int f = 0; f < _facets.size(); f++) {
+                if (_facets.get(f) != except) {
+                    RowFilter rowFilter = getRowFilter(f);
                     if (rowFilter != null) {
                         cfr.add(rowFilter);
                     }
@@ -189,21 +203,56 @@ public class Engine {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Computes the choices of all facets, each over the rows (or records) matching all other facets. Facet filters are
+     * evaluated once per row, in a single scan shared by all facets.
+     */
     public void computeFacets() {
         if (_config.getMode().equals(Mode.RowBased)) {
-            for (Facet facet : _facets) {
-                FilteredRows filteredRows = getFilteredRows(facet);
+            List<RowFilter> rowFilters = new ArrayList<>(_facets.size());
+            for (int f = 0; f < _facets.size(); f++) {
+                rowFilters.add(getRowFilter(f));
+            }
+            FacetFilterMask mask = hasFilter(rowFilters) ? FacetFilterMask.ofRows(_project, rowFilters) : null;
+            for (int f = 0; f < _facets.size(); f++) {
+                FilteredRows filteredRows = mask != null ? mask.getFilteredRows(f) : getAllRows();
 
-                facet.computeChoices(_project, filteredRows);
+                _facets.get(f).computeChoices(_project, filteredRows);
             }
         } else if (_config.getMode().equals(Mode.RecordBased)) {
+            List<RecordFilter> recordFilters = new ArrayList<>(_facets.size());
             for (Facet facet : _facets) {
-                FilteredRecords filteredRecords = getFilteredRecords(facet);
+                recordFilters.add(facet.getRecordFilter(_project));
+            }
+            FacetFilterMask mask = hasFilter(recordFilters) ? FacetFilterMask.ofRecords(_project, recordFilters) : null;
+            for (int f = 0; f < _facets.size(); f++) {
+                FilteredRecords filteredRecords = mask != null ? mask.getFilteredRecords(f) : getAllRecords();
 
-                facet.computeChoices(_project, filteredRecords);
+                _facets.get(f).computeChoices(_project, filteredRecords);
             }
         } else {
             throw new InternalError("Unknown mode.");
         }
     }
+
+    /**
+     * @return the row filter of a facet, reading its matches from the cache of the project when possible
+     */
+    protected RowFilter getRowFilter(int facetIndex) {
+        RowFilter rowFilter = _facets.get(facetIndex).getRowFilter(_project);
+        List<FacetConfig> facetConfigs = _config.getFacetConfigs();
+        if (rowFilter != null && facetConfigs.size() == _facets.size()) {
+            return RowMatchCache.getRowFilter(_project, facetConfigs.get(facetIndex), rowFilter);
+        }
+        return rowFilter;
+    }
+
+    static private boolean hasFilter(List<?> filters) {
+        for (Object filter : filters) {
+            if (filter != null) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
@@ -68,6 +69,17 @@ public class EngineConfig {
         return _facets;
     }
 
+    /**
+     * Whether the rows selected by this engine config only depend on the state of the project, so that results derived
+     * from them can be cached until it changes.
+     *
+     * @see FacetConfig#isDeterministic()
+     */
+    @JsonIgnore
+    public boolean isDeterministic() {
+        return _facets.stream().allMatch(facetConfig -> facetConfig.isDeterministic());
+    }
+
     /**
      * Checks that all facets in this engine config are valid (rely on syntactically correct expressions, don't contain
      * contradictory options).
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing;
+
+/**
+ * A row visitor whose work can be split across several instances, each visiting a contiguous range of rows, and whose
+ * partial results can then be combined. Filtered rows may use this to scan large projects in parallel (see
+ * {@link com.google.refine.browsing.util.ParallelRowScan}).
+ * <p>
+ * Instances obtained by {@link #split()} are started and ended around the visit of their range, before being merged,
+ * and are visited from another thread than the original visitor. Their visit methods must not abort visitation.
+ */
+public interface MergeableRowVisitor extends RowVisitor {
+
+    /**
+     * @return a new visitor with the same configuration as this one and no results yet
+     */
+    public MergeableRowVisitor split();
+
+    /**
+     * Adds the results of another visitor, obtained by {@link #split()}, to those of this one. Visitors are merged in
+     * the order of the rows they visited: the other visitor only visited rows after those visited by this one.
+     *
+     * @param other
+     *            a visitor obtained from this one by {@link #split()}
+     */
+    public void merge(MergeableRowVisitor other);
+}
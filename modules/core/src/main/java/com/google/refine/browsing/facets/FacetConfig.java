@@ -64,6 +64,25 @@ public interface FacetConfig {
     @JsonIgnore // already included by @JsonTypeInfo
     public String getJsonType();
 
+    /**
+     * The column the facet is based on, if any. Values cached for the facet are stored with the precomputes of that
+     * column, so that they are cleared when it changes.
+     */
+    @JsonIgnore
+    public default String getBaseColumnName() {
+        return null;
+    }
+
+    /**
+     * Whether the rows matched by the facet only depend on the state of the project, so that they can be cached until
+     * it changes. This is not the case of facets evaluating expressions which read other projects, with cross() for
+     * instance, or which call functions such as now() or random().
+     */
+    @JsonIgnore
+    public default boolean isDeterministic() {
+        return false;
+    }
+
     /**
      * Checks that this facet is correctly configured (such as that expressions are syntactically correct and that
      * options are not contradictory). This should not be done in the constructor, as it would endanger the
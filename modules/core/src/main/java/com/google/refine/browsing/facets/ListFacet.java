@@ -33,8 +33,10 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -52,8 +54,12 @@ import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.browsing.util.ApproximateNominalValueGrouper;
+import com.google.refine.browsing.util.CellValueIndex;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.RowMatchCache;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -98,6 +104,11 @@ public class ListFacet implements Facet {
         @JsonProperty("omitError")
         public boolean omitError;
 
+        // If true, only the most frequent choices are counted, approximately, when there are too many of them
+        @JsonProperty("approximate")
+        @JsonInclude(Include.NON_DEFAULT)
+        public boolean approximate;
+
         @JsonIgnore
         public List<DecoratedValue> selection = new LinkedList<>();
         @JsonProperty("selectBlank")
@@ -131,6 +142,16 @@ public class ListFacet implements Facet {
             return "list";
         }
 
+        @Override
+        public String getBaseColumnName() {
+            return columnName;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return ExpressionUtils.isDeterministic(expression);
+        }
+
         @Override
         public void validate() {
             try {
@@ -174,6 +195,9 @@ public class ListFacet implements Facet {
     protected List<NominalFacetChoice> _choices = new LinkedList<NominalFacetChoice>();
     protected int _blankCount;
     protected int _errorCount;
+    // set when the choices are the most frequent ones, with approximate counts
+    protected boolean _approximate;
+    protected long _distinctCount;
 
     public ListFacet() {
     }
@@ -201,7 +225,7 @@ public class ListFacet implements Facet {
     @JsonProperty("error")
     @JsonInclude(Include.NON_NULL)
     public String getError() {
-        if (_errorMessage == null && _choices.size() > getLimit()) {
+        if (_errorMessage == null && !_approximate && _choices.size() > getLimit()) {
             return ERR_TOO_MANY_CHOICES;
         }
         return _errorMessage;
@@ -210,12 +234,25 @@ public class ListFacet implements Facet {
     @JsonProperty("choiceCount")
     @JsonInclude(Include.NON_NULL)
     public Integer getChoiceCount() {
+        if (_approximate) {
+            return (int) Math.min(_distinctCount, Integer.MAX_VALUE);
+        }
         if (_errorMessage == null && _choices.size() > getLimit()) {
             return _choices.size();
         }
         return null;
     }
 
+    /**
+     * @return true if the choices are only the most frequent ones and their counts are approximate. Exact counts can be
+     *         requested by turning off the approximate mode of the facet.
+     */
+    @JsonProperty("approximate")
+    @JsonInclude(Include.NON_DEFAULT)
+    public boolean isApproximate() {
+        return _approximate;
+    }
+
     @JsonProperty("choices")
     @JsonInclude(Include.NON_NULL)
     public List<NominalFacetChoice> getChoices() {
@@ -282,17 +319,37 @@ public class ListFacet implements Facet {
 
     @Override
     public RowFilter getRowFilter(Project project) {
-        return _eval == null ||
+        if (_eval == null ||
                 _errorMessage != null ||
-                (_config.selection.size() == 0 && !_config.selectBlank && !_config.selectError) ? null
-                        : new ExpressionEqualRowFilter(
-                                _eval,
-                                _config.columnName,
-                                _cellIndex,
-                                createMatches(),
-                                _config.selectBlank,
-                                _config.selectError,
-                                _config.invert);
+                (_config.selection.size() == 0 && !_config.selectBlank && !_config.selectError)) {
+            return null;
+        }
+        ExpressionEqualRowFilter rowFilter = new ExpressionEqualRowFilter(
+                _eval,
+                _config.columnName,
+                _cellIndex,
+                createMatches(),
+                _config.selectBlank,
+                _config.selectError,
+                _config.invert);
+        if (_cellIndex >= 0 && isValueExpression()) {
+            // look up the selected values instead of evaluating every row
+            CellValueIndex index = CellValueIndex.getIndex(project, project.columnModel.getColumnByName(_config.columnName));
+            BitSet matches = index == null ? null
+                    : index.getRows(project, createMatches(), _config.selectBlank, _config.selectError,
+                            rowFilter::internalFilterRow);
+            if (matches != null) {
+                if (_config.invert) {
+                    matches.flip(0, project.rows.size());
+                }
+                return new RowMatchCache.RowMatches(matches);
+            }
+        }
+        return rowFilter;
+    }
+
+    protected boolean isValueExpression() {
+        return "value".equals(_config.expression) || "grel:value".equals(_config.expression);
     }
 
     @Override
@@ -304,7 +361,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper();
 
             filteredRows.accept(project, grouper);
 
@@ -315,7 +372,7 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRecords filteredRecords) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = createGrouper();
 
             filteredRecords.accept(project, grouper);
 
@@ -323,15 +380,32 @@ public class ListFacet implements Facet {
         }
     }
 
+    protected ExpressionNominalValueGrouper createGrouper() {
+        if (_config.approximate) {
+            return new ApproximateNominalValueGrouper(_eval, _config.columnName, _cellIndex, getLimit());
+        }
+        return new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+    }
+
     protected void postProcessGrouper(ExpressionNominalValueGrouper grouper) {
         _choices.clear();
-        _choices.addAll(grouper.choices.values());
+        Map<?, ? extends NominalFacetChoice> choices;
+        if (grouper instanceof ApproximateNominalValueGrouper) {
+            ApproximateNominalValueGrouper approximateGrouper = (ApproximateNominalValueGrouper) grouper;
+            choices = approximateGrouper.getChoices();
+            _choices.addAll(approximateGrouper.getTopChoices());
+            _approximate = !approximateGrouper.isExact();
+            _distinctCount = approximateGrouper.getDistinctCount();
+        } else {
+            choices = grouper.choices;
+            _choices.addAll(grouper.choices.values());
+        }
 
         for (DecoratedValue decoratedValue : _config.selection) {
             String valueString = decoratedValue.value.toString();
 
-            if (grouper.choices.containsKey(valueString)) {
-                grouper.choices.get(valueString).selected = true;
+            if (choices.containsKey(valueString)) {
+                choices.get(valueString).selected = true;
             } else {
                 /*
                  * A selected choice can have zero count if it is selected together with other choices, and some other
@@ -52,6 +52,7 @@ import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -126,6 +127,16 @@ public class RangeFacet implements Facet {
             return "range";
         }
 
+        @Override
+        public String getBaseColumnName() {
+            return _columnName;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return ExpressionUtils.isDeterministic(_expression);
+        }
+
         @Override
         public void validate() {
             try {
@@ -42,9 +42,11 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
+import java.util.BitSet;
 
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.NumericProjection;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -70,6 +72,16 @@ public class ScatterplotDrawingRowVisitor implements RowVisitor, RecordVisitor {
 
     AffineTransform r;
 
+    // values read instead of the cells, if set
+    NumericProjection values_x;
+    NumericProjection values_y;
+
+    // positions drawn in the current color, at a quarter of a pixel resolution
+    static final private int SUBPIXELS = 4;
+    static final private int MAX_GRID = 8192;
+    final private int grid;
+    final private BitSet drawn;
+
     public ScatterplotDrawingRowVisitor(
             int col_x, int col_y, double min_x, double max_x, double min_y, double max_y,
             int size, int dim_x, int dim_y, int rotation, double dot, Color color) {
@@ -85,6 +97,8 @@ public class ScatterplotDrawingRowVisitor implements RowVisitor, RecordVisitor {
 
         l = size;
         r = ScatterplotFacet.createRotationMatrix(rotation, l);
+        grid = size * SUBPIXELS <= MAX_GRID ? size * SUBPIXELS : 0;
+        drawn = new BitSet();
 
         image = new BufferedImage(size, size, BufferedImage.TYPE_4BYTE_ABGR);
         g2 = (Graphics2D) image.getGraphics();
@@ -115,6 +129,15 @@ public class ScatterplotDrawingRowVisitor implements RowVisitor, RecordVisitor {
     public void setColor(Color color) {
         g2.setColor(color);
         g2.setPaint(color);
+        drawn.clear();
+    }
+
+    /**
+     * Reads the coordinates of rows from projections of the columns instead of their cells.
+     */
+    public void setValues(NumericProjection values_x, NumericProjection values_y) {
+        this.values_x = values_x;
+        this.values_y = values_y;
     }
 
     @Override
@@ -129,22 +152,42 @@ public class ScatterplotDrawingRowVisitor implements RowVisitor, RecordVisitor {
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
+        if (values_x != null) {
+            double xv = values_x.get(rowIndex);
+            double yv = values_y.get(rowIndex);
+            if (!Double.isNaN(xv) && !Double.isNaN(yv)) {
+                draw(xv, yv);
+            }
+            return false;
+        }
         Cell cellx = row.getCell(col_x);
         Cell celly = row.getCell(col_y);
         if ((cellx != null && cellx.value != null && cellx.value instanceof Number) &&
                 (celly != null && celly.value != null && celly.value instanceof Number)) {
-            double xv = ((Number) cellx.value).doubleValue();
-            double yv = ((Number) celly.value).doubleValue();
-
-            Point2D.Double p = new Point2D.Double(xv, yv);
+            draw(((Number) cellx.value).doubleValue(), ((Number) celly.value).doubleValue());
+        }
 
-            p = ScatterplotFacet.translateCoordinates(
-                    p, min_x, max_x, min_y, max_y, dim_x, dim_y, l, r);
+        return false;
+    }
 
-            g2.fill(new Rectangle2D.Double(p.x - dot / 2, p.y - dot / 2, dot, dot));
+    protected void draw(double xv, double yv) {
+        Point2D.Double p = new Point2D.Double(xv, yv);
+
+        p = ScatterplotFacet.translateCoordinates(
+                p, min_x, max_x, min_y, max_y, dim_x, dim_y, l, r);
+
+        // dots drawn again at the same position would not change the image
+        double gx = Math.floor(p.x * SUBPIXELS);
+        double gy = Math.floor(p.y * SUBPIXELS);
+        if (gx >= 0 && gx < grid && gy >= 0 && gy < grid) {
+            int position = (int) gy * grid + (int) gx;
+            if (drawn.get(position)) {
+                return;
+            }
+            drawn.set(position);
         }
 
-        return false;
+        g2.fill(new Rectangle2D.Double(p.x - dot / 2, p.y - dot / 2, dot, dot));
     }
 
     @Override
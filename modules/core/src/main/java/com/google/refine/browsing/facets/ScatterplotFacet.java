@@ -61,11 +61,14 @@ import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
+import com.google.refine.browsing.util.NumericProjection;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 
 public class ScatterplotFacet implements Facet {
 
@@ -165,6 +168,16 @@ public class ScatterplotFacet implements Facet {
             return "scatterplot";
         }
 
+        @Override
+        public String getBaseColumnName() {
+            return columnName_x;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return ExpressionUtils.isDeterministic(expression_x) && ExpressionUtils.isDeterministic(expression_y);
+        }
+
         @Override
         public void validate() {
             try {
@@ -406,19 +419,29 @@ public class ScatterplotFacet implements Facet {
         if (config.isSelected() &&
                 eval_x != null && errorMessage_x == null &&
                 eval_y != null && errorMessage_y == null) {
+            Column column_x = project.columnModel.getColumnByName(config.columnName_x);
+            Column column_y = project.columnModel.getColumnByName(config.columnName_y);
+            if (column_x != null && column_y != null
+                    && isValueExpression(config.expression_x) && isValueExpression(config.expression_y)) {
+                // read the cached values of the cells instead of evaluating the expressions
+                NumericProjection values_x = NumericProjection.getProjection(project, column_x);
+                NumericProjection values_y = NumericProjection.getProjection(project, column_y);
+                return new RowFilter() {
+
+                    @Override
+                    public boolean filterRow(Project project, int rowIndex, Row row) {
+                        double x = values_x.get(rowIndex);
+                        double y = values_y.get(rowIndex);
+                        return !Double.isNaN(x) && !Double.isNaN(y) && isInSelection(x, y);
+                    }
+                };
+            }
             return new DualExpressionsNumberComparisonRowFilter(
                     eval_x, config.columnName_x, columnIndex_x, eval_y, config.columnName_y, columnIndex_y) {
 
-                double from_x_pixels = config.from_x * config.l;
-                double to_x_pixels = config.to_x * config.l;
-                double from_y_pixels = config.from_y * config.l;
-                double to_y_pixels = config.to_y * config.l;
-
                 @Override
                 protected boolean checkValues(double x, double y) {
-                    Point2D.Double p = new Point2D.Double(x, y);
-                    p = translateCoordinates(p, min_x, max_x, min_y, max_y, config.dim_x, config.dim_y, config.l, t);
-                    return p.x >= from_x_pixels && p.x <= to_x_pixels && p.y >= from_y_pixels && p.y <= to_y_pixels;
+                    return isInSelection(x, y);
                 };
             };
         } else {
@@ -426,6 +449,17 @@ public class ScatterplotFacet implements Facet {
         }
     }
 
+    protected boolean isInSelection(double x, double y) {
+        Point2D.Double p = new Point2D.Double(x, y);
+        p = translateCoordinates(p, min_x, max_x, min_y, max_y, config.dim_x, config.dim_y, config.l, t);
+        return p.x >= config.from_x * config.l && p.x <= config.to_x * config.l
+                && p.y >= config.from_y * config.l && p.y <= config.to_y * config.l;
+    }
+
+    static protected boolean isValueExpression(String expression) {
+        return "value".equals(expression) || "grel:value".equals(expression);
+    }
+
     @Override
     public RecordFilter getRecordFilter(Project project) {
         RowFilter rowFilter = getRowFilter(project);
@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.BitSet;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -44,6 +45,7 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionStringComparisonRowFilter;
+import com.google.refine.browsing.util.TrigramIndex;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.model.Column;
@@ -82,6 +84,16 @@ public class TextSearchFacet implements Facet {
             return "text";
         }
 
+        @Override
+        public String getBaseColumnName() {
+            return _columnName;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return true;
+        }
+
         @Override
         public void validate() {
             if ("regex".equals(_mode)) {
@@ -189,8 +201,9 @@ public class TextSearchFacet implements Facet {
 
         };
 
+        RowFilter rowFilter;
         if ("regex".equals(_config._mode)) {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            rowFilter = new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -198,7 +211,7 @@ public class TextSearchFacet implements Facet {
                 };
             };
         } else {
-            return new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
+            rowFilter = new ExpressionStringComparisonRowFilter(eval, _config._invert, _config._columnName, _cellIndex) {
 
                 @Override
                 protected boolean checkValue(String s) {
@@ -206,6 +219,18 @@ public class TextSearchFacet implements Facet {
                 };
             };
         }
+
+        // only check the rows which the trigram index of the column cannot rule out
+        TrigramIndex index = TrigramIndex.getIndex(project, project.columnModel.getColumnByCellIndex(_cellIndex));
+        if (index != null) {
+            BitSet candidates = "regex".equals(_config._mode)
+                    ? index.getRegexCandidates(_config._query)
+                    : index.getSubstringCandidates(_config._query, _config._caseSensitive);
+            if (candidates != null) {
+                return new TrigramIndex.CandidateRowFilter(rowFilter, candidates, _config._invert);
+            }
+        }
+        return rowFilter;
     }
 
     @Override
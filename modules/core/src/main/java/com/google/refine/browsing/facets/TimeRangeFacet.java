@@ -51,6 +51,7 @@ import com.google.refine.browsing.util.TimeBinIndex;
 import com.google.refine.browsing.util.TimeBinRecordIndex;
 import com.google.refine.browsing.util.TimeBinRowIndex;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
@@ -103,6 +104,16 @@ public class TimeRangeFacet implements Facet {
             return "timerange";
         }
 
+        @Override
+        public String getBaseColumnName() {
+            return _columnName;
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return ExpressionUtils.isDeterministic(_expression);
+        }
+
         @Override
         public void validate() {
             try {
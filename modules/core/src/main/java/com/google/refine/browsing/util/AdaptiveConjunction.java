@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Matches rows accepted by all of several row filters, evaluating them in an order which adapts to their cost and
+ * selectivity. Rows are rejected as soon as one filter rejects them, so cheap filters rejecting most rows are best
+ * evaluated first.
+ * <p>
+ * The time taken by each filter is measured on a sample of the rows, and the filters are periodically sorted by their
+ * average cost divided by the fraction of rows they reject, which minimizes the expected cost of evaluating the
+ * conjunction when filters are independent. This is not thread-safe: parallel scans use one instance per range of
+ * rows.
+ */
+public class AdaptiveConjunction implements RowFilter {
+
+    /**
+     * Evaluations of filters are timed on one row out of this many.
+     */
+    static final public int SAMPLE_INTERVAL = 32;
+
+    /**
+     * Filters are sorted again after this many rows.
+     */
+    static final public int REORDER_INTERVAL = 4096;
+
+    static private class FilterStats {
+
+        final RowFilter filter;
+        long evaluations = 0;
+        long passes = 0;
+        long timedEvaluations = 0;
+        long nanos = 0;
+
+        FilterStats(RowFilter filter) {
+            this.filter = filter;
+        }
+
+        double getRank() {
+            if (timedEvaluations == 0 || evaluations == 0) {
+                return Double.NaN;
+            }
+            double cost = (double) nanos / timedEvaluations;
+            double rejectionRate = 1.0 - (double) passes / evaluations;
+            return rejectionRate > 0 ? cost / rejectionRate : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    final private FilterStats[] _filters;
+    private int _rowCount = 0;
+
+    public AdaptiveConjunction(List<RowFilter> rowFilters) {
+        _filters = new FilterStats[rowFilters.size()];
+        int i = 0;
+        // bitmaps of cached filters are cheap to read: start with them
+        for (RowFilter rowFilter : rowFilters) {
+            if (rowFilter instanceof RowMatchCache.RowMatches) {
+                _filters[i++] = new FilterStats(rowFilter);
+            }
+        }
+        for (RowFilter rowFilter : rowFilters) {
+            if (!(rowFilter instanceof RowMatchCache.RowMatches)) {
+                _filters[i++] = new FilterStats(rowFilter);
+            }
+        }
+    }
+
+    @Override
+    public boolean filterRow(Project project, int rowIndex, Row row) {
+        if (_filters.length < 2) {
+            return _filters.length == 0 || _filters[0].filter.filterRow(project, rowIndex, row);
+        }
+        boolean timed = _rowCount % SAMPLE_INTERVAL == 0;
+        if (++_rowCount % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        for (FilterStats stats : _filters) {
+            boolean passes;
+            if (timed) {
+                long start = System.nanoTime();
+                passes = stats.filter.filterRow(project, rowIndex, row);
+                stats.nanos += System.nanoTime() - start;
+                stats.timedEvaluations++;
+            } else {
+                passes = stats.filter.filterRow(project, rowIndex, row);
+            }
+            stats.evaluations++;
+            if (!passes) {
+                return false;
+            }
+            stats.passes++;
+        }
+        return true;
+    }
+
+    /**
+     * @return the filters, in the order they are currently evaluated
+     */
+    public List<RowFilter> getOrder() {
+        return Arrays.stream(_filters).map(stats -> stats.filter).collect(Collectors.toList());
+    }
+
+    protected void reorder() {
+        // filters not measured yet keep their place after the measured ones; the sort is stable
+        Arrays.sort(_filters, Comparator.comparingDouble(stats -> {
+            double rank = stats.getRank();
+            return Double.isNaN(rank) ? Double.MAX_VALUE : rank;
+        }));
+    }
+}
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import com.google.refine.browsing.DecoratedValue;
+import com.google.refine.browsing.MergeableRowVisitor;
+import com.google.refine.browsing.facets.NominalFacetChoice;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.Project;
+import com.google.refine.util.StringUtils;
+
+/**
+ * Groups matched rows or records into facet choices like {@link ExpressionNominalValueGrouper}, but keeps at most a
+ * given number of choices, so that its memory stays bounded whatever the number of distinct values.
+ * <p>
+ * The most frequent choices are tracked with the Space-Saving algorithm: when a new value comes in and all choices are
+ * taken, it replaces the choice with the smallest count and inherits that count. Counts are thus upper bounds, and
+ * each choice records by how much its count may exceed the actual one. The number of distinct values is estimated
+ * with a {@link HyperLogLog}. As long as no choice has been replaced, all counts are exact.
+ */
+public class ApproximateNominalValueGrouper extends ExpressionNominalValueGrouper {
+
+    static public class ApproximateNominalFacetChoice extends NominalFacetChoice {
+
+        // the count may exceed the actual number of rows or records by up to this amount
+        @JsonProperty("e")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int error;
+
+        final String _key;
+        int _latestIndex;
+        int _heapIndex;
+
+        public ApproximateNominalFacetChoice(DecoratedValue decoratedValue, String key, int latestIndex) {
+            super(decoratedValue);
+            _key = key;
+            _latestIndex = latestIndex;
+        }
+    }
+
+    final protected int _capacity;
+
+    // choices by value, also arranged in a min-heap on their counts
+    final protected Map<String, ApproximateNominalFacetChoice> _choices = new HashMap<>();
+    protected ApproximateNominalFacetChoice[] _heap;
+    protected int _size = 0;
+    // true once a choice has been replaced, making counts approximate
+    protected boolean _truncated = false;
+
+    final protected HyperLogLog _distinct = new HyperLogLog();
+
+    public ApproximateNominalValueGrouper(Evaluable evaluable, String columnName, int cellIndex, int capacity) {
+        super(evaluable, columnName, cellIndex);
+        _capacity = Math.max(1, capacity);
+        _heap = new ApproximateNominalFacetChoice[Math.min(_capacity, 1024)];
+    }
+
+    /**
+     * @return false if some counts are approximate
+     */
+    public boolean isExact() {
+        return !_truncated;
+    }
+
+    /**
+     * @return the tracked choices, by value
+     */
+    public Map<String, ApproximateNominalFacetChoice> getChoices() {
+        return _choices;
+    }
+
+    /**
+     * @return the number of distinct values, estimated if some counts are approximate
+     */
+    public long getDistinctCount() {
+        return _truncated ? Math.max(_distinct.estimate(), _size) : _size;
+    }
+
+    @Override
+    public MergeableRowVisitor split() {
+        return new ApproximateNominalValueGrouper(_evaluable, _columnName, _cellIndex, _capacity);
+    }
+
+    @Override
+    public void merge(MergeableRowVisitor other) {
+        ApproximateNominalValueGrouper grouper = (ApproximateNominalValueGrouper) other;
+        // values missing from a truncated grouper may have been counted up to its smallest count
+        int minCount = _truncated ? _heap[0].count : 0;
+        int otherMinCount = grouper._truncated ? grouper._heap[0].count : 0;
+
+        List<ApproximateNominalFacetChoice> merged = new ArrayList<>(_size + grouper._size);
+        for (ApproximateNominalFacetChoice choice : _choices.values()) {
+            ApproximateNominalFacetChoice otherChoice = grouper._choices.get(choice._key);
+            if (otherChoice != null) {
+                choice.count += otherChoice.count;
+                choice.error += otherChoice.error;
+                choice._latestIndex = Math.max(choice._latestIndex, otherChoice._latestIndex);
+            } else {
+                choice.count += otherMinCount;
+                choice.error += otherMinCount;
+            }
+            merged.add(choice);
+        }
+        for (ApproximateNominalFacetChoice otherChoice : grouper._choices.values()) {
+            if (!_choices.containsKey(otherChoice._key)) {
+                otherChoice.count += minCount;
+                otherChoice.error += minCount;
+                merged.add(otherChoice);
+            }
+        }
+
+        _truncated |= grouper._truncated;
+        if (merged.size() > _capacity) {
+            merged.sort((a, b) -> Integer.compare(b.count, a.count));
+            merged = merged.subList(0, _capacity);
+            _truncated = true;
+        }
+        _choices.clear();
+        _heap = new ApproximateNominalFacetChoice[Math.max(_heap.length, merged.size())];
+        _size = 0;
+        for (ApproximateNominalFacetChoice choice : merged) {
+            _choices.put(choice._key, choice);
+            choice._heapIndex = _size;
+            _heap[_size++] = choice;
+        }
+        for (int i = _size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        _distinct.merge(grouper._distinct);
+        blankCount += grouper.blankCount;
+        errorCount += grouper.errorCount;
+    }
+
+    /**
+     * Approximate counts cannot be updated: they are always computed again.
+     */
+    @Override
+    public boolean removeRows(Project project, int[] rowIndices) {
+        return false;
+    }
+
+    @Override
+    public boolean addRows(Project project, int[] rowIndices) {
+        return false;
+    }
+
+    @Override
+    protected void processValue(Object value, int index) {
+        if (ExpressionUtils.isError(value)) {
+            hasError = true;
+        } else if (ExpressionUtils.isNonBlankData(value)) {
+            String valueString = StringUtils.toString(value);
+            ApproximateNominalFacetChoice choice = _choices.get(valueString);
+
+            if (choice != null) {
+                if (choice._latestIndex < index) {
+                    choice._latestIndex = index;
+                    choice.count++;
+                    siftDown(choice._heapIndex);
+                }
+            } else {
+                // values already tracked have been counted by the estimator before
+                _distinct.add(valueString);
+                choice = new ApproximateNominalFacetChoice(new DecoratedValue(value, valueString), valueString, index);
+                if (_size < _capacity) {
+                    choice.count = 1;
+                    if (_size == _heap.length) {
+                        ApproximateNominalFacetChoice[] heap = new ApproximateNominalFacetChoice[Math.min(_capacity, _size * 2)];
+                        System.arraycopy(_heap, 0, heap, 0, _size);
+                        _heap = heap;
+                    }
+                    choice._heapIndex = _size;
+                    _heap[_size++] = choice;
+                    siftUp(choice._heapIndex);
+                } else {
+                    ApproximateNominalFacetChoice smallest = _heap[0];
+                    _choices.remove(smallest._key);
+                    choice.count = smallest.count + 1;
+                    choice.error = smallest.count;
+                    choice._heapIndex = 0;
+                    _heap[0] = choice;
+                    siftDown(0);
+                    _truncated = true;
+                }
+                _choices.put(valueString, choice);
+            }
+        } else {
+            hasBlank = true;
+        }
+    }
+
+    @Override
+    public Integer getChoiceValueCount(Object choiceValue) {
+        if (ExpressionUtils.isError(choiceValue)) {
+            return errorCount;
+        } else if (ExpressionUtils.isNonBlankData(choiceValue)) {
+            ApproximateNominalFacetChoice choice = _choices.get(StringUtils.toString(choiceValue));
+            return choice != null ? choice.count : 0;
+        } else {
+            return blankCount;
+        }
+    }
+
+    /**
+     * @return the tracked choices, the most frequent first
+     */
+    public List<ApproximateNominalFacetChoice> getTopChoices() {
+        List<ApproximateNominalFacetChoice> choices = new ArrayList<>(_choices.values());
+        Collections.sort(choices, (a, b) -> Integer.compare(b.count, a.count));
+        return choices;
+    }
+
+    private void siftUp(int i) {
+        ApproximateNominalFacetChoice choice = _heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (_heap[parent].count <= choice.count) {
+                break;
+            }
+            place(_heap[parent], i);
+            i = parent;
+        }
+        place(choice, i);
+    }
+
+    private void siftDown(int i) {
+        ApproximateNominalFacetChoice choice = _heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= _size) {
+                break;
+            }
+            if (child + 1 < _size && _heap[child + 1].count < _heap[child].count) {
+                child++;
+            }
+            if (choice.count <= _heap[child].count) {
+                break;
+            }
+            place(_heap[child], i);
+            i = child;
+        }
+        place(choice, i);
+    }
+
+    private void place(ApproximateNominalFacetChoice choice, int i) {
+        _heap[i] = choice;
+        choice._heapIndex = i;
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.IncrementalPrecompute;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Row;
+import com.google.refine.model.SizedPrecompute;
+
+/**
+ * An index of the rows of a column by the values of their cells, used to find the rows holding some values without
+ * evaluating every row: by list facets on the values of the column, and by operations on the cells equal to a value.
+ * <p>
+ * Values are indexed the way list facets compare them, numbers by their double value and other values as they are. The
+ * index is built on first use and stored with the precomputes of the column. It is kept up to date when cells of the
+ * column change, and counted in the memory footprint of the project. It can be disabled by setting the
+ * {@code refine.valueindex} system property to false.
+ */
+public class CellValueIndex implements IncrementalPrecompute, SizedPrecompute {
+
+    static final public String INDEX_PROPERTY = "refine.valueindex";
+
+    static final private String PRECOMPUTE_KEY = "value-index";
+
+    final private int _cellIndex;
+    final private Map<Object, RowPostings> _postings = new HashMap<>();
+    final private RowPostings _blankRows = new RowPostings();
+    final private RowPostings _errorRows = new RowPostings();
+    // rows whose values are not strings, and whose string form is not looked up
+    final private RowPostings _nonStringRows = new RowPostings();
+    // rows whose values are not plain scalars, which are not indexed
+    final private BitSet _unindexed = new BitSet();
+    private int _rowCount;
+
+    protected CellValueIndex(Project project, int cellIndex) {
+        _cellIndex = cellIndex;
+        _rowCount = project.rows.size();
+        for (int rowIndex = 0; rowIndex < _rowCount; rowIndex++) {
+            addRow(project.rows.get(rowIndex), rowIndex);
+        }
+    }
+
+    static public boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(INDEX_PROPERTY, "true"));
+    }
+
+    /**
+     * @return the index of the column, built if needed, or null if indexing is disabled
+     */
+    static public CellValueIndex getIndex(Project project, Column column) {
+        if (!isEnabled() || column == null) {
+            return null;
+        }
+        synchronized (column) {
+            CellValueIndex index = (CellValueIndex) column.getPrecompute(PRECOMPUTE_KEY);
+            if (index == null || index._rowCount != project.rows.size()) {
+                index = new CellValueIndex(project, column.getCellIndex());
+                column.setPrecompute(PRECOMPUTE_KEY, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Rows matched by a list facet on the values of the column, before inverting it.
+     *
+     * @param values
+     *            the selected values
+     * @param unindexedFilter
+     *            the filter of the facet, used for rows whose values are not indexed
+     * @return the matching rows, or null if some selected values cannot be looked up in the index
+     */
+    synchronized public BitSet getRows(Project project, Object[] values, boolean selectBlank, boolean selectError,
+            RowFilter unindexedFilter) {
+        BitSet rows = new BitSet(_rowCount);
+        for (Object value : values) {
+            if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+                return null;
+            } else if (value instanceof Number && Double.isNaN(((Number) value).doubleValue())) {
+                // NaN is not equal to any number, including itself
+                continue;
+            }
+            RowPostings postings = _postings.get(toKey(value));
+            if (postings != null) {
+                postings.addTo(rows);
+            }
+        }
+        if (selectBlank) {
+            _blankRows.addTo(rows);
+        }
+        if (selectError) {
+            _errorRows.addTo(rows);
+        }
+        for (int rowIndex = _unindexed.nextSetBit(0); rowIndex >= 0; rowIndex = _unindexed.nextSetBit(rowIndex + 1)) {
+            if (unindexedFilter.filterRow(project, rowIndex, project.rows.get(rowIndex))) {
+                rows.set(rowIndex);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Rows which can hold a value whose string form is the given string. Rows whose values are not strings are always
+     * included, so the values of the rows must still be checked.
+     */
+    synchronized public BitSet getStringCandidates(String value) {
+        BitSet rows = (BitSet) _unindexed.clone();
+        _nonStringRows.addTo(rows);
+        if (value.isEmpty()) {
+            _blankRows.addTo(rows);
+        }
+        RowPostings postings = _postings.get(value);
+        if (postings != null) {
+            postings.addTo(rows);
+        }
+        return rows;
+    }
+
+    @Override
+    synchronized public boolean removeRows(Project project, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            Object value = getValue(project.rows.get(rowIndex));
+            if (!isIndexable(value)) {
+                _unindexed.clear(rowIndex);
+            } else if (ExpressionUtils.isError(value)) {
+                _errorRows.remove(rowIndex);
+            } else if (!ExpressionUtils.isNonBlankData(value)) {
+                _blankRows.remove(rowIndex);
+            } else {
+                Object key = toKey(value);
+                RowPostings postings = _postings.get(key);
+                if (postings != null) {
+                    postings.remove(rowIndex);
+                    if (postings.size() == 0) {
+                        _postings.remove(key);
+                    }
+                }
+                if (!(value instanceof String)) {
+                    _nonStringRows.remove(rowIndex);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    synchronized public boolean addRows(Project project, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            addRow(project.rows.get(rowIndex), rowIndex);
+        }
+        return true;
+    }
+
+    @Override
+    synchronized public long estimateMemorySize() {
+        long size = ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * (_postings.size() * 4 / 3 + 16);
+        for (Map.Entry<Object, RowPostings> entry : _postings.entrySet()) {
+            // keys are strings, doubles, booleans or dates, sized like cell values
+            size += ProjectSizeEstimator.MAP_ENTRY + ProjectSizeEstimator.estimateValue((Serializable) entry.getKey())
+                    + entry.getValue().estimateMemorySize();
+        }
+        size += _blankRows.estimateMemorySize() + _errorRows.estimateMemorySize() + _nonStringRows.estimateMemorySize();
+        return size + 2 * ProjectSizeEstimator.OBJECT_HEADER + _unindexed.size() / 8;
+    }
+
+    private void addRow(Row row, int rowIndex) {
+        Object value = getValue(row);
+        if (!isIndexable(value)) {
+            _unindexed.set(rowIndex);
+        } else if (ExpressionUtils.isError(value)) {
+            _errorRows.add(rowIndex);
+        } else if (!ExpressionUtils.isNonBlankData(value)) {
+            _blankRows.add(rowIndex);
+        } else {
+            _postings.computeIfAbsent(toKey(value), k -> new RowPostings()).add(rowIndex);
+            if (!(value instanceof String)) {
+                _nonStringRows.add(rowIndex);
+            }
+        }
+    }
+
+    private Object getValue(Row row) {
+        Cell cell = row.getCell(_cellIndex);
+        return cell == null ? null : cell.value;
+    }
+
+    static private boolean isIndexable(Object value) {
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof OffsetDateTime || ExpressionUtils.isError(value);
+    }
+
+    /**
+     * @return the key of a value in the index, equal for values which list facets consider equal
+     */
+    static private Object toKey(Object value) {
+        if (value instanceof Number) {
+            // adding zero turns -0.0 into 0.0, which compares equal to it
+            return Double.valueOf(((Number) value).doubleValue() + 0.0);
+        }
+        return value;
+    }
+}
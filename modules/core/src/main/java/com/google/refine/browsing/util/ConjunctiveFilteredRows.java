@@ -33,10 +33,13 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
@@ -44,7 +47,7 @@ import com.google.refine.model.Row;
 
 /**
  * Encapsulate logic for visiting rows that match all give row filters. Also visit context rows and dependent rows if
- * configured so.
+ * configured so. Filters are evaluated in the order given by an {@link AdaptiveConjunction}.
  */
 public class ConjunctiveFilteredRows implements FilteredRows {
 
@@ -56,15 +59,37 @@ public class ConjunctiveFilteredRows implements FilteredRows {
 
     @Override
     public void accept(Project project, RowVisitor visitor) {
+        if (ParallelRowScan.canScan(project, visitor)) {
+            ParallelRowScan.scanWithMatchers(project, (MergeableRowVisitor) visitor,
+                    () -> new AdaptiveConjunction(_rowFilters)::filterRow);
+            return;
+        }
+        BitSet matches = getCachedMatches();
         try {
             visitor.start(project);
 
             int c = project.rows.size();
-            for (int rowIndex = 0; rowIndex < c; rowIndex++) {
-                Row row = project.rows.get(rowIndex);
-                if (matchRow(project, rowIndex, row)) {
-                    if (visitRow(project, visitor, rowIndex, row)) {
-                        break;
+            if (matches != null) {
+                // only visit rows matched by all cached filters, checking the other filters on them
+                AdaptiveConjunction conjunction = new AdaptiveConjunction(_rowFilters.stream()
+                        .filter(rowFilter -> !(rowFilter instanceof RowMatchCache.RowMatches))
+                        .collect(Collectors.toList()));
+                for (int rowIndex = matches.nextSetBit(0); rowIndex >= 0 && rowIndex < c; rowIndex = matches.nextSetBit(rowIndex + 1)) {
+                    Row row = project.rows.get(rowIndex);
+                    if (conjunction.filterRow(project, rowIndex, row)) {
+                        if (visitRow(project, visitor, rowIndex, row)) {
+                            break;
+                        }
+                    }
+                }
+            } else {
+                AdaptiveConjunction conjunction = new AdaptiveConjunction(_rowFilters);
+                for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+                    Row row = project.rows.get(rowIndex);
+                    if (conjunction.filterRow(project, rowIndex, row)) {
+                        if (visitRow(project, visitor, rowIndex, row)) {
+                            break;
+                        }
                     }
                 }
             }
@@ -73,10 +98,34 @@ public class ConjunctiveFilteredRows implements FilteredRows {
         }
     }
 
+    /**
+     * @return the intersection of the bitmaps of cached filters, or null if there are none
+     */
+    protected BitSet getCachedMatches() {
+        BitSet matches = null;
+        for (RowFilter rowFilter : _rowFilters) {
+            if (rowFilter instanceof RowMatchCache.RowMatches) {
+                BitSet filterMatches = ((RowMatchCache.RowMatches) rowFilter).getMatches();
+                if (matches == null) {
+                    matches = (BitSet) filterMatches.clone();
+                } else {
+                    matches.and(filterMatches);
+                }
+            }
+        }
+        return matches;
+    }
+
     protected boolean visitRow(Project project, RowVisitor visitor, int rowIndex, Row row) {
         return visitor.visit(project, rowIndex, rowIndex, row);
     }
 
+    /**
+     * @return true if the row matches all row filters, evaluated in the order they were added
+     * @deprecated {@link #accept(Project, RowVisitor)} no longer calls this method, as it evaluates the filters in the
+     *             order given by an {@link AdaptiveConjunction}. Overriding it has no effect on the rows visited.
+     */
+    @Deprecated(since = "3.9")
     protected boolean matchRow(Project project, int rowIndex, Row row) {
         for (RowFilter rowFilter : _rowFilters) {
             if (!rowFilter.filterRow(project, rowIndex, row)) {
@@ -65,4 +65,9 @@ public class ExpressionBasedRowEvaluable implements RowEvaluable {
 
         return _eval.evaluate(bindings);
     }
+
+    @Override
+    public boolean dependsOnRowOnly() {
+        return ExpressionUtils.dependsOnRowOnly(_eval, _columnName);
+    }
 }
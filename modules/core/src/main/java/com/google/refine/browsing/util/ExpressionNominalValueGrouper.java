@@ -41,12 +41,13 @@ import java.util.Map;
 import java.util.Properties;
 
 import com.google.refine.browsing.DecoratedValue;
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
 import com.google.refine.browsing.facets.NominalFacetChoice;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Cell;
+import com.google.refine.model.IncrementalPrecompute;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -55,7 +56,7 @@ import com.google.refine.util.StringUtils;
 /**
  * Visit matched rows or records and group them into facet choices based on the values computed from a given expression.
  */
-public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor {
+public class ExpressionNominalValueGrouper implements MergeableRowVisitor, RecordVisitor, IncrementalPrecompute {
 
     static public class IndexedNominalFacetChoice extends NominalFacetChoice {
 
@@ -103,6 +104,74 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         // nothing to do
     }
 
+    @Override
+    public MergeableRowVisitor split() {
+        return new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex);
+    }
+
+    @Override
+    public void merge(MergeableRowVisitor other) {
+        ExpressionNominalValueGrouper grouper = (ExpressionNominalValueGrouper) other;
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : grouper.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice != null) {
+                choice.count += entry.getValue().count;
+                choice._latestIndex = Math.max(choice._latestIndex, entry.getValue()._latestIndex);
+            } else {
+                choices.put(entry.getKey(), entry.getValue());
+            }
+        }
+        blankCount += grouper.blankCount;
+        errorCount += grouper.errorCount;
+    }
+
+    /**
+     * Removes the choices of some rows, when this grouper has visited all rows of the project and is cached as a
+     * precompute.
+     */
+    @Override
+    public boolean removeRows(Project project, int[] rowIndices) {
+        if (!ExpressionUtils.dependsOnRowOnly(_evaluable, _columnName)) {
+            // the choices of other rows may change too
+            return false;
+        }
+        ExpressionNominalValueGrouper grouper = visitRows(project, rowIndices);
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : grouper.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice == null) {
+                return false;
+            }
+            choice.count -= entry.getValue().count;
+            if (choice.count <= 0) {
+                choices.remove(entry.getKey());
+            }
+        }
+        blankCount -= grouper.blankCount;
+        errorCount -= grouper.errorCount;
+        return true;
+    }
+
+    /**
+     * Adds the choices of some rows, when this grouper has visited all rows of the project and is cached as a
+     * precompute.
+     */
+    @Override
+    public boolean addRows(Project project, int[] rowIndices) {
+        if (!ExpressionUtils.dependsOnRowOnly(_evaluable, _columnName)) {
+            return false;
+        }
+        merge(visitRows(project, rowIndices));
+        return true;
+    }
+
+    private ExpressionNominalValueGrouper visitRows(Project project, int[] rowIndices) {
+        ExpressionNominalValueGrouper grouper = (ExpressionNominalValueGrouper) split();
+        for (int rowIndex : rowIndices) {
+            grouper.visit(project, rowIndex, rowIndex, project.rows.get(rowIndex));
+        }
+        return grouper;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         hasError = false;
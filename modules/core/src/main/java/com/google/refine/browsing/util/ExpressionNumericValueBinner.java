@@ -36,8 +36,8 @@ package com.google.refine.browsing.util;
 import java.util.Collection;
 import java.util.Properties;
 
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -46,7 +46,7 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the numbers computed from a given expression.
  */
-public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionNumericValueBinner implements MergeableRowVisitor, RecordVisitor {
 
     /*
      * Configuration
@@ -87,6 +87,23 @@ public class ExpressionNumericValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public MergeableRowVisitor split() {
+        return new ExpressionNumericValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void merge(MergeableRowVisitor other) {
+        ExpressionNumericValueBinner binner = (ExpressionNumericValueBinner) other;
+        for (int b = 0; b < bins.length; b++) {
+            bins[b] += binner.bins[b];
+        }
+        numericCount += binner.numericCount;
+        nonNumericCount += binner.nonNumericCount;
+        blankCount += binner.blankCount;
+        errorCount += binner.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
@@ -37,8 +37,8 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Properties;
 
+import com.google.refine.browsing.MergeableRowVisitor;
 import com.google.refine.browsing.RecordVisitor;
-import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -47,7 +47,7 @@ import com.google.refine.model.Row;
 /**
  * Visit matched rows or records and slot them into bins based on the date computed from a given expression.
  */
-public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
+public class ExpressionTimeValueBinner implements MergeableRowVisitor, RecordVisitor {
 
     /*
      * Configuration
@@ -88,6 +88,23 @@ public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
         // nothing to do
     }
 
+    @Override
+    public MergeableRowVisitor split() {
+        return new ExpressionTimeValueBinner(_rowEvaluable, _index);
+    }
+
+    @Override
+    public void merge(MergeableRowVisitor other) {
+        ExpressionTimeValueBinner binner = (ExpressionTimeValueBinner) other;
+        for (int b = 0; b < bins.length; b++) {
+            bins[b] += binner.bins[b];
+        }
+        timeCount += binner.timeCount;
+        nonTimeCount += binner.nonTimeCount;
+        blankCount += binner.blankCount;
+        errorCount += binner.errorCount;
+    }
+
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
         resetFlags();
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.List;
+
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.MergeableRowVisitor;
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/**
+ * Evaluates the filters of all facets in a single scan, recording for each row (or record) which facets reject it.
+ * <p>
+ * Each facet computes its choices over the rows matching all other facets. Instead of evaluating all other filters
+ * again for each facet, facets then iterate over rows whose only rejecting facet, if any, is themselves, so that each
+ * filter is evaluated once per row.
+ */
+public class FacetFilterMask {
+
+    // all filters accept the row
+    static final private int MATCHED = -1;
+    // several filters reject the row
+    static final private int REJECTED = -2;
+
+    /**
+     * For each row or record, {@link #MATCHED}, {@link #REJECTED}, or the index of the only filter rejecting it.
+     */
+    final protected int[] _rejections;
+
+    protected FacetFilterMask(int[] rejections) {
+        _rejections = rejections;
+    }
+
+    /**
+     * @param filters
+     *            the row filters of the facets, null for facets which do not filter
+     */
+    static public FacetFilterMask ofRows(Project project, List<RowFilter> filters) {
+        int c = project.rows.size();
+        int[] rejections = new int[c];
+        for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+            Row row = project.rows.get(rowIndex);
+            int rejection = MATCHED;
+            for (int f = 0; f < filters.size() && rejection != REJECTED; f++) {
+                RowFilter filter = filters.get(f);
+                if (filter != null && !filter.filterRow(project, rowIndex, row)) {
+                    rejection = rejection == MATCHED ? f : REJECTED;
+                }
+            }
+            rejections[rowIndex] = rejection;
+        }
+        return new FacetFilterMask(rejections);
+    }
+
+    /**
+     * @param filters
+     *            the record filters of the facets, null for facets which do not filter
+     */
+    static public FacetFilterMask ofRecords(Project project, List<RecordFilter> filters) {
+        int c = project.recordModel.getRecordCount();
+        int[] rejections = new int[c];
+        for (int r = 0; r < c; r++) {
+            Record record = project.recordModel.getRecord(r);
+            int rejection = MATCHED;
+            for (int f = 0; f < filters.size() && rejection != REJECTED; f++) {
+                RecordFilter filter = filters.get(f);
+                if (filter != null && !filter.filterRecord(project, record)) {
+                    rejection = rejection == MATCHED ? f : REJECTED;
+                }
+            }
+            rejections[r] = rejection;
+        }
+        return new FacetFilterMask(rejections);
+    }
+
+    protected boolean matches(int index, int except) {
+        int rejection = _rejections[index];
+        return rejection == MATCHED || rejection == except;
+    }
+
+    /**
+     * @return the rows accepted by all filters but the given one
+     */
+    public FilteredRows getFilteredRows(int except) {
+        return new FilteredRows() {
+
+            @Override
+            public void accept(Project project, RowVisitor visitor) {
+                if (ParallelRowScan.canScan(project, visitor)) {
+                    ParallelRowScan.scan(project, (MergeableRowVisitor) visitor,
+                            (p, rowIndex, row) -> matches(rowIndex, except));
+                    return;
+                }
+                try {
+                    visitor.start(project);
+
+                    for (int rowIndex = 0; rowIndex < _rejections.length; rowIndex++) {
+                        if (matches(rowIndex, except)) {
+                            if (visitor.visit(project, rowIndex, rowIndex, project.rows.get(rowIndex))) {
+                                break;
+                            }
+                        }
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the records accepted by all filters but the given one
+     */
+    public FilteredRecords getFilteredRecords(int except) {
+        return new FilteredRecords() {
+
+            @Override
+            public void accept(Project project, RecordVisitor visitor) {
+                try {
+                    visitor.start(project);
+
+                    for (int r = 0; r < _rejections.length; r++) {
+                        if (matches(r, except)) {
+                            Record record = project.recordModel.getRecord(r);
+                            if (visitor.visit(project, record.fromRowIndex, record)) {
+                                return;
+                            }
+                        }
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+}
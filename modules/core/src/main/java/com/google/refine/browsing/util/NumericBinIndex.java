@@ -33,9 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -59,6 +57,10 @@ abstract public class NumericBinIndex {
     protected double _step;
     protected int[] _bins;
 
+    // smallest and largest values indexed, which determine the bins
+    protected double _minValue;
+    protected double _maxValue;
+
     protected int _numericRowCount;
     protected int _nonNumericRowCount;
     protected int _blankRowCount;
@@ -69,18 +71,19 @@ abstract public class NumericBinIndex {
     protected boolean _hasNumeric = false;
     protected boolean _hasBlank = false;
 
-    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, List<Double> allValues);
+    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, DoubleValues allValues);
 
     public NumericBinIndex(Project project, RowEvaluable rowEvaluable) {
         _min = Double.POSITIVE_INFINITY;
         _max = Double.NEGATIVE_INFINITY;
 
-        // TODO: An array of doubles would be more memmory efficient - double[] allValues
-        List<Double> allValues = new ArrayList<Double>();
+        DoubleValues allValues = new DoubleValues();
 
         iterate(project, rowEvaluable, allValues);
 
         _numbericValueCount = allValues.size();
+        _minValue = _min;
+        _maxValue = _max;
 
         if (_min >= _max) {
             _step = 1;
@@ -120,12 +123,70 @@ abstract public class NumericBinIndex {
         }
 
         _bins = new int[(int) Math.round(binCount)];
-        for (double d : allValues) {
+        for (int i = 0; i < allValues.size(); i++) {
+            double d = allValues.get(i);
             int bin = Math.max((int) Math.floor((d - _min) / _step), 0);
             _bins[bin]++;
         }
     }
 
+    /**
+     * Creates an empty index, used to accumulate the values of some rows before merging them into a complete index
+     * with {@link #mergeCounts(NumericBinIndex)} or {@link #updateCounts(NumericBinIndex, DoubleValues, int)}.
+     */
+    protected NumericBinIndex() {
+        _min = Double.POSITIVE_INFINITY;
+        _max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Adds the value and row counts accumulated by a partial index to those of this one.
+     */
+    protected void mergeCounts(NumericBinIndex partial) {
+        _totalValueCount += partial._totalValueCount;
+        _min = Math.min(_min, partial._min);
+        _max = Math.max(_max, partial._max);
+        _numericRowCount += partial._numericRowCount;
+        _nonNumericRowCount += partial._nonNumericRowCount;
+        _blankRowCount += partial._blankRowCount;
+        _errorRowCount += partial._errorRowCount;
+    }
+
+    /**
+     * Adds or removes the values and row counts of some rows, computed by a partial index. This is only possible if
+     * the bins stay the same, that is to say when the smallest and largest values are neither removed nor exceeded.
+     *
+     * @param partial
+     *            counts of the rows
+     * @param values
+     *            values of the rows
+     * @param sign
+     *            1 to add the rows, -1 to remove them
+     * @return false if the bins would change, in which case the index is left unchanged
+     */
+    protected boolean updateCounts(NumericBinIndex partial, DoubleValues values, int sign) {
+        if (_minValue >= _maxValue) {
+            return false;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            double v = values.get(i);
+            if (sign < 0 ? (v <= _minValue || v >= _maxValue) : (v < _minValue || v > _maxValue)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < values.size(); i++) {
+            double v = values.get(i);
+            _bins[Math.max((int) Math.floor((v - _min) / _step), 0)] += sign;
+        }
+        _numbericValueCount += sign * values.size();
+        _totalValueCount += sign * partial._totalValueCount;
+        _numericRowCount += sign * partial._numericRowCount;
+        _nonNumericRowCount += sign * partial._nonNumericRowCount;
+        _blankRowCount += sign * partial._blankRowCount;
+        _errorRowCount += sign * partial._errorRowCount;
+        return true;
+    }
+
     public boolean isNumeric() {
         return _numbericValueCount > _totalValueCount / 2;
     }
@@ -165,7 +226,7 @@ abstract public class NumericBinIndex {
     protected void processRow(
             Project project,
             RowEvaluable rowEvaluable,
-            List<Double> allValues,
+            DoubleValues allValues,
             int rowIndex,
             Row row,
             Properties bindings) {
@@ -255,7 +316,7 @@ abstract public class NumericBinIndex {
         }
     }
 
-    protected boolean processValue(double v, List<Double> allValues) {
+    protected boolean processValue(double v, DoubleValues allValues) {
         if (!Double.isInfinite(v) && !Double.isNaN(v)) {
             _min = Math.min(_min, v);
             _max = Math.max(_max, v);
@@ -37,23 +37,76 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.IncrementalPrecompute;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
-public class NumericBinRowIndex extends NumericBinIndex {
+public class NumericBinRowIndex extends NumericBinIndex implements IncrementalPrecompute {
+
+    final private RowEvaluable _rowEvaluable;
 
     public NumericBinRowIndex(Project project, RowEvaluable rowEvaluable) {
 
         super(project, rowEvaluable);
+        _rowEvaluable = rowEvaluable;
+    }
+
+    private NumericBinRowIndex() {
+        super();
+        _rowEvaluable = null;
+    }
+
+    @Override
+    public boolean removeRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, -1);
+    }
+
+    @Override
+    public boolean addRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, 1);
+    }
+
+    protected boolean updateRows(Project project, int[] rowIndices, int sign) {
+        if (!_rowEvaluable.dependsOnRowOnly()) {
+            // the values of other rows may change too
+            return false;
+        }
+        NumericBinRowIndex partial = new NumericBinRowIndex();
+        DoubleValues values = new DoubleValues();
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int rowIndex : rowIndices) {
+            partial.preprocessing();
+            partial.processRow(project, _rowEvaluable, values, rowIndex, project.rows.get(rowIndex), bindings);
+            partial.postprocessing();
+        }
+        return updateCounts(partial, values, sign);
     }
 
     @Override
     protected void iterate(
-            Project project, RowEvaluable rowEvaluable, List<Double> allValues) {
+            Project project, RowEvaluable rowEvaluable, DoubleValues allValues) {
+
+        if (ParallelRowScan.canSplit(project.rows.size())) {
+            List<PartialIndex> partials = ParallelRowScan.scanRanges(project.rows.size(), (from, to) -> {
+                PartialIndex partial = new PartialIndex();
+                partial.iterate(project, rowEvaluable, from, to);
+                return partial;
+            });
+            for (PartialIndex partial : partials) {
+                mergeCounts(partial.index);
+                allValues.addAll(partial.values);
+            }
+        } else {
+            iterate(project, rowEvaluable, allValues, 0, project.rows.size());
+        }
+    }
+
+    protected void iterate(
+            Project project, RowEvaluable rowEvaluable, DoubleValues allValues, int fromRowIndex, int toRowIndex) {
 
         Properties bindings = ExpressionUtils.createBindings(project);
 
-        for (int i = 0; i < project.rows.size(); i++) {
+        for (int i = fromRowIndex; i < toRowIndex; i++) {
             Row row = project.rows.get(i);
 
             preprocessing();
@@ -64,4 +117,16 @@ public class NumericBinRowIndex extends NumericBinIndex {
         }
     }
 
+    /**
+     * Values and counts of a range of rows, scanned in parallel with other ranges.
+     */
+    static private class PartialIndex {
+
+        final NumericBinRowIndex index = new NumericBinRowIndex();
+        final DoubleValues values = new DoubleValues();
+
+        void iterate(Project project, RowEvaluable rowEvaluable, int fromRowIndex, int toRowIndex) {
+            index.iterate(project, rowEvaluable, values, fromRowIndex, toRowIndex);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.IncrementalPrecompute;
+import com.google.refine.model.Project;
+
+/**
+ * The numeric values of the cells of a column, stored in an array of doubles with the precomputes of the column. Cells
+ * which do not hold a finite number are stored as NaN.
+ * <p>
+ * This lets scatterplots filter and draw rows without reading their cells again. The values are kept up to date when
+ * cells of the column change.
+ */
+public class NumericProjection implements IncrementalPrecompute {
+
+    static final private String PRECOMPUTE_KEY = "numeric-projection";
+
+    final private int _cellIndex;
+    final private double[] _values;
+
+    protected NumericProjection(Project project, int cellIndex) {
+        _cellIndex = cellIndex;
+        int rowCount = project.rows.size();
+        _values = new double[rowCount];
+        if (ParallelRowScan.canSplit(rowCount)) {
+            ParallelRowScan.scanRanges(rowCount, (from, to) -> {
+                project(project, from, to);
+                return null;
+            });
+        } else {
+            project(project, 0, rowCount);
+        }
+    }
+
+    /**
+     * @return the numeric values of the cells of a column, computed if needed
+     */
+    static public NumericProjection getProjection(Project project, Column column) {
+        synchronized (column) {
+            NumericProjection projection = (NumericProjection) column.getPrecompute(PRECOMPUTE_KEY);
+            if (projection == null || projection._values.length != project.rows.size()) {
+                projection = new NumericProjection(project, column.getCellIndex());
+                column.setPrecompute(PRECOMPUTE_KEY, projection);
+            }
+            return projection;
+        }
+    }
+
+    /**
+     * @return the value of a row, or NaN if it has no numeric value
+     */
+    public double get(int rowIndex) {
+        return rowIndex < _values.length ? _values[rowIndex] : Double.NaN;
+    }
+
+    public int size() {
+        return _values.length;
+    }
+
+    @Override
+    public boolean removeRows(Project project, int[] rowIndices) {
+        return true;
+    }
+
+    @Override
+    public boolean addRows(Project project, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            _values[rowIndex] = toDouble(project.rows.get(rowIndex).getCell(_cellIndex));
+        }
+        return true;
+    }
+
+    private void project(Project project, int fromRowIndex, int toRowIndex) {
+        for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+            _values[rowIndex] = toDouble(project.rows.get(rowIndex).getCell(_cellIndex));
+        }
+    }
+
+    static private double toDouble(Cell cell) {
+        if (cell != null && cell.value instanceof Number) {
+            double d = ((Number) cell.value).doubleValue();
+            return Double.isInfinite(d) ? Double.NaN : d;
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import com.google.refine.browsing.MergeableRowVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.WorkerPool;
+
+/**
+ * Scans the rows of a project in parallel on the {@link WorkerPool}, by splitting them into contiguous ranges which are
+ * visited by separate instances of a {@link MergeableRowVisitor}. The partial results are merged in row order.
+ * <p>
+ * Since expressions and column precomputes are not all safe to evaluate concurrently, parallel scans are disabled
+ * unless the {@code refine.scan.parallel} system property is set to true.
+ */
+public class ParallelRowScan {
+
+    static final public String PARALLEL_SCAN_PROPERTY = "refine.scan.parallel";
+
+    /**
+     * Minimum number of rows scanned by a single task.
+     */
+    static final public int MIN_SPLIT_SIZE = 16384;
+
+    /**
+     * Decides which rows of a parallel scan are visited.
+     */
+    public interface RowMatcher {
+
+        boolean matchRow(Project project, int rowIndex, Row row);
+    }
+
+    /**
+     * Computes a partial result over a range of rows.
+     */
+    public interface RangeScanner<T> {
+
+        T scan(int fromRowIndex, int toRowIndex);
+    }
+
+    private ParallelRowScan() {
+    }
+
+    static public boolean isEnabled() {
+        return Boolean.getBoolean(PARALLEL_SCAN_PROPERTY) && WorkerPool.isParallel();
+    }
+
+    /**
+     * @return true if that many rows are worth scanning in parallel
+     */
+    static public boolean canSplit(int rowCount) {
+        return rowCount >= 2 * MIN_SPLIT_SIZE && isEnabled();
+    }
+
+    /**
+     * @return true if the rows of the project can be visited with {@link #scan(Project, MergeableRowVisitor, RowMatcher)}
+     */
+    static public boolean canScan(Project project, RowVisitor visitor) {
+        return visitor instanceof MergeableRowVisitor && canSplit(project.rows.size());
+    }
+
+    /**
+     * Starts the visitor, visits all rows accepted by the matcher with splits of the visitor, merges them back and ends
+     * the visitor.
+     *
+     * @param matcher
+     *            the rows to visit, or null to visit all rows
+     */
+    static public void scan(Project project, MergeableRowVisitor visitor, RowMatcher matcher) {
+        scanWithMatchers(project, visitor, () -> matcher);
+    }
+
+    /**
+     * Like {@link #scan(Project, MergeableRowVisitor, RowMatcher)}, with a separate matcher for each range of rows, for
+     * matchers which are not thread-safe.
+     *
+     * @param matchers
+     *            supplies the matcher of each range, which may be null to visit all rows
+     */
+    static public void scanWithMatchers(Project project, MergeableRowVisitor visitor, Supplier<RowMatcher> matchers) {
+        try {
+            visitor.start(project);
+
+            List<MergeableRowVisitor> splits = scanRanges(project.rows.size(), (from, to) -> {
+                MergeableRowVisitor split = visitor.split();
+                RowMatcher matcher = matchers.get();
+                try {
+                    split.start(project);
+                    for (int rowIndex = from; rowIndex < to; rowIndex++) {
+                        Row row = project.rows.get(rowIndex);
+                        if (matcher == null || matcher.matchRow(project, rowIndex, row)) {
+                            split.visit(project, rowIndex, rowIndex, row);
+                        }
+                    }
+                } finally {
+                    split.end(project);
+                }
+                return split;
+            });
+            for (MergeableRowVisitor split : splits) {
+                visitor.merge(split);
+            }
+        } finally {
+            visitor.end(project);
+        }
+    }
+
+    /**
+     * Splits rows into contiguous ranges and scans them on the worker pool.
+     *
+     * @return the partial results, in row order
+     */
+    static public <T> List<T> scanRanges(int rowCount, RangeScanner<T> scanner) {
+        int splitCount = Math.max(1, Math.min(4 * WorkerPool.getParallelism(), rowCount / MIN_SPLIT_SIZE));
+        ForkJoinPool pool = WorkerPool.getPool();
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(splitCount);
+        for (int s = 0; s < splitCount; s++) {
+            int from = (int) ((long) rowCount * s / splitCount);
+            int to = (int) ((long) rowCount * (s + 1) / splitCount);
+            tasks.add(pool.submit(() -> scanner.scan(from, to)));
+        }
+
+        List<T> results = new ArrayList<>(splitCount);
+        try {
+            for (ForkJoinTask<T> task : tasks) {
+                results.add(task.join());
+            }
+        } finally {
+            for (ForkJoinTask<T> task : tasks) {
+                task.cancel(false);
+            }
+        }
+        return results;
+    }
+}
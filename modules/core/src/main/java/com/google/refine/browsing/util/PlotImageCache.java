@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.SizedPrecompute;
+
+/**
+ * Caches rendered plot images, stored with the precomputes of the column plotted on the x axis.
+ * <p>
+ * Images are keyed by the configuration of the plot and of the engine filtering its rows. Like the bitmaps of
+ * {@link RowMatchCache}, they are only valid for the state of the project they were rendered from, identified by its
+ * last done history entry. Their bytes are counted in the memory footprint of the project.
+ */
+public class PlotImageCache implements SizedPrecompute {
+
+    static final private String PRECOMPUTE_KEY = "plot-image-cache";
+
+    /**
+     * Maximum number of images cached for a column.
+     */
+    static final public int MAX_ENTRIES = 64;
+
+    static private class Entry {
+
+        final long version;
+        final int rowCount;
+        final byte[] image;
+
+        Entry(long version, int rowCount, byte[] image) {
+            this.version = version;
+            this.rowCount = rowCount;
+            this.image = image;
+        }
+    }
+
+    // plot configurations, in order of last access
+    final private Map<String, Entry> _entries = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+    /**
+     * @return the image rendered for a plot in the current state of the project, or null if there is none
+     */
+    static public byte[] getImage(Project project, Column column, String key) {
+        PlotImageCache cache = getCache(column, false);
+        if (cache == null) {
+            return null;
+        }
+        synchronized (cache) {
+            Entry entry = cache._entries.get(key);
+            if (entry != null && entry.version == project.history.getLastDoneEntryID()
+                    && entry.rowCount == project.rows.size()) {
+                return entry.image;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the image rendered for a plot in the current state of the project.
+     */
+    static public void putImage(Project project, Column column, String key, byte[] image) {
+        PlotImageCache cache = getCache(column, true);
+        synchronized (cache) {
+            cache._entries.put(key, new Entry(project.history.getLastDoneEntryID(), project.rows.size(), image));
+            while (cache._entries.size() > MAX_ENTRIES) {
+                cache._entries.remove(cache._entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    @Override
+    synchronized public long estimateMemorySize() {
+        long size = ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * 2 * MAX_ENTRIES;
+        for (Map.Entry<String, Entry> entry : _entries.entrySet()) {
+            // linked map entry, cache entry and image
+            size += ProjectSizeEstimator.MAP_ENTRY + 2 * ProjectSizeEstimator.REFERENCE
+                    + ProjectSizeEstimator.estimateString(entry.getKey()) + 2 * ProjectSizeEstimator.OBJECT_HEADER + 16
+                    + entry.getValue().image.length;
+        }
+        return size;
+    }
+
+    static private PlotImageCache getCache(Column column, boolean create) {
+        synchronized (column) {
+            PlotImageCache cache = (PlotImageCache) column.getPrecompute(PRECOMPUTE_KEY);
+            if (cache == null && create) {
+                cache = new PlotImageCache();
+                column.setPrecompute(PRECOMPUTE_KEY, cache);
+            }
+            return cache;
+        }
+    }
+}
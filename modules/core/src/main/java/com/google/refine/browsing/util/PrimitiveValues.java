@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+/**
+ * A growable array of primitive values, such as {@link DoubleValues} and {@link LongValues}, which collect values
+ * without boxing them. Subclasses add and read values of their type; this class manages the array and its size.
+ *
+ * @param <A>
+ *            the type of the primitive array holding the values
+ */
+abstract public class PrimitiveValues<A> {
+
+    static final private int INITIAL_CAPACITY = 16;
+
+    protected A _values;
+    protected int _size;
+
+    protected PrimitiveValues() {
+        _values = newArray(INITIAL_CAPACITY);
+    }
+
+    abstract protected A newArray(int length);
+
+    abstract protected int length(A values);
+
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Grows the array, at least doubling it, so that it can hold a number of values.
+     */
+    protected void ensureCapacity(int capacity) {
+        int length = length(_values);
+        if (capacity > length) {
+            A values = newArray(Math.max(capacity, length * 2));
+            System.arraycopy(_values, 0, values, 0, _size);
+            _values = values;
+        }
+    }
+
+    protected void appendAll(PrimitiveValues<A> other) {
+        ensureCapacity(_size + other._size);
+        System.arraycopy(other._values, 0, _values, _size, other._size);
+        _size += other._size;
+    }
+
+    protected void checkIndex(int index) {
+        if (index >= _size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
@@ -41,4 +41,12 @@ import com.google.refine.model.Row;
 public interface RowEvaluable {
 
     public Object eval(Project project, int rowIndex, Row row, Properties bindings);
+
+    /**
+     * @return true if the value of a row only depends on the cells of that row, so that values cached for other rows
+     *         stay valid when it is edited
+     */
+    default public boolean dependsOnRowOnly() {
+        return false;
+    }
 }
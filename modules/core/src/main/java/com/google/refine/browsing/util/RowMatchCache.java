@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Row;
+import com.google.refine.model.SizedPrecompute;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Caches the rows matched by facets, as bitmaps stored with the precomputes of the column each facet is based on.
+ * <p>
+ * Bitmaps are keyed by the configuration of the facet and are only valid for the state of the project they were
+ * computed on, identified by its last done history entry. Changes to the column clear them along with its other
+ * precomputes, and they are counted in the memory footprint of the project.
+ */
+public class RowMatchCache implements SizedPrecompute {
+
+    static final private String PRECOMPUTE_KEY = "row-match-cache";
+
+    /**
+     * Maximum number of facet configurations cached for a column.
+     */
+    static final public int MAX_ENTRIES = 16;
+
+    /**
+     * A row filter reading matches from a bitmap.
+     */
+    static public class RowMatches implements RowFilter {
+
+        final protected BitSet _matches;
+
+        public RowMatches(BitSet matches) {
+            _matches = matches;
+        }
+
+        public BitSet getMatches() {
+            return _matches;
+        }
+
+        @Override
+        public boolean filterRow(Project project, int rowIndex, Row row) {
+            return _matches.get(rowIndex);
+        }
+    }
+
+    static private class Entry {
+
+        final long version;
+        final int rowCount;
+        final RowMatches matches;
+
+        Entry(long version, int rowCount, RowMatches matches) {
+            this.version = version;
+            this.rowCount = rowCount;
+            this.matches = matches;
+        }
+    }
+
+    // facet configurations, in order of last access
+    final private Map<String, Entry> _entries = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+    /**
+     * Returns a filter matching the same rows as the one of a facet, reading them from a bitmap computed once for each
+     * state of the project.
+     *
+     * @param config
+     *            the configuration of the facet
+     * @param rowFilter
+     *            the row filter of the facet
+     * @return the cached filter, or the original one if it cannot be cached
+     */
+    static public RowFilter getRowFilter(Project project, FacetConfig config, RowFilter rowFilter) {
+        if (rowFilter == null || rowFilter instanceof RowMatches || config == null || config.getBaseColumnName() == null
+                || !config.isDeterministic()) {
+            return rowFilter;
+        }
+        Column column = project.columnModel.getColumnByName(config.getBaseColumnName());
+        if (column == null) {
+            return rowFilter;
+        }
+        String key;
+        try {
+            key = ParsingUtilities.mapper.writeValueAsString(config);
+        } catch (JsonProcessingException e) {
+            return rowFilter;
+        }
+
+        RowMatchCache cache;
+        synchronized (column) {
+            cache = (RowMatchCache) column.getPrecompute(PRECOMPUTE_KEY);
+            if (cache == null) {
+                cache = new RowMatchCache();
+                column.setPrecompute(PRECOMPUTE_KEY, cache);
+            }
+        }
+        return cache.get(project, key, rowFilter);
+    }
+
+    protected RowMatches get(Project project, String key, RowFilter rowFilter) {
+        long version = project.history.getLastDoneEntryID();
+        int rowCount = project.rows.size();
+        synchronized (this) {
+            Entry entry = _entries.get(key);
+            if (entry != null && entry.version == version && entry.rowCount == rowCount) {
+                return entry.matches;
+            }
+        }
+
+        RowMatches matches = new RowMatches(computeMatches(project, rowFilter));
+        synchronized (this) {
+            _entries.put(key, new Entry(version, rowCount, matches));
+            Iterator<Entry> eldest = _entries.values().iterator();
+            while (_entries.size() > MAX_ENTRIES) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    synchronized public long estimateMemorySize() {
+        long size = ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * 2 * MAX_ENTRIES;
+        for (Map.Entry<String, Entry> entry : _entries.entrySet()) {
+            // linked map entry, cache entry, filter and bitmap
+            size += ProjectSizeEstimator.MAP_ENTRY + 2 * ProjectSizeEstimator.REFERENCE
+                    + ProjectSizeEstimator.estimateString(entry.getKey()) + 5 * ProjectSizeEstimator.OBJECT_HEADER + 16
+                    + entry.getValue().matches.getMatches().size() / 8;
+        }
+        return size;
+    }
+
+    static protected BitSet computeMatches(Project project, RowFilter rowFilter) {
+        int rowCount = project.rows.size();
+        if (ParallelRowScan.canSplit(rowCount)) {
+            List<BitSet> ranges = ParallelRowScan.scanRanges(rowCount, (from, to) -> matchRange(project, rowFilter, from, to));
+            BitSet matches = ranges.get(0);
+            for (int r = 1; r < ranges.size(); r++) {
+                matches.or(ranges.get(r));
+            }
+            return matches;
+        }
+        return matchRange(project, rowFilter, 0, rowCount);
+    }
+
+    static private BitSet matchRange(Project project, RowFilter rowFilter, int fromRowIndex, int toRowIndex) {
+        BitSet matches = new BitSet(toRowIndex);
+        for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+            if (rowFilter.filterRow(project, rowIndex, project.rows.get(rowIndex))) {
+                matches.set(rowIndex);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import com.google.refine.model.ProjectSizeEstimator;
+
+/**
+ * A set of row indices, as used by the indexes of a column. It is stored as a sorted array while the rows are sparse,
+ * and as a bitmap once they are dense enough for the bitmap to take less memory.
+ */
+final class RowPostings {
+
+    // smallest number of rows stored as a bitmap
+    static final private int MIN_BITMAP_SIZE = 64;
+
+    private int[] _rows = new int[4];
+    private BitSet _bitmap = null;
+    private int _size = 0;
+
+    void add(int rowIndex) {
+        if (_bitmap != null) {
+            if (!_bitmap.get(rowIndex)) {
+                _bitmap.set(rowIndex);
+                _size++;
+            }
+        } else if (_size == 0 || _rows[_size - 1] < rowIndex) {
+            insertAt(_size, rowIndex);
+        } else {
+            int position = Arrays.binarySearch(_rows, 0, _size, rowIndex);
+            if (position < 0) {
+                insertAt(-position - 1, rowIndex);
+            }
+        }
+    }
+
+    void remove(int rowIndex) {
+        if (_bitmap != null) {
+            if (_bitmap.get(rowIndex)) {
+                _bitmap.clear(rowIndex);
+                _size--;
+            }
+        } else {
+            int position = Arrays.binarySearch(_rows, 0, _size, rowIndex);
+            if (position >= 0) {
+                System.arraycopy(_rows, position + 1, _rows, position, _size - position - 1);
+                _size--;
+            }
+        }
+    }
+
+    boolean contains(int rowIndex) {
+        return _bitmap != null ? _bitmap.get(rowIndex) : Arrays.binarySearch(_rows, 0, _size, rowIndex) >= 0;
+    }
+
+    int size() {
+        return _size;
+    }
+
+    /**
+     * @return the estimated number of bytes used by the set in memory
+     */
+    long estimateMemorySize() {
+        long size = ProjectSizeEstimator.OBJECT_HEADER + 2 * ProjectSizeEstimator.REFERENCE + 4;
+        if (_bitmap != null) {
+            return size + 2 * ProjectSizeEstimator.OBJECT_HEADER + _bitmap.size() / 8;
+        }
+        return size + ProjectSizeEstimator.OBJECT_HEADER + 4L * _rows.length;
+    }
+
+    /**
+     * Calls an action on each row of the set, in increasing order.
+     */
+    void forEach(IntConsumer action) {
+        if (_bitmap != null) {
+            _bitmap.stream().forEach(action);
+        } else {
+            for (int i = 0; i < _size; i++) {
+                action.accept(_rows[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the rows of the set to a bitmap.
+     */
+    void addTo(BitSet rows) {
+        if (_bitmap != null) {
+            rows.or(_bitmap);
+        } else {
+            for (int i = 0; i < _size; i++) {
+                rows.set(_rows[i]);
+            }
+        }
+    }
+
+    private void insertAt(int position, int rowIndex) {
+        if (_size == _rows.length) {
+            int lastRowIndex = Math.max(rowIndex, _rows[_size - 1]);
+            if (_size >= MIN_BITMAP_SIZE && _size * 32L > lastRowIndex) {
+                // an int per row takes more memory than a bit per row index
+                BitSet bitmap = new BitSet(lastRowIndex + 1);
+                addTo(bitmap);
+                bitmap.set(rowIndex);
+                _bitmap = bitmap;
+                _rows = null;
+                _size++;
+                return;
+            }
+            _rows = Arrays.copyOf(_rows, _size * 2);
+        }
+        System.arraycopy(_rows, position, _rows, position + 1, _size - position);
+        _rows[position] = rowIndex;
+        _size++;
+    }
+}
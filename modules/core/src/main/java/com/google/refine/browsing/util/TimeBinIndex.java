@@ -34,9 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.browsing.util;
 
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -60,6 +58,10 @@ abstract public class TimeBinIndex {
     protected long _step;
     protected int[] _bins;
 
+    // earliest and latest values indexed, which determine the bins
+    protected long _minValue;
+    protected long _maxValue;
+
     protected int _timeRowCount;
     protected int _nonTimeRowCount;
     protected int _blankRowCount;
@@ -84,17 +86,19 @@ abstract public class TimeBinIndex {
             1000l * 31556952l * 1000l, // millennium
     };
 
-    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, List<Long> allValues);
+    abstract protected void iterate(Project project, RowEvaluable rowEvaluable, LongValues allValues);
 
     public TimeBinIndex(Project project, RowEvaluable rowEvaluable) {
         _min = Long.MAX_VALUE;
         _max = Long.MIN_VALUE;
 
-        List<Long> allValues = new ArrayList<Long>();
+        LongValues allValues = new LongValues();
 
         iterate(project, rowEvaluable, allValues);
 
         _timeValueCount = allValues.size();
+        _minValue = _min;
+        _maxValue = _max;
 
         if (_min >= _max) {
             _step = 1;
@@ -115,12 +119,57 @@ abstract public class TimeBinIndex {
         }
 
         _bins = new int[(int) (diff / _step) + 1];
-        for (long d : allValues) {
+        for (int i = 0; i < allValues.size(); i++) {
+            long d = allValues.get(i);
             int bin = (int) Math.max((d - _min) / _step, 0);
             _bins[bin]++;
         }
     }
 
+    /**
+     * Creates an empty index, used to compute the values and row counts of some rows before adding them to or removing
+     * them from a complete index with {@link #updateCounts(TimeBinIndex, LongValues, int)}.
+     */
+    protected TimeBinIndex() {
+        _min = Long.MAX_VALUE;
+        _max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds or removes the values and row counts of some rows, computed by a partial index. This is only possible if
+     * the bins stay the same, that is to say when the earliest and latest values are neither removed nor exceeded.
+     *
+     * @param partial
+     *            counts of the rows
+     * @param values
+     *            values of the rows
+     * @param sign
+     *            1 to add the rows, -1 to remove them
+     * @return false if the bins would change, in which case the index is left unchanged
+     */
+    protected boolean updateCounts(TimeBinIndex partial, LongValues values, int sign) {
+        if (_minValue >= _maxValue) {
+            return false;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            long v = values.get(i);
+            if (sign < 0 ? (v <= _minValue || v >= _maxValue) : (v < _minValue || v > _maxValue)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < values.size(); i++) {
+            long v = values.get(i);
+            _bins[(int) Math.max((v - _min) / _step, 0)] += sign;
+        }
+        _timeValueCount += sign * values.size();
+        _totalValueCount += sign * partial._totalValueCount;
+        _timeRowCount += sign * partial._timeRowCount;
+        _nonTimeRowCount += sign * partial._nonTimeRowCount;
+        _blankRowCount += sign * partial._blankRowCount;
+        _errorRowCount += sign * partial._errorRowCount;
+        return true;
+    }
+
     public boolean isTemporal() {
         return _timeValueCount > _totalValueCount / 2;
     }
@@ -160,7 +209,7 @@ abstract public class TimeBinIndex {
     protected void processRow(
             Project project,
             RowEvaluable rowEvaluable,
-            List<Long> allValues,
+            LongValues allValues,
             int rowIndex,
             Row row,
             Properties bindings) {
@@ -241,7 +290,7 @@ abstract public class TimeBinIndex {
         }
     }
 
-    protected void processValue(long v, List<Long> allValues) {
+    protected void processValue(long v, LongValues allValues) {
         _min = Math.min(_min, v);
         _max = Math.max(_max, v);
         allValues.add(v);
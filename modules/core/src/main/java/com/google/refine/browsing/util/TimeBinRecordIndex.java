@@ -33,7 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -48,7 +47,7 @@ public class TimeBinRecordIndex extends TimeBinIndex {
     }
 
     @Override
-    protected void iterate(Project project, RowEvaluable rowEvaluable, List<Long> allValues) {
+    protected void iterate(Project project, RowEvaluable rowEvaluable, LongValues allValues) {
 
         Properties bindings = ExpressionUtils.createBindings(project);
         int count = project.recordModel.getRecordCount();
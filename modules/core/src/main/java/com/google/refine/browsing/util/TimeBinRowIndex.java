@@ -33,21 +33,55 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
-import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.IncrementalPrecompute;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
-public class TimeBinRowIndex extends TimeBinIndex {
+public class TimeBinRowIndex extends TimeBinIndex implements IncrementalPrecompute {
+
+    final private RowEvaluable _rowEvaluable;
 
     public TimeBinRowIndex(Project project, RowEvaluable rowEvaluable) {
         super(project, rowEvaluable);
+        _rowEvaluable = rowEvaluable;
+    }
+
+    private TimeBinRowIndex() {
+        super();
+        _rowEvaluable = null;
+    }
+
+    @Override
+    public boolean removeRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, -1);
+    }
+
+    @Override
+    public boolean addRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, 1);
+    }
+
+    protected boolean updateRows(Project project, int[] rowIndices, int sign) {
+        if (!_rowEvaluable.dependsOnRowOnly()) {
+            // the values of other rows may change too
+            return false;
+        }
+        TimeBinRowIndex partial = new TimeBinRowIndex();
+        LongValues values = new LongValues();
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int rowIndex : rowIndices) {
+            partial.preprocessing();
+            partial.processRow(project, _rowEvaluable, values, rowIndex, project.rows.get(rowIndex), bindings);
+            partial.postprocessing();
+        }
+        return updateCounts(partial, values, sign);
     }
 
     @Override
-    protected void iterate(Project project, RowEvaluable rowEvaluable, List<Long> allValues) {
+    protected void iterate(Project project, RowEvaluable rowEvaluable, LongValues allValues) {
 
         Properties bindings = ExpressionUtils.createBindings(project);
 
@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.IncrementalPrecompute;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Row;
+import com.google.refine.model.SizedPrecompute;
+
+/**
+ * An index of the rows of a column by the trigrams (sequences of three characters) of their values, in lower case,
+ * used by text search facets to only check the rows which can match a query.
+ * <p>
+ * The index is built on first use and stored with the precomputes of the column. It is kept up to date when cells of
+ * the column change. It is only used when the {@code refine.textsearch.index} system property is set to true, since it
+ * takes several times the memory of the indexed strings.
+ */
+public class TrigramIndex implements IncrementalPrecompute, SizedPrecompute {
+
+    static final public String INDEX_PROPERTY = "refine.textsearch.index";
+
+    static final private String PRECOMPUTE_KEY = "trigram-index";
+
+    final private int _cellIndex;
+    final private Map<Long, RowPostings> _postings = new HashMap<>();
+    // rows whose values are not plain strings, numbers or dates, which are always candidates
+    final private BitSet _unindexed = new BitSet();
+    private int _rowCount;
+
+    /**
+     * A row filter which only checks candidate rows with the original filter. Other rows are known not to match.
+     */
+    static public class CandidateRowFilter implements RowFilter {
+
+        final protected RowFilter _rowFilter;
+        final protected BitSet _candidates;
+        final protected boolean _invert;
+
+        public CandidateRowFilter(RowFilter rowFilter, BitSet candidates, boolean invert) {
+            _rowFilter = rowFilter;
+            _candidates = candidates;
+            _invert = invert;
+        }
+
+        @Override
+        public boolean filterRow(Project project, int rowIndex, Row row) {
+            return _candidates.get(rowIndex) ? _rowFilter.filterRow(project, rowIndex, row) : _invert;
+        }
+    }
+
+    protected TrigramIndex(Project project, int cellIndex) {
+        _cellIndex = cellIndex;
+        _rowCount = project.rows.size();
+        for (int rowIndex = 0; rowIndex < _rowCount; rowIndex++) {
+            addRow(project.rows.get(rowIndex), rowIndex);
+        }
+    }
+
+    static public boolean isEnabled() {
+        return Boolean.getBoolean(INDEX_PROPERTY);
+    }
+
+    /**
+     * @return the index of the column, built if needed, or null if indexing is disabled
+     */
+    static public TrigramIndex getIndex(Project project, Column column) {
+        if (!isEnabled() || column == null) {
+            return null;
+        }
+        synchronized (column) {
+            TrigramIndex index = (TrigramIndex) column.getPrecompute(PRECOMPUTE_KEY);
+            if (index == null || index._rowCount != project.rows.size()) {
+                index = new TrigramIndex(project, column.getCellIndex());
+                column.setPrecompute(PRECOMPUTE_KEY, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Rows which can contain a string, as searched by a text search facet.
+     *
+     * @return the candidate rows, or null if the index cannot narrow them down
+     */
+    public BitSet getSubstringCandidates(String query, boolean caseSensitive) {
+        if (caseSensitive) {
+            // a value containing the query, folded to lower case, contains the ASCII parts of the query in lower case
+            return getCandidates(asciiRuns(query));
+        } else {
+            return getCandidates(List.of(query.toLowerCase()));
+        }
+    }
+
+    /**
+     * Rows which can match a regular expression, as searched by a text search facet.
+     *
+     * @return the candidate rows, or null if the index cannot narrow them down
+     */
+    public BitSet getRegexCandidates(String regex) {
+        List<String> literals = requiredLiterals(regex);
+        return literals == null ? null : getCandidates(literals);
+    }
+
+    /**
+     * @param strings
+     *            strings which all values matching a query contain, once folded to lower case
+     */
+    synchronized protected BitSet getCandidates(List<String> strings) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String s : strings) {
+            if (s.length() >= 3) {
+                addTrigrams(s.toLowerCase(), trigrams);
+            }
+        }
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+
+        List<RowPostings> postings = new ArrayList<>(trigrams.size());
+        for (long trigram : trigrams) {
+            RowPostings p = _postings.get(trigram);
+            if (p != null) {
+                postings.add(p);
+            } else {
+                postings.clear();
+                break;
+            }
+        }
+
+        BitSet candidates = (BitSet) _unindexed.clone();
+        if (!postings.isEmpty()) {
+            // intersect, starting from the rarest trigram
+            postings.sort(Comparator.comparingInt(RowPostings::size));
+            postings.get(0).forEach(rowIndex -> {
+                boolean candidate = true;
+                for (int j = 1; j < postings.size() && candidate; j++) {
+                    candidate = postings.get(j).contains(rowIndex);
+                }
+                if (candidate) {
+                    candidates.set(rowIndex);
+                }
+            });
+        }
+        return candidates;
+    }
+
+    @Override
+    synchronized public boolean removeRows(Project project, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            Set<Long> trigrams = getTrigrams(project.rows.get(rowIndex));
+            if (trigrams == null) {
+                _unindexed.clear(rowIndex);
+            } else {
+                for (long trigram : trigrams) {
+                    RowPostings postings = _postings.get(trigram);
+                    if (postings != null) {
+                        postings.remove(rowIndex);
+                        if (postings.size() == 0) {
+                            _postings.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    synchronized public boolean addRows(Project project, int[] rowIndices) {
+        for (int rowIndex : rowIndices) {
+            addRow(project.rows.get(rowIndex), rowIndex);
+        }
+        return true;
+    }
+
+    @Override
+    synchronized public long estimateMemorySize() {
+        long size = ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * (_postings.size() * 4 / 3 + 16);
+        for (RowPostings postings : _postings.values()) {
+            // map entry, boxed trigram and postings
+            size += ProjectSizeEstimator.MAP_ENTRY + ProjectSizeEstimator.OBJECT_HEADER + 8 + postings.estimateMemorySize();
+        }
+        return size + 2 * ProjectSizeEstimator.OBJECT_HEADER + _unindexed.size() / 8;
+    }
+
+    private void addRow(Row row, int rowIndex) {
+        Set<Long> trigrams = getTrigrams(row);
+        if (trigrams == null) {
+            _unindexed.set(rowIndex);
+        } else {
+            for (long trigram : trigrams) {
+                _postings.computeIfAbsent(trigram, t -> new RowPostings()).add(rowIndex);
+            }
+        }
+    }
+
+    /**
+     * @return the trigrams of the value of the row in lower case, or null if the value cannot be indexed
+     */
+    private Set<Long> getTrigrams(Row row) {
+        Cell cell = row.getCell(_cellIndex);
+        Object value = cell != null ? cell.value : null;
+        Set<Long> trigrams = new HashSet<>();
+        if (value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof OffsetDateTime) {
+            String s = value.toString();
+            if (s.length() >= 3) {
+                addTrigrams(s.toLowerCase(), trigrams);
+            }
+        } else if (value != null) {
+            return null;
+        }
+        return trigrams;
+    }
+
+    static private void addTrigrams(String s, Set<Long> trigrams) {
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            trigrams.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+    }
+
+    /**
+     * @return the maximal substrings of ASCII characters, or nothing if ASCII letters are not folded to ASCII letters
+     *         in the default locale
+     */
+    static protected List<String> asciiRuns(String s) {
+        List<String> runs = new ArrayList<>();
+        if (!"I".toLowerCase().equals("i")) {
+            return runs;
+        }
+        int start = 0;
+        for (int i = 0; i <= s.length(); i++) {
+            if (i == s.length() || s.charAt(i) >= 128) {
+                if (i > start) {
+                    runs.add(s.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Finds ASCII strings which any string matched by a regular expression contains, in any case. Only literal
+     * characters outside of groups and not followed by optional quantifiers are considered.
+     *
+     * @return the literal strings, or null if the expression is not understood
+     */
+    static protected List<String> requiredLiterals(String regex) {
+        if (!"I".toLowerCase().equals("i")) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 == regex.length()) {
+                    return null;
+                }
+                char escaped = regex.charAt(++i);
+                if (!Character.isLetterOrDigit(escaped)) {
+                    appendLiteral(escaped, depth, run, literals);
+                } else if ("dDwWsSbBAzZGhHvVRXtnrfae".indexOf(escaped) >= 0) {
+                    flush(run, literals);
+                } else {
+                    // quoting, back references, code points or properties
+                    return null;
+                }
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i < 0) {
+                    return null;
+                }
+                flush(run, literals);
+            } else if (c == '(') {
+                if (i + 2 < regex.length() && regex.charAt(i + 1) == '?'
+                        && (Character.isLetter(regex.charAt(i + 2)) || regex.charAt(i + 2) == '-')) {
+                    // inline flags, such as comments mode, change the meaning of the rest of the expression
+                    return null;
+                }
+                depth++;
+                flush(run, literals);
+            } else if (c == ')') {
+                depth--;
+                flush(run, literals);
+            } else if (c == '|') {
+                if (depth == 0) {
+                    return null;
+                }
+                flush(run, literals);
+            } else if (c == '?' || c == '*' || c == '{') {
+                // the previous character is optional
+                if (run.length() > 0) {
+                    run.setLength(run.length() - 1);
+                }
+                flush(run, literals);
+                if (c == '{') {
+                    i = regex.indexOf('}', i);
+                    if (i < 0) {
+                        return null;
+                    }
+                }
+            } else if (c == '.' || c == '^' || c == '$' || c == '+') {
+                flush(run, literals);
+            } else {
+                appendLiteral(c, depth, run, literals);
+            }
+        }
+        flush(run, literals);
+        return literals;
+    }
+
+    static private void appendLiteral(char c, int depth, StringBuilder run, List<String> literals) {
+        if (depth == 0 && c < 128) {
+            run.append(c);
+        } else {
+            flush(run, literals);
+        }
+    }
+
+    static private void flush(StringBuilder run, List<String> literals) {
+        if (run.length() > 0) {
+            literals.add(run.toString());
+            run.setLength(0);
+        }
+    }
+
+    static private int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                return -1;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
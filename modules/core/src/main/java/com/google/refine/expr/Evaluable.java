@@ -89,4 +89,14 @@ public interface Evaluable {
         return Optional.empty();
     }
 
+    /**
+     * Whether this expression always evaluates to the same value on the same row of a project in the same state. This
+     * is not the case of expressions reading other projects, or calling functions such as now() or random().
+     *
+     * @return false by default (for compatibility with older extensions)
+     */
+    public default boolean isDeterministic() {
+        return false;
+    }
+
 }
@@ -38,6 +38,7 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 
@@ -100,6 +101,28 @@ public class ExpressionUtils {
         }
     }
 
+    /**
+     * @return true if the expression only reads the cells of the row it is evaluated on, so that its value only
+     *         changes when that row is edited
+     */
+    static public boolean dependsOnRowOnly(Evaluable eval, String columnName) {
+        return eval.getColumnDependencies(Optional.ofNullable(columnName)).isPresent();
+    }
+
+    /**
+     * @return true if the expression parses and is {@link Evaluable#isDeterministic() deterministic}
+     */
+    static public boolean isDeterministic(String expression) {
+        if (expression == null) {
+            return false;
+        }
+        try {
+            return MetaParser.parse(expression).isDeterministic();
+        } catch (ParsingException e) {
+            return false;
+        }
+    }
+
     static public boolean isError(Object o) {
         return o instanceof EvalError;
     }
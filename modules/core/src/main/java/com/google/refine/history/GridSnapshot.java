@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.model.Column;
+import com.google.refine.model.ColumnGroup;
+import com.google.refine.model.ColumnModel;
+import com.google.refine.model.OverlayModel;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * A copy of the grid of a project at some point of its history, from which the history can move to nearby entries
+ * without reverting or applying all changes in between.
+ * <p>
+ * Rows and columns are copied, as changes modify them in place, but cells, recons and overlay models are shared with
+ * the project: changes replace them rather than modifying them.
+ */
+final class GridSnapshot {
+
+    final private List<Row> _rows;
+    final private List<Column> _columns;
+    final private List<ColumnGroup> _columnGroups;
+    final private int _maxCellIndex;
+    final private int _keyColumnIndex;
+    final private Map<String, OverlayModel> _overlayModels;
+
+    private GridSnapshot(Project project) {
+        List<Row> rows = project.rows;
+        _rows = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            _rows.add(row.dup());
+        }
+        ColumnModel columnModel = project.columnModel;
+        _columns = new ArrayList<>(columnModel.columns.size());
+        for (Column column : columnModel.columns) {
+            _columns.add(copy(column));
+        }
+        _columnGroups = new ArrayList<>(columnModel.columnGroups);
+        _maxCellIndex = columnModel.getMaxCellIndex();
+        _keyColumnIndex = columnModel.getKeyColumnIndex();
+        _overlayModels = new HashMap<>(project.overlayModels);
+    }
+
+    static GridSnapshot capture(Project project) {
+        synchronized (project) {
+            return new GridSnapshot(project);
+        }
+    }
+
+    /**
+     * Puts the project back in the state it was captured in. The snapshot itself is left untouched, so that it can be
+     * restored again.
+     */
+    void restore(Project project) {
+        synchronized (project) {
+            project.rows.clear();
+            for (Row row : _rows) {
+                project.rows.add(row.dup());
+            }
+
+            ColumnModel columnModel = project.columnModel;
+            columnModel.columns.clear();
+            for (Column column : _columns) {
+                columnModel.columns.add(copy(column));
+            }
+            columnModel.columnGroups.clear();
+            columnModel.columnGroups.addAll(_columnGroups);
+            // cell indices allocated since are kept reserved, as entries which can be redone may use them
+            columnModel.setMaxCellIndex(_maxCellIndex);
+            columnModel.setKeyColumnIndex(_keyColumnIndex);
+
+            project.overlayModels.clear();
+            project.overlayModels.putAll(_overlayModels);
+
+            columnModel.clearPrecomputes();
+            ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
+
+            project.update();
+        }
+    }
+
+    /**
+     * @return the number of rows held, to estimate the memory used by the snapshot
+     */
+    int getRowCount() {
+        return _rows.size();
+    }
+
+    static private Column copy(Column column) {
+        Column copy = new Column(column.getCellIndex(), column.getOriginalHeaderLabel());
+        copy.setName(column.getName());
+        copy.setReconConfig(column.getReconConfig());
+        copy.setSourceReconConfig(column.getSourceReconConfig());
+        copy.setReconStats(column.getReconStats());
+        return copy;
+    }
+}
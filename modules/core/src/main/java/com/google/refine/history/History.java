@@ -39,18 +39,25 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineServlet;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.Cursor;
 import com.google.refine.model.Project;
 import com.google.refine.util.Pool;
 
@@ -62,6 +69,16 @@ import com.google.refine.util.Pool;
  */
 public class History {
 
+    /**
+     * System property giving the number of entries between grid snapshots taken as operations are done. Undoing or
+     * redoing many entries at once then starts from the nearest snapshot. Snapshots are disabled by default.
+     */
+    static final public String CHECKPOINT_INTERVAL_PROPERTY = "refine.history.checkpointInterval";
+    static final public String MAX_CHECKPOINTS_PROPERTY = "refine.history.maxCheckpoints";
+    static final private int DEFAULT_MAX_CHECKPOINTS = 8;
+    // cost of restoring a snapshot, in number of changes applied or reverted
+    static final private int CHECKPOINT_RESTORE_COST = 4;
+
     static public Change readOneChange(InputStream in, Pool pool) throws Exception {
         LineNumberReader reader = new LineNumberReader(new InputStreamReader(in, "UTF-8"));
         try {
@@ -108,6 +125,30 @@ public class History {
         change.save(writer, options);
     }
 
+    /**
+     * Reads a change written by {@link #writeOneBinaryChange(OutputStream, BinaryChange, Pool)}.
+     */
+    static public Change readOneBinaryChange(InputStream in, Pool pool) throws Exception {
+        Cursor cursor = new Cursor(in.readAllBytes());
+        /* String version = */ cursor.readString();
+
+        String className = cursor.readString();
+        Class<? extends Change> klass = getChangeClass(className);
+
+        Method load = klass.getMethod("loadBinary", Cursor.class, Pool.class);
+
+        return (Change) load.invoke(null, cursor, pool);
+    }
+
+    static public void writeOneBinaryChange(OutputStream out, BinaryChange change, Pool pool) throws IOException {
+        Buffer buffer = new Buffer();
+        buffer.writeString(RefineServlet.VERSION);
+        buffer.writeString(change.getClass().getName());
+
+        change.saveBinary(buffer, pool);
+        out.write(buffer.bytes(), 0, buffer.length());
+    }
+
     @SuppressWarnings("unchecked")
     static public Class<? extends Change> getChangeClass(String className) throws ClassNotFoundException {
         return (Class<? extends Change>) RefineServlet.getClass(className);
@@ -119,6 +160,14 @@ public class History {
     @JsonProperty("future")
     protected List<HistoryEntry> _futureEntries; // undone changes, can be redone
 
+    // operations done since the project was last saved in full, as lines of its journal
+    @JsonIgnore
+    protected List<String> _journal = new ArrayList<String>();
+
+    // grid snapshots, by id of the last entry done in them (0 for the initial state), in the order they were taken
+    @JsonIgnore
+    final private Map<Long, GridSnapshot> _checkpoints = new LinkedHashMap<Long, GridSnapshot>();
+
     public History(Project project) {
         _projectID = project.id;
         _pastEntries = new ArrayList<HistoryEntry>();
@@ -136,14 +185,10 @@ public class History {
             // NOTE: project lock must be acquired *first* to prevent deadlocks, so we use a
             // synchronized block instead of synchronizing the entire method.
             synchronized (this) {
-                entry.apply(project);
-                _pastEntries.add(entry);
+                List<HistoryEntry> futureEntries = addPastEntry(project, entry);
 
                 setModified();
-
-                // Any new change will clear all future entries.
-                List<HistoryEntry> futureEntries = _futureEntries;
-                _futureEntries = new ArrayList<HistoryEntry>();
+                _journal.add("entry=" + serialize(entry));
 
                 for (HistoryEntry entry2 : futureEntries) {
                     try {
@@ -157,6 +202,68 @@ public class History {
         }
     }
 
+    /**
+     * Applies a new entry and clears the future entries, which are returned.
+     */
+    private List<HistoryEntry> addPastEntry(Project project, HistoryEntry entry) {
+        int checkpointInterval = getCheckpointInterval();
+        if (checkpointInterval > 0 && _pastEntries.isEmpty() && !_checkpoints.containsKey(0L)) {
+            addCheckpoint(0L, project);
+        }
+
+        entry.apply(project);
+        _pastEntries.add(entry);
+
+        // Any new change will clear all future entries.
+        List<HistoryEntry> futureEntries = _futureEntries;
+        _futureEntries = new ArrayList<HistoryEntry>();
+        for (HistoryEntry futureEntry : futureEntries) {
+            _checkpoints.remove(futureEntry.id);
+        }
+
+        if (checkpointInterval > 0 && _pastEntries.size() % checkpointInterval == 0) {
+            addCheckpoint(entry.id, project);
+        }
+        return futureEntries;
+    }
+
+    static private int getCheckpointInterval() {
+        return Math.max(0, Integer.getInteger(CHECKPOINT_INTERVAL_PROPERTY, 0));
+    }
+
+    private void addCheckpoint(long lastDoneEntryID, Project project) {
+        int maxCheckpoints = Integer.getInteger(MAX_CHECKPOINTS_PROPERTY, DEFAULT_MAX_CHECKPOINTS);
+        if (maxCheckpoints <= 0) {
+            return;
+        }
+        Iterator<Long> oldest = _checkpoints.keySet().iterator();
+        while (_checkpoints.size() >= maxCheckpoints) {
+            oldest.next();
+            oldest.remove();
+        }
+        _checkpoints.put(lastDoneEntryID, GridSnapshot.capture(project));
+    }
+
+    /**
+     * @return the number of rows held in grid snapshots of the project
+     */
+    @JsonIgnore
+    synchronized public long getCheckpointRowCount() {
+        long rowCount = 0;
+        for (GridSnapshot checkpoint : _checkpoints.values()) {
+            rowCount += checkpoint.getRowCount();
+        }
+        return rowCount;
+    }
+
+    static private String serialize(HistoryEntry entry) {
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+        StringWriter writer = new StringWriter();
+        entry.save(writer, options);
+        return writer.toString();
+    }
+
     protected void setModified() {
         // Refresh shadow copy of row count (and modified time as a side effect)
         int rowCount = ProjectManager.singleton.getProject(_projectID).rows.size();
@@ -173,7 +280,16 @@ public class History {
         }
     }
 
+    /**
+     * @return the id of the last entry done, or 0 if no entry is done. It identifies the current state of the project.
+     */
+    @JsonIgnore
+    synchronized public long getLastDoneEntryID() {
+        return _pastEntries.isEmpty() ? 0 : _pastEntries.get(_pastEntries.size() - 1).id;
+    }
+
     synchronized public void undoRedo(long lastDoneEntryID) {
+        _journal.add("undoRedo=" + lastDoneEntryID);
         if (lastDoneEntryID == 0) {
             // undo all the way back to the start of the project
             undo(_pastEntries.size());
@@ -237,32 +353,151 @@ public class History {
     protected void undo(int times) {
         Project project = ProjectManager.singleton.getProject(_projectID);
 
-        while (times > 0 && _pastEntries.size() > 0) {
-            HistoryEntry entry = _pastEntries.get(_pastEntries.size() - 1);
-
-            entry.revert(project);
+        if (times > 0 && _pastEntries.size() > 0) {
+            moveTo(project, Math.max(0, _pastEntries.size() - times));
 
             setModified();
-            times--;
-
-            _pastEntries.remove(_pastEntries.size() - 1);
-            _futureEntries.add(0, entry);
         }
     }
 
+    private void undoOne(Project project) {
+        HistoryEntry entry = _pastEntries.get(_pastEntries.size() - 1);
+
+        entry.revert(project);
+
+        _pastEntries.remove(_pastEntries.size() - 1);
+        _futureEntries.add(0, entry);
+    }
+
     protected void redo(int times) {
         Project project = ProjectManager.singleton.getProject(_projectID);
 
-        while (times > 0 && _futureEntries.size() > 0) {
-            HistoryEntry entry = _futureEntries.get(0);
-
-            entry.apply(project);
+        if (times > 0 && _futureEntries.size() > 0) {
+            moveTo(project, _pastEntries.size() + Math.min(times, _futureEntries.size()));
 
             setModified();
-            times--;
+        }
+    }
+
+    private void redoOne(Project project) {
+        HistoryEntry entry = _futureEntries.get(0);
+
+        entry.apply(project);
+
+        _pastEntries.add(entry);
+        _futureEntries.remove(0);
+    }
+
+    /**
+     * Brings the project to the state where the given number of entries are done, either by reverting or applying the
+     * entries in between, or by restoring the nearest grid snapshot first if that means fewer changes to go through.
+     *
+     * @param target
+     *            the number of entries done once moved, between 0 and the total number of entries
+     */
+    private void moveTo(Project project, int target) {
+        int position = _pastEntries.size();
+        int bestCost = Math.abs(target - position);
+        int bestPosition = position;
+        GridSnapshot bestCheckpoint = null;
+        if (bestCost > CHECKPOINT_RESTORE_COST && !_checkpoints.isEmpty()) {
+            int entryCount = position + _futureEntries.size();
+            for (int i = 0; i <= entryCount; i++) {
+                GridSnapshot checkpoint = _checkpoints.get(i == 0 ? 0L : getEntryAt(i - 1).id);
+                int cost = CHECKPOINT_RESTORE_COST + Math.abs(target - i);
+                if (checkpoint != null && cost < bestCost) {
+                    bestCost = cost;
+                    bestPosition = i;
+                    bestCheckpoint = checkpoint;
+                }
+            }
+        }
+
+        if (bestCheckpoint != null) {
+            bestCheckpoint.restore(project);
+            // the entries in between are neither reverted nor applied
+            while (_pastEntries.size() > bestPosition) {
+                _futureEntries.add(0, _pastEntries.remove(_pastEntries.size() - 1));
+            }
+            while (_pastEntries.size() < bestPosition) {
+                _pastEntries.add(_futureEntries.remove(0));
+            }
+        }
+
+        while (_pastEntries.size() > target) {
+            undoOne(project);
+        }
+        while (_pastEntries.size() < target) {
+            redoOne(project);
+        }
+    }
+
+    private HistoryEntry getEntryAt(int index) {
+        int pastCount = _pastEntries.size();
+        return index < pastCount ? _pastEntries.get(index) : _futureEntries.get(index - pastCount);
+    }
+
+    /**
+     * @return the operations done since the journal was last cleared, each as a line to append to the journal of the
+     *         project
+     */
+    @JsonIgnore
+    synchronized public List<String> getJournal() {
+        return new ArrayList<String>(_journal);
+    }
+
+    /**
+     * Forgets the first operations of the journal, once they are persisted.
+     *
+     * @param count
+     *            the number of operations to forget
+     */
+    synchronized public void clearJournal(int count) {
+        _journal.subList(0, Math.min(count, _journal.size())).clear();
+    }
 
-            _pastEntries.add(entry);
-            _futureEntries.remove(0);
+    /**
+     * Replays an operation read from the journal of a project, on top of the state it was last saved in full. Unlike
+     * {@link #addEntry(HistoryEntry)} and {@link #undoRedo(long)}, this does not rely on the project being registered
+     * and does not update its metadata.
+     *
+     * @param project
+     *            the project being loaded
+     * @param line
+     *            a line produced by {@link #getJournal()}
+     */
+    synchronized public void replay(Project project, String line) throws IOException {
+        int equal = line.indexOf('=');
+        if (equal < 0) {
+            throw new IOException("Invalid journal line: " + line);
+        }
+        String field = line.substring(0, equal);
+        String value = line.substring(equal + 1);
+
+        if ("entry".equals(field)) {
+            // residual data of the future entries was already removed when the entry was first added
+            addPastEntry(project, HistoryEntry.load(project, value));
+        } else if ("undoRedo".equals(field)) {
+            long lastDoneEntryID = Long.parseLong(value);
+            int pastCount = _pastEntries.size();
+            if (lastDoneEntryID != 0 && getEntry(lastDoneEntryID) == null) {
+                // undoRedo ignores unknown entries too
+                return;
+            }
+            int target = 0;
+            for (int i = 0; i < pastCount; i++) {
+                if (_pastEntries.get(i).id == lastDoneEntryID) {
+                    target = i + 1;
+                }
+            }
+            for (int i = 0; i < _futureEntries.size(); i++) {
+                if (_futureEntries.get(i).id == lastDoneEntryID) {
+                    target = pastCount + i + 1;
+                }
+            }
+            moveTo(project, target);
+        } else {
+            throw new IOException("Invalid journal line: " + line);
         }
     }
 
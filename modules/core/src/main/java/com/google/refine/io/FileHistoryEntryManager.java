@@ -44,6 +44,8 @@ import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
 import com.google.refine.history.History;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.history.HistoryEntryManager;
@@ -54,6 +56,10 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
 
     public static final String HISTORY_DIR = "history";
 
+    // entries of change files, either of which is present along with the pool of recons
+    static final String TEXT_CHANGE = "change.txt";
+    static final String BINARY_CHANGE = "change.bin";
+
     @Override
     public void delete(HistoryEntry historyEntry) {
         File file = getChangeFile(historyEntry);
@@ -96,8 +102,13 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
                         zipFile.getInputStream(poolEntry)));
             } // else, it's a legacy project file
 
-            historyEntry.setChange(History.readOneChange(
-                    zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            ZipEntry binaryEntry = zipFile.getEntry(BINARY_CHANGE);
+            if (binaryEntry != null) {
+                historyEntry.setChange(History.readOneBinaryChange(zipFile.getInputStream(binaryEntry), pool));
+            } else {
+                historyEntry.setChange(History.readOneChange(
+                        zipFile.getInputStream(zipFile.getEntry(TEXT_CHANGE)), pool));
+            }
         } finally {
             zipFile.close();
         }
@@ -116,9 +127,15 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         try {
             Pool pool = new Pool();
 
-            out.putNextEntry(new ZipEntry("change.txt"));
+            Change change = historyEntry.getChange();
+            boolean binary = change instanceof BinaryChange && ProjectUtilities.isBinaryFormatEnabled();
+            out.putNextEntry(new ZipEntry(binary ? BINARY_CHANGE : TEXT_CHANGE));
             try {
-                History.writeOneChange(out, historyEntry.getChange(), pool);
+                if (binary) {
+                    History.writeOneBinaryChange(out, (BinaryChange) change, pool);
+                } else {
+                    History.writeOneChange(out, change, pool);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Append-only journal of the history operations done on a project since its data file was last saved in full. The
+ * data file acts as a checkpoint: saving a project only appends the new operations to the journal, and loading it
+ * replays the journal on top of the checkpoint. The journal is compacted into a new data file once it grows too long
+ * or replaying it would read too much data.
+ * <p>
+ * The first line of the journal identifies the data file it applies to, so that a journal left over from an
+ * interrupted save is never replayed on a newer checkpoint. The state of the journal is validated when the project is
+ * loaded or saved in full, and then kept in memory: operations are only appended to a journal in the state it was left
+ * in, and the project is saved in full otherwise.
+ */
+public class ProjectJournal {
+
+    final static Logger logger = LoggerFactory.getLogger("project_journal");
+
+    public static final String JOURNAL = "data.journal";
+
+    /**
+     * Name under which a journal which failed to replay is kept, so that no operation is appended to it.
+     */
+    public static final String FAILED_JOURNAL = "data.journal.failed";
+
+    /**
+     * System property enabling journaled saves. Journals are always replayed when loading projects.
+     */
+    public static final String JOURNAL_PROPERTY = "refine.data.journal";
+
+    /**
+     * System property setting the number of operations after which the journal is compacted.
+     */
+    public static final String MAX_OPERATIONS_PROPERTY = "refine.data.journal.maxOperations";
+    static final int DEFAULT_MAX_OPERATIONS = 1000;
+
+    /**
+     * The journal is compacted once the changes it refers to amount to this fraction of the size of the data file.
+     */
+    static final double MAX_REPLAY_RATIO = 0.5;
+
+    private static final String CHECKPOINT = "checkpoint=";
+    private static final String ENTRY = "entry=";
+
+    /**
+     * Validated state of the journal of a project.
+     */
+    static private class State {
+
+        final String header;
+        final int operationCount;
+        final long length;
+        final long replayCost;
+
+        State(String header, int operationCount, long length, long replayCost) {
+            this.header = header;
+            this.operationCount = operationCount;
+            this.length = length;
+            this.replayCost = replayCost;
+        }
+    }
+
+    // by project id
+    static final private Map<Long, State> states = new ConcurrentHashMap<>();
+
+    static public boolean isEnabled() {
+        return Boolean.getBoolean(JOURNAL_PROPERTY);
+    }
+
+    /**
+     * Appends the operations done on the project since it was last saved to its journal, unless the journal is due for
+     * compaction.
+     *
+     * @param dataFile
+     *            the data file the project was last saved to in full
+     * @return false if the project must be saved in full instead
+     */
+    static boolean append(Project project, File dir, File dataFile) throws IOException {
+        List<String> operations = project.history.getJournal();
+        if (operations.isEmpty()) {
+            return false;
+        }
+
+        File journal = new File(dir, JOURNAL);
+        String header = header(dataFile);
+        State state = states.remove(project.id);
+        if (state == null || !header.equals(state.header) || journal.length() != state.length) {
+            // the journal was not validated, failed to replay, or was modified since
+            return false;
+        }
+
+        int maxOperations = Integer.getInteger(MAX_OPERATIONS_PROPERTY, DEFAULT_MAX_OPERATIONS);
+        int operationCount = state.operationCount + operations.size();
+        long replayCost = state.replayCost;
+        for (String operation : operations) {
+            replayCost += replayCost(dir, operation);
+        }
+        if (operationCount > maxOperations || replayCost > dataFile.length() * MAX_REPLAY_RATIO) {
+            return false;
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(journal, true), StandardCharsets.UTF_8)) {
+            if (state.length == 0) {
+                writer.write(header);
+                writer.write('\n');
+            }
+            for (String operation : operations) {
+                writer.write(operation);
+                writer.write('\n');
+            }
+        }
+        project.history.clearJournal(operations.size());
+        states.put(project.id, new State(header, operationCount, journal.length(), replayCost));
+        return true;
+    }
+
+    /**
+     * Replays the journal of a project, if there is one for the data file it was loaded from.
+     *
+     * @return the number of operations replayed
+     */
+    static int replay(Project project, File dir, File dataFile) throws IOException {
+        states.remove(project.id);
+        File journal = new File(dir, JOURNAL);
+        String header = header(dataFile);
+        if (!journal.exists()) {
+            states.put(project.id, new State(header, 0, 0, 0));
+            return 0;
+        }
+        String content = read(journal);
+        List<String> lines = splitLines(content);
+        if (lines.isEmpty() || !header.equals(lines.get(0))) {
+            logger.warn("Ignoring journal of project {} which does not apply to {}", project.id, dataFile.getName());
+            return 0;
+        }
+
+        long replayCost = 0;
+        for (int i = 1; i < lines.size(); i++) {
+            try {
+                project.history.replay(project, lines.get(i));
+                replayCost += replayCost(dir, lines.get(i));
+            } catch (RuntimeException e) {
+                throw new IOException("Failed to replay line " + (i + 1) + " of the journal", e);
+            }
+        }
+        project.update();
+        if (content.endsWith("\n")) {
+            // otherwise the last line was partially written, and the project must be saved in full
+            states.put(project.id, new State(header, lines.size() - 1, journal.length(), replayCost));
+        }
+        return lines.size() - 1;
+    }
+
+    /**
+     * Sets aside a journal which failed to replay, so that operations are no longer appended to it. The project must be
+     * saved in full before they are.
+     */
+    static void discard(Project project, File dir) {
+        states.remove(project.id);
+        File journal = new File(dir, JOURNAL);
+        File failedJournal = new File(dir, FAILED_JOURNAL);
+        failedJournal.delete();
+        if (!journal.renameTo(failedJournal)) {
+            journal.delete();
+        }
+    }
+
+    /**
+     * Removes the journal, once the project has been saved in full to the given data file.
+     */
+    static void delete(Project project, File dir, File dataFile) {
+        new File(dir, JOURNAL).delete();
+        states.put(project.id, new State(header(dataFile), 0, 0, 0));
+    }
+
+    static private String header(File dataFile) {
+        return CHECKPOINT + dataFile.getName() + ";" + dataFile.length() + ";" + dataFile.lastModified();
+    }
+
+    /**
+     * Estimates the cost of replaying an operation by the size of the change it applies. Undo and redo operations are
+     * only accounted for by the number of operations.
+     */
+    static private long replayCost(File dir, String line) throws IOException {
+        if (!line.startsWith(ENTRY)) {
+            return 0;
+        }
+        JsonNode id = ParsingUtilities.mapper.readTree(line.substring(ENTRY.length())).get("id");
+        if (id == null) {
+            return 0;
+        }
+        return new File(new File(dir, FileHistoryEntryManager.HISTORY_DIR), id.asLong() + ".change.zip").length();
+    }
+
+    static private String read(File journal) throws IOException {
+        return new String(Files.readAllBytes(journal.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits the complete lines of a journal. A last line without line terminator was only partially written and is
+     * ignored.
+     */
+    static private List<String> splitLines(String content) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            lines.add(content.substring(start, end));
+            start = end + 1;
+        }
+        return lines;
+    }
+}
@@ -34,7 +34,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.io;
 
 import static com.google.refine.io.FileHistoryEntryManager.HISTORY_DIR;
-import static com.google.refine.io.ProjectUtilities.DATA_ZIP;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -135,8 +134,8 @@ public class ProjectMetadataUtilities {
             long ctime;
             long mtime;
 
-            File dataFile = new File(projectDir, DATA_ZIP);
-            ctime = mtime = dataFile.lastModified();
+            File dataFile = ProjectUtilities.getDataFile(projectDir);
+            ctime = mtime = dataFile != null ? dataFile.lastModified() : 0L;
 
             File historyDir = new File(projectDir, HISTORY_DIR);
             File[] files = historyDir.listFiles();
@@ -34,8 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.io;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -53,15 +56,53 @@ public class ProjectUtilities {
     public static final String DATA_ZIP = "data.zip";
     public static final String DATA_TEMP_ZIP = "data.temp.zip";
     public static final String DATA_OLD_ZIP = "data.old.zip";
+    public static final String DATA_BIN = "data.bin";
+    public static final String DATA_TEMP_BIN = "data.temp.bin";
+    public static final String DATA_OLD_BIN = "data.old.bin";
+
+    /**
+     * System property selecting the format in which project data is saved: {@code binary} for binary snapshots, or the
+     * legacy zipped text format otherwise. Both formats are always readable.
+     */
+    public static final String DATA_FORMAT_PROPERTY = "refine.data.format";
+    public static final String BINARY_FORMAT = "binary";
+
+    private static final String[] ZIP_FILES = { DATA_ZIP, DATA_TEMP_ZIP, DATA_OLD_ZIP };
+    private static final String[] BINARY_FILES = { DATA_BIN, DATA_TEMP_BIN, DATA_OLD_BIN };
+
+    static public boolean isBinaryFormatEnabled() {
+        return BINARY_FORMAT.equals(System.getProperty(DATA_FORMAT_PROPERTY));
+    }
 
     synchronized public static void save(Project project) throws IOException {
         synchronized (project) {
             long id = project.id;
             File dir = ((FileProjectManager) ProjectManager.singleton).getProjectDir(id);
+            boolean binary = isBinaryFormatEnabled();
+            String[] filenames = binary ? BINARY_FILES : ZIP_FILES;
 
-            File tempFile = new File(dir, DATA_TEMP_ZIP);
+            File dataFile = getDataFile(dir);
+            if (ProjectJournal.isEnabled() && dataFile != null && dataFile.getName().equals(filenames[0])) {
+                try {
+                    if (ProjectJournal.append(project, dir, dataFile)) {
+                        project.setLastSave();
+                        logger.info("Saved project '{}' to its journal", id);
+                        return;
+                    }
+                } catch (IOException e) {
+                    logger.warn("Failed to append to the journal of project {}, saving it in full", id, e);
+                }
+            }
+            // operations done from now on are not part of the full save
+            int journaled = project.history.getJournal().size();
+
+            File tempFile = new File(dir, filenames[1]);
             try {
-                saveToFile(project, tempFile);
+                if (binary) {
+                    saveToBinaryFile(project, tempFile);
+                } else {
+                    saveToFile(project, tempFile);
+                }
             } catch (IOException e) {
                 logger.warn("Failed to save project {}", id, e);
                 try {
@@ -72,8 +113,8 @@ public class ProjectUtilities {
                 throw e;
             }
 
-            File file = new File(dir, DATA_ZIP);
-            File oldFile = new File(dir, DATA_OLD_ZIP);
+            File file = new File(dir, filenames[0]);
+            File oldFile = new File(dir, filenames[2]);
 
             if (file.exists()) {
                 file.renameTo(oldFile);
@@ -83,6 +124,13 @@ public class ProjectUtilities {
             if (oldFile.exists()) {
                 oldFile.delete();
             }
+            // files in the other format are now stale and must not be loaded instead of this one
+            for (String filename : binary ? ZIP_FILES : BINARY_FILES) {
+                new File(dir, filename).delete();
+            }
+            // the journal is compacted into the new data file
+            ProjectJournal.delete(project, dir, file);
+            project.history.clearJournal(journaled);
 
             project.setLastSave();
 
@@ -113,12 +161,47 @@ public class ProjectUtilities {
         }
     }
 
+    protected static void saveToBinaryFile(Project project, File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            project.saveToBinaryOutputStream(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the file holding the current data of the project in the given directory, in either format, or null if
+     *         there is none
+     */
+    static public File getDataFile(File dir) {
+        for (String filename : new String[] { DATA_BIN, DATA_ZIP }) {
+            File file = new File(dir, filename);
+            if (file.exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
     static public Project load(File dir, long id) {
-        for (String filename : new String[] { DATA_ZIP, DATA_TEMP_ZIP, DATA_OLD_ZIP }) {
+        for (String filename : new String[] { DATA_BIN, DATA_ZIP, DATA_TEMP_BIN, DATA_TEMP_ZIP, DATA_OLD_BIN, DATA_OLD_ZIP }) {
             try {
                 File file = new File(dir, filename);
                 if (file.exists()) {
-                    return loadFromFile(file, id);
+                    Project project = loadFromDataFile(file, id);
+                    try {
+                        int replayed = ProjectJournal.replay(project, dir, file);
+                        if (replayed > 0) {
+                            logger.info("Replayed {} operation(s) from the journal of project {}", replayed, id);
+                        }
+                    } catch (IOException e) {
+                        logger.error("Failed to replay the journal of project {}, loading its last checkpoint", id, e);
+                        project = loadFromDataFile(file, id);
+                        // edits are no longer appended after the failing line, but saved in a new checkpoint
+                        ProjectJournal.discard(project, dir);
+                    }
+                    return project;
                 }
             } catch (IOException e) {
                 logger.warn("Failed to load from data file {} / {}", dir, filename, e);
@@ -128,6 +211,19 @@ public class ProjectUtilities {
         return null;
     }
 
+    static private Project loadFromDataFile(File file, long id) throws IOException {
+        return file.getName().endsWith(".bin") ? loadFromBinaryFile(file, id) : loadFromFile(file, id);
+    }
+
+    static protected Project loadFromBinaryFile(File file, long id) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return Project.loadFromBinaryInputStream(in, id);
+        } finally {
+            in.close();
+        }
+    }
+
     static protected Project loadFromFile(
             File file,
             long id) throws IOException {
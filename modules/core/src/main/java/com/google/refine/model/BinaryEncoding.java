@@ -0,0 +1,467 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.Pool;
+
+/**
+ * Compact binary encoding of rows and cells, shared by binary project snapshots and binary history files.
+ * <p>
+ * Cells are encoded with a tag byte giving the type of their value. Strings are dictionary-encoded: a
+ * {@link CellWriter} replaces strings it has already written by references to their first occurrence, and the matching
+ * {@link CellReader} rebuilds the same dictionary while reading. How recons are referenced is left to a
+ * {@link ReconWriter} and the matching {@link ReconReader}.
+ */
+public final class BinaryEncoding {
+
+    static final private byte NO_CELL = 0;
+    static final private byte NULL_VALUE = 1;
+    static final private byte NEW_STRING = 2;
+    static final private byte STRING_REFERENCE = 3;
+    static final private byte LONG = 4;
+    static final private byte INTEGER = 5;
+    static final private byte DOUBLE = 6;
+    static final private byte TRUE = 7;
+    static final private byte FALSE = 8;
+    static final private byte DATE = 9;
+    static final private byte ERROR = 10;
+    static final private byte NUMBER = 11;
+    static final private byte OTHER = 12;
+    static final private int HAS_RECON = 0x80;
+    static final private int TYPE_MASK = 0x7f;
+
+    static final private int FLAGGED = 1;
+    static final private int STARRED = 2;
+
+    private BinaryEncoding() {
+    }
+
+    /**
+     * Writes references to the recons of cells.
+     */
+    public interface ReconWriter {
+
+        void write(Buffer out, Recon recon);
+    }
+
+    /**
+     * Reads references to recons written by a {@link ReconWriter}.
+     */
+    public interface ReconReader {
+
+        Recon read(Cursor in) throws IOException;
+    }
+
+    /**
+     * @return a writer referencing recons by their id in a {@link Pool}, which is then saved alongside the binary
+     *         data, as done for the textual format
+     */
+    static public ReconWriter pooledWriter(Pool pool) {
+        return (out, recon) -> {
+            pool.pool(recon);
+            out.writeVarLong(recon.id);
+        };
+    }
+
+    /**
+     * @return a reader looking up the recons written by {@link #pooledWriter(Pool)} in a {@link Pool}
+     */
+    static public ReconReader pooledReader(Pool pool) {
+        return in -> pool.getRecon(Long.toString(in.readVarLong()));
+    }
+
+    /**
+     * Writes cells and rows to a {@link Buffer}, keeping the dictionary of the strings written so far.
+     */
+    public static final class CellWriter {
+
+        final private ReconWriter _recons;
+        final private Map<String, Integer> _strings = new HashMap<>();
+
+        public CellWriter(ReconWriter recons) {
+            _recons = recons;
+        }
+
+        /**
+         * Forgets the strings written so far, for instance to start an independently readable block.
+         */
+        public void reset() {
+            _strings.clear();
+        }
+
+        public void writeRow(Buffer out, Row row) {
+            out.writeByte((row.flagged ? FLAGGED : 0) | (row.starred ? STARRED : 0));
+            List<Cell> cells = row.cells;
+            out.writeVarInt(cells.size());
+            for (Cell cell : cells) {
+                writeCell(out, cell);
+            }
+        }
+
+        /**
+         * Writes a cell, which may be null.
+         */
+        public void writeCell(Buffer out, Cell cell) {
+            if (cell == null) {
+                out.writeByte(NO_CELL);
+                return;
+            }
+            int reconFlag = cell.recon != null ? HAS_RECON : 0;
+            Serializable value = cell.value;
+            if (value == null) {
+                out.writeByte(NULL_VALUE | reconFlag);
+            } else if (value instanceof String) {
+                Integer index = _strings.get(value);
+                if (index != null) {
+                    out.writeByte(STRING_REFERENCE | reconFlag);
+                    out.writeVarInt(index);
+                } else {
+                    _strings.put((String) value, _strings.size());
+                    out.writeByte(NEW_STRING | reconFlag);
+                    out.writeString((String) value);
+                }
+            } else if (value instanceof Long) {
+                out.writeByte(LONG | reconFlag);
+                out.writeVarLong((Long) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER | reconFlag);
+                out.writeVarLong((Integer) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                out.writeByte(DOUBLE | reconFlag);
+                out.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+            } else if (value instanceof Boolean) {
+                out.writeByte(((Boolean) value ? TRUE : FALSE) | reconFlag);
+            } else if (value instanceof OffsetDateTime || value instanceof LocalDateTime) {
+                Instant instant = value instanceof OffsetDateTime ? ((OffsetDateTime) value).toInstant()
+                        : ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+                out.writeByte(DATE | reconFlag);
+                out.writeVarLong(instant.getEpochSecond());
+                out.writeVarInt(instant.getNano());
+            } else if (value instanceof EvalError) {
+                out.writeByte(ERROR | reconFlag);
+                out.writeString(((EvalError) value).message);
+            } else if (value instanceof Number) {
+                out.writeByte(NUMBER | reconFlag);
+                out.writeString(value.toString());
+            } else {
+                out.writeByte(OTHER | reconFlag);
+                out.writeString(value.toString());
+            }
+            if (cell.recon != null) {
+                _recons.write(out, cell.recon);
+            }
+        }
+    }
+
+    /**
+     * Reads cells and rows written by a {@link CellWriter}.
+     */
+    public static final class CellReader {
+
+        final private ReconReader _recons;
+        final private List<String> _strings = new ArrayList<>();
+
+        public CellReader(ReconReader recons) {
+            _recons = recons;
+        }
+
+        /**
+         * Forgets the strings read so far, where the matching {@link CellWriter} was reset.
+         */
+        public void reset() {
+            _strings.clear();
+        }
+
+        public Row readRow(Cursor in) throws IOException {
+            int flags = in.readByte();
+            int cellCount = in.readVarInt();
+            Row row = new Row(cellCount);
+            row.flagged = (flags & FLAGGED) != 0;
+            row.starred = (flags & STARRED) != 0;
+            for (int c = 0; c != cellCount; c++) {
+                row.cells.add(readCell(in));
+            }
+            return row;
+        }
+
+        /**
+         * Reads a cell, which may be null.
+         */
+        public Cell readCell(Cursor in) throws IOException {
+            int tag = in.readByte();
+            if (tag == NO_CELL) {
+                return null;
+            }
+            Serializable value;
+            switch (tag & TYPE_MASK) {
+                case NULL_VALUE:
+                    value = null;
+                    break;
+                case NEW_STRING:
+                    String string = in.readString();
+                    _strings.add(string);
+                    value = string;
+                    break;
+                case STRING_REFERENCE:
+                    int index = in.readVarInt();
+                    if (index >= _strings.size()) {
+                        throw new IOException("Invalid string reference " + index + " in binary data");
+                    }
+                    value = _strings.get(index);
+                    break;
+                case LONG:
+                    value = in.readVarLong();
+                    break;
+                case INTEGER:
+                    value = (int) in.readVarLong();
+                    break;
+                case DOUBLE:
+                    value = Double.longBitsToDouble(in.readLong());
+                    break;
+                case TRUE:
+                    value = true;
+                    break;
+                case FALSE:
+                    value = false;
+                    break;
+                case DATE:
+                    Instant instant = Instant.ofEpochSecond(in.readVarLong(), in.readVarInt());
+                    value = OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+                    break;
+                case ERROR:
+                    value = new EvalError(in.readString());
+                    break;
+                case NUMBER:
+                    value = (Serializable) ParsingUtilities.mapper.readValue(in.readString(), Object.class);
+                    break;
+                case OTHER:
+                    value = in.readString();
+                    break;
+                default:
+                    throw new IOException("Invalid cell tag " + tag + " in binary data");
+            }
+            Recon recon = (tag & HAS_RECON) != 0 ? _recons.read(in) : null;
+            return new Cell(value, recon);
+        }
+    }
+
+    /**
+     * A growable byte array with the encodings used in binary data.
+     */
+    public static final class Buffer {
+
+        byte[] bytes;
+        int length = 0;
+
+        public Buffer() {
+            this(1 << 16);
+        }
+
+        public Buffer(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        public void reset() {
+            length = 0;
+        }
+
+        /**
+         * @return the internal array, holding the data written in its {@link #length()} first bytes
+         */
+        public byte[] bytes() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        public void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        public void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        public void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * Writes a signed long with zig-zag encoding, so that small negative values stay short.
+         */
+        public void writeVarLong(long value) {
+            ensureCapacity(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7fL) != 0) {
+                bytes[length++] = (byte) ((zigzag & 0x7f) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[length++] = (byte) zigzag;
+        }
+
+        public void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        public void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, length, encoded.length);
+            length += encoded.length;
+        }
+
+        /**
+         * Writes a string which may be null.
+         */
+        public void writeNullableString(String value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeString(value);
+            }
+        }
+    }
+
+    /**
+     * Reads the encodings of {@link Buffer} from a byte array.
+     */
+    public static final class Cursor {
+
+        final byte[] bytes;
+        final int limit;
+        int position = 0;
+
+        public Cursor(byte[] bytes) {
+            this(bytes, bytes.length);
+        }
+
+        public Cursor(byte[] bytes, int limit) {
+            this.bytes = bytes;
+            this.limit = limit;
+        }
+
+        /**
+         * @return true if all bytes were read
+         */
+        public boolean isAtEnd() {
+            return position == limit;
+        }
+
+        private void check(int length) throws IOException {
+            if (length < 0 || position + length > limit) {
+                throw new IOException("Unexpected end of binary data");
+            }
+        }
+
+        public int readByte() throws IOException {
+            check(1);
+            return bytes[position++] & 0xff;
+        }
+
+        public boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        public int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed integer in binary data");
+        }
+
+        public long readVarLong() throws IOException {
+            long zigzag = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                int b = readByte();
+                zigzag |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IOException("Malformed integer in binary data");
+        }
+
+        public long readLong() throws IOException {
+            check(8);
+            long value = 0;
+            for (int i = 0; i != 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xff);
+            }
+            return value;
+        }
+
+        public String readString() throws IOException {
+            int length = readVarInt();
+            check(length);
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        public String readNullableString() throws IOException {
+            return readBoolean() ? readString() : null;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.LineNumberReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
+
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.Pool;
+
+/**
+ * Reads and writes projects in a versioned binary format, used instead of the line-based JSON format of
+ * {@link Project#saveToOutputStream(java.io.OutputStream, Pool)} when binary snapshots are enabled.
+ * <p>
+ * The snapshot starts with a magic number and a format version, followed by the column model, history and overlay
+ * models in their usual textual form. Then comes the pool of recons referenced by cells, and the rows themselves, in
+ * independently compressed chunks of {@link #CHUNK_SIZE} rows, encoded with {@link BinaryEncoding}. Strings repeated
+ * within a chunk are replaced by references to their first occurrence, and recons by their index in the pool.
+ */
+final class BinarySnapshot {
+
+    final static Logger logger = LoggerFactory.getLogger(BinarySnapshot.class);
+
+    static final int MAGIC = 0x4f524253; // "ORBS"
+    static final int FORMAT_VERSION = 1;
+    static final int CHUNK_SIZE = 4096;
+
+    private BinarySnapshot() {
+    }
+
+    static void write(Project project, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+
+        StringWriter header = new StringWriter();
+        Properties options = new Properties();
+        options.setProperty("mode", "save");
+        options.put("pool", new Pool());
+        project.saveModelsToWriter(header, options);
+        writeBytes(out, header.toString().getBytes(StandardCharsets.UTF_8));
+
+        Map<Long, Integer> reconIndices = new HashMap<>();
+        Buffer recons = new Buffer();
+        for (Row row : project.rows) {
+            for (Cell cell : row.cells) {
+                if (cell != null && cell.recon != null && !reconIndices.containsKey(cell.recon.id)) {
+                    reconIndices.put(cell.recon.id, reconIndices.size());
+                    recons.writeString(ParsingUtilities.saveWriter.writeValueAsString(cell.recon));
+                }
+            }
+        }
+        out.writeInt(reconIndices.size());
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        writeBlock(out, recons, deflater);
+
+        List<Row> rows = project.rows;
+        int rowCount = rows.size();
+        out.writeInt(rowCount);
+        Buffer chunk = new Buffer();
+        CellWriter writer = new CellWriter((chunkOut, recon) -> chunkOut.writeVarInt(reconIndices.get(recon.id)));
+        for (int start = 0; start < rowCount; start += CHUNK_SIZE) {
+            int end = Math.min(rowCount, start + CHUNK_SIZE);
+            chunk.reset();
+            writer.reset();
+            for (int r = start; r < end; r++) {
+                writer.writeRow(chunk, rows.get(r));
+            }
+            out.writeInt(end - start);
+            writeBlock(out, chunk, deflater);
+        }
+        deflater.end();
+        out.flush();
+    }
+
+    static Project read(InputStream stream, long id) throws IOException {
+        long start = System.currentTimeMillis();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary project snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary project snapshot version " + version);
+        }
+
+        Project project = new Project(id);
+        String header = new String(readBytes(in), StandardCharsets.UTF_8);
+        LineNumberReader reader = new LineNumberReader(new StringReader(header));
+        // version of Refine which wrote the file
+        /* String refineVersion = */ reader.readLine();
+        project.loadSections(reader, null);
+
+        Inflater inflater = new Inflater();
+        int reconCount = in.readInt();
+        Cursor recons = readBlock(in, inflater);
+        Recon[] reconTable = new Recon[reconCount];
+        for (int i = 0; i != reconCount; i++) {
+            reconTable[i] = Recon.loadStreaming(recons.readString());
+        }
+
+        inflater.end();
+
+        // chunks are independent: they are read sequentially and inflated and decoded on the worker pool
+        int rowCount = in.readInt();
+        OrderedRowLoader loader = new OrderedRowLoader(project.rows);
+        for (int read = 0; read < rowCount;) {
+            int chunkRowCount = in.readInt();
+            if (chunkRowCount <= 0 || chunkRowCount > rowCount - read) {
+                throw new IOException("Invalid number of rows in binary project snapshot chunk: " + chunkRowCount);
+            }
+            CompressedBlock block = readCompressedBlock(in);
+            loader.submit(() -> readChunk(block, chunkRowCount, reconTable));
+            read += chunkRowCount;
+        }
+        int maxCellCount = loader.finish();
+
+        project.columnModel.setMaxCellIndex(maxCellCount - 1);
+
+        logger.info(
+                "Loaded project {} from binary snapshot in {} sec(s)", id,
+                Long.toString((System.currentTimeMillis() - start) / 1000));
+
+        project.update();
+
+        return project;
+    }
+
+    static private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static private byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    static private void writeBlock(DataOutputStream out, Buffer block, Deflater deflater) throws IOException {
+        deflater.reset();
+        deflater.setInput(block.bytes(), 0, block.length());
+        deflater.finish();
+        byte[] compressed = new byte[Math.max(64, block.length() / 2)];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        out.writeInt(block.length());
+        out.writeInt(compressedLength);
+        out.write(compressed, 0, compressedLength);
+    }
+
+    static private List<Row> readChunk(CompressedBlock block, int rowCount, Recon[] reconTable) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            Cursor chunk = inflate(block, inflater);
+            CellReader reader = new CellReader(in -> {
+                int index = in.readVarInt();
+                if (index >= reconTable.length) {
+                    throw new IOException("Invalid recon reference " + index + " in binary project snapshot");
+                }
+                return reconTable[index];
+            });
+            List<Row> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r != rowCount; r++) {
+                rows.add(reader.readRow(chunk));
+            }
+            return rows;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static private Cursor readBlock(DataInputStream in, Inflater inflater) throws IOException {
+        return inflate(readCompressedBlock(in), inflater);
+    }
+
+    static private CompressedBlock readCompressedBlock(DataInputStream in) throws IOException {
+        int rawLength = in.readInt();
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        return new CompressedBlock(rawLength, compressed);
+    }
+
+    static private Cursor inflate(CompressedBlock block, Inflater inflater) throws IOException {
+        byte[] raw = new byte[block.rawLength];
+        byte[] compressed = block.bytes;
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < raw.length) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated block in binary project snapshot");
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted block in binary project snapshot", e);
+        }
+        return new Cursor(raw);
+    }
+
+    /**
+     * A deflated block, as read from a snapshot before inflating it.
+     */
+    static final class CompressedBlock {
+
+        final int rawLength;
+        final byte[] bytes;
+
+        CompressedBlock(int rawLength, byte[] bytes) {
+            this.rawLength = rawLength;
+            this.bytes = bytes;
+        }
+    }
+}
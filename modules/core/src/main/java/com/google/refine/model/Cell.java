@@ -169,8 +169,8 @@ public class Cell implements HasFields, Serializable {
     static public Cell loadStreaming(String s, Pool pool) throws Exception {
         InjectableValues injectableValues = new InjectableValues.Std()
                 .addValue("pool", pool);
-        return ParsingUtilities.mapper.setInjectableValues(injectableValues)
-                .readValue(s, Cell.class);
+        return ParsingUtilities.mapper.reader(injectableValues).forType(Cell.class)
+                .readValue(s);
     }
 
     @JsonCreator
@@ -48,6 +48,11 @@ import com.google.refine.util.ParsingUtilities;
 
 public class Column {
 
+    /**
+     * Precomputes are updated incrementally when at most one row in that many changes.
+     */
+    static final public int INCREMENTAL_UPDATE_RATIO = 10;
+
     final private int _cellIndex;
     final private String _originalName;
     private String _name;
@@ -131,6 +136,44 @@ public class Column {
         }
     }
 
+    /**
+     * Prepares cached precomputed values for a change to the cells of some rows in this column. Those which are
+     * {@link IncrementalPrecompute} forget about the rows and the others are cleared. They are all cleared if more than
+     * one row in {@link #INCREMENTAL_UPDATE_RATIO} changes, since updating them would not be cheaper than computing
+     * them again.
+     * <p>
+     * This must be followed by {@link #addRowsToPrecomputes(Project, int[])} once the cells are changed.
+     *
+     * @param rowIndices
+     *            the rows about to change, without duplicates
+     */
+    public void removeRowsFromPrecomputes(Project project, int[] rowIndices) {
+        if (_precomputes == null) {
+            return;
+        }
+        if ((long) rowIndices.length * INCREMENTAL_UPDATE_RATIO > project.rows.size()) {
+            _precomputes.clear();
+        } else {
+            _precomputes.values().removeIf(
+                    precompute -> !(precompute instanceof IncrementalPrecompute)
+                            || !((IncrementalPrecompute) precompute).removeRows(project, rowIndices));
+        }
+    }
+
+    /**
+     * Updates cached precomputed values after a change to the cells of some rows in this column, announced by
+     * {@link #removeRowsFromPrecomputes(Project, int[])}.
+     *
+     * @param rowIndices
+     *            the rows which changed, without duplicates
+     */
+    public void addRowsToPrecomputes(Project project, int[] rowIndices) {
+        if (_precomputes != null) {
+            _precomputes.values().removeIf(
+                    precompute -> !((IncrementalPrecompute) precompute).addRows(project, rowIndices));
+        }
+    }
+
     public Object getPrecompute(String key) {
         if (_precomputes != null) {
             return _precomputes.get(key);
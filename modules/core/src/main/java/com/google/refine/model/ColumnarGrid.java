@@ -0,0 +1,767 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A column-oriented storage for the rows of a project, used in place of an {@link ArrayList} of {@link Row} objects
+ * when the {@code refine.grid.storage} system property is set to {@code columnar}.
+ * <p>
+ * Cells are stored per column in fixed-size chunks: each chunk holds a type tag per row (which also records the absence
+ * of a cell), a primitive {@code long} slot holding numbers, booleans or dictionary codes for strings, and lazily
+ * allocated slots for recons and for values which have no primitive encoding (dates, errors, strings of columns whose
+ * dictionary is full). Row flags and cell counts are stored in separate row-level chunks.
+ * <p>
+ * Rows are exposed through the {@link List} interface so that the rest of the code base can keep accessing
+ * {@code project.rows} as before. Each call to {@link #get(int)} returns a {@link Row} decoded from the chunks. Changes
+ * made to the cells of such a row (through {@link Row#setCell(int, Cell)} or its cell list) are written back to the
+ * grid immediately, as long as no row was inserted, removed or replaced in the meantime. Changes made to the
+ * {@link Row#flagged} and {@link Row#starred} fields are written back when the row is evicted from a small cache of
+ * recently decoded rows, so they must be made right after fetching the row, as the
+ * {@link com.google.refine.history.Change} classes do.
+ */
+public class ColumnarGrid extends AbstractList<Row> implements RandomAccess {
+
+    /**
+     * System property selecting the storage used for the rows of projects.
+     */
+    static final public String STORAGE_PROPERTY = "refine.grid.storage";
+    static final public String COLUMNAR_STORAGE = "columnar";
+
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Number of distinct strings a column dictionary holds before further strings are stored as plain objects.
+     */
+    static final int MAX_DICTIONARY_SIZE = 1 << 18;
+
+    static final private int INITIAL_CHUNK_CAPACITY = 16;
+    static final private int VIEW_CACHE_SIZE = 1024;
+
+    static final private byte NO_CELL = 0;
+    static final private byte NULL_VALUE = 1;
+    static final private byte STRING = 2;
+    static final private byte LONG = 3;
+    static final private byte DOUBLE = 4;
+    static final private byte BOOLEAN = 5;
+    static final private byte OBJECT = 6;
+
+    static final private byte FLAGGED = 1;
+    static final private byte STARRED = 2;
+
+    static final private Cell NULL_CELL = new Cell(null, null);
+
+    private int _size = 0;
+    /**
+     * Incremented whenever rows are inserted, removed or replaced, which detaches previously decoded rows from the
+     * grid.
+     */
+    private volatile int _version = 0;
+    final private List<RowChunk> _rowChunks = new ArrayList<>();
+    final private List<ColumnStore> _columns = new ArrayList<>();
+    final private AtomicReferenceArray<RowView> _views = new AtomicReferenceArray<>(VIEW_CACHE_SIZE);
+
+    /**
+     * @return true if new projects should store their rows in a {@link ColumnarGrid}
+     */
+    static public boolean isEnabled() {
+        return COLUMNAR_STORAGE.equals(System.getProperty(STORAGE_PROPERTY));
+    }
+
+    /**
+     * Creates the list holding the rows of a new project, according to the configured storage.
+     */
+    static public List<Row> createRowList() {
+        return isEnabled() ? new ColumnarGrid() : new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public Row get(int index) {
+        Objects.checkIndex(index, _size);
+        int slot = index & (VIEW_CACHE_SIZE - 1);
+        // views write their changes through to the grid, so replacing one concurrently only costs decoding it again
+        RowView cached = _views.get(slot);
+        if (cached != null && cached.index == index && cached.version == _version) {
+            return cached;
+        }
+        RowView view = decodeRow(index);
+        _views.set(slot, view);
+        return view;
+    }
+
+    @Override
+    public boolean add(Row row) {
+        ensureRowCapacity(_size + 1);
+        _size++;
+        encodeRow(_size - 1, row);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, Row row) {
+        Objects.checkIndex(index, _size + 1);
+        if (index == _size) {
+            add(row);
+            return;
+        }
+        detachViews();
+        ensureRowCapacity(_size + 1);
+        moveRows(index, index + 1, _size - index);
+        _size++;
+        encodeRow(index, row);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Row> rows) {
+        return addAll(_size, rows);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Row> rows) {
+        Objects.checkIndex(index, _size + 1);
+        if (rows.isEmpty()) {
+            return false;
+        }
+        // copy first, since the collection could be a view on this grid
+        List<Row> toAdd = new ArrayList<>(rows);
+        int count = toAdd.size();
+        if (index < _size) {
+            detachViews();
+        }
+        ensureRowCapacity(_size + count);
+        moveRows(index, index + count, _size - index);
+        _size += count;
+        for (int i = 0; i != count; i++) {
+            encodeRow(index + i, toAdd.get(i));
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Row set(int index, Row row) {
+        Row old = get(index);
+        detachViews();
+        encodeRow(index, row);
+        return old;
+    }
+
+    @Override
+    public Row remove(int index) {
+        Row old = get(index);
+        removeRange(index, index + 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        detachViews();
+        int count = toIndex - fromIndex;
+        moveRows(toIndex, fromIndex, _size - toIndex);
+        for (int i = _size - count; i != _size; i++) {
+            clearRow(i);
+        }
+        _size -= count;
+        trimChunks();
+        modCount++;
+    }
+
+    /**
+     * Removes the rows at the given indices in one pass over the following rows.
+     *
+     * @see RowSplicer#removeRows(List, int[])
+     */
+    List<Row> removeRows(int[] indices) {
+        if (indices.length == 0) {
+            return new ArrayList<>();
+        }
+        List<Row> removed = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            removed.add(decodeRow(index));
+        }
+        // the removed rows must not follow the rows moved into their place
+        detachViews();
+        int next = 0;
+        int kept = indices[0];
+        for (int r = kept; r < _size; r++) {
+            if (next < indices.length && indices[next] == r) {
+                next++;
+            } else {
+                copyRow(r, kept++);
+            }
+        }
+        for (int i = kept; i != _size; i++) {
+            clearRow(i);
+        }
+        _size = kept;
+        trimChunks();
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Inserts rows at the given indices in one pass over the following rows.
+     *
+     * @see RowSplicer#insertRows(List, int[], List)
+     */
+    void insertRows(int[] indices, List<Row> inserted) {
+        if (indices.length == 0) {
+            return;
+        }
+        // copy first, since the rows could be views on this grid
+        List<Row> toInsert = new ArrayList<>(inserted);
+        detachViews();
+        int size = _size;
+        ensureRowCapacity(size + indices.length);
+        _size = size + indices.length;
+        int source = size - 1;
+        int next = indices.length - 1;
+        for (int r = _size - 1; r >= 0 && source != r; r--) {
+            if (next >= 0 && indices[next] == r) {
+                encodeRow(r, toInsert.get(next--));
+            } else {
+                copyRow(source--, r);
+            }
+        }
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        detachViews();
+        _size = 0;
+        _rowChunks.clear();
+        _columns.clear();
+        modCount++;
+    }
+
+    /**
+     * @return the number of distinct strings stored in the dictionary of the given cell index
+     */
+    public int getDictionarySize(int cellIndex) {
+        return cellIndex < _columns.size() ? _columns.get(cellIndex).dictionary.size() : 0;
+    }
+
+    /**
+     * @return the estimated number of bytes used by the grid in memory, excluding recons shared with other cells
+     */
+    long estimateMemorySize() {
+        long size = _rowChunks.size() * (2 * ProjectSizeEstimator.OBJECT_HEADER + 5L * CHUNK_SIZE);
+        for (ColumnStore column : _columns) {
+            for (CellChunk chunk : column.chunks) {
+                if (chunk == null) {
+                    continue;
+                }
+                int capacity = chunk.kinds.length;
+                size += ProjectSizeEstimator.OBJECT_HEADER + capacity;
+                if (chunk.values != null) {
+                    size += ProjectSizeEstimator.OBJECT_HEADER + 8L * capacity;
+                }
+                if (chunk.objects != null) {
+                    size += ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * capacity;
+                    for (Serializable object : chunk.objects) {
+                        size += ProjectSizeEstimator.estimateValue(object);
+                    }
+                }
+                if (chunk.recons != null) {
+                    size += ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * capacity;
+                }
+            }
+            for (Cell cell : column.dictionary) {
+                // shared cell, its string and its entry in the map of codes, which shares the string
+                size += ProjectSizeEstimator.CELL_OVERHEAD + ProjectSizeEstimator.estimateValue(cell.value) + 48;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Invalidates all decoded rows, so that further changes to them are not reflected in the grid.
+     */
+    private void detachViews() {
+        for (int i = 0; i != VIEW_CACHE_SIZE; i++) {
+            _views.set(i, null);
+        }
+        _version++;
+    }
+
+    private boolean isAttached(int index, int version) {
+        return version == _version && index < _size;
+    }
+
+    private void writeFlag(int index, byte flag, boolean set) {
+        RowChunk chunk = _rowChunks.get(index >> CHUNK_BITS);
+        int offset = index & CHUNK_MASK;
+        chunk.flags[offset] = (byte) (set ? chunk.flags[offset] | flag : chunk.flags[offset] & ~flag);
+    }
+
+    private RowView decodeRow(int index) {
+        RowChunk rowChunk = _rowChunks.get(index >> CHUNK_BITS);
+        int offset = index & CHUNK_MASK;
+        int cellCount = rowChunk.cellCounts[offset];
+        byte flags = rowChunk.flags[offset];
+
+        ArrayList<Cell> cells = new ArrayList<>(cellCount);
+        for (int c = 0; c != cellCount; c++) {
+            cells.add(c < _columns.size() ? _columns.get(c).get(index) : null);
+        }
+        int version = _version;
+        return new RowView(new RowCells(cells, index, version), index, version,
+                (flags & FLAGGED) != 0, (flags & STARRED) != 0);
+    }
+
+    private void encodeRow(int index, Row row) {
+        RowChunk rowChunk = _rowChunks.get(index >> CHUNK_BITS);
+        int offset = index & CHUNK_MASK;
+        List<Cell> cells = row.cells;
+        int oldCount = rowChunk.cellCounts[offset];
+        writeCells(index, cells, oldCount);
+        rowChunk.flags[offset] = (byte) ((row.flagged ? FLAGGED : 0) | (row.starred ? STARRED : 0));
+    }
+
+    private void writeCells(int index, List<Cell> cells, int oldCount) {
+        int newCount = cells.size();
+        for (int c = 0; c < newCount; c++) {
+            writeCell(index, c, cells.get(c));
+        }
+        for (int c = newCount; c < oldCount; c++) {
+            writeCell(index, c, null);
+        }
+        _rowChunks.get(index >> CHUNK_BITS).cellCounts[index & CHUNK_MASK] = newCount;
+    }
+
+    private void writeCell(int index, int cellIndex, Cell cell) {
+        if (cellIndex >= _columns.size()) {
+            if (cell == null) {
+                return;
+            }
+            while (_columns.size() <= cellIndex) {
+                _columns.add(new ColumnStore());
+            }
+        }
+        _columns.get(cellIndex).set(index, cell);
+    }
+
+    private void clearRow(int index) {
+        RowChunk rowChunk = _rowChunks.get(index >> CHUNK_BITS);
+        int offset = index & CHUNK_MASK;
+        for (int c = 0; c < rowChunk.cellCounts[offset] && c < _columns.size(); c++) {
+            _columns.get(c).set(index, null);
+        }
+        rowChunk.cellCounts[offset] = 0;
+        rowChunk.flags[offset] = 0;
+    }
+
+    /**
+     * Moves the contents of {@code count} rows starting at {@code from} to the rows starting at {@code to}, copying the
+     * encoded slots without decoding them.
+     */
+    private void moveRows(int from, int to, int count) {
+        if (count == 0 || from == to) {
+            return;
+        }
+        if (from < to) {
+            for (int i = count - 1; i >= 0; i--) {
+                copyRow(from + i, to + i);
+            }
+        } else {
+            for (int i = 0; i != count; i++) {
+                copyRow(from + i, to + i);
+            }
+        }
+    }
+
+    private void copyRow(int from, int to) {
+        RowChunk source = _rowChunks.get(from >> CHUNK_BITS);
+        RowChunk target = _rowChunks.get(to >> CHUNK_BITS);
+        int sourceOffset = from & CHUNK_MASK;
+        int targetOffset = to & CHUNK_MASK;
+        int cellCount = Math.max(source.cellCounts[sourceOffset], target.cellCounts[targetOffset]);
+        for (int c = 0; c < cellCount && c < _columns.size(); c++) {
+            _columns.get(c).copy(from, to);
+        }
+        target.cellCounts[targetOffset] = source.cellCounts[sourceOffset];
+        target.flags[targetOffset] = source.flags[sourceOffset];
+    }
+
+    private void ensureRowCapacity(int capacity) {
+        while ((_rowChunks.size() << CHUNK_BITS) < capacity) {
+            _rowChunks.add(new RowChunk());
+        }
+    }
+
+    private void trimChunks() {
+        int chunkCount = (_size + CHUNK_MASK) >> CHUNK_BITS;
+        while (_rowChunks.size() > chunkCount) {
+            _rowChunks.remove(_rowChunks.size() - 1);
+        }
+        for (ColumnStore column : _columns) {
+            while (column.chunks.size() > chunkCount) {
+                column.chunks.remove(column.chunks.size() - 1);
+            }
+        }
+    }
+
+    static final private class RowChunk {
+
+        final int[] cellCounts = new int[CHUNK_SIZE];
+        final byte[] flags = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * A chunk of the cells of one column. Its arrays start small and grow up to {@link #CHUNK_SIZE}, so that columns of
+     * short projects stay cheap.
+     */
+    static final private class CellChunk {
+
+        byte[] kinds = new byte[INITIAL_CHUNK_CAPACITY];
+        long[] values;
+        Serializable[] objects;
+        Recon[] recons;
+
+        byte kind(int offset) {
+            byte[] kinds = this.kinds;
+            return offset < kinds.length ? kinds[offset] : NO_CELL;
+        }
+
+        void ensureCapacity(int offset) {
+            if (offset < kinds.length) {
+                return;
+            }
+            int capacity = Math.min(CHUNK_SIZE, Math.max(offset + 1, kinds.length * 2));
+            if (values != null) {
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (objects != null) {
+                objects = Arrays.copyOf(objects, capacity);
+            }
+            if (recons != null) {
+                recons = Arrays.copyOf(recons, capacity);
+            }
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+
+        long[] values() {
+            if (values == null) {
+                values = new long[kinds.length];
+            }
+            return values;
+        }
+
+        Serializable[] objects() {
+            if (objects == null) {
+                objects = new Serializable[kinds.length];
+            }
+            return objects;
+        }
+
+        Recon[] recons() {
+            if (recons == null) {
+                recons = new Recon[kinds.length];
+            }
+            return recons;
+        }
+    }
+
+    /**
+     * The cells of one column. String values are dictionary-encoded: the dictionary holds one shared {@link Cell} per
+     * distinct string, which is returned as is for cells without recon.
+     */
+    static final private class ColumnStore {
+
+        final List<CellChunk> chunks = new ArrayList<>();
+        final List<Cell> dictionary = new ArrayList<>();
+        final Map<String, Integer> codes = new HashMap<>();
+
+        CellChunk chunk(int index) {
+            int chunkIndex = index >> CHUNK_BITS;
+            return chunkIndex < chunks.size() ? chunks.get(chunkIndex) : null;
+        }
+
+        CellChunk chunkForWrite(int index) {
+            int chunkIndex = index >> CHUNK_BITS;
+            while (chunks.size() <= chunkIndex) {
+                chunks.add(null);
+            }
+            CellChunk chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunk = new CellChunk();
+                chunks.set(chunkIndex, chunk);
+            }
+            chunk.ensureCapacity(index & CHUNK_MASK);
+            return chunk;
+        }
+
+        Cell get(int index) {
+            CellChunk chunk = chunk(index);
+            if (chunk == null) {
+                return null;
+            }
+            int offset = index & CHUNK_MASK;
+            byte kind = chunk.kind(offset);
+            if (kind == NO_CELL) {
+                return null;
+            }
+            Recon recon = chunk.recons == null ? null : chunk.recons[offset];
+            Serializable value;
+            switch (kind) {
+                case NULL_VALUE:
+                    return recon == null ? NULL_CELL : new Cell(null, recon);
+                case STRING:
+                    Cell shared = dictionary.get((int) chunk.values[offset]);
+                    return recon == null ? shared : new Cell(shared.value, recon);
+                case LONG:
+                    value = chunk.values[offset];
+                    break;
+                case DOUBLE:
+                    value = Double.longBitsToDouble(chunk.values[offset]);
+                    break;
+                case BOOLEAN:
+                    value = chunk.values[offset] != 0;
+                    break;
+                default:
+                    value = chunk.objects[offset];
+            }
+            return new Cell(value, recon);
+        }
+
+        void set(int index, Cell cell) {
+            CellChunk chunk;
+            if (cell == null) {
+                chunk = chunk(index);
+                if (chunk == null || chunk.kind(index & CHUNK_MASK) == NO_CELL) {
+                    return;
+                }
+            } else {
+                chunk = chunkForWrite(index);
+            }
+            int offset = index & CHUNK_MASK;
+            if (chunk.objects != null) {
+                chunk.objects[offset] = null;
+            }
+            if (chunk.recons != null) {
+                chunk.recons[offset] = null;
+            }
+            if (cell == null) {
+                chunk.kinds[offset] = NO_CELL;
+                return;
+            }
+            if (cell.recon != null) {
+                chunk.recons()[offset] = cell.recon;
+            }
+
+            Serializable value = cell.value;
+            if (value == null) {
+                chunk.kinds[offset] = NULL_VALUE;
+            } else if (value instanceof String) {
+                int code = encode((String) value);
+                if (code >= 0) {
+                    chunk.kinds[offset] = STRING;
+                    chunk.values()[offset] = code;
+                } else {
+                    chunk.kinds[offset] = OBJECT;
+                    chunk.objects()[offset] = value;
+                }
+            } else if (value instanceof Long) {
+                chunk.kinds[offset] = LONG;
+                chunk.values()[offset] = (Long) value;
+            } else if (value instanceof Double) {
+                chunk.kinds[offset] = DOUBLE;
+                chunk.values()[offset] = Double.doubleToRawLongBits((Double) value);
+            } else if (value instanceof Boolean) {
+                chunk.kinds[offset] = BOOLEAN;
+                chunk.values()[offset] = ((Boolean) value) ? 1 : 0;
+            } else {
+                chunk.kinds[offset] = OBJECT;
+                chunk.objects()[offset] = value;
+            }
+        }
+
+        /**
+         * @return the dictionary code of the string, or -1 if the dictionary is full and does not contain it
+         */
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                return -1;
+            }
+            int newCode = dictionary.size();
+            dictionary.add(new Cell(value, null));
+            codes.put(value, newCode);
+            return newCode;
+        }
+
+        void copy(int from, int to) {
+            CellChunk source = chunk(from);
+            int sourceOffset = from & CHUNK_MASK;
+            if (source == null || source.kind(sourceOffset) == NO_CELL) {
+                set(to, null);
+                return;
+            }
+            CellChunk target = chunkForWrite(to);
+            int targetOffset = to & CHUNK_MASK;
+            target.kinds[targetOffset] = source.kinds[sourceOffset];
+            if (source.values != null) {
+                target.values()[targetOffset] = source.values[sourceOffset];
+            }
+            if (source.objects != null && source.objects[sourceOffset] != null) {
+                target.objects()[targetOffset] = source.objects[sourceOffset];
+            } else if (target.objects != null) {
+                target.objects[targetOffset] = null;
+            }
+            if (source.recons != null && source.recons[sourceOffset] != null) {
+                target.recons()[targetOffset] = source.recons[sourceOffset];
+            } else if (target.recons != null) {
+                target.recons[targetOffset] = null;
+            }
+        }
+    }
+
+    /**
+     * A row decoded from the grid, writing changes to its flags through to the grid as long as it is still attached to
+     * it.
+     */
+    final private class RowView extends Row {
+
+        final int index;
+        final int version;
+
+        RowView(RowCells cells, int index, int version, boolean flagged, boolean starred) {
+            super(cells, flagged, starred);
+            this.index = index;
+            this.version = version;
+        }
+
+        @Override
+        public void setStarred(boolean starred) {
+            super.setStarred(starred);
+            if (isAttached(index, version)) {
+                writeFlag(index, STARRED, starred);
+            }
+        }
+
+        @Override
+        public void setFlagged(boolean flagged) {
+            super.setFlagged(flagged);
+            if (isAttached(index, version)) {
+                writeFlag(index, FLAGGED, flagged);
+            }
+        }
+    }
+
+    /**
+     * The cells of a decoded row, writing modifications through to the grid as long as the row is still attached to it.
+     */
+    final private class RowCells extends AbstractList<Cell> implements RandomAccess {
+
+        final private ArrayList<Cell> _cells;
+        final private int _index;
+        final private int _version;
+
+        RowCells(ArrayList<Cell> cells, int index, int version) {
+            _cells = cells;
+            _index = index;
+            _version = version;
+        }
+
+        private boolean isAttached() {
+            return ColumnarGrid.this.isAttached(_index, _version);
+        }
+
+        @Override
+        public Cell get(int index) {
+            return _cells.get(index);
+        }
+
+        @Override
+        public int size() {
+            return _cells.size();
+        }
+
+        @Override
+        public Cell set(int index, Cell cell) {
+            Cell old = _cells.set(index, cell);
+            if (isAttached()) {
+                writeCell(_index, index, cell);
+            }
+            return old;
+        }
+
+        @Override
+        public void add(int index, Cell cell) {
+            _cells.add(index, cell);
+            modCount++;
+            if (isAttached()) {
+                RowChunk rowChunk = _rowChunks.get(_index >> CHUNK_BITS);
+                int offset = _index & CHUNK_MASK;
+                if (index == _cells.size() - 1) {
+                    writeCell(_index, index, cell);
+                    rowChunk.cellCounts[offset] = _cells.size();
+                } else {
+                    writeCells(_index, _cells, rowChunk.cellCounts[offset]);
+                }
+            }
+        }
+
+        @Override
+        public Cell remove(int index) {
+            Cell old = _cells.remove(index);
+            modCount++;
+            if (isAttached()) {
+                writeCells(_index, _cells, _cells.size() + 1);
+            }
+            return old;
+        }
+    }
+}
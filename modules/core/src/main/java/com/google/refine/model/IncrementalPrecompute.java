@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.model;
+
+/**
+ * A value precomputed over the rows of a project and cached with the precomputes of a column (see
+ * {@link Column#setPrecompute(String, Object)}), which can be kept up to date when the cells of a few rows change
+ * instead of being computed again.
+ */
+public interface IncrementalPrecompute {
+
+    /**
+     * Removes the contribution of some rows, before their cells change.
+     *
+     * @param project
+     *            the project, in its state before the change
+     * @param rowIndices
+     *            the rows about to change, without duplicates
+     * @return false if the precompute cannot be updated and must be discarded
+     */
+    public boolean removeRows(Project project, int[] rowIndices);
+
+    /**
+     * Adds the contribution of some rows, after their cells changed.
+     *
+     * @param project
+     *            the project, in its state after the change
+     * @param rowIndices
+     *            the rows which changed, without duplicates
+     * @return false if the precompute cannot be updated and must be discarded
+     */
+    public boolean addRows(Project project, int[] rowIndices);
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.refine.util.WorkerPool;
+
+/**
+ * Decodes batches of rows on the {@link WorkerPool} and appends them to a list of rows in the order the batches were
+ * submitted. The number of batches in flight is bounded, so that reading the input does not run far ahead of
+ * decoding.
+ */
+final class OrderedRowLoader {
+
+    final private List<Row> _rows;
+    final private boolean _parallel;
+    final private int _maxPending;
+    final private Deque<Future<List<Row>>> _pending = new ArrayDeque<>();
+    private int _maxCellCount = 0;
+
+    OrderedRowLoader(List<Row> rows) {
+        _rows = rows;
+        _parallel = WorkerPool.isParallel();
+        _maxPending = 2 * WorkerPool.getParallelism();
+    }
+
+    /**
+     * Schedules the decoding of a batch of rows, which will be appended after the rows of previous batches.
+     */
+    void submit(Callable<List<Row>> batch) throws IOException {
+        if (!_parallel) {
+            append(call(batch));
+            return;
+        }
+        if (_pending.size() >= _maxPending) {
+            append(await(_pending.removeFirst()));
+        }
+        _pending.addLast(WorkerPool.getPool().submit(batch));
+    }
+
+    /**
+     * Waits for all batches to be decoded and appended.
+     *
+     * @return the maximum number of cells found in a row
+     */
+    int finish() throws IOException {
+        try {
+            while (!_pending.isEmpty()) {
+                append(await(_pending.removeFirst()));
+            }
+        } finally {
+            for (Future<List<Row>> future : _pending) {
+                future.cancel(true);
+            }
+        }
+        return _maxCellCount;
+    }
+
+    private void append(List<Row> batch) {
+        for (Row row : batch) {
+            _rows.add(row);
+            _maxCellCount = Math.max(_maxCellCount, row.cells.size());
+        }
+    }
+
+    private List<Row> call(Callable<List<Row>> batch) throws IOException {
+        try {
+            return batch.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private List<Row> await(Future<List<Row>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading rows", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
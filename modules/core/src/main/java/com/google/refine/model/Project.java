@@ -47,9 +47,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,7 +71,7 @@ public class Project {
     final static protected Map<String, Class<? extends OverlayModel>> s_overlayModelClasses = new HashMap<String, Class<? extends OverlayModel>>();
 
     final public long id;
-    final public List<Row> rows = new ArrayList<>();
+    final public List<Row> rows = ColumnarGrid.createRowList();
     final public ColumnModel columnModel = new ColumnModel();
     final public RecordModel recordModel = new RecordModel();
     final public Map<String, OverlayModel> overlayModels = new HashMap<String, OverlayModel>();
@@ -80,6 +82,11 @@ public class Project {
 
     final static Logger logger = LoggerFactory.getLogger(Project.class);
 
+    /**
+     * Number of serialized rows parsed together by a worker when loading a project.
+     */
+    final static int ROW_BATCH_SIZE = 4096;
+
     static public long generateID() {
         return System.currentTimeMillis() + Math.round(Math.random() * 1000000000000L);
     }
@@ -137,13 +144,7 @@ public class Project {
     }
 
     public void saveToOutputStream(OutputStream out, Pool pool) throws IOException {
-        for (OverlayModel overlayModel : overlayModels.values()) {
-            try {
-                overlayModel.onBeforeSave(this);
-            } catch (Exception e) {
-                logger.warn("Error signaling overlay model before saving", e);
-            }
-        }
+        notifyBeforeSave();
 
         Writer writer = new OutputStreamWriter(out, "UTF-8");
         try {
@@ -156,6 +157,32 @@ public class Project {
             writer.flush();
         }
 
+        notifyAfterSave();
+    }
+
+    /**
+     * Saves the project in the binary snapshot format, which stores the rows more compactly than
+     * {@link #saveToOutputStream(OutputStream, Pool)} and does not need a separate recon pool.
+     *
+     * @see BinarySnapshot
+     */
+    public void saveToBinaryOutputStream(OutputStream out) throws IOException {
+        notifyBeforeSave();
+        BinarySnapshot.write(this, out);
+        notifyAfterSave();
+    }
+
+    private void notifyBeforeSave() {
+        for (OverlayModel overlayModel : overlayModels.values()) {
+            try {
+                overlayModel.onBeforeSave(this);
+            } catch (Exception e) {
+                logger.warn("Error signaling overlay model before saving", e);
+            }
+        }
+    }
+
+    private void notifyAfterSave() {
         for (OverlayModel overlayModel : overlayModels.values()) {
             try {
                 overlayModel.onAfterSave(this);
@@ -166,6 +193,21 @@ public class Project {
     }
 
     protected void saveToWriter(Writer writer, Properties options) throws IOException {
+        saveModelsToWriter(writer, options);
+
+        writer.write("rowCount=");
+        writer.write(Integer.toString(rows.size()));
+        writer.write('\n');
+        for (Row row : rows) {
+            row.save(writer, options);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes everything but the rows: the version of Refine, the column model, the history and the overlay models.
+     */
+    void saveModelsToWriter(Writer writer, Properties options) throws IOException {
         writer.write(RefineServlet.VERSION);
         writer.write('\n');
 
@@ -182,20 +224,19 @@ public class Project {
             ParsingUtilities.saveWriter.writeValue(writer, overlayModels.get(modelName));
             writer.write('\n');
         }
-
-        writer.write("rowCount=");
-        writer.write(Integer.toString(rows.size()));
-        writer.write('\n');
-        for (Row row : rows) {
-            row.save(writer, options);
-            writer.write('\n');
-        }
     }
 
     static public Project loadFromInputStream(InputStream is, long id, Pool pool) throws IOException {
         return loadFromReader(new LineNumberReader(new InputStreamReader(is, StandardCharsets.UTF_8)), id, pool);
     }
 
+    /**
+     * Loads a project saved by {@link #saveToBinaryOutputStream(OutputStream)}.
+     */
+    static public Project loadFromBinaryInputStream(InputStream is, long id) throws IOException {
+        return BinarySnapshot.read(is, id);
+    }
+
     static private Project loadFromReader(
             LineNumberReader reader,
             long id,
@@ -206,10 +247,28 @@ public class Project {
         /* String version = */ reader.readLine();
 
         Project project = new Project(id);
+        int maxCellCount = project.loadSections(reader, pool);
+
+        project.columnModel.setMaxCellIndex(maxCellCount - 1);
+
+        logger.info(
+                "Loaded project {} from disk in {} sec(s)", id, Long.toString((System.currentTimeMillis() - start) / 1000));
+
+        project.update();
+
+        return project;
+    }
+
+    /**
+     * Reads the sections written by {@link #saveToWriter(Writer, Properties)}, following the version line.
+     *
+     * @return the maximum number of cells found in a row
+     */
+    int loadSections(LineNumberReader reader, Pool pool) throws IOException {
         int maxCellCount = 0;
 
         ObjectMapper mapper = ParsingUtilities.mapper.copy();
-        InjectableValues injections = new InjectableValues.Std().addValue("project", project);
+        InjectableValues injections = new InjectableValues.Std().addValue("project", this);
         mapper.setInjectableValues(injections);
 
         String line;
@@ -224,20 +283,28 @@ public class Project {
             }
 
             if ("columnModel".equals(field)) {
-                project.columnModel.load(reader);
+                columnModel.load(reader);
             } else if ("history".equals(field)) {
-                project.history.load(project, reader);
+                history.load(this, reader);
             } else if ("rowCount".equals(field)) {
                 int count = Integer.parseInt(value);
 
+                // lines are read sequentially and parsed in batches on the worker pool
+                ObjectReader rowReader = Row.reader(pool);
+                OrderedRowLoader loader = new OrderedRowLoader(rows);
+                List<String> batch = new ArrayList<>(ROW_BATCH_SIZE);
                 for (int i = 0; i < count; i++) {
                     line = reader.readLine();
                     if (line != null) {
-                        Row row = Row.load(line, pool);
-                        project.rows.add(row);
-                        maxCellCount = Math.max(maxCellCount, row.cells.size());
+                        batch.add(line);
+                        if (batch.size() == ROW_BATCH_SIZE) {
+                            loader.submit(parseRows(rowReader, batch));
+                            batch = new ArrayList<>(ROW_BATCH_SIZE);
+                        }
                     }
                 }
+                loader.submit(parseRows(rowReader, batch));
+                maxCellCount = Math.max(maxCellCount, loader.finish());
             } else if (field.startsWith("overlayModel:")) {
                 String modelName = field.substring("overlayModel:".length());
                 if (s_overlayModelClasses.containsKey(modelName)) {
@@ -246,22 +313,24 @@ public class Project {
                     try {
                         OverlayModel overlayModel = ParsingUtilities.mapper.readValue(value, klass);
 
-                        project.overlayModels.put(modelName, overlayModel);
+                        overlayModels.put(modelName, overlayModel);
                     } catch (IOException e) {
                         logger.error("Failed to load overlay model " + modelName);
                     }
                 }
             }
         }
+        return maxCellCount;
+    }
 
-        project.columnModel.setMaxCellIndex(maxCellCount - 1);
-
-        logger.info(
-                "Loaded project {} from disk in {} sec(s)", id, Long.toString((System.currentTimeMillis() - start) / 1000));
-
-        project.update();
-
-        return project;
+    static private Callable<List<Row>> parseRows(ObjectReader rowReader, List<String> lines) {
+        return () -> {
+            List<Row> parsed = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                parsed.add(rowReader.readValue(line));
+            }
+            return parsed;
+        };
     }
 
     public void update() {
@@ -273,6 +342,32 @@ public class Project {
         }
     }
 
+    /**
+     * Updates the models of the project after the cells of some rows changed, when no rows or columns were added,
+     * removed or moved.
+     *
+     * @param rowIndices
+     *            the rows whose cells changed, in increasing order and without duplicates
+     */
+    public void updateRows(int[] rowIndices) {
+        columnModel.update();
+        recordModel.updateRows(this, rowIndices);
+    }
+
+    /**
+     * Updates the models of the project after rows were inserted or removed, when no columns changed.
+     *
+     * @param fromRowIndex
+     *            the index of the first row inserted or removed
+     */
+    public void updateRowsFrom(int fromRowIndex) {
+        columnModel.update();
+        recordModel.updateRowsFrom(this, fromRowIndex);
+        if (getMetadata() != null) {
+            getMetadata().setRowCountInternal(rows.size());
+        }
+    }
+
     // wrapper of processManager variable to allow unit testing
     // TODO make the processManager variable private, and force all calls through this method
     public ProcessManager getProcessManager() {
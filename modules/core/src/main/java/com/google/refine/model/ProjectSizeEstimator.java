@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.sorting.SortedView;
+
+/**
+ * Estimates the heap footprint of projects, so that the {@link com.google.refine.ProjectManager} can keep the projects
+ * it holds in memory within a budget.
+ * <p>
+ * Estimates assume a 64-bit JVM with compressed references and compact strings. Rows are sampled rather than all
+ * visited, so estimates are cheap but approximate. Column precomputes are counted when they are
+ * {@link SizedPrecompute sized}, as well as the {@link SortedView sorted views} cached for the project.
+ */
+public final class ProjectSizeEstimator {
+
+    static final int SAMPLE_SIZE = 1024;
+
+    static final public long OBJECT_HEADER = 16;
+    static final public long REFERENCE = 4;
+    // entry of a hash map, and its slot in the table
+    static final public long MAP_ENTRY = 32 + REFERENCE;
+    static final long ROW_OVERHEAD = 24 + 24 + 16;
+    static final long CELL_OVERHEAD = 24;
+    static final long RECON_OVERHEAD = 120;
+    static final long RECON_CANDIDATE = 96;
+    static final long ROW_DEPENDENCY = 48;
+    // column model, history, overlay models and other fixed costs
+    static final long PROJECT_OVERHEAD = 64 * 1024;
+
+    private ProjectSizeEstimator() {
+    }
+
+    /**
+     * @return the estimated number of bytes used by the project in memory
+     */
+    static public long estimate(Project project) {
+        long size = PROJECT_OVERHEAD;
+        List<Row> rows = project.rows;
+        if (rows == null) {
+            return size;
+        }
+        if (rows instanceof ColumnarGrid) {
+            size += ((ColumnarGrid) rows).estimateMemorySize();
+        } else {
+            size += estimateRows(rows);
+        }
+        if (project.recordModel != null) {
+            size += ROW_DEPENDENCY * rows.size();
+        }
+        if (project.columnModel != null) {
+            for (Column column : project.columnModel.columns) {
+                size += estimatePrecomputes(column);
+            }
+        }
+        size += SortedView.estimateMemorySize(project);
+        if (project.history != null && project.columnModel != null) {
+            // snapshot rows share their cells with the project
+            long snapshotRow = ROW_OVERHEAD + REFERENCE * (project.columnModel.getMaxCellIndex() + 1);
+            size += snapshotRow * project.history.getCheckpointRowCount();
+        }
+        return size;
+    }
+
+    static long estimatePrecomputes(Column column) {
+        List<Object> precomputes;
+        synchronized (column) {
+            if (column._precomputes == null) {
+                return 0;
+            }
+            try {
+                precomputes = new ArrayList<>(column._precomputes.values());
+            } catch (ConcurrentModificationException e) {
+                // not all precomputes are set while holding the lock: they are counted by the next estimate
+                return 0;
+            }
+        }
+        long size = 0;
+        for (Object precompute : precomputes) {
+            if (precompute instanceof SizedPrecompute) {
+                size += ((SizedPrecompute) precompute).estimateMemorySize();
+            }
+        }
+        return size;
+    }
+
+    static long estimateRows(List<Row> rows) {
+        int rowCount = rows.size();
+        if (rowCount == 0) {
+            return 0;
+        }
+        int step = Math.max(1, rowCount / SAMPLE_SIZE);
+        long sampled = 0;
+        int sampleCount = 0;
+        for (int i = 0; i < rowCount; i += step) {
+            sampled += estimateRow(rows.get(i));
+            sampleCount++;
+        }
+        return sampled * rowCount / sampleCount;
+    }
+
+    static long estimateRow(Row row) {
+        long size = ROW_OVERHEAD;
+        if (row == null) {
+            return size;
+        }
+        for (Cell cell : row.cells) {
+            size += REFERENCE;
+            if (cell != null) {
+                size += CELL_OVERHEAD + estimateValue(cell.value) + estimateRecon(cell.recon);
+            }
+        }
+        return size;
+    }
+
+    static long estimateRecon(Recon recon) {
+        if (recon == null) {
+            return 0;
+        }
+        return RECON_OVERHEAD + (recon.candidates == null ? 0 : RECON_CANDIDATE * recon.candidates.size());
+    }
+
+    static public long estimateValue(Serializable value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        } else if (value instanceof String) {
+            return estimateString((String) value);
+        } else if (value instanceof Number) {
+            return OBJECT_HEADER + 8;
+        } else if (value instanceof OffsetDateTime) {
+            // date, time and offset objects
+            return 4 * OBJECT_HEADER + 32;
+        } else if (value instanceof EvalError) {
+            return OBJECT_HEADER + REFERENCE + estimateString(((EvalError) value).message);
+        }
+        return 2 * OBJECT_HEADER;
+    }
+
+    static public long estimateString(String value) {
+        // string object and its byte array, assuming mostly Latin-1 content
+        return value == null ? 0 : 2 * OBJECT_HEADER + 8 + value.length();
+    }
+}
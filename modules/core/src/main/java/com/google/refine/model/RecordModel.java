@@ -127,83 +127,229 @@ public class RecordModel {
     }
 
     synchronized public void update(Project project) {
+        synchronized (project) {
+            int rowCount = project.rows.size();
+            List<KeyedGroup> keyedGroups = computeKeyedGroups(project.columnModel);
+
+            _rowDependencies = computeRowDependencies(project, keyedGroups, 0, rowCount);
+            _records = new ArrayList<Record>();
+            addRecords(_records, 0, rowCount);
+        }
+    }
+
+    /**
+     * Updates the records after the cells of some rows changed, without any change to the columns or the number of
+     * rows. Only the rows between the closest rows with a non-blank record key around the changed rows are recomputed:
+     * the dependencies of other rows cannot change.
+     *
+     * @param rowIndices
+     *            the rows whose cells changed, in increasing order and without duplicates
+     */
+    synchronized public void updateRows(Project project, int[] rowIndices) {
         synchronized (project) {
             List<Row> rows = project.rows;
             int rowCount = rows.size();
+            List<KeyedGroup> keyedGroups = computeKeyedGroups(project.columnModel);
+            if (_rowDependencies == null || _records == null || _rowDependencies.size() != rowCount || keyedGroups.isEmpty()
+                    || rowIndices.length * Column.INCREMENTAL_UPDATE_RATIO > rowCount) {
+                update(project);
+                return;
+            }
+            int keyCellIndex = keyedGroups.get(0).keyCellIndex;
+
+            List<Record> oldRecords = _records;
+            List<Record> records = new ArrayList<Record>(oldRecords.size());
+            int copiedRecords = 0;
+            for (int i = 0; i < rowIndices.length; i++) {
+                int start = rowIndices[i];
+                while (start > 0 && !ExpressionUtils.isNonBlankData(rows.get(start).getCellValue(keyCellIndex))) {
+                    start--;
+                }
+                int end = nextKeyRow(rows, keyCellIndex, rowIndices[i] + 1);
+                while (i + 1 < rowIndices.length && rowIndices[i + 1] <= end) {
+                    i++;
+                    end = nextKeyRow(rows, keyCellIndex, rowIndices[i] + 1);
+                }
+
+                // the row at the end of the range did not change, and starts a record both before and after the change
+                int firstRecord = findRecord(oldRecords, start);
+                int lastRecord = end < rowCount ? findRecord(oldRecords, end) : oldRecords.size();
+                copyRecords(oldRecords, copiedRecords, firstRecord, records);
+
+                List<RowDependency> rowDependencies = computeRowDependencies(project, keyedGroups, start, end);
+                for (int r = start; r < end; r++) {
+                    _rowDependencies.set(r, rowDependencies.get(r - start));
+                }
+                addRecords(records, oldRecords.get(firstRecord).fromRowIndex, end);
+                copiedRecords = lastRecord;
+            }
+            copyRecords(oldRecords, copiedRecords, oldRecords.size(), records);
+            _records = records;
+        }
+    }
 
-            ColumnModel columnModel = project.columnModel;
-            List<KeyedGroup> keyedGroups = computeKeyedGroups(columnModel);
-            int groupCount = keyedGroups.size();
+    /**
+     * Updates the records after rows were inserted or removed, without any change to the columns. The rows before the
+     * first inserted or removed row keep their dependencies, and only the rows after the start of their record are
+     * recomputed.
+     *
+     * @param fromRowIndex
+     *            the index of the first row inserted or removed
+     */
+    synchronized public void updateRowsFrom(Project project, int fromRowIndex) {
+        synchronized (project) {
+            List<Row> rows = project.rows;
+            int rowCount = rows.size();
+            List<KeyedGroup> keyedGroups = computeKeyedGroups(project.columnModel);
+            if (_rowDependencies == null || _records == null || keyedGroups.isEmpty() || fromRowIndex <= 0
+                    || fromRowIndex > Math.min(rowCount, _rowDependencies.size())) {
+                update(project);
+                return;
+            }
+            int keyCellIndex = keyedGroups.get(0).keyCellIndex;
 
-            int[] lastNonBlankRowsByGroup = new int[keyedGroups.size()];
-            for (int i = 0; i < lastNonBlankRowsByGroup.length; i++) {
-                lastNonBlankRowsByGroup[i] = -1;
+            int start = Math.min(fromRowIndex, rowCount - 1);
+            while (start > 0 && !ExpressionUtils.isNonBlankData(rows.get(start).getCellValue(keyCellIndex))) {
+                start--;
             }
+            int firstRecord = start == 0 ? 0 : findRecord(_records, start - 1);
+            int recordRowIndex = start == 0 ? 0 : _records.get(firstRecord).fromRowIndex;
+
+            List<RowDependency> rowDependencies = new ArrayList<RowDependency>(rowCount);
+            rowDependencies.addAll(_rowDependencies.subList(0, start));
+            rowDependencies.addAll(computeRowDependencies(project, keyedGroups, start, rowCount));
+            _rowDependencies = rowDependencies;
+
+            List<Record> records = new ArrayList<Record>(_records.subList(0, firstRecord));
+            addRecords(records, recordRowIndex, rowCount);
+            _records = records;
+        }
+    }
 
-            _rowDependencies = new ArrayList<RowDependency>(rowCount);
-
-            int recordIndex = 0;
-            for (int r = 0; r < rowCount; r++) {
-                Row row = rows.get(r);
-                RowDependency rowDependency = new RowDependency();
-
-                for (int g = 0; g < groupCount; g++) {
-                    KeyedGroup group = keyedGroups.get(g);
-
-                    if (!ExpressionUtils.isNonBlankData(row.getCellValue(keyedGroups.get(0).keyCellIndex)) &&
-                            !ExpressionUtils.isNonBlankData(row.getCellValue(group.keyCellIndex))) {
-                        int contextRowIndex = lastNonBlankRowsByGroup[g];
-                        if (contextRowIndex >= 0) {
-                            for (int dependentCellIndex : group.cellIndices) {
-                                if (ExpressionUtils.isNonBlankData(row.getCellValue(dependentCellIndex))) {
-                                    setRowDependency(
-                                            project,
-                                            rowDependency,
-                                            dependentCellIndex,
-                                            contextRowIndex,
-                                            group.keyCellIndex);
-                                }
+    /**
+     * Computes the dependencies of a range of rows, starting with the first row of the project or a row with a
+     * non-blank record key. Their record indices are only set to -1 for rows depending on other rows.
+     */
+    protected List<RowDependency> computeRowDependencies(Project project, List<KeyedGroup> keyedGroups, int fromRowIndex,
+            int toRowIndex) {
+        List<Row> rows = project.rows;
+        int groupCount = keyedGroups.size();
+
+        int[] lastNonBlankRowsByGroup = new int[keyedGroups.size()];
+        for (int i = 0; i < lastNonBlankRowsByGroup.length; i++) {
+            lastNonBlankRowsByGroup[i] = -1;
+        }
+
+        List<RowDependency> rowDependencies = new ArrayList<RowDependency>(toRowIndex - fromRowIndex);
+
+        for (int r = fromRowIndex; r < toRowIndex; r++) {
+            Row row = rows.get(r);
+            RowDependency rowDependency = new RowDependency();
+
+            for (int g = 0; g < groupCount; g++) {
+                KeyedGroup group = keyedGroups.get(g);
+
+                if (!ExpressionUtils.isNonBlankData(row.getCellValue(keyedGroups.get(0).keyCellIndex)) &&
+                        !ExpressionUtils.isNonBlankData(row.getCellValue(group.keyCellIndex))) {
+                    int contextRowIndex = lastNonBlankRowsByGroup[g];
+                    if (contextRowIndex >= 0) {
+                        for (int dependentCellIndex : group.cellIndices) {
+                            if (ExpressionUtils.isNonBlankData(row.getCellValue(dependentCellIndex))) {
+                                setRowDependency(
+                                        project,
+                                        rowDependency,
+                                        dependentCellIndex,
+                                        contextRowIndex,
+                                        group.keyCellIndex);
                             }
                         }
-                    } else {
-                        lastNonBlankRowsByGroup[g] = r;
                     }
+                } else {
+                    lastNonBlankRowsByGroup[g] = r;
                 }
+            }
 
-                if (rowDependency.cellDependencies != null && rowDependency.cellDependencies.length > 0) {
-                    rowDependency.recordIndex = -1;
-                    rowDependency.contextRows = new ArrayList<Integer>();
-                    for (CellDependency cd : rowDependency.cellDependencies) {
-                        if (cd != null) {
-                            rowDependency.contextRows.add(cd.rowIndex);
-                        }
+            if (rowDependency.cellDependencies != null && rowDependency.cellDependencies.length > 0) {
+                rowDependency.recordIndex = -1;
+                rowDependency.contextRows = new ArrayList<Integer>();
+                for (CellDependency cd : rowDependency.cellDependencies) {
+                    if (cd != null) {
+                        rowDependency.contextRows.add(cd.rowIndex);
                     }
-                    Collections.sort(rowDependency.contextRows);
-                } else {
-                    rowDependency.recordIndex = recordIndex++;
                 }
-
-                _rowDependencies.add(rowDependency);
+                Collections.sort(rowDependency.contextRows);
+            } else {
+                rowDependency.recordIndex = 0;
             }
 
-            _records = new ArrayList<Record>(recordIndex);
-            if (recordIndex > 0) {
-                recordIndex = 0;
+            rowDependencies.add(rowDependency);
+        }
+        return rowDependencies;
+    }
 
-                int recordRowIndex = 0;
-                for (int r = 1; r < rowCount; r++) {
-                    RowDependency rd = _rowDependencies.get(r);
-                    if (rd.recordIndex >= 0) {
-                        _records.add(new Record(recordRowIndex, r, recordIndex++));
+    /**
+     * Adds the records of a range of rows, starting with the first row of a record, and numbers them after the records
+     * already in the list.
+     */
+    protected void addRecords(List<Record> records, int fromRowIndex, int toRowIndex) {
+        if (fromRowIndex >= toRowIndex) {
+            return;
+        }
+        int recordIndex = records.size();
+        int recordRowIndex = fromRowIndex;
+        _rowDependencies.get(fromRowIndex).recordIndex = recordIndex;
+        for (int r = fromRowIndex + 1; r < toRowIndex; r++) {
+            RowDependency rd = _rowDependencies.get(r);
+            if (rd.recordIndex >= 0) {
+                records.add(new Record(recordRowIndex, r, recordIndex++));
+
+                rd.recordIndex = recordIndex;
+                recordRowIndex = r;
+            }
+        }
+        records.add(new Record(recordRowIndex, toRowIndex, recordIndex));
+    }
 
-                        recordIndex = rd.recordIndex;
-                        recordRowIndex = r;
-                    }
-                }
+    /**
+     * Appends unchanged records to a list, numbering them again if records before them were added or removed.
+     */
+    private void copyRecords(List<Record> from, int fromRecordIndex, int toRecordIndex, List<Record> records) {
+        for (int i = fromRecordIndex; i < toRecordIndex; i++) {
+            Record record = from.get(i);
+            if (record.recordIndex != records.size()) {
+                record = new Record(record.fromRowIndex, record.toRowIndex, records.size());
+                _rowDependencies.get(record.fromRowIndex).recordIndex = record.recordIndex;
+            }
+            records.add(record);
+        }
+    }
 
-                _records.add(new Record(recordRowIndex, rowCount, recordIndex++));
+    /**
+     * @return the index of the record containing a row
+     */
+    static private int findRecord(List<Record> records, int rowIndex) {
+        int low = 0;
+        int high = records.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (records.get(middle).fromRowIndex <= rowIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
             }
         }
+        return low;
+    }
+
+    /**
+     * @return the first row from a given row on with a non-blank record key, or the number of rows if there is none
+     */
+    static private int nextKeyRow(List<Row> rows, int keyCellIndex, int fromRowIndex) {
+        int r = fromRowIndex;
+        while (r < rows.size() && !ExpressionUtils.isNonBlankData(rows.get(r).getCellValue(keyCellIndex))) {
+            r++;
+        }
+        return r;
     }
 
     protected List<KeyedGroup> computeKeyedGroups(ColumnModel columnModel) {
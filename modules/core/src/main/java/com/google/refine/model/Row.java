@@ -43,6 +43,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.base.CharMatcher;
 
 import com.google.refine.expr.CellTuple;
@@ -79,6 +80,22 @@ public class Row implements HasFields {
         this.starred = starred;
     }
 
+    /**
+     * Stars or unstars the row. Rows of a {@link ColumnarGrid} only keep the change when it is made through this method
+     * rather than by setting {@link #starred}.
+     */
+    public void setStarred(boolean starred) {
+        this.starred = starred;
+    }
+
+    /**
+     * Flags or unflags the row. Rows of a {@link ColumnarGrid} only keep the change when it is made through this method
+     * rather than by setting {@link #flagged}.
+     */
+    public void setFlagged(boolean flagged) {
+        this.flagged = flagged;
+    }
+
     /**
      * Copy a row and return the copy. Note that this is a shallow copy, so if the contents of cells are changed in the
      * original, they will be changed in the duplicate.
@@ -219,10 +236,17 @@ public class Row implements HasFields {
     }
 
     static public Row loadStreaming(String s, Pool pool) throws IOException {
+        return reader(pool).readValue(s);
+    }
+
+    /**
+     * Creates a reader for serialized rows referring to recons of the given pool. Unlike
+     * {@link #loadStreaming(String, Pool)} called repeatedly, the reader can be reused and shared between threads.
+     */
+    static ObjectReader reader(Pool pool) {
         InjectableValues injectableValues = new InjectableValues.Std()
                 .addValue("pool", pool);
-        return ParsingUtilities.mapper.setInjectableValues(injectableValues)
-                .readValue(s, Row.class);
+        return ParsingUtilities.mapper.reader(injectableValues).forType(Row.class);
     }
 
     @Override
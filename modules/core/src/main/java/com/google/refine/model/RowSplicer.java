@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Removes or inserts rows at many positions of the rows of a project in a single pass, instead of shifting the
+ * following rows once per removed or inserted row.
+ */
+public final class RowSplicer {
+
+    private RowSplicer() {
+    }
+
+    /**
+     * Removes the rows at the given indices.
+     *
+     * @param rows
+     *            the rows of a project
+     * @param indices
+     *            the indices of the rows to remove, in strictly increasing order
+     * @return the removed rows, in the order of their indices
+     */
+    static public List<Row> removeRows(List<Row> rows, int[] indices) {
+        checkIndices(indices, rows.size());
+        if (rows instanceof ColumnarGrid) {
+            return ((ColumnarGrid) rows).removeRows(indices);
+        }
+        int size = rows.size();
+        List<Row> removed = new ArrayList<>(indices.length);
+        int next = 0;
+        int kept = 0;
+        for (int r = 0; r < size; r++) {
+            if (next < indices.length && indices[next] == r) {
+                removed.add(rows.get(r));
+                next++;
+            } else {
+                if (kept != r) {
+                    rows.set(kept, rows.get(r));
+                }
+                kept++;
+            }
+        }
+        rows.subList(kept, size).clear();
+        return removed;
+    }
+
+    /**
+     * Inserts rows so that they end up at the given indices, undoing {@link #removeRows(List, int[])}.
+     *
+     * @param rows
+     *            the rows of a project
+     * @param indices
+     *            the indices of the inserted rows once inserted, in strictly increasing order
+     * @param inserted
+     *            the rows to insert, in the order of their indices
+     */
+    static public void insertRows(List<Row> rows, int[] indices, List<Row> inserted) {
+        if (indices.length != inserted.size()) {
+            throw new IllegalArgumentException("Expected " + indices.length + " rows to insert, got " + inserted.size());
+        }
+        int size = rows.size();
+        checkIndices(indices, size + indices.length);
+        if (rows instanceof ColumnarGrid) {
+            ((ColumnarGrid) rows).insertRows(indices, inserted);
+            return;
+        }
+        rows.addAll(Collections.nCopies(indices.length, (Row) null));
+        // fill from the end, so that each existing row is moved once
+        int source = size - 1;
+        int next = indices.length - 1;
+        for (int r = size + indices.length - 1; r >= 0 && source != r; r--) {
+            if (next >= 0 && indices[next] == r) {
+                rows.set(r, inserted.get(next--));
+            } else {
+                rows.set(r, rows.get(source--));
+            }
+        }
+    }
+
+    /**
+     * Converts a list of indices, as held by changes, for use with this class.
+     */
+    static public int[] toArray(List<Integer> indices) {
+        int[] array = new int[indices.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = indices.get(i);
+        }
+        return array;
+    }
+
+    static private void checkIndices(int[] indices, int size) {
+        int previous = -1;
+        for (int index : indices) {
+            if (index <= previous || index >= size) {
+                throw new IllegalArgumentException("Row indices must be increasing and less than " + size);
+            }
+            previous = index;
+        }
+    }
+}
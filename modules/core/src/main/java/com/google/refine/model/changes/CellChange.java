@@ -61,19 +61,25 @@ public class CellChange implements Change {
 
     @Override
     public void apply(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
+        int[] rowIndices = { row };
+        column.removeRowsFromPrecomputes(project, rowIndices);
+
         project.rows.get(row).setCell(cellIndex, newCell);
 
-        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
-        column.clearPrecomputes();
+        column.addRowsToPrecomputes(project, rowIndices);
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
     }
 
     @Override
     public void revert(Project project) {
+        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
+        int[] rowIndices = { row };
+        column.removeRowsFromPrecomputes(project, rowIndices);
+
         project.rows.get(row).setCell(cellIndex, oldCell);
 
-        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
-        column.clearPrecomputes();
+        column.addRowsToPrecomputes(project, rowIndices);
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
     }
 
@@ -37,18 +37,25 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.BinaryEncoding;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class ColumnAdditionChange extends ColumnChange {
+public class ColumnAdditionChange extends ColumnChange implements BinaryChange {
 
     final protected String _columnName;
     final protected int _columnIndex;
@@ -188,4 +195,27 @@ public class ColumnAdditionChange extends ColumnChange {
 
         return change;
     }
+
+    @Override
+    public void saveBinary(Buffer out, Pool pool) throws IOException {
+        out.writeString(_columnName);
+        out.writeVarInt(_columnIndex);
+        // -1 until the change is applied
+        out.writeVarInt(_newCellIndex);
+        writeCellsAtRows(out, new CellWriter(BinaryEncoding.pooledWriter(pool)), _newCells);
+        writeOldColumnGroups(out, _oldColumnGroups);
+    }
+
+    static public Change loadBinary(Cursor in, Pool pool) throws Exception {
+        String columnName = in.readString();
+        int columnIndex = in.readVarInt();
+        int newCellIndex = in.readVarInt();
+        CellAtRow[] newCells = readCellsAtRows(in, new CellReader(BinaryEncoding.pooledReader(pool)));
+
+        ColumnAdditionChange change = new ColumnAdditionChange(columnName, columnIndex, Arrays.asList(newCells));
+        change._newCellIndex = newCellIndex;
+        change._oldColumnGroups = readOldColumnGroups(in);
+
+        return change;
+    }
 }
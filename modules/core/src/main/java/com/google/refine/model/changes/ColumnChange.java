@@ -41,6 +41,10 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.history.Change;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.util.ParsingUtilities;
 
@@ -68,4 +72,52 @@ abstract public class ColumnChange implements Change {
         }
         return oldColumnGroups;
     }
+
+    static public void writeOldColumnGroups(Buffer out, List<ColumnGroup> oldColumnGroups) {
+        out.writeVarInt(oldColumnGroups.size());
+        for (ColumnGroup cg : oldColumnGroups) {
+            out.writeVarInt(cg.startColumnIndex);
+            out.writeVarInt(cg.columnSpan);
+            out.writeVarInt(cg.keyColumnIndex);
+        }
+    }
+
+    static public List<ColumnGroup> readOldColumnGroups(Cursor in) throws IOException {
+        int oldColumnGroupCount = in.readVarInt();
+        List<ColumnGroup> oldColumnGroups = new ArrayList<ColumnGroup>(oldColumnGroupCount);
+        for (int i = 0; i < oldColumnGroupCount; i++) {
+            oldColumnGroups.add(new ColumnGroup(in.readVarInt(), in.readVarInt(), in.readVarInt()));
+        }
+        return oldColumnGroups;
+    }
+
+    /**
+     * Writes cells of a column, row indices first as differences from the previous one, then the cells themselves.
+     */
+    static public void writeCellsAtRows(Buffer out, CellWriter cellWriter, CellAtRow[] cells) {
+        out.writeVarInt(cells.length);
+        int previousRow = 0;
+        for (CellAtRow c : cells) {
+            out.writeVarLong(c.row - previousRow);
+            previousRow = c.row;
+        }
+        for (CellAtRow c : cells) {
+            cellWriter.writeCell(out, c.cell);
+        }
+    }
+
+    static public CellAtRow[] readCellsAtRows(Cursor in, CellReader cellReader) throws IOException {
+        int cellCount = in.readVarInt();
+        int[] rows = new int[cellCount];
+        int previousRow = 0;
+        for (int i = 0; i < cellCount; i++) {
+            previousRow += (int) in.readVarLong();
+            rows[i] = previousRow;
+        }
+        CellAtRow[] cells = new CellAtRow[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            cells[i] = new CellAtRow(rows[i], cellReader.readCell(in));
+        }
+        return cells;
+    }
 }
@@ -35,13 +35,20 @@ package com.google.refine.model.changes;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.BinaryEncoding;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
@@ -49,7 +56,7 @@ import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class ColumnRemovalChange extends ColumnChange {
+public class ColumnRemovalChange extends ColumnChange implements BinaryChange {
 
     final protected int _oldColumnIndex;
     protected Column _oldColumn;
@@ -191,4 +198,23 @@ public class ColumnRemovalChange extends ColumnChange {
 
         return change;
     }
+
+    @Override
+    public void saveBinary(Buffer out, Pool pool) throws IOException {
+        out.writeVarInt(_oldColumnIndex);
+        StringWriter oldColumn = new StringWriter();
+        _oldColumn.save(oldColumn);
+        out.writeString(oldColumn.toString());
+        writeCellsAtRows(out, new CellWriter(BinaryEncoding.pooledWriter(pool)), _oldCells);
+        writeOldColumnGroups(out, _oldColumnGroups);
+    }
+
+    static public Change loadBinary(Cursor in, Pool pool) throws Exception {
+        ColumnRemovalChange change = new ColumnRemovalChange(in.readVarInt());
+        change._oldColumn = Column.load(in.readString());
+        change._oldCells = readCellsAtRows(in, new CellReader(BinaryEncoding.pooledReader(pool)));
+        change._oldColumnGroups = readOldColumnGroups(in);
+
+        return change;
+    }
 }
@@ -208,6 +208,7 @@ public class DataExtensionChange implements Change {
 
             project.rows.clear();
             project.rows.addAll(_newRows);
+            project.columnModel.clearPrecomputes();
 
             for (int i = 0; i < _columnNames.size(); i++) {
                 String name = _columnNames.get(i);
@@ -283,6 +284,7 @@ public class DataExtensionChange implements Change {
         synchronized (project) {
             project.rows.clear();
             project.rows.addAll(_oldRows);
+            project.columnModel.clearPrecomputes();
 
             for (int i = 0; i < _columnNames.size(); i++) {
                 project.columnModel.columns.remove(_columnInsertIndex);
@@ -36,17 +36,25 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.BinaryEncoding;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassCellChange implements Change {
+public class MassCellChange implements BinaryChange {
 
     final protected CellChange[] _cellChanges;
     final protected String _commonColumnName;
@@ -87,19 +95,28 @@ public class MassCellChange implements Change {
     public void apply(Project project) {
         synchronized (project) {
             List<Row> rows = project.rows;
+            Column column = _commonColumnName != null ? project.columnModel.getColumnByName(_commonColumnName) : null;
+            int[] rowIndices = column != null && !_updateRowContextDependencies ? getChangedRows() : null;
+            if (rowIndices != null) {
+                column.removeRowsFromPrecomputes(project, rowIndices);
+            }
 
             for (CellChange cellChange : _cellChanges) {
                 rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.newCell);
             }
 
-            if (_commonColumnName != null) {
-                Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
+            if (column != null) {
+                if (rowIndices != null) {
+                    column.addRowsToPrecomputes(project, rowIndices);
+                } else {
+                    // rows may now belong to other records, which can change values computed from other rows too
+                    column.clearPrecomputes();
+                }
                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
 
             if (_updateRowContextDependencies) {
-                project.update();
+                project.updateRows(getChangedRows());
             }
         }
     }
@@ -108,23 +125,39 @@ public class MassCellChange implements Change {
     public void revert(Project project) {
         synchronized (project) {
             List<Row> rows = project.rows;
+            Column column = _commonColumnName != null ? project.columnModel.getColumnByName(_commonColumnName) : null;
+            int[] rowIndices = column != null && !_updateRowContextDependencies ? getChangedRows() : null;
+            if (rowIndices != null) {
+                column.removeRowsFromPrecomputes(project, rowIndices);
+            }
 
             for (CellChange cellChange : _cellChanges) {
                 rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.oldCell);
             }
 
-            if (_commonColumnName != null) {
-                Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
+            if (column != null) {
+                if (rowIndices != null) {
+                    column.addRowsToPrecomputes(project, rowIndices);
+                } else {
+                    // rows may now belong to other records, which can change values computed from other rows too
+                    column.clearPrecomputes();
+                }
                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
 
             if (_updateRowContextDependencies) {
-                project.update();
+                project.updateRows(getChangedRows());
             }
         }
     }
 
+    /**
+     * @return the rows of the cells changed, in increasing order and without duplicates
+     */
+    protected int[] getChangedRows() {
+        return Arrays.stream(_cellChanges).mapToInt(cellChange -> cellChange.row).sorted().distinct().toArray();
+    }
+
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         if (_commonColumnName != null) {
@@ -172,4 +205,57 @@ public class MassCellChange implements Change {
 
         return change;
     }
+
+    /**
+     * Writes the cell changes column by column: row indices as differences from the previous one, then cell indices,
+     * old cells and new cells.
+     */
+    @Override
+    public void saveBinary(Buffer out, Pool pool) throws IOException {
+        out.writeNullableString(_commonColumnName);
+        out.writeBoolean(_updateRowContextDependencies);
+        out.writeVarInt(_cellChanges.length);
+        int previousRow = 0;
+        for (CellChange c : _cellChanges) {
+            out.writeVarLong(c.row - previousRow);
+            previousRow = c.row;
+        }
+        for (CellChange c : _cellChanges) {
+            out.writeVarInt(c.cellIndex);
+        }
+        CellWriter cellWriter = new CellWriter(BinaryEncoding.pooledWriter(pool));
+        for (CellChange c : _cellChanges) {
+            cellWriter.writeCell(out, c.oldCell);
+        }
+        for (CellChange c : _cellChanges) {
+            cellWriter.writeCell(out, c.newCell);
+        }
+    }
+
+    static public Change loadBinary(Cursor in, Pool pool) throws Exception {
+        String commonColumnName = in.readNullableString();
+        boolean updateRowContextDependencies = in.readBoolean();
+        int cellChangeCount = in.readVarInt();
+        int[] rows = new int[cellChangeCount];
+        int previousRow = 0;
+        for (int i = 0; i < cellChangeCount; i++) {
+            previousRow += (int) in.readVarLong();
+            rows[i] = previousRow;
+        }
+        int[] cellIndices = new int[cellChangeCount];
+        for (int i = 0; i < cellChangeCount; i++) {
+            cellIndices[i] = in.readVarInt();
+        }
+        CellReader cellReader = new CellReader(BinaryEncoding.pooledReader(pool));
+        Cell[] oldCells = new Cell[cellChangeCount];
+        for (int i = 0; i < cellChangeCount; i++) {
+            oldCells[i] = cellReader.readCell(in);
+        }
+        CellChange[] cellChanges = new CellChange[cellChangeCount];
+        for (int i = 0; i < cellChangeCount; i++) {
+            cellChanges[i] = new CellChange(rows[i], cellIndices[i], oldCells[i], cellReader.readCell(in));
+        }
+
+        return new MassCellChange(cellChanges, commonColumnName, updateRowContextDependencies);
+    }
 }
@@ -41,14 +41,20 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.BinaryEncoding;
+import com.google.refine.model.BinaryEncoding.Buffer;
+import com.google.refine.model.BinaryEncoding.CellReader;
+import com.google.refine.model.BinaryEncoding.CellWriter;
+import com.google.refine.model.BinaryEncoding.Cursor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
 // TODO: This replaces all rows in the project with a new set of rows, but if only a small percentage of the rows
 // are being changed, it'd be much more efficient to apply a change list of new/modified rows.
-public class MassRowChange implements Change {
+public class MassRowChange implements BinaryChange {
 
     final protected List<Row> _newRows;
     protected List<Row> _oldRows;
@@ -140,4 +146,35 @@ public class MassRowChange implements Change {
 
         return change;
     }
+
+    @Override
+    public void saveBinary(Buffer out, Pool pool) throws IOException {
+        CellWriter cellWriter = new CellWriter(BinaryEncoding.pooledWriter(pool));
+        writeRows(out, cellWriter, _newRows);
+        writeRows(out, cellWriter, _oldRows);
+    }
+
+    static public Change loadBinary(Cursor in, Pool pool) throws Exception {
+        CellReader cellReader = new CellReader(BinaryEncoding.pooledReader(pool));
+        MassRowChange change = new MassRowChange(readRows(in, cellReader));
+        change._oldRows = readRows(in, cellReader);
+
+        return change;
+    }
+
+    static private void writeRows(Buffer out, CellWriter cellWriter, List<Row> rows) {
+        out.writeVarInt(rows.size());
+        for (Row row : rows) {
+            cellWriter.writeRow(out, row);
+        }
+    }
+
+    static private List<Row> readRows(Cursor in, CellReader cellReader) throws IOException {
+        int count = in.readVarInt();
+        List<Row> rows = new ArrayList<Row>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(cellReader.readRow(in));
+        }
+        return rows;
+    }
 }
@@ -59,7 +59,7 @@ public class RowAdditionChange implements Change {
         synchronized (project) {
             project.rows.addAll(_insertionIndex, _additionalRows);
 
-            project.update();
+            project.updateRowsFrom(_insertionIndex);
             project.columnModel.clearPrecomputes();
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
         }
@@ -74,7 +74,7 @@ public class RowAdditionChange implements Change {
 
             project.columnModel.clearPrecomputes();
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
-            project.update();
+            project.updateRowsFrom(_insertionIndex);
         }
     }
 
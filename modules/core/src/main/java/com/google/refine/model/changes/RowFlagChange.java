@@ -60,14 +60,14 @@ public class RowFlagChange implements Change {
         if (oldFlagged == null) {
             oldFlagged = row.flagged;
         }
-        row.flagged = newFlagged;
+        row.setFlagged(newFlagged);
     }
 
     @Override
     public void revert(Project project) {
         Row row = project.rows.get(rowIndex);
 
-        row.flagged = oldFlagged;
+        row.setFlagged(oldFlagged);
     }
 
     @Override
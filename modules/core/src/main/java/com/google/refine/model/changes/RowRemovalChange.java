@@ -44,6 +44,7 @@ import com.google.refine.ProjectManager;
 import com.google.refine.history.Change;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.model.RowSplicer;
 import com.google.refine.util.Pool;
 
 public class RowRemovalChange implements Change {
@@ -58,46 +59,31 @@ public class RowRemovalChange implements Change {
     @Override
     public void apply(Project project) {
         synchronized (project) {
-            int count = _rowIndices.size();
-
-            _rows = new ArrayList<Row>(count);
-
-            int offset = 0;
-            for (int i = 0; i < count; i++) {
-                int index = _rowIndices.get(i);
-
-                Row row = project.rows.remove(index + offset);
-                _rows.add(row);
-
-                offset--;
-            }
+            _rows = RowSplicer.removeRows(project.rows, RowSplicer.toArray(_rowIndices));
 
             project.columnModel.clearPrecomputes();
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
 
-            project.update();
+            project.updateRowsFrom(getFirstRowIndex());
         }
     }
 
     @Override
     public void revert(Project project) {
         synchronized (project) {
-            int count = _rowIndices.size();
-
-            for (int i = 0; i < count; i++) {
-                int index = _rowIndices.get(i);
-                Row row = _rows.get(i);
-
-                project.rows.add(index, row);
-            }
+            RowSplicer.insertRows(project.rows, RowSplicer.toArray(_rowIndices), _rows);
 
             project.columnModel.clearPrecomputes();
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(project.id);
 
-            project.update();
+            project.updateRowsFrom(getFirstRowIndex());
         }
     }
 
+    protected int getFirstRowIndex() {
+        return _rowIndices.isEmpty() ? 0 : _rowIndices.get(0);
+    }
+
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         writer.write("rowIndexCount=");
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.operations;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -44,6 +45,8 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.RowMatchCache;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Column;
@@ -83,6 +86,10 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         List<CellChange> cellChanges = new ArrayList<CellChange>(project.rows.size());
 
         FilteredRows filteredRows = engine.getAllFilteredRows();
+        BitSet candidateRows = getCandidateRows(project, column);
+        if (candidateRows != null && filteredRows instanceof ConjunctiveFilteredRows) {
+            ((ConjunctiveFilteredRows) filteredRows).add(new RowMatchCache.RowMatches(candidateRows));
+        }
         try {
             filteredRows.accept(project, createRowVisitor(project, cellChanges, historyEntryID));
         } catch (Exception e) {
@@ -105,6 +112,15 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         return _columnName;
     }
 
+    /**
+     * Restricts the rows visited by the row visitor, for operations which only change cells they can find in an index.
+     *
+     * @return the only rows which can be changed, or null to visit all filtered rows
+     */
+    protected BitSet getCandidateRows(Project project, Column column) {
+        return null;
+    }
+
     abstract protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception;
 
     abstract protected String createDescription(Column column, List<CellChange> cellChanges);
@@ -33,84 +33,44 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.List;
-
 import com.google.refine.expr.EvalError;
 import com.google.refine.model.Project;
 import com.google.refine.sorting.Criterion.KeyMaker;
 
+/**
+ * Sorts rows or records by writing a normalized key for each of them in a {@link SortKeys}. A key starts, for each
+ * criterion, with a byte placing blanks, errors and other values relative to each other, followed by the value itself
+ * for other values.
+ */
 abstract public class BaseSorter {
 
     protected Criterion[] _criteria;
     protected KeyMaker[] _keyMakers;
-    protected ComparatorWrapper[] _comparatorWrappers;
-    protected List<Object[]> _keys;
-
-    public class ComparatorWrapper {
-
-        final public int criterionIndex;
-        final protected int multiplier;
-
-        public ComparatorWrapper(int criterionIndex) {
-            this.criterionIndex = criterionIndex;
-            this.multiplier = _criteria[criterionIndex].reverse ? -1 : 1;
-        }
-
-        public Object getKey(Project project, Object o, int index) {
-            while (index >= _keys.size()) {
-                _keys.add(null);
-            }
+    protected SortKeys _keys;
+    protected int _limit = -1;
+    protected int _count;
 
-            Object[] keys = _keys.get(index);
-            if (keys == null) {
-                keys = makeKeys(project, o, index);
-                _keys.set(index, keys);
-            }
-            return keys[criterionIndex];
-        }
-
-        public int compare(Project project, Object o1, int i1, Object o2, int i2) {
-            Criterion c = _criteria[criterionIndex];
-            Object key1 = getKey(project, o1, i1);
-            Object key2 = getKey(project, o2, i2);
-
-            if (key1 == null) {
-                if (key2 == null) {
-                    return 0;
-                } else if (key2 instanceof EvalError) {
-                    return c.blankPosition - c.errorPosition;
-                } else {
-                    return c.blankPosition;
-                }
-            } else if (key1 instanceof EvalError) {
-                if (key2 == null) {
-                    return c.errorPosition - c.blankPosition;
-                } else if (key2 instanceof EvalError) {
-                    return 0;
-                } else {
-                    return c.errorPosition;
-                }
-            } else {
-                if (key2 == null) {
-                    return -c.blankPosition;
-                } else if (key2 instanceof EvalError) {
-                    return -c.errorPosition;
-                } else {
-                    return _keyMakers[criterionIndex].compareKeys(key1, key2) * multiplier;
-                }
-            }
-        }
-    }
+    // for each criterion, the first byte of the keys of blanks, errors and other values
+    private int[] _blankBytes;
+    private int[] _errorBytes;
+    private int[] _valueBytes;
 
     public void initializeFromConfig(Project project, SortingConfig config) {
         _criteria = config.getCriteria();
         int count = _criteria.length;
         _keyMakers = new KeyMaker[count];
-        _comparatorWrappers = new ComparatorWrapper[count];
+        _blankBytes = new int[count];
+        _errorBytes = new int[count];
+        _valueBytes = new int[count];
 
         for (int i = 0; i < count; i++) {
-            _keyMakers[i] = _criteria[i].createKeyMaker();
-            _comparatorWrappers[i] = new ComparatorWrapper(i);
+            Criterion c = _criteria[i];
+            _keyMakers[i] = c.createKeyMaker();
+
+            int[] positions = { 0, c.errorPosition, c.blankPosition };
+            _valueBytes[i] = rank(positions, 0);
+            _errorBytes[i] = rank(positions, 1);
+            _blankBytes[i] = rank(positions, 2);
         }
     }
 
@@ -118,22 +78,82 @@ abstract public class BaseSorter {
         return _criteria != null && _criteria.length > 0;
     }
 
+    /**
+     * Bounds the number of rows or records which need to be visited in sorted order, such as when only the first page
+     * of a sorted grid is shown. If the limit is small compared to the number of rows or records, only the first ones
+     * are selected and sorted, and the others are not visited. Otherwise all of them are sorted and visited.
+     *
+     * @param limit
+     *            the number of rows or records needed, or -1 to visit all of them
+     */
+    public void setLimit(int limit) {
+        _limit = limit;
+    }
+
+    /**
+     * @return the number of rows or records sorted, including those which were not visited because of the limit
+     */
+    public int getCount() {
+        return _count;
+    }
+
     abstract protected Object makeKey(
             Project project, KeyMaker keyMaker, Criterion c, Object o, int index);
 
-    protected Object[] makeKeys(Project project, Object o, int index) {
-        Object[] keys = new Object[_keyMakers.length];
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = makeKey(project, _keyMakers[i], _criteria[i], o, index);
+    /**
+     * Writes the key of a row or record, for the criteria in order.
+     *
+     * @param item
+     *            the index of the row or record, returned by {@link SortKeys#sort()}
+     */
+    protected void addKey(Project project, Object o, int index, int item) {
+        _keys.start(item);
+        for (int i = 0; i < _keyMakers.length; i++) {
+            Object key = makeKey(project, _keyMakers[i], _criteria[i], o, index);
+            if (key == null) {
+                _keys.writeByte(_blankBytes[i]);
+            } else if (key instanceof EvalError) {
+                _keys.writeByte(_errorBytes[i]);
+            } else {
+                _keys.writeByte(_valueBytes[i]);
+                _keys.setInverted(_criteria[i].reverse);
+                _keyMakers[i].writeKey(key, _keys);
+                _keys.setInverted(false);
+            }
+        }
+    }
+
+    /**
+     * Sorts the keys written, fully or up to the limit, and releases them.
+     *
+     * @return the items of the keys, in sorted order
+     */
+    protected int[] sortKeys() {
+        try (SortKeys keys = _keys) {
+            _keys = null;
+            _count = keys.size();
+            // below this ratio, selecting the first keys is faster than sorting all of them
+            if (_limit >= 0 && _limit < _count / 8) {
+                return keys.sort(_limit);
+            }
+            return keys.sort();
         }
-        return keys;
     }
 
-    protected int compare(Project project, Object o1, int i1, Object o2, int i2) {
-        int c = 0;
-        for (int i = 0; c == 0 && i < _comparatorWrappers.length; i++) {
-            c = _comparatorWrappers[i].compare(project, o1, i1, o2, i2);
+    /**
+     * Ranks are always distinct, even when positions are equal: the first byte of the keys of blanks is followed by the
+     * next criteria, and must not be compared with the bytes of a value. Equal positions are ranked in the order of the
+     * positions array, which is the default order of values, errors and blanks.
+     *
+     * @return the rank of a position among all positions, from 0
+     */
+    static private int rank(int[] positions, int index) {
+        int rank = 0;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] < positions[index] || (positions[i] == positions[index] && i < index)) {
+                rank++;
+            }
         }
-        return c;
+        return rank;
     }
 }
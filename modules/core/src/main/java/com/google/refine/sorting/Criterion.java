@@ -139,6 +139,13 @@ abstract public class Criterion {
         abstract public int compareKeys(Object key1, Object key2);
 
         abstract protected Object makeKey(Object value);
+
+        /**
+         * Writes a key which is neither blank nor an error, so that the unsigned lexicographic order of the bytes
+         * written is the order of {@link #compareKeys(Object, Object)}. What is written must not be the prefix of
+         * what is written for another key, unless both keys are equal.
+         */
+        abstract protected void writeKey(Object key, SortKeys keys);
     }
 
     abstract public KeyMaker createKeyMaker();
@@ -63,6 +63,13 @@ public class DateCriterion extends Criterion {
             public int compareKeys(Object key1, Object key2) {
                 return ((Instant) key1).compareTo((Instant) key2);
             }
+
+            @Override
+            protected void writeKey(Object key, SortKeys keys) {
+                Instant instant = (Instant) key;
+                keys.writeSignedLong(instant.getEpochSecond());
+                keys.writeInt(instant.getNano());
+            }
         };
     }
 
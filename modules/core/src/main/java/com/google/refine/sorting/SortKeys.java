@@ -0,0 +1,582 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.util.WorkerPool;
+
+/**
+ * Normalized sort keys of a sequence of rows or records, packed in a single byte array.
+ * <p>
+ * Each key is a sequence of bytes whose unsigned lexicographic order is the order of the rows or records, so that
+ * sorting never needs to look at the cell values again or to compare them through their criteria. Keys are written by
+ * {@link BaseSorter} and {@link Criterion.KeyMaker}: fixed-length encodings for numbers, dates and booleans, and escaped,
+ * terminated byte strings for collation keys, so that the keys of several criteria can be concatenated. The first eight
+ * bytes of each key are also kept in a {@code long} so that most comparisons do not read the byte array.
+ * <p>
+ * When the estimated memory used by the keys exceeds a budget, the keys written so far are sorted and written to a
+ * temporary file, and the memory is reused for the next keys. Sorting then merges these sorted runs, so that projects
+ * too large to hold their keys next to their rows can still be sorted. The temporary files are deleted once the keys
+ * are sorted or closed.
+ */
+public class SortKeys implements AutoCloseable {
+
+    final static Logger logger = LoggerFactory.getLogger(SortKeys.class);
+
+    /**
+     * System property setting the memory budget of the keys of a sort, in megabytes, above which they are spilled to
+     * disk. Defaults to an eighth of the maximum heap size.
+     */
+    static final public String MEMORY_BUDGET_PROPERTY = "refine.sort.memoryBudget";
+
+    static final private int INSERTION_SORT_THRESHOLD = 32;
+    static final private int PARALLEL_THRESHOLD = 1 << 14;
+    // estimated memory used by each key besides its bytes: its offset, item and prefix
+    static final private int KEY_OVERHEAD = 16;
+    static final private int RUN_BUFFER_SIZE = 1 << 16;
+
+    final private long _memoryBudget;
+    // sorted runs spilled to disk, in the order their keys were started
+    private List<Path> _runs;
+    private int _spilledCount;
+
+    private byte[] _data;
+    private int _length;
+    // start of each key in _data, followed by the end of the last key
+    private int[] _offsets;
+    // the item sorted by each key, such as a row or record index
+    private int[] _items;
+    private int _size;
+    private long[] _prefixes;
+    private int _mask;
+
+    public SortKeys(int expectedSize) {
+        this(expectedSize, getMemoryBudget());
+    }
+
+    /**
+     * @param memoryBudget
+     *            the estimated size in bytes of the keys held in memory, above which they are spilled to disk
+     */
+    public SortKeys(int expectedSize, long memoryBudget) {
+        _memoryBudget = memoryBudget;
+        int capacity = (int) Math.max(16, Math.min(expectedSize, memoryBudget / (8 + KEY_OVERHEAD)));
+        _data = new byte[capacity * 8];
+        _offsets = new int[capacity + 1];
+        _items = new int[capacity];
+    }
+
+    /**
+     * Starts the key of a new item. The bytes written until the next call make up its key.
+     */
+    public void start(int item) {
+        if (_size > 0 && _length + (long) KEY_OVERHEAD * _size > _memoryBudget) {
+            spill();
+        }
+        if (_size == _items.length) {
+            _items = Arrays.copyOf(_items, _size * 2);
+            _offsets = Arrays.copyOf(_offsets, _size * 2 + 1);
+        }
+        _items[_size++] = item;
+        _offsets[_size - 1] = _length;
+        _offsets[_size] = _length;
+        _prefixes = null;
+    }
+
+    /**
+     * Sets whether the bytes written next are inverted, for criteria sorted in reverse order.
+     */
+    public void setInverted(boolean inverted) {
+        _mask = inverted ? 0xff : 0;
+    }
+
+    public void writeByte(int b) {
+        ensureCapacity(1);
+        _data[_length++] = (byte) (b ^ _mask);
+        _offsets[_size] = _length;
+    }
+
+    public void writeInt(int v) {
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            _data[_length++] = (byte) ((v >>> shift) ^ _mask);
+        }
+        _offsets[_size] = _length;
+    }
+
+    public void writeLong(long v) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            _data[_length++] = (byte) ((v >>> shift) ^ _mask);
+        }
+        _offsets[_size] = _length;
+    }
+
+    /**
+     * Writes a signed long so that the unsigned order of the bytes is the order of the values.
+     */
+    public void writeSignedLong(long v) {
+        writeLong(v ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Writes a double so that the unsigned order of the bytes is the numeric order of the values. Both zeros are
+     * written as positive zero, and all NaNs as the canonical NaN, which comes after positive infinity.
+     */
+    public void writeDouble(double d) {
+        long bits = Double.doubleToLongBits(d == 0.0 ? 0.0 : d);
+        writeLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+    }
+
+    /**
+     * Writes a string of bytes compared in unsigned lexicographic order. Zero bytes are escaped and the string is
+     * terminated, so that a string sorts before the strings it is a prefix of, whatever follows it in the key.
+     */
+    public void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length * 2 + 2);
+        for (byte b : bytes) {
+            _data[_length++] = (byte) (b ^ _mask);
+            if (b == 0) {
+                _data[_length++] = (byte) (0xff ^ _mask);
+            }
+        }
+        _data[_length++] = (byte) _mask;
+        _data[_length++] = (byte) _mask;
+        _offsets[_size] = _length;
+    }
+
+    /**
+     * @return the number of keys, including those spilled to disk
+     */
+    public int size() {
+        return _spilledCount + _size;
+    }
+
+    /**
+     * @return true if some keys were spilled to disk
+     */
+    public boolean isSpilled() {
+        return _runs != null;
+    }
+
+    /**
+     * Compares the keys at two positions, in the order they were started. Keys spilled to disk cannot be compared.
+     */
+    public int compare(int i, int j) {
+        if (_runs != null) {
+            throw new IllegalStateException("Keys were spilled to disk");
+        }
+        if (_prefixes == null) {
+            computePrefixes();
+        }
+        return compareKeys(i, j);
+    }
+
+    /**
+     * @return the items, in the order of their keys. Items with equal keys are kept in the order they were started.
+     *         Keys spilled to disk are discarded once sorted.
+     */
+    public int[] sort() {
+        if (_runs != null) {
+            return merge(Integer.MAX_VALUE);
+        }
+        computePrefixes();
+        int[] order = new int[_size];
+        for (int i = 0; i != _size; i++) {
+            order[i] = i;
+        }
+        return toItems(sortPositions(order));
+    }
+
+    /**
+     * Selects the first items in the order of their keys, without sorting the others. This takes a time proportional
+     * to the number of keys times the logarithm of the limit.
+     *
+     * @return the first {@code limit} items returned by {@link #sort()}, or all of them if there are fewer
+     */
+    public int[] sort(int limit) {
+        if (_runs != null) {
+            return merge(limit);
+        }
+        if (limit >= _size) {
+            return sort();
+        }
+        computePrefixes();
+        // max-heap of the positions of the smallest keys seen so far
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int i = 0; i != _size && limit > 0; i++) {
+            if (heapSize < limit) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++);
+            } else if (compareKeys(i, heap[0]) < 0) {
+                // a later key equal to the largest selected one comes after it, so it is not selected
+                heap[0] = i;
+                siftDown(heap, limit);
+            }
+        }
+        // the merge sort is stable, so the positions of the selected keys are first put back in order
+        Arrays.sort(heap);
+        return toItems(sortPositions(heap));
+    }
+
+    static private long getMemoryBudget() {
+        Long megabytes = Long.getLong(MEMORY_BUDGET_PROPERTY);
+        return megabytes != null ? megabytes << 20 : Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    private int[] sortPositions(int[] order) {
+        int[] buffer = order.clone();
+        if (WorkerPool.isParallel() && order.length >= PARALLEL_THRESHOLD) {
+            WorkerPool.getPool().invoke(new SortTask(buffer, order, 0, order.length));
+        } else {
+            sort(buffer, order, 0, order.length);
+        }
+        return order;
+    }
+
+    private int[] toItems(int[] order) {
+        for (int i = 0; i != order.length; i++) {
+            order[i] = _items[order[i]];
+        }
+        return order;
+    }
+
+    /**
+     * Sorts the keys held in memory and writes them to a new run, as their length, bytes and item.
+     */
+    private void spill() {
+        computePrefixes();
+        int[] order = new int[_size];
+        for (int i = 0; i != _size; i++) {
+            order[i] = i;
+        }
+        sortPositions(order);
+        try {
+            if (_runs == null) {
+                _runs = new ArrayList<>();
+            }
+            Path run = Files.createTempFile("refine-sort-", ".run");
+            _runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE))) {
+                for (int position : order) {
+                    int from = _offsets[position];
+                    int length = _offsets[position + 1] - from;
+                    out.writeInt(length);
+                    out.write(_data, from, length);
+                    out.writeInt(_items[position]);
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Could not spill sort keys to disk", e);
+        }
+        logger.debug("Spilled {} sort keys to disk", _size);
+        _spilledCount += _size;
+        _size = 0;
+        _length = 0;
+        _offsets[0] = 0;
+        _prefixes = null;
+    }
+
+    /**
+     * Merges the runs spilled to disk, after spilling the keys still in memory.
+     */
+    private int[] merge(int limit) {
+        try {
+            if (_size > 0) {
+                spill();
+            }
+            int[] items = new int[Math.min(limit, _spilledCount)];
+            List<RunReader> readers = new ArrayList<>(_runs.size());
+            try {
+                PriorityQueue<RunReader> queue = new PriorityQueue<>(_runs.size());
+                for (Path run : _runs) {
+                    RunReader reader = new RunReader(run, readers.size());
+                    readers.add(reader);
+                    if (reader.next()) {
+                        queue.add(reader);
+                    }
+                }
+                for (int i = 0; i != items.length; i++) {
+                    RunReader reader = queue.poll();
+                    items[i] = reader.item;
+                    if (reader.next()) {
+                        queue.add(reader);
+                    }
+                }
+            } finally {
+                for (RunReader reader : readers) {
+                    reader.close();
+                }
+            }
+            return items;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not merge sort keys spilled to disk", e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Deletes the keys spilled to disk, if any. This is done once they are sorted, and must otherwise be done by the
+     * owner of the keys when it no longer needs them.
+     */
+    @Override
+    public void close() {
+        if (_runs == null) {
+            return;
+        }
+        for (Path run : _runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                logger.warn("Could not delete sort run " + run, e);
+            }
+        }
+        _runs = null;
+        _spilledCount = 0;
+    }
+
+    /**
+     * Compares keys and then positions, so that equal keys are ordered by position.
+     */
+    private int compareInHeap(int i, int j) {
+        int c = compareKeys(i, j);
+        return c != 0 ? c : Integer.compare(i, j);
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int position = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compareInHeap(heap[parent], position) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = position;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int position = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && compareInHeap(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compareInHeap(heap[child], position) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = position;
+    }
+
+    private void ensureCapacity(int count) {
+        if (_length + count > _data.length) {
+            _data = Arrays.copyOf(_data, Math.max(_length + count, _data.length * 2));
+        }
+    }
+
+    private void computePrefixes() {
+        _prefixes = new long[_size];
+        for (int i = 0; i != _size; i++) {
+            int from = _offsets[i];
+            int to = Math.min(_offsets[i + 1], from + 8);
+            long prefix = 0;
+            for (int k = from; k < from + 8; k++) {
+                prefix = (prefix << 8) | (k < to ? _data[k] & 0xff : 0);
+            }
+            _prefixes[i] = prefix;
+        }
+    }
+
+    private int compareKeys(int i, int j) {
+        long p1 = _prefixes[i];
+        long p2 = _prefixes[j];
+        if (p1 != p2) {
+            return Long.compareUnsigned(p1, p2);
+        }
+        // the prefixes are padded with zeros: if either key is short, it is a prefix of the other one
+        int from1 = _offsets[i];
+        int from2 = _offsets[j];
+        int length1 = _offsets[i + 1] - from1;
+        int length2 = _offsets[j + 1] - from2;
+        if (length1 <= 8 || length2 <= 8) {
+            return Integer.compare(length1, length2);
+        }
+        return Arrays.compareUnsigned(_data, from1 + 8, from1 + length1, _data, from2 + 8, from2 + length2);
+    }
+
+    /**
+     * Sorts dst[from, to) with a stable merge sort, using src as a buffer. Both ranges must hold the same positions.
+     */
+    private void sort(int[] src, int[] dst, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(dst, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(dst, src, from, mid);
+        sort(dst, src, mid, to);
+        merge(src, dst, from, mid, to);
+    }
+
+    private void insertionSort(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int position = a[i];
+            int j = i - 1;
+            while (j >= from && compareKeys(a[j], position) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = position;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges src[from, mid) and src[mid, to) into dst[from, to).
+     */
+    private void merge(int[] src, int[] dst, int from, int mid, int to) {
+        if (compareKeys(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compareKeys(src[i], src[j]) <= 0)) {
+                dst[k] = src[i++];
+            } else {
+                dst[k] = src[j++];
+            }
+        }
+    }
+
+    /**
+     * Sorts the two halves of a range on the worker pool, then merges them.
+     */
+    private class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final private int[] _src;
+        final private int[] _dst;
+        final private int _from;
+        final private int _to;
+
+        SortTask(int[] src, int[] dst, int from, int to) {
+            _src = src;
+            _dst = dst;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from < PARALLEL_THRESHOLD) {
+                sort(_src, _dst, _from, _to);
+                return;
+            }
+            int mid = (_from + _to) >>> 1;
+            invokeAll(new SortTask(_dst, _src, _from, mid), new SortTask(_dst, _src, mid, _to));
+            merge(_src, _dst, _from, mid, _to);
+        }
+    }
+
+    /**
+     * Reads the keys of a run in order. Readers are ordered by their current key, and then by the order of their runs.
+     */
+    static private class RunReader implements Comparable<RunReader> {
+
+        final private DataInputStream _in;
+        final private int _runIndex;
+        private byte[] _key = new byte[64];
+        private int _keyLength;
+        int item;
+
+        RunReader(Path run, int runIndex) throws IOException {
+            _in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_SIZE));
+            _runIndex = runIndex;
+        }
+
+        /**
+         * Reads the next key of the run.
+         *
+         * @return false at the end of the run
+         */
+        boolean next() throws IOException {
+            try {
+                _keyLength = _in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (_keyLength > _key.length) {
+                _key = new byte[Math.max(_keyLength, _key.length * 2)];
+            }
+            _in.readFully(_key, 0, _keyLength);
+            item = _in.readInt();
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            int c = Arrays.compareUnsigned(_key, 0, _keyLength, other._key, 0, other._keyLength);
+            return c != 0 ? c : Integer.compare(_runIndex, other._runIndex);
+        }
+
+        void close() throws IOException {
+            _in.close();
+        }
+    }
+}
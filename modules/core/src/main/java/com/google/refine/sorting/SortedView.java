@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.sorting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * The rows or records matched by an engine, in the order of a sorting configuration. Sorted views are cached for each
+ * project, so that paging through a sorted grid only sorts it once.
+ * <p>
+ * Like the bitmaps of {@link com.google.refine.browsing.util.RowMatchCache}, cached views are keyed by the
+ * configurations of the sorting and of the engine, and are only valid for the state of the project they were computed
+ * on, identified by its last done history entry. Views of engines with non-deterministic facets are not cached. Cached
+ * views are counted in the memory footprint of the project, and released with it.
+ * <p>
+ * A view can be partial: when only the first pages are requested, only the first rows or records are selected and
+ * sorted, which is much faster than sorting all of them on large projects. Deeper pages replace it by a complete view.
+ */
+public class SortedView {
+
+    /**
+     * Maximum number of views cached for a project.
+     */
+    static final public int MAX_ENTRIES = 8;
+
+    /**
+     * Minimum number of rows or records in a partial view, so that the first pages can all be read from the same view.
+     */
+    static final public int MIN_DEPTH = 1000;
+
+    // views of each project, in order of last access
+    static final private Map<Project, Map<String, SortedView>> s_views = Collections.synchronizedMap(new WeakHashMap<>());
+
+    final private long _version;
+    final private int _projectRowCount;
+
+    final private Mode _mode;
+    // indices of the first rows or records, in sorted order
+    final private int[] _indices;
+    // in record mode, the sorted index of the first row of each record in sorted order, followed by the number of rows
+    final private int[] _startRowIndices;
+    // number of rows or records matched, and of rows in record mode
+    final private int _count;
+    final private int _rowCount;
+
+    protected SortedView(Project project, Mode mode, int[] indices, int[] startRowIndices, int count, int rowCount) {
+        _version = project.history.getLastDoneEntryID();
+        _projectRowCount = project.rows.size();
+        _mode = mode;
+        _indices = indices;
+        _startRowIndices = startRowIndices;
+        _count = count;
+        _rowCount = rowCount;
+    }
+
+    /**
+     * @return the rows or records matched by the engine in sorted order, computed if there is no cached view for the
+     *         current state of the project
+     */
+    static public SortedView getSortedView(Project project, Engine engine, SortingConfig sortingConfig) {
+        return getSortedView(project, engine, sortingConfig, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param depth
+     *            the number of rows or records needed in sorted order
+     * @return the rows or records matched by the engine in sorted order, at least up to the given depth, computed if
+     *         there is no cached view deep enough for the current state of the project
+     */
+    static public SortedView getSortedView(Project project, Engine engine, SortingConfig sortingConfig, int depth) {
+        int minDepth = Math.max(depth, MIN_DEPTH);
+        if (!engine.getConfig().isDeterministic()) {
+            // the rows matched may change without the project changing
+            return compute(project, engine, sortingConfig, minDepth);
+        }
+        String key;
+        try {
+            key = ParsingUtilities.mapper.writeValueAsString(sortingConfig)
+                    + ParsingUtilities.mapper.writeValueAsString(engine.getConfig());
+        } catch (JsonProcessingException e) {
+            return compute(project, engine, sortingConfig, minDepth);
+        }
+
+        Map<String, SortedView> views;
+        synchronized (s_views) {
+            views = s_views.computeIfAbsent(project, p -> new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true));
+        }
+        synchronized (views) {
+            SortedView view = views.get(key);
+            if (view != null && view.isValid(project) && (view.isComplete() || depth <= view.getDepth())) {
+                return view;
+            }
+        }
+
+        SortedView view = compute(project, engine, sortingConfig, minDepth);
+        synchronized (views) {
+            views.put(key, view);
+            Iterator<SortedView> eldest = views.values().iterator();
+            while (views.size() > MAX_ENTRIES) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return view;
+    }
+
+    /**
+     * @return the estimated number of bytes used by the views cached for a project
+     */
+    static public long estimateMemorySize(Project project) {
+        Map<String, SortedView> views = s_views.get(project);
+        if (views == null) {
+            return 0;
+        }
+        long size = ProjectSizeEstimator.OBJECT_HEADER + ProjectSizeEstimator.REFERENCE * 2 * MAX_ENTRIES;
+        synchronized (views) {
+            for (Map.Entry<String, SortedView> entry : views.entrySet()) {
+                SortedView view = entry.getValue();
+                // linked map entry, view and its arrays
+                size += ProjectSizeEstimator.MAP_ENTRY + 2 * ProjectSizeEstimator.REFERENCE
+                        + ProjectSizeEstimator.estimateString(entry.getKey()) + 3 * ProjectSizeEstimator.OBJECT_HEADER + 32
+                        + 4L * view._indices.length + (view._startRowIndices == null ? 0 : 4L * view._startRowIndices.length);
+            }
+        }
+        return size;
+    }
+
+    static protected SortedView compute(Project project, Engine engine, SortingConfig sortingConfig, int depth) {
+        if (engine.getMode() == Mode.RowBased) {
+            IndexRecorder recorder = new IndexRecorder();
+            SortingRowVisitor srv = new SortingRowVisitor(recorder);
+            srv.initializeFromConfig(project, sortingConfig);
+            srv.setLimit(depth);
+            engine.getAllFilteredRows().accept(project, srv.hasCriteria() ? srv : recorder);
+            int[] indices = recorder.toArray();
+            int count = srv.hasCriteria() ? srv.getCount() : indices.length;
+            return new SortedView(project, Mode.RowBased, indices, null, count, count);
+        } else {
+            IndexRecorder recorder = new IndexRecorder();
+            SortingRecordVisitor srv = new SortingRecordVisitor(recorder);
+            srv.initializeFromConfig(project, sortingConfig);
+            srv.setLimit(depth);
+            engine.getFilteredRecords().accept(project, srv.hasCriteria() ? srv : recorder);
+            int[] indices = recorder.toArray();
+            int[] startRowIndices = new int[indices.length + 1];
+            for (int i = 0; i < indices.length; i++) {
+                Record record = project.recordModel.getRecord(indices[i]);
+                startRowIndices[i + 1] = startRowIndices[i] + record.toRowIndex - record.fromRowIndex;
+            }
+            return srv.hasCriteria()
+                    ? new SortedView(project, Mode.RecordBased, indices, startRowIndices, srv.getCount(), srv.getRowCount())
+                    : new SortedView(project, Mode.RecordBased, indices, startRowIndices, indices.length,
+                            startRowIndices[indices.length]);
+        }
+    }
+
+    protected boolean isValid(Project project) {
+        return _version == project.history.getLastDoneEntryID() && _projectRowCount == project.rows.size();
+    }
+
+    public Mode getMode() {
+        return _mode;
+    }
+
+    /**
+     * @return the number of rows or records in the view
+     */
+    public int size() {
+        return _count;
+    }
+
+    /**
+     * @return the number of rows in the view, including those of the records in record mode
+     */
+    public int getRowCount() {
+        return _rowCount;
+    }
+
+    /**
+     * @return the number of rows or records available in sorted order, from the start of the view
+     */
+    public int getDepth() {
+        return _indices.length;
+    }
+
+    /**
+     * @return true if all rows or records of the view are available in sorted order
+     */
+    public boolean isComplete() {
+        return _indices.length == _count;
+    }
+
+    /**
+     * @return the index of the row or record at a position of the view, lower than its depth
+     */
+    public int get(int sortedIndex) {
+        return _indices[sortedIndex];
+    }
+
+    /**
+     * @return the position in the view of the first row of the row or record at a position of the view
+     */
+    public int getStartRowIndex(int sortedIndex) {
+        return _startRowIndices == null ? sortedIndex : _startRowIndices[sortedIndex];
+    }
+
+    /**
+     * @return the position in the view of the first row or record whose first row is at or after a given position,
+     *         which must be among the rows available in sorted order
+     */
+    public int findStartRowIndex(int rowPosition) {
+        if (_startRowIndices == null) {
+            return Math.max(0, Math.min(rowPosition, _indices.length));
+        }
+        int i = Arrays.binarySearch(_startRowIndices, 0, _indices.length, rowPosition);
+        if (i < 0) {
+            return -i - 1;
+        }
+        // records are never empty, so start row indices are distinct
+        return i;
+    }
+
+    /**
+     * Collects the indices of the rows or records visited, in order.
+     */
+    static private class IndexRecorder implements RowVisitor, RecordVisitor {
+
+        private int[] _indices = new int[1024];
+        private int _size = 0;
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            add(rowIndex);
+            return false;
+        }
+
+        @Override
+        public boolean visit(Project project, Record record) {
+            add(record.recordIndex);
+            return false;
+        }
+
+        private void add(int index) {
+            if (_size == _indices.length) {
+                _indices = Arrays.copyOf(_indices, _size * 2);
+            }
+            _indices[_size++] = index;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(_indices, _size);
+        }
+    }
+}
@@ -33,11 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -46,7 +41,7 @@ import com.google.refine.sorting.Criterion.KeyMaker;
 public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
 
     final protected RecordVisitor _visitor;
-    protected List<Record> _records;
+    protected int _rowCount;
 
     public SortingRecordVisitor(RecordVisitor visitor) {
         _visitor = visitor;
@@ -54,32 +49,19 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
 
     @Override
     public void start(Project project) {
-        int count = project.recordModel.getRecordCount();
-        _records = new ArrayList<Record>(count);
-        _keys = new ArrayList<Object[]>(count);
+        _keys = new SortKeys(project.recordModel.getRecordCount());
+        _rowCount = 0;
     }
 
     @Override
     public void end(Project project) {
-        _visitor.start(project);
-
-        Collections.sort(_records, new Comparator<Record>() {
-
-            Project project;
-
-            Comparator<Record> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(Record o1, Record o2) {
-                return SortingRecordVisitor.this.compare(project, o1, o1.recordIndex, o2, o2.recordIndex);
-            }
-        }.init(project));
+        // sorting first releases the keys even if the visitor fails
+        int[] recordIndices = sortKeys();
 
+        _visitor.start(project);
         int sortedIndex = 0;
-        for (Record record : _records) {
+        for (int recordIndex : recordIndices) {
+            Record record = project.recordModel.getRecord(recordIndex);
             _visitor.visit(project, sortedIndex, record);
             sortedIndex += record.toRowIndex - record.fromRowIndex;
         }
@@ -87,9 +69,17 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
         _visitor.end(project);
     }
 
+    /**
+     * @return the number of rows of the records sorted, including those which were not visited because of the limit
+     */
+    public int getRowCount() {
+        return _rowCount;
+    }
+
     @Override
     public boolean visit(Project project, Record record) {
-        _records.add(record);
+        addKey(project, record, record.recordIndex, record.recordIndex);
+        _rowCount += record.toRowIndex - record.fromRowIndex;
         return false;
     }
 
@@ -33,11 +33,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.sorting;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -46,18 +41,6 @@ import com.google.refine.sorting.Criterion.KeyMaker;
 public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     final protected RowVisitor _visitor;
-    protected List<IndexedRow> _indexedRows;
-
-    static protected class IndexedRow {
-
-        final int index;
-        final Row row;
-
-        IndexedRow(int index, Row row) {
-            this.index = index;
-            this.row = row;
-        }
-    }
 
     public SortingRowVisitor(RowVisitor visitor) {
         _visitor = visitor;
@@ -65,34 +48,18 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     @Override
     public void start(Project project) {
-        int count = project.rows.size();
-        _indexedRows = new ArrayList<IndexedRow>(count);
-        _keys = new ArrayList<Object[]>(count);
+        _keys = new SortKeys(project.rows.size());
     }
 
     @Override
     public void end(Project project) {
-        _visitor.start(project);
-
-        Collections.sort(_indexedRows, new Comparator<IndexedRow>() {
-
-            Project project;
+        // sorting first releases the keys even if the visitor fails
+        int[] rowIndices = sortKeys();
 
-            Comparator<IndexedRow> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(IndexedRow o1, IndexedRow o2) {
-                return SortingRowVisitor.this.compare(project, o1.row, o1.index, o2.row, o2.index);
-            }
-        }.init(project));
-
-        int sortedIndex = 0;
-        for (IndexedRow indexedRow : _indexedRows) {
-            _visitor.visit(project, indexedRow.index, sortedIndex, indexedRow.row);
-            sortedIndex++;
+        _visitor.start(project);
+        for (int sortedIndex = 0; sortedIndex < rowIndices.length; sortedIndex++) {
+            int rowIndex = rowIndices[sortedIndex];
+            _visitor.visit(project, rowIndex, sortedIndex, project.rows.get(rowIndex));
         }
 
         _visitor.end(project);
@@ -100,7 +67,7 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
-        _indexedRows.add(new IndexedRow(rowIndex, row));
+        addKey(project, row, rowIndex, rowIndex);
         return false;
     }
 
@@ -72,6 +72,12 @@ public class StringCriterion extends Criterion {
             public int compareKeys(Object key1, Object key2) {
                 return ((CollationKey) key1).compareTo((CollationKey) key2);
             }
+
+            @Override
+            protected void writeKey(Object key, SortKeys keys) {
+                // collation keys compare like their byte arrays
+                keys.writeBytes(((CollationKey) key).toByteArray());
+            }
         };
     }
 
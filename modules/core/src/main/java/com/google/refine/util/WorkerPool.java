@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shared pool of worker threads for CPU-bound work on project data, such as decoding rows when loading a project.
+ * <p>
+ * Its size defaults to the number of available processors and can be set with the {@code refine.workers} system
+ * property. A size of 1 disables parallel processing.
+ */
+public class WorkerPool {
+
+    static final public String WORKERS_PROPERTY = "refine.workers";
+
+    static private ForkJoinPool s_pool;
+
+    private WorkerPool() {
+    }
+
+    /**
+     * @return the number of workers available for parallel processing
+     */
+    static public int getParallelism() {
+        return Math.max(1, Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @return true if work should be split across several workers
+     */
+    static public boolean isParallel() {
+        return getParallelism() > 1;
+    }
+
+    /**
+     * @return the shared pool, created on first use. Its threads are daemon threads.
+     */
+    static synchronized public ForkJoinPool getPool() {
+        if (s_pool == null) {
+            s_pool = new ForkJoinPool(getParallelism());
+        }
+        return s_pool;
+    }
+}
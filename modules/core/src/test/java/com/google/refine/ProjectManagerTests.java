@@ -33,20 +33,36 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
@@ -56,6 +72,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.ProjectStub;
 import com.google.refine.model.Row;
@@ -242,6 +259,120 @@ public class ProjectManagerTests extends RefineTest {
         assertEquals(SUT.getProjectMetadata(project.id), metadata);
     }
 
+    private Project createLargeProject(ProjectManager manager) {
+        Project largeProject = new Project();
+        // about 0.75MB of rows
+        for (int i = 0; i < 3000; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell(String.format("%0100d", i), null));
+            largeProject.rows.add(row);
+        }
+        ProjectMetadata largeMetadata = new ProjectMetadata();
+        largeMetadata.setName("large project");
+        manager.registerProject(largeProject, largeMetadata);
+        return largeProject;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedProjectsAreEvicted() {
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "2");
+        doReturn(Duration.ZERO).when(SUT).getEvictionGracePeriod();
+        try {
+            Project first = createLargeProject(SUT);
+            first.setLastSave();
+            Project second = createLargeProject(SUT);
+            second.setLastSave();
+            assertTrue(SUT.getResidentMemorySize() > 1 << 20);
+            assertEquals(SUT.getEvictionCount(), 0);
+
+            // the first project is now the most recently used
+            assertSame(SUT.getProject(first.id), first);
+            Project third = createLargeProject(SUT);
+
+            assertEquals(SUT.getEvictionCount(), 1);
+            assertEquals(SUT.getResidentProjectSizes().keySet(), new LinkedHashSet<>(List.of(first.id, third.id)));
+            assertTrue(SUT.getResidentMemorySize() <= SUT.getMemoryBudget());
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testModifiedProjectsAreSavedBeforeEviction() {
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "2");
+        doReturn(Duration.ZERO).when(SUT).getEvictionGracePeriod();
+        List<String> savingThreads = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            savingThreads.add(Thread.currentThread().getName());
+            return null;
+        }).when(SUT).saveProject(any(Project.class));
+        try {
+            Project first = createLargeProject(SUT);
+            createLargeProject(SUT);
+            createLargeProject(SUT);
+
+            // saved in the background rather than by the request registering the last project
+            verify(SUT, timeout(5000).atLeastOnce()).saveProject(first);
+            assertFalse(savingThreads.contains(Thread.currentThread().getName()));
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testRecentlyUsedProjectsAreNotEvicted() {
+        System.setProperty(ProjectManager.MEMORY_BUDGET_PROPERTY, "2");
+        try {
+            Project first = createLargeProject(SUT);
+            first.setLastSave();
+            Project second = createLargeProject(SUT);
+            second.setLastSave();
+            createLargeProject(SUT);
+
+            // the projects may still be used by the requests which accessed them
+            assertEquals(SUT.getEvictionCount(), 0);
+            assertSame(SUT.getProject(first.id), first);
+            assertSame(SUT.getProject(second.id), second);
+        } finally {
+            System.clearProperty(ProjectManager.MEMORY_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testProjectsAreLoadedOutsideOfTheLock() throws Exception {
+        Project resident = new Project();
+        SUT.registerProject(resident, new ProjectMetadata());
+        Project loaded = new Project();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await();
+            return loaded;
+        }).when(SUT).loadProject(loaded.id);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Project> first = executor.submit(() -> SUT.getProject(loaded.id));
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+            Future<Project> second = executor.submit(() -> SUT.getProject(loaded.id));
+
+            // resident projects are not blocked by the load
+            Future<Project> other = executor.submit(() -> SUT.getProject(resident.id));
+            assertSame(other.get(10, TimeUnit.SECONDS), resident);
+
+            releaseLoad.countDown();
+            assertSame(first.get(10, TimeUnit.SECONDS), loaded);
+            assertSame(second.get(10, TimeUnit.SECONDS), loaded);
+            // both requests shared one load
+            verify(SUT, times(1)).loadProject(loaded.id);
+            assertSame(SUT.getProject(loaded.id), loaded);
+        } finally {
+            releaseLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     protected void whenGetSaveTimes(Project proj, ProjectMetadata meta) {
         whenGetSaveTimes(proj, meta, 5);
     }
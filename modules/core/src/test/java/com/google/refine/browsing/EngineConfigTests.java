@@ -27,12 +27,17 @@
 
 package com.google.refine.browsing;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertThrows;
 
+import java.util.List;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.facets.FacetConfig;
 import com.google.refine.util.TestUtils;
 
 public class EngineConfigTests {
@@ -103,4 +108,16 @@ public class EngineConfigTests {
         Assert.assertEquals(ec.getMode(), Mode.RowBased);
         Assert.assertTrue(ec.getFacetConfigs().isEmpty());
     }
+
+    @Test
+    public void isDeterministic() {
+        Assert.assertTrue(EngineConfig.defaultRowBased().isDeterministic());
+        Assert.assertTrue(EngineConfig.deserialize(engineConfigJson).isDeterministic());
+
+        FacetConfig random = mock(FacetConfig.class);
+        when(random.isDeterministic()).thenReturn(false);
+        EngineConfig ec = new EngineConfig(List.of(EngineConfig.deserialize(engineConfigJson).getFacetConfigs().get(0), random),
+                Mode.RowBased);
+        Assert.assertFalse(ec.isDeterministic());
+    }
 }
@@ -28,10 +28,19 @@
 package com.google.refine.browsing;
 
 import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.refine.browsing.facets.Facet;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.TestUtils;
 
 public class EngineTests {
@@ -42,4 +51,81 @@ public class EngineTests {
         Engine engine = new Engine(project);
         TestUtils.isSerializedTo(engine, "{\"engine-mode\":\"row-based\",\"facets\":[]}");
     }
+
+    /**
+     * Keeps the rows whose value in the first cell is a multiple of a divisor, counting how many rows it evaluates.
+     */
+    static class MultipleFacet implements Facet {
+
+        final int _divisor;
+        int _evaluations = 0;
+        List<Integer> _visited = new ArrayList<>();
+
+        MultipleFacet(int divisor) {
+            _divisor = divisor;
+        }
+
+        @Override
+        public RowFilter getRowFilter(Project project) {
+            return (p, rowIndex, row) -> {
+                _evaluations++;
+                return ((Long) row.getCellValue(0)) % _divisor == 0;
+            };
+        }
+
+        @Override
+        public RecordFilter getRecordFilter(Project project) {
+            return null;
+        }
+
+        @Override
+        public void computeChoices(Project project, FilteredRows filteredRows) {
+            _visited.clear();
+            filteredRows.accept(project, new RowVisitor() {
+
+                @Override
+                public void start(Project project) {
+                }
+
+                @Override
+                public boolean visit(Project project, int rowIndex, Row row) {
+                    _visited.add(rowIndex);
+                    return false;
+                }
+
+                @Override
+                public void end(Project project) {
+                }
+            });
+        }
+
+        @Override
+        public void computeChoices(Project project, FilteredRecords filteredRecords) {
+        }
+    }
+
+    @Test
+    public void testComputeFacetsEvaluatesFiltersOnce() {
+        Project project = new Project();
+        for (long i = 0; i != 30; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell(i, null));
+            project.rows.add(row);
+        }
+        Engine engine = new Engine(project);
+        MultipleFacet byTwo = new MultipleFacet(2);
+        MultipleFacet byThree = new MultipleFacet(3);
+        MultipleFacet byFive = new MultipleFacet(5);
+        engine._facets = Arrays.asList(byTwo, byThree, byFive);
+
+        engine.computeFacets();
+
+        // each facet sees the rows matching the other facets
+        assertEquals(byTwo._visited, Arrays.asList(0, 15));
+        assertEquals(byThree._visited, Arrays.asList(0, 10, 20));
+        assertEquals(byFive._visited, Arrays.asList(0, 6, 12, 18, 24));
+        assertTrue(byTwo._evaluations <= 30);
+        assertTrue(byThree._evaluations <= 30);
+        assertTrue(byFive._evaluations <= 30);
+    }
 }
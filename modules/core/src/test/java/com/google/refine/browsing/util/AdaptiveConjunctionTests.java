@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class AdaptiveConjunctionTests {
+
+    static private class CountingFilter implements RowFilter {
+
+        final int _modulo;
+        final int _work;
+        int calls = 0;
+        long sink = 0;
+
+        CountingFilter(int modulo, int work) {
+            _modulo = modulo;
+            _work = work;
+        }
+
+        @Override
+        public boolean filterRow(Project project, int rowIndex, Row row) {
+            calls++;
+            for (int i = 0; i < _work; i++) {
+                sink += Long.hashCode(sink * 31 + i);
+            }
+            return rowIndex % _modulo != 0;
+        }
+    }
+
+    @Test
+    public void testCheapSelectiveFilterFirst() {
+        // rejects one row in 100, slowly
+        CountingFilter expensive = new CountingFilter(100, 2000);
+        // rejects all rows but one in 50, quickly
+        RowFilter cheap = (project, rowIndex, row) -> rowIndex % 50 == 1;
+        AdaptiveConjunction conjunction = new AdaptiveConjunction(Arrays.asList(expensive, cheap));
+        Project project = new Project();
+        Row row = new Row(0);
+
+        int rowCount = 20 * AdaptiveConjunction.REORDER_INTERVAL;
+        int matches = 0;
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            boolean expected = rowIndex % 100 != 0 && rowIndex % 50 == 1;
+            boolean actual = conjunction.filterRow(project, rowIndex, row);
+            assertEquals(actual, expected);
+            if (actual) {
+                matches++;
+            }
+        }
+
+        assertSame(conjunction.getOrder().get(0), cheap);
+        assertTrue(expensive.calls < AdaptiveConjunction.REORDER_INTERVAL + 2 * matches);
+    }
+
+    @Test
+    public void testCachedFiltersFirst() {
+        RowFilter plain = (project, rowIndex, row) -> true;
+        RowFilter cached = new RowMatchCache.RowMatches(new BitSet());
+        AdaptiveConjunction conjunction = new AdaptiveConjunction(Arrays.asList(plain, cached));
+        assertEquals(conjunction.getOrder(), Arrays.asList(cached, plain));
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.util.ApproximateNominalValueGrouper.ApproximateNominalFacetChoice;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper.IndexedNominalFacetChoice;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class ApproximateNominalValueGrouperTests extends RefineTest {
+
+    static final private Evaluable VALUE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public String getSource() {
+            return "value";
+        }
+
+        @Override
+        public String getLanguagePrefix() {
+            return "grel";
+        }
+    };
+
+    private Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        // a few frequent values among many rare ones, and some blanks
+        Random random = new Random(7);
+        project = new Project();
+        for (int i = 0; i < 20000; i++) {
+            Row row = new Row(1);
+            int r = random.nextInt(100);
+            if (r < 30) {
+                row.setCell(0, new Cell("frequent " + (r % 3), null));
+            } else if (r > 2) {
+                row.setCell(0, new Cell("rare " + random.nextInt(5000), null));
+            }
+            project.rows.add(row);
+        }
+    }
+
+    private void visit(ExpressionNominalValueGrouper grouper, int fromRowIndex, int toRowIndex) {
+        for (int i = fromRowIndex; i < toRowIndex; i++) {
+            grouper.visit(project, i, project.rows.get(i));
+        }
+    }
+
+    private void assertBounds(ApproximateNominalValueGrouper approximate, ExpressionNominalValueGrouper exact) {
+        assertEquals(approximate.blankCount, exact.blankCount);
+        for (ApproximateNominalFacetChoice choice : approximate.getChoices().values()) {
+            int count = exact.choices.get(choice.decoratedValue.label).count;
+            assertTrue(choice.count >= count && choice.count - choice.error <= count, choice.decoratedValue.label);
+        }
+        for (int i = 0; i < 3; i++) {
+            IndexedNominalFacetChoice frequent = exact.choices.get("frequent " + i);
+            ApproximateNominalFacetChoice choice = approximate.getChoices().get("frequent " + i);
+            assertTrue(choice != null && choice.count >= frequent.count);
+        }
+        long distinct = exact.choices.size();
+        assertTrue(Math.abs(approximate.getDistinctCount() - distinct) < distinct * 0.05);
+    }
+
+    @Test
+    public void testExactWithinCapacity() {
+        ApproximateNominalValueGrouper approximate = new ApproximateNominalValueGrouper(VALUE, "c", 0, 10000);
+        ExpressionNominalValueGrouper exact = new ExpressionNominalValueGrouper(VALUE, "c", 0);
+        visit(approximate, 0, project.rows.size());
+        visit(exact, 0, project.rows.size());
+
+        assertTrue(approximate.isExact());
+        assertEquals(approximate.getDistinctCount(), exact.choices.size());
+        assertEquals(approximate.getChoices().keySet(), exact.choices.keySet());
+        for (ApproximateNominalFacetChoice choice : approximate.getChoices().values()) {
+            assertEquals(choice.count, exact.choices.get(choice.decoratedValue.label).count);
+            assertEquals(choice.error, 0);
+        }
+    }
+
+    @Test
+    public void testBoundedChoices() {
+        ApproximateNominalValueGrouper approximate = new ApproximateNominalValueGrouper(VALUE, "c", 0, 100);
+        ExpressionNominalValueGrouper exact = new ExpressionNominalValueGrouper(VALUE, "c", 0);
+        visit(approximate, 0, project.rows.size());
+        visit(exact, 0, project.rows.size());
+
+        assertFalse(approximate.isExact());
+        assertEquals(approximate.getChoices().size(), 100);
+        assertEquals(approximate.getTopChoices().get(0).decoratedValue.label.substring(0, 8), "frequent");
+        assertBounds(approximate, exact);
+    }
+
+    @Test
+    public void testMerge() {
+        ApproximateNominalValueGrouper approximate = new ApproximateNominalValueGrouper(VALUE, "c", 0, 100);
+        ApproximateNominalValueGrouper second = (ApproximateNominalValueGrouper) approximate.split();
+        ExpressionNominalValueGrouper exact = new ExpressionNominalValueGrouper(VALUE, "c", 0);
+        visit(approximate, 0, 12000);
+        visit(second, 12000, project.rows.size());
+        approximate.merge(second);
+        visit(exact, 0, project.rows.size());
+
+        assertFalse(approximate.isExact());
+        assertEquals(approximate.getChoices().size(), 100);
+        assertBounds(approximate, exact);
+    }
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.MergeableRowVisitor;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Cell;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.WorkerPool;
+
+public class ParallelRowScanTests extends RefineTest {
+
+    static final private int ROW_COUNT = 5 * ParallelRowScan.MIN_SPLIT_SIZE + 7;
+
+    private Project project;
+    private String workers;
+
+    private static Evaluable eval = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public String getSource() {
+            return "value";
+        }
+
+        @Override
+        public String getLanguagePrefix() {
+            return "grel";
+        }
+    };
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        workers = System.getProperty(WorkerPool.WORKERS_PROPERTY);
+        System.setProperty(WorkerPool.WORKERS_PROPERTY, "4");
+        System.setProperty(ParallelRowScan.PARALLEL_SCAN_PROPERTY, "true");
+
+        project = createProjectWithColumns("ParallelRowScanTests", "Col1");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Row row = new Row(1);
+            if (i % 10 != 0) {
+                row.setCell(0, i % 3 == 0 ? new Cell(i % 100, null) : new Cell("v" + (i % 7), null));
+            }
+            project.rows.add(row);
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (workers == null) {
+            System.clearProperty(WorkerPool.WORKERS_PROPERTY);
+        } else {
+            System.setProperty(WorkerPool.WORKERS_PROPERTY, workers);
+        }
+        System.clearProperty(ParallelRowScan.PARALLEL_SCAN_PROPERTY);
+        project = null;
+    }
+
+    @Test
+    public void testGrouperMatchesSequentialScan() {
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(new RowFilter() {
+
+            @Override
+            public boolean filterRow(Project project, int rowIndex, Row row) {
+                return rowIndex % 5 != 1;
+            }
+        });
+        Assert.assertTrue(ParallelRowScan.canScan(project, new ExpressionNominalValueGrouper(eval, "Col1", 0)));
+
+        ExpressionNominalValueGrouper parallel = new ExpressionNominalValueGrouper(eval, "Col1", 0);
+        filteredRows.accept(project, parallel);
+
+        System.clearProperty(ParallelRowScan.PARALLEL_SCAN_PROPERTY);
+        ExpressionNominalValueGrouper sequential = new ExpressionNominalValueGrouper(eval, "Col1", 0);
+        filteredRows.accept(project, sequential);
+
+        Assert.assertEquals(parallel.blankCount, sequential.blankCount);
+        Assert.assertEquals(parallel.errorCount, sequential.errorCount);
+        Assert.assertEquals(parallel.choices.keySet(), sequential.choices.keySet());
+        for (Object key : sequential.choices.keySet()) {
+            Assert.assertEquals(parallel.choices.get(key).count, sequential.choices.get(key).count);
+        }
+    }
+
+    @Test
+    public void testNumericBinIndexMatchesSequentialScan() {
+        RowEvaluable rowEvaluable = new ExpressionBasedRowEvaluable("Col1", 0, eval);
+        NumericBinIndex parallel = new NumericBinRowIndex(project, rowEvaluable);
+
+        System.clearProperty(ParallelRowScan.PARALLEL_SCAN_PROPERTY);
+        NumericBinIndex sequential = new NumericBinRowIndex(project, rowEvaluable);
+
+        Assert.assertEquals(parallel.getMin(), sequential.getMin());
+        Assert.assertEquals(parallel.getMax(), sequential.getMax());
+        Assert.assertEquals(parallel.getStep(), sequential.getStep());
+        Assert.assertEquals(parallel.getBins(), sequential.getBins());
+        Assert.assertEquals(parallel.getNumericRowCount(), sequential.getNumericRowCount());
+        Assert.assertEquals(parallel.getNonNumericRowCount(), sequential.getNonNumericRowCount());
+        Assert.assertEquals(parallel.getBlankRowCount(), sequential.getBlankRowCount());
+        Assert.assertEquals(parallel.isNumeric(), sequential.isNumeric());
+    }
+
+    @Test
+    public void testSplitsAreEnded() {
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger ended = new AtomicInteger();
+        ParallelRowScan.scan(project, new MergeableRowVisitor() {
+
+            @Override
+            public void start(Project project) {
+                started.incrementAndGet();
+            }
+
+            @Override
+            public void end(Project project) {
+                ended.incrementAndGet();
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                return false;
+            }
+
+            @Override
+            public MergeableRowVisitor split() {
+                return this;
+            }
+
+            @Override
+            public void merge(MergeableRowVisitor other) {
+            }
+        }, null);
+
+        Assert.assertTrue(started.get() > 1);
+        Assert.assertEquals(ended.get(), started.get());
+    }
+
+    @Test
+    public void testRangesAreReturnedInRowOrder() {
+        int expectedFrom = 0;
+        for (int[] range : ParallelRowScan.scanRanges(ROW_COUNT, (from, to) -> new int[] { from, to })) {
+            Assert.assertEquals(range[0], expectedFrom);
+            expectedFrom = range[1];
+        }
+        Assert.assertEquals(expectedFrom, ROW_COUNT);
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests shared by the primitive value arrays, which differ only by the type of their values.
+ */
+abstract public class PrimitiveValuesTests<V extends PrimitiveValues<?>> {
+
+    abstract protected V create();
+
+    abstract protected void add(V values, int v);
+
+    abstract protected void addAll(V values, V other);
+
+    abstract protected double get(V values, int index);
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        V values = create();
+        for (int i = 0; i < 100; i++) {
+            add(values, i * 1000);
+        }
+
+        Assert.assertEquals(values.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(get(values, i), i * 1000.0);
+        }
+    }
+
+    @Test
+    public void testAddAll() {
+        V values = create();
+        add(values, -1);
+        V other = create();
+        for (int i = 0; i < 40; i++) {
+            add(other, i);
+        }
+
+        addAll(values, other);
+        addAll(values, create());
+
+        Assert.assertEquals(values.size(), 41);
+        Assert.assertEquals(get(values, 0), -1.0);
+        Assert.assertEquals(get(values, 40), 39.0);
+        Assert.assertEquals(other.size(), 40);
+    }
+
+    @Test
+    public void testAddAllPastDoubleCapacity() {
+        V values = create();
+        V other = create();
+        for (int i = 0; i < 100; i++) {
+            add(other, i);
+        }
+
+        addAll(values, other);
+
+        Assert.assertEquals(values.size(), 100);
+        Assert.assertEquals(get(values, 99), 99.0);
+    }
+
+    @Test
+    public void testEmpty() {
+        V values = create();
+
+        Assert.assertEquals(values.size(), 0);
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> get(values, 0));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testGetPastSize() {
+        V values = create();
+        for (int i = 0; i < 17; i++) {
+            add(values, i);
+        }
+
+        // within the capacity of the underlying array, but not added
+        get(values, 17);
+    }
+}
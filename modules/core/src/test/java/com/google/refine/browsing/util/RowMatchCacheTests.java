@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.browsing.facets.TextSearchFacet.TextSearchFacetConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.ProjectSizeEstimator;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+public class RowMatchCacheTests extends RefineTest {
+
+    private Project project;
+    private FacetConfig config;
+    private CountingRowFilter rowFilter;
+
+    static private class CountingRowFilter implements RowFilter {
+
+        int evaluations = 0;
+
+        @Override
+        public boolean filterRow(Project project, int rowIndex, Row row) {
+            evaluations++;
+            return rowIndex % 2 == 0;
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        project = createProjectWithColumns("RowMatchCacheTests", "Col1");
+        for (int i = 0; i < 10; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("v" + i, null));
+            project.rows.add(row);
+        }
+        config = ParsingUtilities.mapper.readValue(
+                "{\"type\":\"text\",\"name\":\"Col1\",\"columnName\":\"Col1\",\"mode\":\"text\",\"caseSensitive\":false,\"query\":\"v\"}",
+                TextSearchFacetConfig.class);
+        rowFilter = new CountingRowFilter();
+    }
+
+    @Test
+    public void testMatchesAreComputedOnce() {
+        RowFilter first = RowMatchCache.getRowFilter(project, config, rowFilter);
+        RowFilter second = RowMatchCache.getRowFilter(project, config, rowFilter);
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(rowFilter.evaluations, 10);
+        BitSet matches = ((RowMatchCache.RowMatches) first).getMatches();
+        Assert.assertEquals(matches.cardinality(), 5);
+        Assert.assertTrue(first.filterRow(project, 4, project.rows.get(4)));
+        Assert.assertFalse(first.filterRow(project, 5, project.rows.get(5)));
+    }
+
+    @Test
+    public void testMatchesAreCountedInProjectSize() {
+        long withoutMatches = ProjectSizeEstimator.estimate(project);
+        RowMatchCache.getRowFilter(project, config, rowFilter);
+
+        Assert.assertTrue(ProjectSizeEstimator.estimate(project) > withoutMatches);
+    }
+
+    @Test
+    public void testClearingPrecomputesInvalidatesMatches() {
+        RowMatchCache.getRowFilter(project, config, rowFilter);
+        project.columnModel.getColumnByName("Col1").clearPrecomputes();
+        RowMatchCache.getRowFilter(project, config, rowFilter);
+
+        Assert.assertEquals(rowFilter.evaluations, 20);
+    }
+
+    @Test
+    public void testAddingRowsInvalidatesMatches() {
+        RowMatchCache.getRowFilter(project, config, rowFilter);
+        project.rows.add(new Row(1));
+        RowFilter cached = RowMatchCache.getRowFilter(project, config, rowFilter);
+
+        Assert.assertEquals(rowFilter.evaluations, 21);
+        Assert.assertTrue(cached.filterRow(project, 10, project.rows.get(10)));
+    }
+
+    @Test
+    public void testFilteredRowsVisitIntersection() {
+        ConjunctiveFilteredRows filteredRows = new ConjunctiveFilteredRows();
+        filteredRows.add(RowMatchCache.getRowFilter(project, config, rowFilter));
+        filteredRows.add(new RowFilter() {
+
+            @Override
+            public boolean filterRow(Project project, int rowIndex, Row row) {
+                return rowIndex > 3;
+            }
+        });
+
+        BitSet visited = new BitSet();
+        filteredRows.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.set(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+
+        BitSet expected = new BitSet();
+        expected.set(4);
+        expected.set(6);
+        expected.set(8);
+        Assert.assertEquals(visited, expected);
+    }
+}
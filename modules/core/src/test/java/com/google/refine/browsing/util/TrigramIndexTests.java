@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.browsing.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.facets.TextSearchFacet.TextSearchFacetConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.ParsingUtilities;
+
+public class TrigramIndexTests extends RefineTest {
+
+    private Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        System.setProperty(TrigramIndex.INDEX_PROPERTY, "true");
+        Serializable[][] grid = new Serializable[28][];
+        Serializable[] values = { "The Quick Brown Fox", "jumps over", "the lazy dog", null, 12345, "Ελληνικά κείμενα",
+                "quick-quack", "ab" };
+        for (int r = 0; r < grid.length; r++) {
+            // enough other rows for cell changes to be applied incrementally
+            grid[r] = new Serializable[] { r < values.length ? values[r] : "filler " + r };
+        }
+        project = createProject(new String[] { "text" }, grid);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(TrigramIndex.INDEX_PROPERTY);
+    }
+
+    private boolean[] filter(String mode, String query, boolean caseSensitive, boolean invert) throws Exception {
+        TextSearchFacetConfig config = ParsingUtilities.mapper.readValue(
+                "{\"type\":\"text\",\"name\":\"text\",\"columnName\":\"text\",\"mode\":\"" + mode + "\",\"query\":"
+                        + ParsingUtilities.mapper.writeValueAsString(query) + ",\"caseSensitive\":" + caseSensitive
+                        + ",\"invert\":" + invert + "}",
+                TextSearchFacetConfig.class);
+        RowFilter rowFilter = config.apply(project).getRowFilter(project);
+        boolean[] matches = new boolean[project.rows.size()];
+        for (int r = 0; r < matches.length; r++) {
+            matches[r] = rowFilter.filterRow(project, r, project.rows.get(r));
+        }
+        return matches;
+    }
+
+    private void assertSameAsScan(String mode, String query, boolean caseSensitive) throws Exception {
+        for (boolean invert : new boolean[] { false, true }) {
+            boolean[] indexed = filter(mode, query, caseSensitive, invert);
+            System.clearProperty(TrigramIndex.INDEX_PROPERTY);
+            boolean[] scanned = filter(mode, query, caseSensitive, invert);
+            System.setProperty(TrigramIndex.INDEX_PROPERTY, "true");
+            Assert.assertEquals(indexed, scanned, mode + " " + query);
+        }
+    }
+
+    @Test
+    public void testIndexedSearchMatchesScan() throws Exception {
+        for (String query : Arrays.asList("quick", "QUICK", "the", "lazy dog", "234", "κείμ", "xyz", "ab", "k-q")) {
+            assertSameAsScan("text", query, false);
+            assertSameAsScan("text", query, true);
+        }
+        for (String regex : Arrays.asList("qu[ia]ck", "^the", "lazy\\s+dog", "(fox|dog)$", "Quick|lazy", "o?ver", "\\d{3}45",
+                "(?i)QUICK")) {
+            assertSameAsScan("regex", regex, false);
+            assertSameAsScan("regex", regex, true);
+        }
+    }
+
+    @Test
+    public void testCandidates() {
+        TrigramIndex index = TrigramIndex.getIndex(project, project.columnModel.getColumnByName("text"));
+
+        Assert.assertEquals(index.getSubstringCandidates("QUICK", false).stream().toArray(), new int[] { 0, 6 });
+        Assert.assertEquals(index.getSubstringCandidates("quick", true).stream().toArray(), new int[] { 0, 6 });
+        Assert.assertEquals(index.getSubstringCandidates("zzz", false).cardinality(), 0);
+        Assert.assertNull(index.getSubstringCandidates("ab", false));
+        Assert.assertEquals(index.getRegexCandidates("t?he\\s+lazy").stream().toArray(), new int[] { 2 });
+        Assert.assertNull(index.getRegexCandidates("quick|lazy"));
+    }
+
+    @Test
+    public void testIndexIsUpdatedByCellChanges() throws Exception {
+        Column column = project.columnModel.getColumnByName("text");
+        TrigramIndex index = TrigramIndex.getIndex(project, column);
+
+        new CellChange(1, 0, project.rows.get(1).getCell(0), new Cell("a quick jump", null)).apply(project);
+
+        Assert.assertSame(TrigramIndex.getIndex(project, column), index);
+        Assert.assertEquals(index.getSubstringCandidates("quick", false).stream().toArray(), new int[] { 0, 1, 6 });
+        Assert.assertEquals(index.getSubstringCandidates("jumps", false).cardinality(), 0);
+        assertSameAsScan("text", "quick", false);
+    }
+
+    @Test
+    public void testRequiredLiterals() {
+        Assert.assertEquals(TrigramIndex.requiredLiterals("abc"), List.of("abc"));
+        Assert.assertEquals(TrigramIndex.requiredLiterals("ab?c"), List.of("a", "c"));
+        Assert.assertEquals(TrigramIndex.requiredLiterals("x{2}yz"), List.of("yz"));
+        Assert.assertEquals(TrigramIndex.requiredLiterals("(foo|bar)baz"), List.of("baz"));
+        Assert.assertEquals(TrigramIndex.requiredLiterals("[a-z]+hello\\.world"), List.of("hello.world"));
+        Assert.assertEquals(TrigramIndex.requiredLiterals("abc+d"), List.of("abc", "d"));
+        Assert.assertNull(TrigramIndex.requiredLiterals("foo|bar"));
+        Assert.assertNull(TrigramIndex.requiredLiterals("(?x)a b c"));
+        Assert.assertNull(TrigramIndex.requiredLiterals("\\Qa.b\\E"));
+    }
+}
@@ -39,6 +39,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -47,9 +53,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.LookupCacheManager;
 import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineTest;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.util.TestUtils;
 
@@ -144,4 +152,102 @@ public class HistoryTests extends RefineTest {
         SUT.addEntry(secondEntry);
         TestUtils.isSerializedTo(SUT, targetJson);
     }
+
+    @Test
+    public void testLongJumpsStartFromCheckpoints() {
+        System.setProperty(History.CHECKPOINT_INTERVAL_PROPERTY, "2");
+        try {
+            Project project = createProject(new String[] { "a" }, new Serializable[][] { { 0L } });
+            when(projectManager.getProject(Mockito.anyLong())).thenReturn(project);
+            when(projectManager.getLookupCacheManager()).thenReturn(mock(LookupCacheManager.class));
+            SUT = new History(project);
+
+            List<HistoryEntry> entries = new ArrayList<>();
+            for (long i = 1; i <= 10; i++) {
+                HistoryEntry entry = new HistoryEntry(i, project, "set " + i, null, new SetValueChange(i));
+                entries.add(entry);
+                SUT.addEntry(entry);
+            }
+            // snapshots of the initial state and after every other entry
+            Assert.assertEquals(SUT.getCheckpointRowCount(), 6);
+
+            changeCount = 0;
+            SUT.undoRedo(entries.get(0).id);
+            Assert.assertEquals(project.rows.get(0).getCellValue(0), 1L);
+            Assert.assertEquals(SUT.getLastPastEntries(0).size(), 1);
+            Assert.assertEquals(changeCount, 1);
+
+            SUT.undoRedo(entries.get(9).id);
+            Assert.assertEquals(project.rows.get(0).getCellValue(0), 10L);
+            Assert.assertEquals(SUT.getLastPastEntries(0).size(), 10);
+            Assert.assertEquals(changeCount, 1);
+
+            SUT.undoRedo(entries.get(7).id);
+            Assert.assertEquals(project.rows.get(0).getCellValue(0), 8L);
+            Assert.assertEquals(changeCount, 3);
+
+            SUT.undoRedo(0);
+            Assert.assertEquals(project.rows.get(0).getCellValue(0), 0L);
+            Assert.assertEquals(SUT.getLastPastEntries(0).size(), 0);
+        } finally {
+            System.clearProperty(History.CHECKPOINT_INTERVAL_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testCheckpointsOfClearedEntriesAreDropped() {
+        System.setProperty(History.CHECKPOINT_INTERVAL_PROPERTY, "2");
+        try {
+            Project project = createProject(new String[] { "a" }, new Serializable[][] { { 0L } });
+            when(projectManager.getProject(Mockito.anyLong())).thenReturn(project);
+            when(projectManager.getLookupCacheManager()).thenReturn(mock(LookupCacheManager.class));
+            SUT = new History(project);
+
+            for (long i = 1; i <= 10; i++) {
+                SUT.addEntry(new HistoryEntry(i, project, "set " + i, null, new SetValueChange(i)));
+            }
+            SUT.undoRedo(1);
+            HistoryEntry entry = new HistoryEntry(42, project, "set 42", null, new SetValueChange(42));
+            SUT.addEntry(entry);
+            Assert.assertEquals(SUT.getCheckpointRowCount(), 2);
+
+            SUT.undoRedo(0);
+            SUT.undoRedo(entry.id);
+            Assert.assertEquals(project.rows.get(0).getCellValue(0), 42L);
+        } finally {
+            System.clearProperty(History.CHECKPOINT_INTERVAL_PROPERTY);
+        }
+    }
+
+    int changeCount;
+
+    /**
+     * Sets the value of the first cell, counting how many times changes are applied or reverted.
+     */
+    class SetValueChange implements Change {
+
+        final long _value;
+        Cell _oldCell;
+
+        SetValueChange(long value) {
+            _value = value;
+        }
+
+        @Override
+        public void apply(Project project) {
+            changeCount++;
+            _oldCell = project.rows.get(0).getCell(0);
+            project.rows.get(0).setCell(0, new Cell(_value, null));
+        }
+
+        @Override
+        public void revert(Project project) {
+            changeCount++;
+            project.rows.get(0).setCell(0, _oldCell);
+        }
+
+        @Override
+        public void save(Writer writer, Properties options) {
+        }
+    }
 }
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.TestUtils;
+
+public class ProjectJournalTests {
+
+    FileProjectManager manager;
+    Project project;
+    File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        manager = new FileProjectManager(TestUtils.createTempDirectory("openrefine-test-journal"));
+        ProjectManager.singleton = manager;
+        System.setProperty(ProjectJournal.JOURNAL_PROPERTY, "true");
+
+        project = new Project();
+        project.columnModel.addColumn(0, new Column(0, "a"), false);
+        // large enough for journaled changes to be cheap to replay compared to the data file
+        for (int i = 0; i != 1000; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("value " + i, null));
+            project.rows.add(row);
+        }
+        project.update();
+        ProjectMetadata metadata = new ProjectMetadata();
+        metadata.setName("journal");
+        manager.registerProject(project, metadata);
+        dir = manager.getProjectDir(project.id);
+        dir.mkdirs();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty(ProjectJournal.JOURNAL_PROPERTY);
+        System.clearProperty(ProjectJournal.MAX_OPERATIONS_PROPERTY);
+        ProjectManager.singleton = null;
+    }
+
+    private void setCell(int row, String value) {
+        setCell(project, row, value);
+    }
+
+    private void setCell(Project project, int row, String value) {
+        Cell oldCell = project.rows.get(row).getCell(0);
+        CellChange change = new CellChange(row, 0, oldCell, new Cell(value, null));
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Set cell", null, change));
+    }
+
+    private Project reload() {
+        return ProjectUtilities.load(dir, project.id);
+    }
+
+    @Test
+    public void testOperationsAreAppendedAndReplayed() throws IOException {
+        ProjectUtilities.save(project);
+        File dataFile = new File(dir, ProjectUtilities.DATA_ZIP);
+        long checkpointModified = dataFile.lastModified();
+        long checkpointLength = dataFile.length();
+
+        setCell(1, "changed");
+        ProjectUtilities.save(project);
+        setCell(2, "changed too");
+        project.history.undoRedo(project.history.getLastPastEntries(2).get(0).id);
+        ProjectUtilities.save(project);
+
+        // the checkpoint is left untouched
+        assertTrue(new File(dir, ProjectJournal.JOURNAL).exists());
+        assertEquals(dataFile.lastModified(), checkpointModified);
+        assertEquals(dataFile.length(), checkpointLength);
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(1).getCellValue(0), "changed");
+        assertEquals(loaded.rows.get(2).getCellValue(0), "value 2");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+    }
+
+    @Test
+    public void testJournalIsCompacted() throws IOException {
+        System.setProperty(ProjectJournal.MAX_OPERATIONS_PROPERTY, "1");
+        ProjectUtilities.save(project);
+
+        setCell(0, "first");
+        ProjectUtilities.save(project);
+        assertTrue(new File(dir, ProjectJournal.JOURNAL).exists());
+
+        setCell(0, "second");
+        ProjectUtilities.save(project);
+        assertFalse(new File(dir, ProjectJournal.JOURNAL).exists());
+        assertTrue(project.history.getJournal().isEmpty());
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "second");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 2);
+    }
+
+    @Test
+    public void testStaleJournalIsIgnored() throws IOException {
+        ProjectUtilities.save(project);
+        setCell(0, "first");
+        ProjectUtilities.save(project);
+        File journal = new File(dir, ProjectJournal.JOURNAL);
+        File staleJournal = new File(dir, "stale.journal");
+        Files.copy(journal.toPath(), staleJournal.toPath());
+
+        // a full save compacts the journal
+        System.clearProperty(ProjectJournal.JOURNAL_PROPERTY);
+        setCell(0, "second");
+        ProjectUtilities.save(project);
+        assertFalse(journal.exists());
+
+        // as if the save had been interrupted before deleting the journal
+        Files.move(staleJournal.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "second");
+        assertEquals(loaded.history.getLastPastEntries(0).size(), 2);
+    }
+
+    @Test
+    public void testJournalFailingToReplayIsSetAside() throws IOException {
+        ProjectUtilities.save(project);
+        setCell(0, "first");
+        ProjectUtilities.save(project);
+        File journal = new File(dir, ProjectJournal.JOURNAL);
+        Files.write(journal.toPath(), "not an operation\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "value 0");
+        assertFalse(journal.exists());
+        assertTrue(new File(dir, ProjectJournal.FAILED_JOURNAL).exists());
+
+        // the next save writes a new checkpoint rather than appending after the failing line
+        manager.registerProject(loaded, manager.getProjectMetadata(project.id));
+        setCell(loaded, 1, "second");
+        ProjectUtilities.save(loaded);
+        assertFalse(journal.exists());
+        assertEquals(reload().rows.get(1).getCellValue(0), "second");
+
+        setCell(loaded, 2, "third");
+        ProjectUtilities.save(loaded);
+        assertTrue(journal.exists());
+
+        Project reloaded = reload();
+        assertEquals(reloaded.rows.get(1).getCellValue(0), "second");
+        assertEquals(reloaded.rows.get(2).getCellValue(0), "third");
+    }
+
+    @Test
+    public void testJournalModifiedSinceLoadIsNotAppendedTo() throws IOException {
+        ProjectUtilities.save(project);
+        setCell(0, "first");
+        ProjectUtilities.save(project);
+        File journal = new File(dir, ProjectJournal.JOURNAL);
+        // as if it had been partially written
+        Files.write(journal.toPath(), "entry=".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        setCell(1, "second");
+        ProjectUtilities.save(project);
+        assertFalse(journal.exists());
+
+        Project loaded = reload();
+        assertEquals(loaded.rows.get(0).getCellValue(0), "first");
+        assertEquals(loaded.rows.get(1).getCellValue(0), "second");
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+
+public class BinarySnapshotTests extends RefineTest {
+
+    private Project roundTrip(Project project) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveToBinaryOutputStream(out);
+        return Project.loadFromBinaryInputStream(new ByteArrayInputStream(out.toByteArray()), project.id);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Recon recon = testRecon("e", "Q1", Recon.Judgment.Matched);
+        Project project = createProject(new String[] { "a", "b", "c" },
+                new Serializable[][] {
+                        { "foo", 12L, 3.5 },
+                        { null, true, OffsetDateTime.parse("2020-01-02T03:04:05.678Z") },
+                        { new Cell("bar", recon), new Cell("baz", recon), new EvalError("error") },
+                        { "foo", -7, Double.NaN },
+                });
+        project.rows.get(1).flagged = true;
+        project.rows.get(2).starred = true;
+
+        Project loaded = roundTrip(project);
+
+        assertProjectEquals(loaded, project);
+        assertEquals(loaded.columnModel.getMaxCellIndex(), project.columnModel.getMaxCellIndex());
+        assertTrue(loaded.rows.get(1).flagged);
+        assertFalse(loaded.rows.get(1).starred);
+        assertTrue(loaded.rows.get(2).starred);
+        assertTrue(loaded.rows.get(2).cells.get(2).value instanceof EvalError);
+        assertEquals(loaded.rows.get(3).cells.get(1).value, -7);
+        // cells sharing a recon still share it after loading
+        assertSame(loaded.rows.get(2).cells.get(0).recon, loaded.rows.get(2).cells.get(1).recon);
+    }
+
+    @Test
+    public void testRoundTripManyChunks() throws IOException {
+        Serializable[][] grid = new Serializable[3 * BinarySnapshot.CHUNK_SIZE + 5][];
+        for (int i = 0; i != grid.length; i++) {
+            grid[i] = new Serializable[] { "value " + (i % 10), (long) i };
+        }
+        Project project = createProject(new String[] { "a", "b" }, grid);
+
+        assertProjectEquals(roundTrip(project), project);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectInvalidFile() throws IOException {
+        Project.loadFromBinaryInputStream(new ByteArrayInputStream("1.0\ncolumnModel=\n".getBytes()), 1234L);
+    }
+
+    @Test
+    public void testRejectInvalidChunkRowCount() throws IOException {
+        Project project = createProject(new String[] { "a" },
+                new Serializable[][] { { "foo" }, { "bar" }, { "baz" } });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        project.saveToBinaryOutputStream(out);
+        byte[] bytes = out.toByteArray();
+        // the row count of the project, followed by that of its only chunk
+        byte[] counts = { 0, 0, 0, 3, 0, 0, 0, 3 };
+        int offset = -1;
+        for (int i = 0; offset < 0 && i + counts.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + counts.length, counts, 0, counts.length)) {
+                offset = i + 4;
+            }
+        }
+        assertTrue(offset > 0);
+
+        for (int chunkRowCount : new int[] { 0, -1, 4 }) {
+            byte[] corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).putInt(offset, chunkRowCount);
+            assertThrows(IOException.class,
+                    () -> Project.loadFromBinaryInputStream(new ByteArrayInputStream(corrupted), project.id));
+        }
+    }
+}
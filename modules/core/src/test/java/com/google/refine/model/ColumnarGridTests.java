@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.expr.EvalError;
+
+public class ColumnarGridTests {
+
+    private static Row row(Object... values) {
+        Row row = new Row(values.length);
+        for (int i = 0; i != values.length; i++) {
+            if (values[i] instanceof Cell) {
+                row.setCell(i, (Cell) values[i]);
+            } else if (values[i] != null) {
+                row.setCell(i, new Cell((java.io.Serializable) values[i], null));
+            } else {
+                row.cells.add(null);
+            }
+        }
+        return row;
+    }
+
+    private static List<Object> values(Row row) {
+        List<Object> values = new ArrayList<>();
+        for (Cell cell : row.cells) {
+            values.add(cell == null ? null : cell.value);
+        }
+        return values;
+    }
+
+    @Test
+    public void testRoundTripValues() {
+        OffsetDateTime date = OffsetDateTime.parse("2021-03-04T05:06:07Z");
+        Recon recon = new Recon(1234L, null, null);
+        Row original = row("a", 12L, 3.5, true, date, new EvalError("oops"), null, new Cell(null, null),
+                new Cell("b", recon), 7);
+        original.starred = true;
+
+        ColumnarGrid grid = new ColumnarGrid();
+        grid.add(original);
+
+        Row decoded = grid.get(0);
+        assertEquals(decoded.cells.size(), original.cells.size());
+        assertEquals(values(decoded).subList(0, 5), Arrays.asList("a", 12L, 3.5, true, date));
+        assertTrue(decoded.cells.get(5).value instanceof EvalError);
+        assertNull(decoded.cells.get(6));
+        assertNull(decoded.cells.get(7).value);
+        assertSame(decoded.cells.get(8).recon, recon);
+        assertEquals(decoded.cells.get(9).value, 7);
+        assertTrue(decoded.starred);
+        assertFalse(decoded.flagged);
+    }
+
+    @Test
+    public void testStringsAreDictionaryEncoded() {
+        ColumnarGrid grid = new ColumnarGrid();
+        for (int i = 0; i != 10000; i++) {
+            grid.add(row("value " + (i % 3)));
+        }
+        assertEquals(grid.getDictionarySize(0), 3);
+        assertSame(grid.get(1).cells.get(0), grid.get(4).cells.get(0));
+    }
+
+    @Test
+    public void testCellChangesAreWrittenThrough() {
+        ColumnarGrid grid = new ColumnarGrid();
+        grid.add(row("a", "b"));
+        grid.add(row("c"));
+
+        grid.get(0).setCell(1, new Cell("d", null));
+        grid.get(1).setCell(3, new Cell(5L, null));
+
+        // decode again, bypassing the cache of decoded rows
+        for (int i = 0; i != 5000; i++) {
+            grid.add(row("filler"));
+        }
+        assertEquals(values(grid.get(0)), Arrays.asList("a", "d"));
+        assertEquals(values(grid.get(1)), Arrays.asList("c", null, null, 5L));
+    }
+
+    @Test
+    public void testFlagsAreWrittenThrough() {
+        ColumnarGrid grid = new ColumnarGrid();
+        for (int i = 0; i != 5000; i++) {
+            grid.add(row(i));
+        }
+        Row third = grid.get(3);
+        grid.get(4000).setStarred(true);
+        // evict both rows from the cache of decoded rows, as concurrent readers would
+        for (int i = 0; i != grid.size(); i++) {
+            grid.get(i);
+        }
+        third.setFlagged(true);
+
+        assertTrue(grid.get(3).flagged);
+        assertFalse(grid.get(3).starred);
+        assertTrue(grid.get(4000).starred);
+        assertFalse(grid.get(4001).starred);
+
+        grid.get(4000).setStarred(false);
+        assertFalse(grid.get(4000).starred);
+    }
+
+    @Test
+    public void testFlagsOfDetachedRowsAreNotWritten() {
+        ColumnarGrid grid = new ColumnarGrid();
+        for (int i = 0; i != 10; i++) {
+            grid.add(row(i));
+        }
+        Row removed = grid.remove(3);
+
+        removed.setStarred(true);
+
+        for (int i = 0; i != grid.size(); i++) {
+            assertFalse(grid.get(i).starred);
+        }
+        assertTrue(removed.starred);
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        ColumnarGrid grid = new ColumnarGrid();
+        List<Row> reference = new ArrayList<>();
+        for (int i = 0; i != 10000; i++) {
+            Row row = i % 7 == 0 ? row("x" + i) : row((long) i, "y" + (i % 5));
+            row.flagged = i % 3 == 0;
+            grid.add(row);
+            reference.add(row);
+        }
+
+        Row removed = grid.remove(42);
+        assertEquals(values(removed), values(reference.remove(42)));
+        grid.subList(100, 5000).clear();
+        reference.subList(100, 5000).clear();
+        grid.add(7, reference.get(0));
+        reference.add(7, reference.get(0));
+        grid.addAll(3, reference.subList(10, 20));
+        reference.addAll(3, new ArrayList<>(reference.subList(10, 20)));
+
+        assertEquals(grid.size(), reference.size());
+        for (int i = 0; i != reference.size(); i++) {
+            assertEquals(values(grid.get(i)), values(reference.get(i)), "row " + i);
+            assertEquals(grid.get(i).flagged, reference.get(i).flagged, "row " + i);
+        }
+    }
+
+    @Test
+    public void testRowsAreDetachedByStructuralChanges() {
+        ColumnarGrid grid = new ColumnarGrid();
+        grid.add(row("a"));
+        grid.add(row("b"));
+
+        Row first = grid.get(0);
+        grid.remove(0);
+        first.setCell(0, new Cell("changed", null));
+
+        assertEquals(grid.size(), 1);
+        assertEquals(grid.get(0).cells.get(0).value, "b");
+    }
+
+    @Test
+    public void testProjectUsesColumnarStorage() {
+        System.setProperty(ColumnarGrid.STORAGE_PROPERTY, ColumnarGrid.COLUMNAR_STORAGE);
+        try {
+            Project project = new Project();
+            assertTrue(project.rows instanceof ColumnarGrid);
+        } finally {
+            System.clearProperty(ColumnarGrid.STORAGE_PROPERTY);
+        }
+        assertFalse(new Project().rows instanceof ColumnarGrid);
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.util.Pool;
+
+public class OrderedRowLoaderTests extends RefineTest {
+
+    @Test
+    public void testBatchesAreAppendedInOrder() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        OrderedRowLoader loader = new OrderedRowLoader(rows);
+        for (int b = 0; b != 50; b++) {
+            int batch = b;
+            loader.submit(() -> {
+                // make early batches slower so that they complete out of order
+                Thread.sleep(batch % 5);
+                List<Row> parsed = new ArrayList<>();
+                for (int i = 0; i != 10; i++) {
+                    Row row = new Row(batch);
+                    for (int c = 0; c <= batch; c++) {
+                        row.setCell(c, new Cell(batch * 10 + i, null));
+                    }
+                    parsed.add(row);
+                }
+                return parsed;
+            });
+        }
+
+        assertEquals(loader.finish(), 50);
+        assertEquals(rows.size(), 500);
+        for (int i = 0; i != rows.size(); i++) {
+            assertEquals(rows.get(i).cells.get(0).value, i);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testFailuresArePropagated() throws IOException {
+        OrderedRowLoader loader = new OrderedRowLoader(new ArrayList<>());
+        loader.submit(() -> Collections.emptyList());
+        loader.submit(() -> {
+            throw new IOException("invalid row");
+        });
+        loader.finish();
+    }
+
+    @Test
+    public void testLoadManyBatches() throws IOException {
+        Serializable[][] grid = new Serializable[3 * Project.ROW_BATCH_SIZE + 5][];
+        for (int i = 0; i != grid.length; i++) {
+            grid[i] = new Serializable[] { "value " + i, "other " + (i % 7) };
+        }
+        Project project = createProject(new String[] { "a", "b" }, grid);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Pool pool = new Pool();
+        project.saveToOutputStream(out, pool);
+        Project loaded = Project.loadFromInputStream(new ByteArrayInputStream(out.toByteArray()), project.id, pool);
+
+        assertProjectEquals(loaded, project);
+    }
+}
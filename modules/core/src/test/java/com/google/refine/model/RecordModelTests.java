@@ -27,11 +27,24 @@
 
 package com.google.refine.model;
 
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
+import com.google.refine.history.Change;
+import com.google.refine.model.RecordModel.RowDependency;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+import com.google.refine.model.changes.RowAdditionChange;
+import com.google.refine.model.changes.RowRemovalChange;
 import com.google.refine.util.TestUtils;
 
 public class RecordModelTests extends RefineTest {
@@ -46,4 +59,109 @@ public class RecordModelTests extends RefineTest {
                 });
         TestUtils.isSerializedTo(proj.recordModel, "{\"hasRecords\":true}");
     }
+
+    /**
+     * Checks that the records of a project, as maintained by incremental updates, are the same as the ones computed
+     * from scratch.
+     */
+    static public void assertConsistent(Project project) {
+        RecordModel expected = new RecordModel();
+        expected.update(project);
+        RecordModel actual = project.recordModel;
+
+        assertEquals(actual.getRecordCount(), expected.getRecordCount());
+        for (int i = 0; i < expected.getRecordCount(); i++) {
+            Record record = actual.getRecord(i);
+            Record expectedRecord = expected.getRecord(i);
+            assertEquals(record.fromRowIndex, expectedRecord.fromRowIndex, "start of record " + i);
+            assertEquals(record.toRowIndex, expectedRecord.toRowIndex, "end of record " + i);
+            assertEquals(record.recordIndex, i);
+        }
+        for (int r = 0; r < project.rows.size(); r++) {
+            RowDependency rowDependency = actual.getRowDependency(r);
+            RowDependency expectedDependency = expected.getRowDependency(r);
+            assertEquals(rowDependency.toString(), expectedDependency.toString(), "dependencies of row " + r);
+        }
+        assertNull(actual.getRowDependency(project.rows.size()));
+        assertEquals(actual.hasRecords(), expected.hasRecords());
+    }
+
+    private Project createRandomProject(Random random, int rowCount) {
+        Serializable[][] grid = new Serializable[rowCount][];
+        for (int r = 0; r < rowCount; r++) {
+            grid[r] = new Serializable[] { randomValue(random, 0.3), randomValue(random, 0.5), randomValue(random, 0.5),
+                    randomValue(random, 0.5) };
+        }
+        Project project = createProject(new String[] { "key", "a", "b", "c" }, grid);
+        // column "a" is the key of columns "b" and "c"
+        project.columnModel.addColumnGroup(1, 3, 1);
+        project.update();
+        return project;
+    }
+
+    private String randomValue(Random random, double nonBlankRatio) {
+        return random.nextDouble() < nonBlankRatio ? "v" + random.nextInt(100) : (random.nextBoolean() ? null : "");
+    }
+
+    @Test
+    public void testUpdateRowsAfterCellChanges() {
+        Random random = new Random(1234);
+        Project project = createRandomProject(random, 200);
+        assertConsistent(project);
+
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            List<CellChange> cellChanges = new ArrayList<>();
+            int row = random.nextInt(project.rows.size());
+            // changes to a few neighbouring rows, or to the rows of several records
+            int step = random.nextBoolean() ? 1 : 1 + random.nextInt(50);
+            for (int r = row; r < project.rows.size() && cellChanges.size() < 4; r += step) {
+                int cellIndex = random.nextInt(4);
+                String value = randomValue(random, 0.5);
+                cellChanges.add(new CellChange(r, cellIndex, project.rows.get(r).getCell(cellIndex),
+                        value == null ? null : new Cell(value, null)));
+            }
+            Change change = new MassCellChange(cellChanges, null, true);
+            change.apply(project);
+            changes.add(change);
+            assertConsistent(project);
+        }
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            changes.get(i).revert(project);
+            assertConsistent(project);
+        }
+    }
+
+    @Test
+    public void testUpdateRowsAfterRowInsertionsAndRemovals() {
+        Random random = new Random(5678);
+        Project project = createRandomProject(random, 100);
+
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Change change;
+            if (random.nextBoolean() && project.rows.size() > 10) {
+                int first = random.nextInt(project.rows.size() - 5);
+                change = new RowRemovalChange(Arrays.asList(first, first + 1 + random.nextInt(4)));
+            } else {
+                List<Row> rows = new ArrayList<>();
+                for (int r = random.nextInt(3); r >= 0; r--) {
+                    Row row = new Row(4);
+                    for (int c = 0; c < 4; c++) {
+                        String value = randomValue(random, c == 0 ? 0.3 : 0.5);
+                        row.setCell(c, value == null ? null : new Cell(value, null));
+                    }
+                    rows.add(row);
+                }
+                change = new RowAdditionChange(rows, random.nextInt(project.rows.size() + 1));
+            }
+            change.apply(project);
+            changes.add(change);
+            assertConsistent(project);
+        }
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            changes.get(i).revert(project);
+            assertConsistent(project);
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RowSplicerTests {
+
+    @DataProvider(name = "storages")
+    public Object[][] storages() {
+        return new Object[][] { { false }, { true } };
+    }
+
+    private static List<Row> rows(boolean columnar, int count) {
+        List<Row> rows = columnar ? new ColumnarGrid() : new ArrayList<>();
+        for (int i = 0; i != count; i++) {
+            Row row = new Row(2);
+            row.setCell(0, new Cell((long) i, null));
+            row.setCell(1, new Cell("row " + i, null));
+            row.flagged = i % 3 == 0;
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Long> ids(List<Row> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (Row row : rows) {
+            ids.add((Long) row.getCellValue(0));
+        }
+        return ids;
+    }
+
+    @Test(dataProvider = "storages")
+    public void testRemoveAndInsert(boolean columnar) {
+        // spans several chunks of the columnar grid
+        int count = 3 * ColumnarGrid.CHUNK_SIZE + 17;
+        List<Row> rows = rows(columnar, count);
+        Random random = new Random(42);
+        List<Integer> indices = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i != count; i++) {
+            if (random.nextInt(4) == 0 || i == 0 || i == count - 1) {
+                indices.add(i);
+            } else {
+                expected.add((long) i);
+            }
+        }
+        int[] array = RowSplicer.toArray(indices);
+
+        List<Row> removed = RowSplicer.removeRows(rows, array);
+
+        assertEquals(ids(rows), expected);
+        assertEquals(removed.size(), indices.size());
+        for (int i = 0; i != removed.size(); i++) {
+            assertEquals(removed.get(i).getCellValue(0), (long) indices.get(i));
+        }
+
+        RowSplicer.insertRows(rows, array, removed);
+
+        assertEquals(ids(rows), ids(rows(false, count)));
+        for (int i = 0; i != count; i++) {
+            assertEquals(rows.get(i).getCellValue(1), "row " + i);
+            assertEquals(rows.get(i).flagged, i % 3 == 0);
+        }
+    }
+
+    @Test(dataProvider = "storages")
+    public void testRemoveAndInsertKeepFlagsSetOnRows(boolean columnar) {
+        List<Row> rows = rows(columnar, 10);
+        // as done by RowStarChange and RowFlagChange
+        rows.get(3).setStarred(true);
+        rows.get(5).setFlagged(true);
+        int[] indices = { 3, 5 };
+
+        List<Row> removed = RowSplicer.removeRows(rows, indices);
+
+        assertTrue(removed.get(0).starred);
+        assertTrue(removed.get(1).flagged);
+
+        RowSplicer.insertRows(rows, indices, removed);
+
+        assertTrue(rows.get(3).starred);
+        assertTrue(rows.get(5).flagged);
+        assertFalse(rows.get(4).starred);
+        assertEquals(ids(rows), ids(rows(false, 10)));
+    }
+
+    @Test(dataProvider = "storages")
+    public void testInsertAtEnd(boolean columnar) {
+        List<Row> rows = rows(columnar, 3);
+        List<Row> inserted = new ArrayList<>(rows(false, 5).subList(3, 5));
+
+        RowSplicer.insertRows(rows, new int[] { 3, 4 }, inserted);
+
+        assertEquals(ids(rows), List.of(0L, 1L, 2L, 3L, 4L));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectUnsortedIndices() {
+        RowSplicer.removeRows(rows(false, 5), new int[] { 3, 1 });
+    }
+}
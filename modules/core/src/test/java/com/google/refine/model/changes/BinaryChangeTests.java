@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.changes;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.History;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ColumnGroup;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+public class BinaryChangeTests extends RefineTest {
+
+    static final private String[] COLUMNS = { "a", "b", "c" };
+
+    Project project;
+    Recon recon;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject(COLUMNS, grid());
+        recon = testRecon("e", "Q1", Recon.Judgment.Matched);
+    }
+
+    private Serializable[][] grid() {
+        return new Serializable[][] {
+                { "foo", 12L, 3.5 },
+                { null, true, "bar" },
+                { "foo", -7, "baz" },
+                { "", 1.0, null },
+        };
+    }
+
+    private Change roundTrip(BinaryChange change) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Pool pool = new Pool();
+        History.writeOneBinaryChange(out, change, pool);
+
+        ByteArrayOutputStream poolOut = new ByteArrayOutputStream();
+        pool.save(poolOut);
+        Pool loadedPool = new Pool();
+        loadedPool.load(new ByteArrayInputStream(poolOut.toByteArray()));
+
+        Change loaded = History.readOneBinaryChange(new ByteArrayInputStream(out.toByteArray()), loadedPool);
+        assertSame(loaded.getClass(), change.getClass());
+        return loaded;
+    }
+
+    private int textSize(Change change) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        History.writeOneChange(out, change, new Pool());
+        return out.size();
+    }
+
+    private int binarySize(BinaryChange change) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        History.writeOneBinaryChange(out, change, new Pool());
+        return out.size();
+    }
+
+    @Test
+    public void testMassCellChange() throws Exception {
+        List<CellChange> cellChanges = new ArrayList<>();
+        cellChanges.add(new CellChange(0, 0, project.rows.get(0).getCell(0), new Cell("foo", recon)));
+        cellChanges.add(new CellChange(2, 0, project.rows.get(2).getCell(0), new Cell("foo", recon)));
+        cellChanges.add(new CellChange(3, 2, null, new Cell(42L, null)));
+        MassCellChange change = new MassCellChange(cellChanges, null, false);
+        change.apply(project);
+
+        Change loaded = roundTrip(change);
+
+        Project applied = createProject(COLUMNS, grid());
+        change.apply(applied);
+        loaded.revert(project);
+        assertProjectEquals(project, createProject(COLUMNS, grid()));
+        loaded.apply(project);
+        assertProjectEquals(project, applied);
+        assertEquals(project.rows.get(2).getCell(0).recon.id, recon.id);
+    }
+
+    @Test
+    public void testMassCellChangeIsSmallerThanText() throws Exception {
+        List<CellChange> cellChanges = new ArrayList<>();
+        for (int i = 0; i != 1000; i++) {
+            cellChanges.add(new CellChange(i, 0, new Cell("value " + (i % 10), null), new Cell("VALUE " + (i % 10), null)));
+        }
+        MassCellChange change = new MassCellChange(cellChanges, "a", false);
+
+        assertTrue(binarySize(change) * 4 < textSize(change));
+    }
+
+    @Test
+    public void testColumnAdditionChange() throws Exception {
+        project.columnModel.addColumnGroup(0, 2, 0);
+        List<CellAtRow> newCells = new ArrayList<>();
+        newCells.add(new CellAtRow(1, new Cell("x", recon)));
+        newCells.add(new CellAtRow(3, new Cell(5L, null)));
+        ColumnAdditionChange change = new ColumnAdditionChange("d", 1, newCells);
+        change.apply(project);
+
+        Change loaded = roundTrip(change);
+
+        loaded.revert(project);
+        assertProjectEquals(project, createProject(COLUMNS, grid()));
+        assertEquals(project.columnModel.columnGroups.size(), 1);
+        ColumnGroup group = project.columnModel.columnGroups.get(0);
+        assertEquals(group.columnSpan, 2);
+        loaded.apply(project);
+        assertEquals(project.columnModel.columns.get(1).getName(), "d");
+        assertEquals(project.rows.get(3).getCellValue(project.columnModel.columns.get(1).getCellIndex()), 5L);
+    }
+
+    @Test
+    public void testColumnAdditionChangeKeepsCellIndex() throws Exception {
+        // a cell index taking several bytes
+        for (int i = 0; i < 200; i++) {
+            project.columnModel.allocateNewCellIndex();
+        }
+        List<CellAtRow> newCells = new ArrayList<>();
+        newCells.add(new CellAtRow(2, new Cell("y", null)));
+        ColumnAdditionChange change = new ColumnAdditionChange("d", 0, newCells);
+        change.apply(project);
+        int cellIndex = project.columnModel.columns.get(0).getCellIndex();
+        change.revert(project);
+
+        Change loaded = roundTrip(change);
+
+        loaded.apply(project);
+        Column column = project.columnModel.columns.get(0);
+        assertEquals(column.getCellIndex(), cellIndex);
+        assertEquals(project.rows.get(2).getCellValue(cellIndex), "y");
+    }
+
+    @Test
+    public void testColumnRemovalChange() throws Exception {
+        ColumnRemovalChange change = new ColumnRemovalChange(2);
+        change.apply(project);
+
+        Change loaded = roundTrip(change);
+
+        loaded.revert(project);
+        assertProjectEquals(project, createProject(COLUMNS, grid()));
+    }
+
+    @Test
+    public void testMassRowChange() throws Exception {
+        List<Row> newRows = new ArrayList<>(project.rows);
+        Collections.reverse(newRows);
+        newRows.get(0).flagged = true;
+        MassRowChange change = new MassRowChange(newRows);
+        Project original = createProject(COLUMNS, grid());
+        change.apply(project);
+
+        Change loaded = roundTrip(change);
+
+        loaded.revert(project);
+        assertEquals(project.rows.size(), original.rows.size());
+        for (int i = 0; i != original.rows.size(); i++) {
+            assertEquals(project.rows.get(i).cells, original.rows.get(i).cells);
+        }
+        loaded.apply(project);
+        assertTrue(project.rows.get(0).flagged);
+        assertEquals(project.rows.get(0).cells, original.rows.get(3).cells);
+    }
+}
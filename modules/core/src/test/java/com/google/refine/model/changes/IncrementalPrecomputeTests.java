@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.model.changes;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.NumericBinIndex;
+import com.google.refine.browsing.util.NumericBinRowIndex;
+import com.google.refine.browsing.util.RowEvaluable;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+
+public class IncrementalPrecomputeTests extends RefineTest {
+
+    static final private Evaluable VALUE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return bindings.get("value");
+        }
+
+        @Override
+        public String getSource() {
+            return "value";
+        }
+
+        @Override
+        public String getLanguagePrefix() {
+            return "grel";
+        }
+
+        @Override
+        public Optional<Set<String>> getColumnDependencies(Optional<String> baseColumn) {
+            return Optional.of(Collections.singleton(baseColumn.get()));
+        }
+    };
+
+    // the number of rows in the record of a row, which depends on the rows after it
+    static final private Evaluable RECORD_SIZE = new Evaluable() {
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Project project = (Project) bindings.get("project");
+            Record record = project.recordModel.getRecordOfRow((Integer) bindings.get("rowIndex"));
+            return record.toRowIndex - record.fromRowIndex;
+        }
+    };
+
+    private Project project;
+    private Column column;
+    private RowEvaluable rowEvaluable;
+
+    @BeforeMethod
+    public void setUp() {
+        Serializable[][] grid = new Serializable[100][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { i % 7 == 0 ? "text" : (Serializable) i };
+        }
+        project = createProject(new String[] { "n" }, grid);
+        column = project.columnModel.getColumnByName("n");
+        rowEvaluable = new ExpressionBasedRowEvaluable("n", 0, VALUE);
+    }
+
+    private MassCellChange change(int row, Serializable newValue) {
+        Cell oldCell = project.rows.get(row).getCell(0);
+        return new MassCellChange(new CellChange(row, 0, oldCell, new Cell(newValue, null)), "n", false);
+    }
+
+    static private void assertSameIndex(NumericBinIndex actual, NumericBinIndex expected) {
+        assertEquals(actual.getMin(), expected.getMin());
+        assertEquals(actual.getMax(), expected.getMax());
+        assertEquals(actual.getStep(), expected.getStep());
+        assertEquals(actual.getBins(), expected.getBins());
+        assertEquals(actual.getNumericRowCount(), expected.getNumericRowCount());
+        assertEquals(actual.getNonNumericRowCount(), expected.getNonNumericRowCount());
+        assertEquals(actual.getBlankRowCount(), expected.getBlankRowCount());
+        assertEquals(actual.getErrorRowCount(), expected.getErrorRowCount());
+    }
+
+    @Test
+    public void testNumericIndexIsUpdated() {
+        NumericBinIndex index = new NumericBinRowIndex(project, rowEvaluable);
+        column.setPrecompute("numeric", index);
+
+        MassCellChange change = change(10, "replaced");
+        change.apply(project);
+        assertSame(column.getPrecompute("numeric"), index);
+        assertSameIndex(index, new NumericBinRowIndex(project, rowEvaluable));
+
+        change.revert(project);
+        assertSame(column.getPrecompute("numeric"), index);
+        assertSameIndex(index, new NumericBinRowIndex(project, rowEvaluable));
+
+        new CellChange(14, 0, project.rows.get(14).getCell(0), new Cell(50, null)).apply(project);
+        assertSame(column.getPrecompute("numeric"), index);
+        assertSameIndex(index, new NumericBinRowIndex(project, rowEvaluable));
+    }
+
+    @Test
+    public void testNumericIndexIsDroppedWhenBinsChange() {
+        column.setPrecompute("numeric", new NumericBinRowIndex(project, rowEvaluable));
+
+        change(99, 20).apply(project);
+
+        assertNull(column.getPrecompute("numeric"));
+    }
+
+    @Test
+    public void testGrouperIsUpdated() {
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(VALUE, "n", 0);
+        new Engine(project).getAllRows().accept(project, grouper);
+        column.setPrecompute("nominal", grouper);
+
+        change(3, "text").apply(project);
+        change(8, null).apply(project);
+
+        assertSame(column.getPrecompute("nominal"), grouper);
+        assertEquals(grouper.getChoiceValueCount("text"), Integer.valueOf(16));
+        assertEquals(grouper.getChoiceValueCount(3), Integer.valueOf(0));
+        assertEquals(grouper.choices.containsKey("3"), false);
+        assertEquals(grouper.blankCount, 1);
+    }
+
+    @Test
+    public void testOtherPrecomputesAreCleared() {
+        column.setPrecompute("other", Arrays.asList(1, 2));
+
+        change(3, 4).apply(project);
+
+        assertNull(column.getPrecompute("other"));
+    }
+
+    @Test
+    public void testLargeChangesClearPrecomputes() {
+        column.setPrecompute("numeric", new NumericBinRowIndex(project, rowEvaluable));
+        CellChange[] cellChanges = new CellChange[20];
+        for (int i = 0; i < cellChanges.length; i++) {
+            int row = 20 + i;
+            cellChanges[i] = new CellChange(row, 0, project.rows.get(row).getCell(0), new Cell(row + 1, null));
+        }
+
+        new MassCellChange(cellChanges, "n", false).apply(project);
+
+        assertNull(column.getPrecompute("numeric"));
+    }
+
+    @Test
+    public void testIndexesOfRecordExpressionsAreDropped() {
+        RowEvaluable recordEvaluable = new ExpressionBasedRowEvaluable("n", 0, RECORD_SIZE);
+        column.setPrecompute("numeric", new NumericBinRowIndex(project, recordEvaluable));
+        ExpressionNominalValueGrouper grouper = new ExpressionNominalValueGrouper(RECORD_SIZE, "n", 0);
+        new Engine(project).getAllRows().accept(project, grouper);
+        column.setPrecompute("nominal", grouper);
+
+        // row 10 joins the record of row 9, whose size changes although it is not edited
+        change(10, null).apply(project);
+
+        assertNull(column.getPrecompute("numeric"));
+        assertNull(column.getPrecompute("nominal"));
+    }
+}
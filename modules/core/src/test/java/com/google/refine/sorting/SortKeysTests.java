@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.sorting;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class SortKeysTests extends RefineTest {
+
+    @Test
+    public void testDoubles() {
+        double[] values = { 3.5, -0.0, Double.NEGATIVE_INFINITY, -2, 0.0, 1e-300, -1e300, Double.POSITIVE_INFINITY, 7 };
+        SortKeys keys = new SortKeys(values.length);
+        for (int i = 0; i < values.length; i++) {
+            keys.start(i);
+            keys.writeDouble(values[i]);
+        }
+        int[] order = keys.sort();
+        for (int i = 1; i < order.length; i++) {
+            assertEquals(Double.compare(values[order[i - 1]] + 0.0, values[order[i]] + 0.0) <= 0, true);
+        }
+        // both zeros are equal, so they keep their order
+        assertEquals(order[3], 1);
+        assertEquals(order[4], 4);
+    }
+
+    @Test
+    public void testInvertedStrings() {
+        String[] values = { "ab", "b", "abc", "a\u0000", "a" };
+        SortKeys keys = new SortKeys(0);
+        for (int i = 0; i < values.length; i++) {
+            keys.start(i);
+            keys.setInverted(true);
+            keys.writeBytes(values[i].getBytes(StandardCharsets.UTF_8));
+            keys.setInverted(false);
+            // a second criterion must not change the order of different strings
+            keys.writeByte(values.length - i);
+        }
+        assertEquals(keys.sort(), new int[] { 1, 2, 0, 3, 4 });
+    }
+
+    @Test
+    public void testStableSort() {
+        Random rnd = new Random(42);
+        int count = 100000;
+        long[] values = new long[count];
+        SortKeys keys = new SortKeys(16);
+        for (int i = 0; i < count; i++) {
+            values[i] = rnd.nextInt(1000) - 500;
+            keys.start(i);
+            keys.writeSignedLong(values[i]);
+            if (i % 3 == 0) {
+                keys.writeByte(0);
+            }
+        }
+        Integer[] expected = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            expected[i] = i;
+        }
+        Arrays.sort(expected, Comparator.<Integer> comparingLong(i -> values[i]).thenComparing(i -> i % 3 == 0));
+        int[] order = keys.sort();
+        for (int i = 0; i < count; i++) {
+            assertEquals(order[i], expected[i].intValue());
+        }
+    }
+
+    @Test
+    public void testSortWithLimit() {
+        Random rnd = new Random(42);
+        SortKeys keys = new SortKeys(16);
+        for (int i = 0; i < 10000; i++) {
+            keys.start(i);
+            keys.writeDouble(rnd.nextInt(100));
+        }
+        int[] sorted = keys.sort();
+        for (int limit : new int[] { 0, 1, 10, 250, 9999, 20000 }) {
+            assertEquals(keys.sort(limit), Arrays.copyOf(sorted, Math.min(limit, sorted.length)));
+        }
+    }
+
+    @Test
+    public void testSpilledKeys() {
+        Random rnd = new Random(42);
+        SortKeys inMemory = new SortKeys(16);
+        SortKeys spilled = new SortKeys(16, 4096);
+        for (int i = 0; i < 10000; i++) {
+            byte[] bytes = ("value " + rnd.nextInt(500)).getBytes(StandardCharsets.UTF_8);
+            for (SortKeys keys : new SortKeys[] { inMemory, spilled }) {
+                keys.start(i);
+                keys.writeBytes(bytes);
+            }
+        }
+        assertTrue(spilled.isSpilled());
+        assertFalse(inMemory.isSpilled());
+        assertEquals(spilled.size(), 10000);
+
+        int[] sorted = inMemory.sort();
+        assertEquals(spilled.sort(), sorted);
+        assertFalse(spilled.isSpilled());
+
+        SortKeys limited = new SortKeys(16, 4096);
+        for (int i = 0; i < 1000; i++) {
+            limited.start(i);
+            limited.writeSignedLong(-i / 2);
+        }
+        int[] expected = new int[10];
+        for (int i = 0; i < 10; i++) {
+            expected[i] = 998 + (i % 2) - 2 * (i / 2);
+        }
+        assertEquals(limited.sort(10), expected);
+    }
+
+    @Test
+    public void testClosingDeletesSpilledKeys() throws IOException {
+        Set<Path> existingRuns = listRuns();
+        SortKeys keys = new SortKeys(16, 4096);
+        for (int i = 0; i < 1000; i++) {
+            keys.start(i);
+            keys.writeSignedLong(i);
+        }
+        Set<Path> runs = listRuns();
+        runs.removeAll(existingRuns);
+        assertTrue(keys.isSpilled());
+        assertFalse(runs.isEmpty());
+
+        keys.close();
+        assertFalse(keys.isSpilled());
+        for (Path run : runs) {
+            assertFalse(Files.exists(run));
+        }
+    }
+
+    private Set<Path> listRuns() throws IOException {
+        Set<Path> runs = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(System.getProperty("java.io.tmpdir")),
+                "refine-sort-*.run")) {
+            stream.forEach(runs::add);
+        }
+        return runs;
+    }
+
+    @Test
+    public void testSortingRowVisitor() throws IOException {
+        Project project = createProject(new String[] { "s", "n" },
+                new Serializable[][] {
+                        { "b", 1 },
+                        { null, 2 },
+                        { "A", 3 },
+                        { "a", 1 },
+                        { "B", "x" },
+                        { "c", null },
+                });
+        SortingConfig sorting = SortingConfig.reconstruct("{\"criteria\":["
+                + "{\"column\":\"s\",\"valueType\":\"string\",\"reverse\":true,\"blankPosition\":-1,\"errorPosition\":2},"
+                + "{\"column\":\"n\",\"valueType\":\"number\",\"reverse\":false,\"blankPosition\":-1,\"errorPosition\":-2}]}");
+
+        assertEquals(sortRows(project, sorting), Arrays.asList(1, 5, 4, 0, 3, 2));
+    }
+
+    @Test
+    public void testEqualPositions() throws IOException {
+        Project project = createProject(new String[] { "s", "n" },
+                new Serializable[][] {
+                        { "b", 1 },
+                        { null, 2 },
+                        { "a", 3 },
+                        { null, 1 },
+                        { "c", 0 },
+                });
+        // blanks at the same position as values come right after them, sorted by the next criterion
+        SortingConfig sorting = SortingConfig.reconstruct("{\"criteria\":["
+                + "{\"column\":\"s\",\"valueType\":\"string\",\"reverse\":false,\"blankPosition\":0,\"errorPosition\":0},"
+                + "{\"column\":\"n\",\"valueType\":\"number\",\"reverse\":false,\"blankPosition\":2,\"errorPosition\":1}]}");
+
+        assertEquals(sortRows(project, sorting), Arrays.asList(2, 0, 4, 3, 1));
+    }
+
+    private List<Integer> sortRows(Project project, SortingConfig sorting) {
+        List<Integer> rowIndices = new ArrayList<>();
+        SortingRowVisitor srv = new SortingRowVisitor(new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        srv.initializeFromConfig(project, sorting);
+        new Engine(project).getAllRows().accept(project, srv);
+        return rowIndices;
+    }
+}
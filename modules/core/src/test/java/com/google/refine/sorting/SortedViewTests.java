@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (C) 2025, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+
+package com.google.refine.sorting;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RecordVisitor;
+import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.FacetConfig;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+
+public class SortedViewTests extends RefineTest {
+
+    static final String SORTING = "{\"criteria\":[{\"column\":\"n\",\"valueType\":\"number\",\"reverse\":false,"
+            + "\"blankPosition\":2,\"errorPosition\":1}]}";
+
+    // a facet config which does not declare itself deterministic, matching all rows
+    static private class NonDeterministicFacetConfig implements FacetConfig {
+
+        @Override
+        public Facet apply(Project project) {
+            return mock(Facet.class);
+        }
+
+        @Override
+        public String getJsonType() {
+            return "non-deterministic";
+        }
+    }
+
+    @Test
+    public void testRowView() throws IOException {
+        Serializable[][] grid = new Serializable[50][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "k" + i, (i * 37) % 50 };
+        }
+        Project project = createProject(new String[] { "key", "n" }, grid);
+        Engine engine = new Engine(project);
+        SortingConfig sorting = SortingConfig.reconstruct(SORTING);
+
+        SortedView view = SortedView.getSortedView(project, engine, sorting);
+        assertEquals(view.getMode(), Mode.RowBased);
+        assertEquals(view.size(), 50);
+        assertEquals(view.getRowCount(), 50);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(project.rows.get(view.get(i)).getCellValue(1), i);
+        }
+        assertEquals(view.findStartRowIndex(20), 20);
+        assertEquals(view.findStartRowIndex(60), 50);
+
+        // views are reused until the project changes, and are counted in its size
+        assertTrue(SortedView.estimateMemorySize(project) > 4 * 50);
+        assertSame(SortedView.getSortedView(project, engine, SortingConfig.reconstruct(SORTING)), view);
+        project.rows.remove(49);
+        assertNotSame(SortedView.getSortedView(project, engine, sorting), view);
+    }
+
+    @Test
+    public void testViewsOfNonDeterministicFacetsAreNotCached() throws IOException {
+        Project project = createProject(new String[] { "key", "n" },
+                new Serializable[][] {
+                        { "a", 1 },
+                        { "b", 0 },
+                });
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(new EngineConfig(List.of(new NonDeterministicFacetConfig()), Mode.RowBased));
+        SortingConfig sorting = SortingConfig.reconstruct(SORTING);
+
+        SortedView view = SortedView.getSortedView(project, engine, sorting);
+        assertEquals(view.size(), 2);
+        assertNotSame(SortedView.getSortedView(project, engine, sorting), view);
+    }
+
+    @Test
+    public void testRecordView() throws IOException {
+        Project project = createProject(new String[] { "key", "n" },
+                new Serializable[][] {
+                        { "a", 3 },
+                        { null, 0 },
+                        { "b", 1 },
+                        { "c", 2 },
+                        { null, 9 },
+                        { null, 9 },
+                });
+        Engine engine = new Engine(project);
+        engine.setMode(Mode.RecordBased);
+        SortingConfig sorting = SortingConfig.reconstruct(SORTING);
+
+        // records are sorted by their smallest value
+        List<Integer> expected = new ArrayList<>();
+        SortingRecordVisitor srv = new SortingRecordVisitor(new RecordVisitor() {
+
+            @Override
+            public void start(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public void end(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public boolean visit(Project project, Record record) {
+                expected.add(record.recordIndex);
+                return false;
+            }
+        });
+        srv.initializeFromConfig(project, sorting);
+        engine.getFilteredRecords().accept(project, srv);
+
+        SortedView view = SortedView.getSortedView(project, engine, sorting);
+        assertEquals(view.getMode(), Mode.RecordBased);
+        assertEquals(view.size(), 3);
+        assertEquals(view.getRowCount(), 6);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(view.get(i), (int) expected.get(i));
+        }
+        int startRowIndex = 0;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(view.getStartRowIndex(i), startRowIndex);
+            assertEquals(view.findStartRowIndex(startRowIndex), i);
+            Record record = project.recordModel.getRecord(view.get(i));
+            startRowIndex += record.toRowIndex - record.fromRowIndex;
+        }
+        assertEquals(view.findStartRowIndex(1), 1);
+    }
+
+    @Test
+    public void testPartialView() throws IOException {
+        Serializable[][] grid = new Serializable[10000][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "k" + i, (i * 37) % 500 };
+        }
+        Project project = createProject(new String[] { "key", "n" }, grid);
+        Engine engine = new Engine(project);
+        SortingConfig sorting = SortingConfig.reconstruct(SORTING);
+
+        SortedView partial = SortedView.getSortedView(project, engine, sorting, 20);
+        assertFalse(partial.isComplete());
+        assertEquals(partial.getDepth(), SortedView.MIN_DEPTH);
+        assertEquals(partial.size(), 10000);
+        assertEquals(partial.getRowCount(), 10000);
+        // pages within the depth of the partial view reuse it
+        assertSame(SortedView.getSortedView(project, engine, sorting, SortedView.MIN_DEPTH), partial);
+
+        SortedView complete = SortedView.getSortedView(project, engine, sorting, 5000);
+        assertTrue(complete.isComplete());
+        for (int i = 0; i < partial.getDepth(); i++) {
+            assertEquals(partial.get(i), complete.get(i));
+        }
+        assertSame(SortedView.getSortedView(project, engine, sorting, 20), complete);
+    }
+}
@@ -73,4 +73,8 @@ public class Coalesce implements Function {
         return "object or null";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -71,4 +71,9 @@ public class Jsonize implements Function {
     public String getReturns() {
         return "JSON literal value";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -88,4 +88,9 @@ public class Length implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
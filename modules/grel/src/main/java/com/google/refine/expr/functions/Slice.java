@@ -139,4 +139,9 @@ public class Slice implements Function {
     public String getReturns() {
         return "string, array, or array item (number, string, etc.)";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
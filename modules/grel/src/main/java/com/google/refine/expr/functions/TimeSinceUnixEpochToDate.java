@@ -62,4 +62,8 @@ public class TimeSinceUnixEpochToDate implements Function {
         return "date(OffsetDateTime)";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
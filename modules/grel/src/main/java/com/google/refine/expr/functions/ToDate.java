@@ -221,4 +221,8 @@ public class ToDate implements Function {
         }
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -89,4 +89,8 @@ public class ToNumber implements Function {
         return "number";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
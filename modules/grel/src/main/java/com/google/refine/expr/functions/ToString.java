@@ -89,4 +89,9 @@ public class ToString implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -86,4 +86,9 @@ public class Type implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
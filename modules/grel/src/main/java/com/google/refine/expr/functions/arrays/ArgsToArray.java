@@ -59,4 +59,9 @@ public class ArgsToArray implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
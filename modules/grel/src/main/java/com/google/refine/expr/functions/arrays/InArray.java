@@ -89,4 +89,9 @@ public class InArray implements Function {
     public String getReturns() {
         return "boolean";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -119,4 +119,9 @@ public class Join implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
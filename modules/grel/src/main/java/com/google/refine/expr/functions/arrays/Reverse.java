@@ -94,4 +94,9 @@ public class Reverse implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -101,4 +101,9 @@ public class Sort implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
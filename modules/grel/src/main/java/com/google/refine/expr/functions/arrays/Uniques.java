@@ -88,4 +88,9 @@ public class Uniques implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -99,4 +99,8 @@ public class Zip implements Function {
         return "array of arrays";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -69,4 +69,9 @@ public class Not implements Function {
     public String getReturns() {
         return "boolean";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -70,4 +70,9 @@ public class Or implements Function {
     public String getReturns() {
         return "boolean";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -155,4 +155,9 @@ public class DatePart implements Function {
     public String getReturns() {
         return "date";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
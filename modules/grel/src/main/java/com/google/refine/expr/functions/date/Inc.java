@@ -102,4 +102,9 @@ public class Inc implements Function {
     public String getReturns() {
         return "date";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
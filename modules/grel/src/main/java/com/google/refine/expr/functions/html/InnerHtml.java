@@ -79,4 +79,9 @@ public class InnerHtml implements Function {
     public String getReturns() {
         return "string innerHtml";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -70,4 +70,9 @@ public class ParseHtml implements Function {
     public String getReturns() {
         return "HTML object";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
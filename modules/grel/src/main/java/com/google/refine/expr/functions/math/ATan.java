@@ -65,4 +65,9 @@ public class ATan implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
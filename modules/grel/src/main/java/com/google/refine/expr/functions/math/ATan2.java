@@ -66,4 +66,9 @@ public class ATan2 implements Function {
     public String getReturns() {
         return "number theta";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -66,4 +66,8 @@ public class Floor implements Function {
         return "number";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -69,4 +69,9 @@ public class GreatestCommonDenominator implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
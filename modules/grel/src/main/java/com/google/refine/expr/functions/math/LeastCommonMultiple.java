@@ -82,4 +82,9 @@ public class LeastCommonMultiple implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -68,4 +68,9 @@ public class Chomp implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
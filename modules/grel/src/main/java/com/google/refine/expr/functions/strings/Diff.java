@@ -115,4 +115,9 @@ public class Diff implements Function {
     public String getReturns() {
         return "string for strings, number for dates";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -85,4 +85,9 @@ public class Find implements Function {
     public String getReturns() {
         return "array of strings";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
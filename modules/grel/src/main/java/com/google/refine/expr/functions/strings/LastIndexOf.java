@@ -70,4 +70,8 @@ public class LastIndexOf implements Function {
         return "number";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -79,4 +79,9 @@ public class LevenshteinDistance implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -90,4 +90,9 @@ public class Match implements Function {
     public String getReturns() {
         return "array of strings";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -92,4 +92,9 @@ public class NGram implements Function {
     public String getReturns() {
         return "array of strings";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -88,4 +88,9 @@ public class NGramFingerprint implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
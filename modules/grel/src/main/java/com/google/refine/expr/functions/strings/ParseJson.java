@@ -75,4 +75,9 @@ public class ParseJson implements Function {
     public String getReturns() {
         return "JSON object";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -85,4 +85,9 @@ public class ParseUri implements Function {
     public String getReturns() {
         return "JSON object";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
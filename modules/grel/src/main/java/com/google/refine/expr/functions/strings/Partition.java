@@ -112,4 +112,9 @@ public class Partition implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -73,4 +73,9 @@ public class ReplaceChars implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -82,4 +82,9 @@ public class ReplaceEach implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -71,4 +71,9 @@ public class SplitByCharType implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -85,4 +85,9 @@ public class SplitByLengths implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -79,4 +79,8 @@ public class ToTitlecase implements Function {
         return "string";
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
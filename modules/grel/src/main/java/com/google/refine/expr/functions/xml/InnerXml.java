@@ -89,4 +89,9 @@ public class InnerXml implements Function {
     public String getReturns() {
         return "string innerXml";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -78,4 +78,9 @@ public class OwnText implements Function {
     public String getReturns() {
         return "string ownText";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -82,4 +82,9 @@ public class Parent implements Function {
     public String getReturns() {
         return "HTML/XML Element";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
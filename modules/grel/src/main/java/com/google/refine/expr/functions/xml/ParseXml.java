@@ -83,4 +83,9 @@ public class ParseXml implements Function {
     public String getReturns() {
         return "XML object";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -78,4 +78,9 @@ public class SelectXml implements Function {
     public String getReturns() {
         return "HTML Elements";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
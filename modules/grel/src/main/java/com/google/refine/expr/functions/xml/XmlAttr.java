@@ -78,4 +78,9 @@ public class XmlAttr implements Function {
     public String getReturns() {
         return "string attribute value";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
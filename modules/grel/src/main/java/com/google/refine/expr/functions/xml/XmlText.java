@@ -80,4 +80,9 @@ public class XmlText implements Function {
     public String getReturns() {
         return "String text";
     }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
@@ -35,6 +35,7 @@ package com.google.refine.grel;
 
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -58,4 +59,15 @@ public interface Function {
 
     @JsonProperty("returns")
     public String getReturns();
+
+    /**
+     * Whether this function always returns the same value for the same arguments, regardless of the project it is
+     * evaluated in and of any other state.
+     *
+     * @return false by default, so that the results of functions from extensions are never cached
+     */
+    @JsonIgnore
+    default public boolean isDeterministic() {
+        return false;
+    }
 }
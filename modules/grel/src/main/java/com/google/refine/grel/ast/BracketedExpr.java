@@ -34,6 +34,11 @@ public class BracketedExpr extends GrelExpr {
         return inner.getColumnDependencies(baseColumn);
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return inner.isDeterministic();
+    }
+
     @Override
     public String toString() {
         return "(" + inner + ")";
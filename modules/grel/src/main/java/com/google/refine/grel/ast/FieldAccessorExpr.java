@@ -94,6 +94,11 @@ public class FieldAccessorExpr extends GrelExpr {
         }
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return _inner.isDeterministic();
+    }
+
     @Override
     public String toString() {
         return _inner.toString() + "." + _fieldName;
@@ -118,7 +118,10 @@ public class FunctionCallExpr extends GrelExpr {
             String columnName = ((LiteralExpr) _args[1])._value.toString();
             return Optional.of(Collections.singleton(columnName));
         }
-        // TODO distinguish functions which are "pure" and those which access external data, like cross or facetCount
+        // functions which are not pure, like cross or facetCount, may read any other data
+        if (!_function.isDeterministic()) {
+            return Optional.empty();
+        }
         Set<String> dependencies = new HashSet<>();
         for (Evaluable ev : _args) {
             Optional<Set<String>> deps = ev.getColumnDependencies(baseColumn);
@@ -130,6 +133,19 @@ public class FunctionCallExpr extends GrelExpr {
         return Optional.of(dependencies);
     }
 
+    @Override
+    public boolean isDeterministic() {
+        if (!_function.isDeterministic()) {
+            return false;
+        }
+        for (Evaluable ev : _args) {
+            if (!ev.isDeterministic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -62,6 +62,11 @@ public class LiteralExpr extends GrelExpr {
         return Optional.of(Collections.emptySet());
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return _value instanceof String ? new TextNode((String) _value).toString() : _value.toString();
@@ -219,6 +219,16 @@ public class OperatorCallExpr extends GrelExpr {
         return Optional.of(dependencies);
     }
 
+    @Override
+    public boolean isDeterministic() {
+        for (Evaluable ev : _args) {
+            if (!ev.isDeterministic()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -68,6 +68,11 @@ public class VariableExpr extends GrelExpr {
         return Optional.of(Collections.emptySet());
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return _name;
@@ -39,6 +39,9 @@ import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.HasFieldsListImpl;
 import com.google.refine.expr.WrappedCell;
@@ -47,6 +50,7 @@ import com.google.refine.grel.GrelTestBase;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
 
 /**
  * Test cases for cross function.
@@ -108,6 +112,49 @@ public class CrossTests extends GrelTestBase {
         bindings.put("columnName", "recipient");
     }
 
+    @Test
+    public void crossFunctionFacetSeesChangesToOtherProject() throws Exception {
+        // rows of gifts whose recipient has two addresses
+        EngineConfig config = EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[{\"type\":\"list\","
+                + "\"name\":\"addresses\",\"columnName\":\"recipient\","
+                + "\"expression\":\"grel:cross(value, 'My Address Book', 'friend').length().toString()\","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"2\",\"l\":\"2\"}}],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}]}");
+        Engine engine = new Engine(projectGift);
+        engine.initializeFromConfig(config);
+        assertEquals(countFilteredRows(engine), 1);
+
+        // anne moves in with mary, which does not change the history of the gifts project
+        int friendCellIndex = projectAddress.columnModel.getColumnByName("friend").getCellIndex();
+        new CellChange(3, friendCellIndex, projectAddress.rows.get(3).getCell(friendCellIndex), new Cell("mary", null))
+                .apply(projectAddress);
+
+        engine = new Engine(projectGift);
+        engine.initializeFromConfig(config);
+        assertEquals(countFilteredRows(engine), 2);
+    }
+
+    private int countFilteredRows(Engine engine) {
+        int[] count = { 0 };
+        engine.getAllFilteredRows().accept(projectGift, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                count[0]++;
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return count[0];
+    }
+
     @Test
     public void crossFunctionMissingProject() throws Exception {
         String nonExistentProject = "NOPROJECT";
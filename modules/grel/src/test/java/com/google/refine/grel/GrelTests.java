@@ -248,8 +248,9 @@ public class GrelTests extends GrelTestBase {
                 { "cells", null },
                 // this could be analyzed too, but we will never reach completeness anyway!
                 { "get(cells, 'foo'+'bar')", null },
-                // TODO this should fail to extract any dependencies because facetCount is not a pure function
-                // { "facetCount(value, 'value', 'col')", null },
+                // functions which are not pure may read other rows or projects
+                { "facetCount(value, 'value', 'col')", null },
+                { "cross(value, 'project', 'col')", null },
         };
         for (String[] test : tests) {
             Evaluable eval = MetaParser.parse("grel:" + test[0]);
@@ -261,6 +262,32 @@ public class GrelTests extends GrelTestBase {
         }
     }
 
+    @Test
+    public void testIsDeterministic() throws ParsingException {
+        // integration test for the detection of expressions which cannot be cached
+        String deterministic[] = {
+                "value",
+                "value + ' ' + cells.foo.value",
+                "forEach(value.split(','), v, v.trim())",
+                "[value, 1][0]",
+        };
+        for (String source : deterministic) {
+            Assert.assertTrue(MetaParser.parse("grel:" + source).isDeterministic(), "for expression: " + source);
+        }
+        String nonDeterministic[] = {
+                "now()",
+                "random()",
+                "value + (random() > 0.5)",
+                "(now() - value)",
+                "forEach(value.split(','), v, cross(v, 'project', 'col'))",
+                "cross(cell, 'project', 'col').length()",
+                "facetCount(value, 'value', 'col')",
+        };
+        for (String source : nonDeterministic) {
+            Assert.assertFalse(MetaParser.parse("grel:" + source).isDeterministic(), "for expression: " + source);
+        }
+    }
+
     @Test
     public void testGetSource() throws ParsingException {
         // integration test for getSource()
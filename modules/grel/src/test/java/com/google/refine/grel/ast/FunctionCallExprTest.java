@@ -21,6 +21,7 @@ public class FunctionCallExprTest extends ExprTestBase {
     @BeforeTest
     public void setUpFunction() {
         function = mock(Function.class);
+        when(function.isDeterministic()).thenReturn(true);
     }
 
     @Test
@@ -59,4 +60,11 @@ public class FunctionCallExprTest extends ExprTestBase {
         Evaluable ev = new FunctionCallExpr(new Evaluable[] { currentColumn, unanalyzable }, function, "fun", false);
         assertEquals(ev.getColumnDependencies(baseColumn), Optional.empty());
     }
+
+    @Test
+    public void testImpureFunction() {
+        Function impure = mock(Function.class);
+        Evaluable ev = new FunctionCallExpr(new Evaluable[] { constant, currentColumn }, impure, "fun", false);
+        assertEquals(ev.getColumnDependencies(baseColumn), Optional.empty());
+    }
 }